@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import jolie.js.JsUtils;
+import jolie.runtime.Value;
+
+/**
+ * Compares two JMH result files written with {@code -rf json}, printing how each benchmark changed
+ * from the baseline. A change is reported as a regression or an improvement only if it is larger
+ * than the errors of both measurements together.
+ *
+ * Usage: {@code java -cp benchmarks.jar jolie.benchmarks.CompareResults baseline.json current.json}
+ */
+public final class CompareResults {
+	private CompareResults() {}
+
+	private static class Result {
+		private final String mode;
+		private final String unit;
+		private final double score;
+		private final double error;
+
+		private Result( Value result ) {
+			final Value metric = result.getFirstChild( "primaryMetric" );
+			mode = result.getFirstChild( "mode" ).strValue();
+			unit = metric.getFirstChild( "scoreUnit" ).strValue();
+			score = metric.getFirstChild( "score" ).doubleValue();
+			final double e = metric.getFirstChild( "scoreError" ).doubleValue();
+			// JMH reports NaN when there are too few iterations to estimate the error
+			error = Double.isNaN( e ) ? 0 : e;
+		}
+	}
+
+	private static Map< String, Result > read( Path file )
+		throws IOException {
+		final Value results = Value.create();
+		try( Reader reader = Files.newBufferedReader( file ) ) {
+			JsUtils.parseJsonIntoValue( reader, results, false );
+		}
+		final Map< String, Result > map = new LinkedHashMap<>();
+		for( Value result : results.getChildren( JsUtils.JSONARRAY_KEY ) ) {
+			map.put( name( result ), new Result( result ) );
+		}
+		return map;
+	}
+
+	private static String name( Value result ) {
+		final String benchmark = result.getFirstChild( "benchmark" ).strValue();
+		final Value params = result.getFirstChild( "params" );
+		if( !params.hasChildren() ) {
+			return benchmark;
+		}
+		return benchmark + params.children().entrySet().stream()
+			.map( e -> e.getKey() + "=" + e.getValue().first().strValue() )
+			.sorted()
+			.collect( Collectors.joining( ", ", " (", ")" ) );
+	}
+
+	public static void main( String[] args )
+		throws IOException {
+		if( args.length != 2 ) {
+			System.err.println( "Usage: CompareResults baseline.json current.json" );
+			System.exit( 1 );
+		}
+		final Map< String, Result > baseline = read( Path.of( args[ 0 ] ) );
+		final Map< String, Result > current = read( Path.of( args[ 1 ] ) );
+
+		for( Entry< String, Result > entry : current.entrySet() ) {
+			final Result now = entry.getValue();
+			final Result before = baseline.get( entry.getKey() );
+			if( before == null ) {
+				System.out.printf( "%s: %.3f %s (new)%n", entry.getKey(), now.score, now.unit );
+				continue;
+			}
+			if( !before.unit.equals( now.unit ) || !before.mode.equals( now.mode ) ) {
+				System.out.printf( "%s: not comparable (%s %s, was %s %s)%n", entry.getKey(), now.mode, now.unit,
+					before.mode, before.unit );
+				continue;
+			}
+			final double change = (now.score - before.score) / before.score * 100;
+			String verdict = "unchanged";
+			if( Math.abs( now.score - before.score ) > now.error + before.error ) {
+				// Throughput grows as things get faster, the other modes measure time
+				final boolean faster = "thrpt".equals( now.mode ) ? change > 0 : change < 0;
+				verdict = faster ? "improvement" : "regression";
+			}
+			System.out.printf( "%s: %.3f -> %.3f %s (%+.1f%%, %s)%n", entry.getKey(), before.score, now.score,
+				now.unit, change, verdict );
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.runtime.Value;
+
+/**
+ * Routing messages to one among many running sessions through their correlation sets, with each
+ * correlation algorithms. Sessions run on virtual threads, so that many can wait at once.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgs = { "-Xmx4g" } )
+public class CorrelationBenchmark {
+	@Param( { "1000", "10000", "100000" } )
+	private int sessions;
+
+	// The simple algorithm scans every session, so it is left out by default: compare it on fewer
+	// sessions with -p algorithm=simple,hash -p sessions=1000,10000
+	@Param( { "hash" } )
+	private String algorithm;
+
+	private LocalService service;
+	private Value[] pings;
+
+	@Setup
+	public void setup()
+		throws Exception {
+		service = LocalService.start( "sessions.ol", "--virtualThreads", "--correlationAlgorithm", algorithm );
+		pings = new Value[ sessions ];
+		for( int i = 0; i < sessions; i++ ) {
+			final Value request = Value.create();
+			request.getFirstChild( "sid" ).setValue( "session-" + i );
+			service.call( "start", request );
+			pings[ i ] = request;
+		}
+	}
+
+	@TearDown
+	public void tearDown()
+		throws Exception {
+		service.close();
+	}
+
+	@Benchmark
+	public Value ping()
+		throws Exception {
+		return service.call( "ping", pings[ ThreadLocalRandom.current().nextInt( sessions ) ] );
+	}
+}
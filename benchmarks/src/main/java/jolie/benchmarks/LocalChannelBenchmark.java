@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.runtime.Value;
+
+/**
+ * Request-response throughput over local channels: directly into a service, and from that service
+ * to a service it embeds. Run with {@code -t} to vary the number of concurrent callers.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@Threads( 4 )
+public class LocalChannelBenchmark {
+	@Param( { "false", "true" } )
+	private boolean virtualThreads;
+
+	@Param( { "1", "100" } )
+	private int items;
+
+	private LocalService service;
+	private Value order;
+
+	@Setup
+	public void setup()
+		throws Exception {
+		service = virtualThreads ? LocalService.start( "echo.ol", "--virtualThreads" )
+			: LocalService.start( "echo.ol" );
+		order = Messages.order( items );
+	}
+
+	@TearDown
+	public void tearDown()
+		throws Exception {
+		service.close();
+	}
+
+	@Benchmark
+	public Value direct()
+		throws Exception {
+		return service.call( "echo", order );
+	}
+
+	@Benchmark
+	public Value embedded()
+		throws Exception {
+		return service.call( "forward", order );
+	}
+}
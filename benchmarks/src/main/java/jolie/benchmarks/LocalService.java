@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import jolie.Interpreter;
+import jolie.cli.CommandLineException;
+import jolie.cli.CommandLineParser;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+
+/**
+ * A Jolie program bundled with the benchmarks, run by an interpreter in the current JVM and called
+ * through its local input port.
+ */
+public final class LocalService implements AutoCloseable {
+	private final Interpreter interpreter;
+	private final Path program;
+
+	private LocalService( Interpreter interpreter, Path program ) {
+		this.interpreter = interpreter;
+		this.program = program;
+	}
+
+	/**
+	 * Starts the service Main of the program with the given name among the resources of this package.
+	 *
+	 * @param name the file name of the program, e.g. {@code echo.ol}
+	 * @param options command line options for the interpreter, e.g. {@code --virtualThreads}
+	 */
+	public static LocalService start( String name, String... options )
+		throws IOException, ExecutionException, InterruptedException {
+		final Path program = Files.createTempFile( "jolie-benchmark-", "-" + name );
+		try( InputStream is = LocalService.class.getResourceAsStream( name ) ) {
+			if( is == null ) {
+				throw new IOException( "Benchmark program not found: " + name );
+			}
+			Files.copy( is, program, StandardCopyOption.REPLACE_EXISTING );
+		}
+
+		final List< String > args = new ArrayList<>( Arrays.asList( options ) );
+		args.add( "-s" );
+		args.add( "Main" );
+		args.add( program.toString() );
+		final Interpreter interpreter;
+		try( CommandLineParser parser = new CommandLineParser( args.toArray( new String[ 0 ] ),
+			LocalService.class.getClassLoader(), false ) ) {
+			interpreter = new Interpreter( parser.getInterpreterConfiguration(), Optional.empty(), Optional.empty() );
+		} catch( CommandLineException e ) {
+			throw new IOException( e );
+		}
+
+		final Future< Exception > started = interpreter.start();
+		final Exception e = started.get();
+		if( e != null ) {
+			throw new ExecutionException( e );
+		}
+		return new LocalService( interpreter, program );
+	}
+
+	public Interpreter interpreter() {
+		return interpreter;
+	}
+
+	/**
+	 * Calls a request-response operation of the program and waits for its response.
+	 */
+	public Value call( String operationName, Value request )
+		throws IOException, FaultException, ExecutionException, InterruptedException {
+		final CommChannel channel = interpreter.commCore().getLocalCommChannel();
+		final CommMessage message = CommMessage.createRequest( operationName, "/", request );
+		channel.send( message );
+		final CommMessage response = channel.recvResponseFor( message ).get();
+		if( response.isFault() ) {
+			throw response.fault();
+		}
+		return response.value();
+	}
+
+	/**
+	 * Runs the given task in a thread of the interpreter, for code that requires one, and waits for it
+	 * to complete.
+	 */
+	public void run( Runnable task )
+		throws ExecutionException, InterruptedException {
+		CompletableFuture.runAsync( task, interpreter::execute ).get();
+	}
+
+	@Override
+	public void close()
+		throws IOException {
+		interpreter.exit();
+		Files.deleteIfExists( program );
+	}
+}
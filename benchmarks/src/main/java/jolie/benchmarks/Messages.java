@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import jolie.runtime.Value;
+
+/**
+ * Message values shared by the benchmarks.
+ */
+public final class Messages {
+	private Messages() {}
+
+	/**
+	 * Returns an order with a customer, its address and the given number of items.
+	 */
+	public static Value order( int items ) {
+		return order( items, false );
+	}
+
+	/**
+	 * Returns an order like {@link #order(int)}, using the compact representation if compact is set.
+	 */
+	public static Value order( int items, boolean compact ) {
+		final Value order = compact ? Value.createCompact() : Value.create();
+		order.getFirstChild( "id" ).setValue( "order-1" );
+		final Value customer = order.getFirstChild( "customer" );
+		customer.getFirstChild( "name" ).setValue( "Jane" );
+		customer.getFirstChild( "email" ).setValue( "jane@example.org" );
+		final Value address = customer.getFirstChild( "address" );
+		address.getFirstChild( "street" ).setValue( "Campusvej 55" );
+		address.getFirstChild( "city" ).setValue( "Odense" );
+		address.getFirstChild( "zip" ).setValue( 5230 );
+		for( int i = 0; i < items; i++ ) {
+			final Value item = order.getChildren( "items" ).get( i );
+			item.getFirstChild( "sku" ).setValue( "sku-" + i );
+			item.getFirstChild( "quantity" ).setValue( i + 1 );
+			item.getFirstChild( "price" ).setValue( 9.99 );
+		}
+		return order;
+	}
+}
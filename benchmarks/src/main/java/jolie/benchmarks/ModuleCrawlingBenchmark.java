@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import jolie.lang.parse.module.ModuleParsingConfiguration;
+import jolie.lang.parse.module.ModuleSource;
+import jolie.lang.parse.module.Modules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a program that imports the given number of modules, and resolving its symbols. Every
+ * module imports types from two others, so that the imports form a tree, and from its neighbour, so
+ * that most modules are imported more than once. The global cache is not used: every invocation
+ * parses all the modules.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ModuleCrawlingBenchmark {
+	private static final int TYPES = 20;
+
+	@Param( { "50", "400" } )
+	private int modules;
+
+	private Path directory;
+	private ModuleParsingConfiguration configuration;
+	private ModuleSource main;
+
+	@Setup
+	public void setup()
+		throws IOException {
+		directory = Files.createTempDirectory( "jolie-modules-" );
+		for( int i = 0; i < modules; i++ ) {
+			Files.writeString( directory.resolve( "m" + i + ".ol" ), module( i, modules ), StandardCharsets.UTF_8 );
+		}
+		final Path source = directory.resolve( "main.ol" );
+		Files.writeString( source,
+			"from .m0 import M0Interface\n\n"
+				+ "service Main {\n"
+				+ "\tinputPort MainInput {\n\t\tlocation: \"local\"\n\t\tinterfaces: M0Interface\n\t}\n\n"
+				+ "\tmain {\n\t\tnullProcess\n\t}\n"
+				+ "}\n",
+			StandardCharsets.UTF_8 );
+		configuration = new ModuleParsingConfiguration( StandardCharsets.UTF_8.name(), new String[ 0 ],
+			new String[ 0 ], ModuleCrawlingBenchmark.class.getClassLoader(), Map.of(), false, false );
+		main = ModuleSource.create( source.toUri() );
+	}
+
+	@TearDown
+	public void tearDown()
+		throws IOException {
+		try( Stream< Path > files = Files.walk( directory ) ) {
+			for( Path file : (Iterable< Path >) files.sorted( Comparator.reverseOrder() )::iterator ) {
+				Files.delete( file );
+			}
+		}
+	}
+
+	@Benchmark
+	public Modules.ModuleParsedResult parse()
+		throws Exception {
+		return Modules.parseModule( configuration, main );
+	}
+
+	// Types, an interface using them and a service implementing it. The first type of the module
+	// refers to the first types of the modules it imports.
+	private static String module( int i, int modules ) {
+		final StringBuilder b = new StringBuilder();
+		final StringBuilder fields = new StringBuilder();
+		for( int imported : IntStream.of( 2 * i + 1, 2 * i + 2, i + 1 ).distinct().toArray() ) {
+			if( imported < modules ) {
+				b.append( "from .m" ).append( imported ).append( " import T" ).append( imported ).append( "_0\n" );
+				fields.append( "\tm" ).append( imported ).append( "?: T" ).append( imported ).append( "_0\n" );
+			}
+		}
+		for( int t = 0; t < TYPES; t++ ) {
+			b.append( "\ntype T" ).append( i ).append( '_' ).append( t ).append( " {\n" )
+				.append( "\tid: string( length( [1, 64] ) )\n" )
+				.append( "\tquantity: int( ranges( [0, 1000] ) )\n" )
+				.append( "\tline* {\n\t\tproduct: string\n\t\tprice: double\n\t}\n" )
+				.append( t == 0 ? fields : "" )
+				.append( "}\n" );
+		}
+		b.append( "\ninterface M" ).append( i ).append( "Interface {\nRequestResponse:\n" );
+		for( int t = 0; t < TYPES; t++ ) {
+			b.append( "\top" ).append( i ).append( '_' ).append( t )
+				.append( "( T" ).append( i ).append( '_' ).append( t ).append( " )( T" ).append( i ).append( "_0 )" )
+				.append( t < TYPES - 1 ? ",\n" : "\n" );
+		}
+		b.append( "}\n\nservice M" ).append( i ).append( " {\n" )
+			.append( "\tinputPort Input {\n\t\tlocation: \"local\"\n\t\tinterfaces: M" ).append( i )
+			.append( "Interface\n\t}\n\n\tmain {\n" );
+		for( int t = 0; t < TYPES; t++ ) {
+			b.append( "\t\t[ op" ).append( i ).append( '_' ).append( t ).append( "( request )( response ) {\n" )
+				.append( "\t\t\tresponse.id = request.id\n" )
+				.append( "\t\t\tresponse.quantity = request.quantity * 2\n" )
+				.append( "\t\t} ]\n" );
+		}
+		b.append( "\t}\n}\n" );
+		return b.toString();
+	}
+}
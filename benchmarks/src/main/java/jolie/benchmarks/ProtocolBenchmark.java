@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import jolie.js.JsUtils;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.HttpProtocol;
+import jolie.net.SodepProtocol;
+import jolie.net.protocols.CommProtocol;
+import jolie.runtime.Value;
+import jolie.runtime.VariablePathBuilder;
+
+/**
+ * Request-response round trips through the encoders and decoders of the protocols: the client
+ * encodes a request, the server decodes it and encodes the response, and the client decodes the
+ * response.
+ *
+ * The protocols expect to run in a thread of an interpreter, so each invocation runs a batch of
+ * round trips in one.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ProtocolBenchmark {
+	private static final int BATCH = 100;
+
+	@Param( { "sodep", "http", "json" } )
+	private String protocol;
+
+	@Param( { "1", "100" } )
+	private int items;
+
+	private LocalService service;
+	private CommProtocol client;
+	private CommProtocol server;
+	private Value order;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private final StringBuilder json = new StringBuilder();
+
+	@Setup
+	public void setup()
+		throws Exception {
+		service = LocalService.start( "echo.ol" );
+		order = Messages.order( items );
+		final Value configuration = Value.create();
+		switch( protocol ) {
+		case "sodep":
+			client = new SodepProtocol( new VariablePathBuilder( false ).toClosedVariablePath( configuration ) );
+			server = new SodepProtocol( new VariablePathBuilder( false ).toClosedVariablePath( configuration ) );
+			break;
+		case "http":
+			configuration.getFirstChild( "format" ).setValue( "json" );
+			final URI uri = new URI( "socket://localhost:8000/" );
+			client = new HttpProtocol( new VariablePathBuilder( false ).toClosedVariablePath( configuration ), uri,
+				false, TransformerFactory.newInstance(), DocumentBuilderFactory.newInstance().newDocumentBuilder() );
+			server = new HttpProtocol( new VariablePathBuilder( false ).toClosedVariablePath( configuration ), uri,
+				true, TransformerFactory.newInstance(), DocumentBuilderFactory.newInstance().newDocumentBuilder() );
+			break;
+		case "json":
+			return;
+		default:
+			throw new IllegalArgumentException( protocol );
+		}
+
+		// The ports of echo.ol give the protocols the types of the messages they encode
+		final CommChannel clientChannel = service.interpreter().commCore().getLocalCommChannel();
+		clientChannel.setParentOutputPort( service.interpreter().getOutputPort( "echoService" ) );
+		client.setChannel( clientChannel );
+		final CommChannel serverChannel = service.interpreter().commCore().getLocalCommChannel();
+		serverChannel.setParentInputPort(
+			service.interpreter().commCore().getListenerByInputPortName( "Input" ).inputPort() );
+		server.setChannel( serverChannel );
+	}
+
+	@TearDown
+	public void tearDown()
+		throws IOException {
+		service.close();
+	}
+
+	private Value roundTrip()
+		throws IOException {
+		if( client == null ) {
+			json.setLength( 0 );
+			JsUtils.valueToJsonString( order, true, null, json );
+			final Value request = Value.create();
+			JsUtils.parseJsonIntoValue( new StringReader( json.toString() ), request, false );
+			json.setLength( 0 );
+			JsUtils.valueToJsonString( request, true, null, json );
+			final Value response = Value.create();
+			JsUtils.parseJsonIntoValue( new StringReader( json.toString() ), response, false );
+			return response;
+		}
+
+		buffer.reset();
+		client.send( buffer, CommMessage.createRequest( "echo", "/", order ), null );
+		final CommMessage request = server.recv( new ByteArrayInputStream( buffer.toByteArray() ), null );
+		buffer.reset();
+		server.send( buffer, CommMessage.createResponse( request, request.value() ), null );
+		return client.recv( new ByteArrayInputStream( buffer.toByteArray() ), null ).value();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation( BATCH )
+	public void roundTrips( Blackhole blackhole )
+		throws ExecutionException, InterruptedException {
+		service.run( () -> {
+			try {
+				for( int i = 0; i < BATCH; i++ ) {
+					blackhole.consume( roundTrip() );
+				}
+			} catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+		} );
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import jolie.Interpreter;
+import jolie.cli.CommandLineParser;
+import jolie.lang.parse.SemanticVerifier;
+import jolie.lang.parse.module.ModuleParsingConfiguration;
+import jolie.lang.parse.module.ModuleSource;
+import jolie.lang.parse.module.Modules;
+import jolie.lang.parse.util.ProgramImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Running a short program with the given number of types, operations and procedures, loaded from
+ * its source, from a serialized AST (the .olc files of older joliec versions, which are still
+ * verified) and from a program image. Measures the work of the interpreter in a warm JVM: cold
+ * starts also include class loading and JIT compilation, which are the same for the three.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class StartupBenchmark {
+	@Param( { "source", "serialized", "image" } )
+	private String format;
+
+	@Param( { "20", "200" } )
+	private int operations;
+
+	private Path directory;
+	private String[] args;
+
+	@Setup
+	public void setup()
+		throws Exception {
+		directory = Files.createTempDirectory( "jolie-startup-" );
+		final Path source = directory.resolve( "main.ol" );
+		Files.writeString( source, program( operations ), StandardCharsets.UTF_8 );
+
+		Path program = source;
+		if( !format.equals( "source" ) ) {
+			program = directory.resolve( "main.olc" );
+			final ModuleParsingConfiguration configuration = new ModuleParsingConfiguration(
+				StandardCharsets.UTF_8.name(), new String[ 0 ], new String[ 0 ],
+				StartupBenchmark.class.getClassLoader(), Map.of(), false, false );
+			final Modules.ModuleParsedResult parsed =
+				Modules.parseModule( configuration, ModuleSource.create( source.toUri() ) );
+			try( OutputStream os = new BufferedOutputStream( Files.newOutputStream( program ) ) ) {
+				if( format.equals( "image" ) ) {
+					final SemanticVerifier verifier = new SemanticVerifier( parsed.mainProgram(),
+						parsed.symbolTables(), new SemanticVerifier.Configuration( "Main" ) );
+					verifier.validate();
+					new ProgramImage( parsed.mainProgram(), verifier, "Main", false ).writeTo( os );
+				} else {
+					final ObjectOutputStream oos = new ObjectOutputStream( os );
+					oos.writeObject( parsed.mainProgram() );
+					oos.flush();
+				}
+			}
+		}
+		args = new String[] { "-s", "Main", program.toString() };
+	}
+
+	@TearDown
+	public void tearDown()
+		throws IOException {
+		try( Stream< Path > files = Files.walk( directory ) ) {
+			for( Path file : (Iterable< Path >) files.sorted( Comparator.reverseOrder() )::iterator ) {
+				Files.delete( file );
+			}
+		}
+	}
+
+	@Benchmark
+	public void run()
+		throws Exception {
+		final Interpreter interpreter;
+		try( CommandLineParser parser =
+			new CommandLineParser( args, StartupBenchmark.class.getClassLoader(), false ) ) {
+			interpreter = new Interpreter( parser.getInterpreterConfiguration(), Optional.empty(), Optional.empty() );
+		}
+		interpreter.run();
+	}
+
+	// A service with a type, a request-response operation and a procedure for each operation. The
+	// main procedure calls every procedure once and terminates.
+	private static String program( int operations ) {
+		final StringBuilder b = new StringBuilder();
+		for( int i = 0; i < operations; i++ ) {
+			b.append( "type Request" ).append( i ).append( " {\n" )
+				.append( "\tid: string( length( [1, 64] ) )\n" )
+				.append( "\tquantity: int( ranges( [0, 1000] ) )\n" )
+				.append( "\tnotes*: string\n" )
+				.append( "\tline* {\n\t\tproduct: string\n\t\tprice: double\n\t}\n" )
+				.append( "}\n\n" );
+		}
+		b.append( "interface MainInterface {\nRequestResponse:\n" );
+		for( int i = 0; i < operations; i++ ) {
+			b.append( "\top" ).append( i ).append( "( Request" ).append( i ).append( " )( undefined )" )
+				.append( i < operations - 1 ? ",\n" : "\n" );
+		}
+		b.append( "}\n\nservice Main {\n" )
+			.append( "\tinputPort MainInput {\n\t\tlocation: \"local\"\n\t\tinterfaces: MainInterface\n\t}\n\n" );
+		for( int i = 0; i < operations; i++ ) {
+			b.append( "\tdefine total" ).append( i ).append( " {\n" )
+				.append( "\t\ttotal = 0.0\n" )
+				.append( "\t\tfor( l in request.line ) {\n\t\t\ttotal += l.price * request.quantity\n\t\t}\n" )
+				.append( "\t\tif( #request.notes > 0 ) {\n\t\t\tnote = request.notes[0]\n\t\t}\n" )
+				.append( "\t}\n\n" );
+		}
+		b.append( "\tmain {\n\t\trequest << { quantity = 2, line.price = 1.5 }\n" );
+		for( int i = 0; i < operations; i++ ) {
+			b.append( "\t\ttotal" ).append( i ).append( "\n" );
+		}
+		b.append( "\t}\n}\n" );
+		return b.toString();
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.benchmarks;
+
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.net.http.UriTemplateRouter;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.uri.UriUtils;
+
+/**
+ * Routing requests to the operations of a REST interface by their URI templates, with the compiled
+ * router of the http protocol and with the loop that matched every template in turn.
+ *
+ * The interface has five operations for each resource (list, create, read, update, delete), and the
+ * requests cycle through all of them.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class UriTemplateRouterBenchmark {
+	@Param( { "10", "50", "150", "500" } )
+	private int operations;
+
+	private Value osc;
+	private UriTemplateRouter router;
+	private String[] methods;
+	private String[] paths;
+	private int next = 0;
+
+	private void addOperation( String name, String method, String template ) {
+		final Value opConfig = osc.getFirstChild( name );
+		opConfig.getFirstChild( "template" ).setValue( template );
+		opConfig.getFirstChild( "method" ).setValue( method );
+	}
+
+	@Setup
+	public void setup() {
+		osc = Value.create();
+		final int resources = operations / 5;
+		methods = new String[ operations ];
+		paths = new String[ operations ];
+		for( int i = 0; i < resources; i++ ) {
+			final String resource = "/api/v1/resource" + i;
+			addOperation( "list" + i, "GET", resource );
+			addOperation( "create" + i, "POST", resource );
+			addOperation( "read" + i, "GET", resource + "/{id}" );
+			addOperation( "update" + i, "PUT", resource + "/{id}" );
+			addOperation( "delete" + i, "DELETE", resource + "/{id}" );
+			final String[] requestMethods = { "GET", "POST", "GET", "PUT", "DELETE" };
+			for( int j = 0; j < 5; j++ ) {
+				methods[ i * 5 + j ] = requestMethods[ j ];
+				paths[ i * 5 + j ] = j < 2 ? resource : resource + "/" + (1000 + i);
+			}
+		}
+		router = UriTemplateRouter.compile( osc );
+	}
+
+	@Benchmark
+	public String compiled() {
+		final int i = next++ % operations;
+		return router.route( methods[ i ], paths[ i ], Value.create() ).operationName();
+	}
+
+	// The routing of the http protocol before the router
+	@Benchmark
+	public String interpreted() {
+		final int i = next++ % operations;
+		final Value value = Value.create();
+		for( Entry< String, ValueVector > entry : osc.children().entrySet() ) {
+			final Value opConfig = entry.getValue().get( 0 );
+			final Value result = UriUtils.match( opConfig.getFirstChild( "template" ).strValue(), paths[ i ] );
+			if( result.boolValue() && methods[ i ].equalsIgnoreCase( opConfig.getFirstChild( "method" ).strValue() ) ) {
+				for( Entry< String, ValueVector > variable : result.children().entrySet() ) {
+					value.getFirstChild( variable.getKey() ).setValue( variable.getValue().get( 0 ).strValue() );
+				}
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+}
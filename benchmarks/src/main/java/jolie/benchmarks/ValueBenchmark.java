@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.runtime.Value;
+
+/**
+ * Building and copying message values, in both the standard and the compact representation.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ValueBenchmark {
+	@Param( { "false", "true" } )
+	private boolean compact;
+
+	@Param( { "10", "100" } )
+	private int items;
+
+	private Value order;
+
+	@Setup
+	public void setup() {
+		order = Messages.order( items, compact );
+	}
+
+	@Benchmark
+	public Value construct() {
+		return Messages.order( items, compact );
+	}
+
+	@Benchmark
+	public Value deepCopy() {
+		final Value copy = compact ? Value.createCompact() : Value.create();
+		copy.deepCopy( order );
+		return copy;
+	}
+
+	@Benchmark
+	public Value lazyClone() {
+		return Value.createLazyClone( order );
+	}
+
+	// A lazy clone that is then read throughout, as a session reading its whole init state would
+	@Benchmark
+	public int lazyCloneAndRead() {
+		final Value clone = Value.createLazyClone( order );
+		int quantity = 0;
+		for( Value item : clone.getChildren( "items" ) ) {
+			quantity += item.getFirstChild( "quantity" ).intValue();
+		}
+		return quantity;
+	}
+}
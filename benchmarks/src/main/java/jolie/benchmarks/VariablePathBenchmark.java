@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.runtime.ClosedVariablePath;
+import jolie.runtime.Value;
+import jolie.runtime.VariablePath;
+import jolie.runtime.VariablePathBuilder;
+import jolie.runtime.expression.Expression;
+import jolie.util.Pair;
+
+/**
+ * Resolving variable paths against the variables of a session.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class VariablePathBenchmark {
+	private Value root;
+	// request.customer.address.zip
+	private VariablePath deepPath;
+	// request.items[50].price
+	private VariablePath indexedPath;
+	// request.items[i].price
+	private VariablePath dynamicPath;
+	// total
+	private VariablePath rootPath;
+
+	@Setup
+	@SuppressWarnings( "unchecked" )
+	public void setup() {
+		root = new jolie.State().root();
+		root.getChildren( "request" ).set( 0, Messages.order( 100 ) );
+		root.getFirstChild( "i" ).setValue( 50 );
+
+		deepPath = new VariablePathBuilder( false )
+			.add( "request", 0 ).add( "customer", 0 ).add( "address", 0 ).add( "zip", 0 )
+			.toClosedVariablePath( root );
+		indexedPath = new VariablePathBuilder( false )
+			.add( "request", 0 ).add( "items", 50 ).add( "price", 0 )
+			.toClosedVariablePath( root );
+		final Expression i = new VariablePathBuilder( false ).add( "i", 0 ).toClosedVariablePath( root );
+		dynamicPath = new ClosedVariablePath( new Pair[] {
+			new Pair<>( Value.create( "request" ), Value.create( 0 ) ),
+			new Pair<>( Value.create( "items" ), i ),
+			new Pair<>( Value.create( "price" ), Value.create( 0 ) )
+		}, root );
+		rootPath = new VariablePathBuilder( false ).add( "total", 0 ).toClosedVariablePath( root );
+	}
+
+	@Benchmark
+	public Value deep() {
+		return deepPath.getValue();
+	}
+
+	@Benchmark
+	public Value indexed() {
+		return indexedPath.getValue();
+	}
+
+	@Benchmark
+	public Value dynamicIndex() {
+		return dynamicPath.getValue();
+	}
+
+	@Benchmark
+	public Value orNull() {
+		return indexedPath.getValueOrNull();
+	}
+
+	@Benchmark
+	public void assign() {
+		rootPath.getValue().setValue( 1 );
+	}
+}
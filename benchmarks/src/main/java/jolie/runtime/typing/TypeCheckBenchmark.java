@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime.typing;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import jolie.lang.NativeType;
+import jolie.lang.parse.ast.types.BasicTypeDefinition;
+import jolie.runtime.Value;
+import jolie.util.Range;
+
+/**
+ * Compares the compiled type checker ({@link Type#check(Value)}) with the interpretive one
+ * ({@link Type#check(Value, StringBuilder)}), which this class reaches by living in the same
+ * package.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TypeCheckBenchmark {
+	private static final Range ONE = new Range( 1, 1 );
+	private static final Range OPTIONAL = new Range( 0, 1 );
+	private static final Range ANY_NUMBER = new Range( 0, Integer.MAX_VALUE );
+
+	@Param( { "order", "tree", "choice" } )
+	private String message;
+
+	private Type type;
+	private Value value;
+
+	private static Type leaf( NativeType nativeType, Range cardinality ) {
+		return node( nativeType, cardinality, Map.of() );
+	}
+
+	private static Type node( NativeType nativeType, Range cardinality, Map< String, Type > subTypes ) {
+		return Type.create( BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( nativeType ) ), cardinality,
+			false, subTypes );
+	}
+
+	// An order with a customer, its address, some items and optional notes
+	private void setupOrder() {
+		type = node( NativeType.VOID, ONE, Map.of(
+			"id", leaf( NativeType.STRING, ONE ),
+			"customer", node( NativeType.VOID, ONE, Map.of(
+				"name", leaf( NativeType.STRING, ONE ),
+				"email", leaf( NativeType.STRING, OPTIONAL ),
+				"address", node( NativeType.VOID, ONE, Map.of(
+					"street", leaf( NativeType.STRING, ONE ),
+					"city", leaf( NativeType.STRING, ONE ),
+					"zip", leaf( NativeType.INT, ONE ) ) ) ) ),
+			"items", node( NativeType.VOID, ANY_NUMBER, Map.of(
+				"sku", leaf( NativeType.STRING, ONE ),
+				"quantity", leaf( NativeType.INT, ONE ),
+				"price", leaf( NativeType.DOUBLE, ONE ) ) ),
+			"notes", leaf( NativeType.STRING, OPTIONAL ) ) );
+
+		value = Value.create();
+		value.getFirstChild( "id" ).setValue( "order-1" );
+		final Value customer = value.getFirstChild( "customer" );
+		customer.getFirstChild( "name" ).setValue( "Jane" );
+		customer.getFirstChild( "email" ).setValue( "jane@example.org" );
+		final Value address = customer.getFirstChild( "address" );
+		address.getFirstChild( "street" ).setValue( "Campusvej 55" );
+		address.getFirstChild( "city" ).setValue( "Odense" );
+		address.getFirstChild( "zip" ).setValue( 5230 );
+		for( int i = 0; i < 20; i++ ) {
+			final Value item = value.getChildren( "items" ).get( i );
+			item.getFirstChild( "sku" ).setValue( "sku-" + i );
+			item.getFirstChild( "quantity" ).setValue( i + 1 );
+			item.getFirstChild( "price" ).setValue( 9.99 );
+		}
+	}
+
+	// type Tree: void { value: int, children*: Tree }
+	private void setupTree() {
+		final Type.TypeLink link = Type.createLink( "Tree", ANY_NUMBER );
+		type = node( NativeType.VOID, ONE, Map.of( "value", leaf( NativeType.INT, ONE ), "children", link ) );
+		link.setLinkedType( type );
+
+		value = Value.create();
+		fillTree( value, 4 );
+	}
+
+	private static void fillTree( Value node, int depth ) {
+		node.getFirstChild( "value" ).setValue( depth );
+		if( depth > 0 ) {
+			for( int i = 0; i < 3; i++ ) {
+				fillTree( node.getChildren( "children" ).get( i ), depth - 1 );
+			}
+		}
+	}
+
+	// type Event: void { created: string, id: int } | void { updated: string, id: int } | ... and the
+	// value matches the last alternative
+	private void setupChoice() {
+		final String[] kinds = { "created", "updated", "deleted", "moved", "restored", "archived" };
+		Type choice = null;
+		for( int i = kinds.length - 1; i >= 0; i-- ) {
+			final Type alternative = node( NativeType.VOID, ONE,
+				Map.of( kinds[ i ], leaf( NativeType.STRING, ONE ), "id", leaf( NativeType.INT, ONE ) ) );
+			choice = choice == null ? alternative : Type.createChoice( ONE, alternative, choice );
+		}
+		type = choice;
+
+		value = Value.create();
+		value.getFirstChild( "archived" ).setValue( "2026-01-01" );
+		value.getFirstChild( "id" ).setValue( 42 );
+	}
+
+	@Setup
+	public void setup() {
+		switch( message ) {
+		case "order":
+			setupOrder();
+			break;
+		case "tree":
+			setupTree();
+			break;
+		case "choice":
+			setupChoice();
+			break;
+		default:
+			throw new IllegalArgumentException( message );
+		}
+	}
+
+	@Benchmark
+	public Value compiled()
+		throws TypeCheckingException {
+		type.check( value );
+		return value;
+	}
+
+	@Benchmark
+	public Value interpreted()
+		throws TypeCheckingException {
+		type.check( value, new StringBuilder( "#Message" ) );
+		return value;
+	}
+}
@@ -0,0 +1,2 @@
+@echo off
+jolie --service Jolie2Surface %JOLIE_HOME%\tools\jolie2surface.ol %*
\ No newline at end of file
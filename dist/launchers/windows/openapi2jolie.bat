@@ -0,0 +1,2 @@
+@echo off
+jolie %JOLIE_HOME%\tools\openapi2jolie.ol %*
\ No newline at end of file
@@ -19,23 +19,29 @@
 
 package jolie.net;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.parsers.DocumentBuilder;
@@ -58,6 +64,7 @@ import jolie.lang.Constants;
 import jolie.lang.NativeType;
 import jolie.monitoring.events.ProtocolMessageEvent;
 import jolie.net.constants.HttpProtocolConstants;
+import jolie.net.http.Http2Connection;
 import jolie.net.http.HttpMessage;
 import jolie.net.http.HttpParser;
 import jolie.net.http.HttpUtils;
@@ -66,9 +73,13 @@ import jolie.net.http.HttpUtils.Formats;
 import jolie.net.http.Method;
 import jolie.net.http.MultiPartFormDataParser;
 import jolie.net.http.UnsupportedMethodException;
+import jolie.net.http.UriTemplateRouter;
+import jolie.net.ports.InputPort;
 import jolie.net.ports.Interface;
 import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.FramedCommProtocol;
 import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
 import jolie.runtime.FaultException;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
@@ -90,13 +101,14 @@ import jolie.xml.XmlUtils;
  * @author Fabrizio Montesi 14 Nov 2012 - Saverio Giallorenzo - Fabrizio Montesi: support for status
  *         codes
  */
-public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
+public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol, FramedCommProtocol {
 	private static class ExchangeContext {
 		private MultiPartFormDataParser multiPartFormDataParser = null;
 		private String encoding = null;
 		private String requestFormat = null;
 		private String requestCharset = null;
 		private boolean headRequest = false;
+		private int streamId = 0;
 	}
 
 	private static final MetadataKey< ExchangeContext > HTTP_METADATA_KEY =
@@ -108,8 +120,19 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 	private final Transformer transformer;
 	private final DocumentBuilder docBuilder;
 
+	private static final int STREAM_BLOCK_SIZE = 0x10000; // 64K
+
+	// The compiled URI templates of each input port, shared by its channels
+	private static final Map< InputPort, UriTemplateRouter > ROUTERS =
+		Collections.synchronizedMap( new WeakHashMap<>() );
+
 	private String inputId = null;
 
+	// Set once the channel speaks HTTP/2, which is decided before its first message
+	private Http2Connection http2 = null;
+	private boolean firstMessage = true;
+	private String applicationProtocol = null;
+
 	@Override
 	public String name() {
 		return "http";
@@ -117,7 +140,37 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 
 	@Override
 	public boolean isThreadSafe() {
-		return checkBooleanParameter( HttpUtils.Parameters.CONCURRENT );
+		// Our HTTP/2 clients open one stream at a time, so they cannot share their channel
+		return checkBooleanParameter( HttpUtils.Parameters.CONCURRENT )
+			&& (inInputPort || !checkBooleanParameter( HttpUtils.Parameters.HTTP2 ));
+	}
+
+	@Override
+	public boolean hasBufferedMessages() {
+		return http2 != null && http2.hasBufferedMessages();
+	}
+
+	@Override
+	public Framer newFramer() {
+		return new HttpParser.RequestFramer();
+	}
+
+	@Override
+	public long streamingThreshold() {
+		// The parameters of the port are not known yet, so this is the default threshold
+		return HttpUtils.DEFAULT_STREAMING_THRESHOLD;
+	}
+
+	@Override
+	public List< String > applicationProtocols() {
+		return checkBooleanParameter( HttpUtils.Parameters.HTTP2 )
+			? List.of( Http2Connection.APPLICATION_PROTOCOL, "http/1.1" )
+			: List.of();
+	}
+
+	@Override
+	public void setApplicationProtocol( String applicationProtocol ) {
+		this.applicationProtocol = applicationProtocol;
 	}
 
 	public HttpProtocol(
@@ -440,30 +493,30 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 			ret.content = new ByteArray( builder.toString().getBytes( charset ) );
 		} else if( Formats.JSON.equals( format ) ) {
 			ret.contentType = HttpUtils.ContentTypes.APPLICATION_JSON;
-			StringBuilder jsonStringBuilder = new StringBuilder();
 			if( message.isFault() ) {
 				Value error = message.value().getFirstChild( "error" );
 				error.getFirstChild( "code" ).setValue( -32000 );
 				error.getFirstChild( "message" ).setValue( message.fault().faultName() );
 				error.getChildren( "data" ).set( 0, message.fault().value() );
-				JsUtils.faultValueToJsonString( message.value(), sendType, jsonStringBuilder );
+				ret.content =
+					JsUtils.faultValueToJsonBytes( message.value(), sendType, send_charsetForName( charset ) );
 			} else {
-				JsUtils.valueToJsonString( message.value(), true, sendType, jsonStringBuilder );
+				ret.content =
+					JsUtils.valueToJsonBytes( message.value(), true, sendType, send_charsetForName( charset ) );
 			}
-			ret.content = new ByteArray( jsonStringBuilder.toString().getBytes( charset ) );
 		} else if( Formats.NDJSON.equals( format ) ) {
 			ret.contentType = HttpUtils.ContentTypes.APPLICATION_NDJSON;
-			StringBuilder ndJsonStringBuilder = new StringBuilder();
 			if( message.isFault() ) {
 				Value error = message.value().getFirstChild( "error" );
 				error.getFirstChild( "code" ).setValue( -32000 );
 				error.getFirstChild( "message" ).setValue( message.fault().faultName() );
 				error.getChildren( "data" ).set( 0, message.fault().value() );
-				JsUtils.faultValueToJsonString( message.value(), sendType, ndJsonStringBuilder );
+				ret.content =
+					JsUtils.faultValueToJsonBytes( message.value(), sendType, send_charsetForName( charset ) );
 			} else {
-				JsUtils.valueToNdJsonString( message.value(), true, sendType, ndJsonStringBuilder );
+				ret.content =
+					JsUtils.valueToNdJsonBytes( message.value(), true, sendType, send_charsetForName( charset ) );
 			}
-			ret.content = new ByteArray( ndJsonStringBuilder.toString().getBytes( charset ) );
 		} else if( Formats.RAW.equals( format ) ) {
 			ret.contentType = HttpUtils.ContentTypes.TEXT_PLAIN;
 			if( message.isFault() ) {
@@ -779,7 +832,9 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 		StringBuilder headerBuilder )
 		throws IOException {
 		if( !checkBooleanParameter( HttpUtils.Parameters.KEEP_ALIVE, true ) ) {
-			if( inInputPort ) // we may do this only in input (server) mode
+			// we may do this only in input (server) mode, and not on HTTP/2 connections, which carry other
+			// exchanges
+			if( inInputPort && http2 == null )
 				channel().setToBeClosed( true );
 			headerBuilder.append( "Connection: close" ).append( HttpUtils.CRLF );
 		}
@@ -824,6 +879,17 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 					.append( HttpUtils.CRLF );
 			}
 
+			if( encodedContent.content instanceof ByteStream ) {
+				// Streams are sent as they are read, so they are not compressed
+				final long length = ((ByteStream) encodedContent.content).length();
+				if( length < 0 ) {
+					headerBuilder.append( "Transfer-Encoding: chunked" ).append( HttpUtils.CRLF );
+				} else {
+					headerBuilder.append( "Content-Length: " ).append( length ).append( HttpUtils.CRLF );
+				}
+				return;
+			}
+
 			boolean compression =
 				requestEncoding != null && checkBooleanParameter( HttpUtils.Parameters.COMPRESSION, true );
 			String compressionTypes = getStringParameter(
@@ -884,6 +950,12 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 		String requestEncoding = null;
 
 		StringBuilder headerBuilder = new StringBuilder();
+		int streamId = 0;
+
+		if( !inInputPort && firstMessage ) {
+			firstMessage = false;
+			send_checkForHttp2( ostream );
+		}
 
 		if( inInputPort ) {
 			// We're responding to a request
@@ -895,6 +967,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 				final ExchangeContext requestMessageMetadata = getHttpMetadata( message.originalRequest().get() );
 				headRequestResponse = requestMessageMetadata.headRequest;
 				requestEncoding = requestMessageMetadata.encoding;
+				streamId = requestMessageMetadata.streamId;
 			}
 		} else {
 			// We're sending a notification or a solicit
@@ -922,7 +995,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 		if( Interpreter.getInstance().isMonitoring() ) {
 			// message's body in string format needed for the monitoring
 			String bodyMessageString =
-				encodedContent.content != null ? encodedContent.content.toString( charset ) : "";
+				encodedContent.content != null ? HttpUtils.contentToString( encodedContent.content, charset ) : "";
 
 			Interpreter.getInstance().fireMonitorEvent(
 				new ProtocolMessageEvent(
@@ -947,15 +1020,115 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 			}
 		} );
 
+		if( http2 != null ) {
+			send_writeHttp2( ostream, istream, streamId, headerBuilder, encodedContent.content, headRequestResponse );
+			return;
+		}
+
 		ostream.write( headerBuilder.toString().getBytes( HttpUtils.URL_DECODER_ENC ) );
-		if( encodedContent.content != null && !headRequestResponse ) {
-			ostream.write( encodedContent.content.getBytes() );
+		if( encodedContent.content instanceof ByteStream ) {
+			send_writeStream( ostream, (ByteStream) encodedContent.content, headRequestResponse );
+		} else if( encodedContent.content != null && !headRequestResponse ) {
+			encodedContent.content.writeTo( ostream );
+		}
+	}
+
+	private static Charset send_charsetForName( String charset )
+		throws UnsupportedEncodingException {
+		try {
+			return Charset.forName( charset );
+		} catch( IllegalArgumentException e ) {
+			throw new UnsupportedEncodingException( charset );
+		}
+	}
+
+	private static void send_writeStream( OutputStream ostream, ByteStream content, boolean headRequestResponse )
+		throws IOException {
+		if( headRequestResponse ) {
+			return;
+		}
+		final long length = content.length();
+		final boolean chunked = length < 0;
+		try( InputStream istream = content.openStream() ) {
+			final byte[] buffer = new byte[ STREAM_BLOCK_SIZE ];
+			long written = 0;
+			int r;
+			while( (r = istream.read( buffer )) != -1 ) {
+				if( chunked ) {
+					ostream.write( (Integer.toHexString( r ) + HttpUtils.CRLF).getBytes( HttpUtils.URL_DECODER_ENC ) );
+					ostream.write( buffer, 0, r );
+					ostream.write( HttpUtils.CRLF.getBytes( HttpUtils.URL_DECODER_ENC ) );
+				} else if( written + r > length ) {
+					throw new IOException( "Streamed content is longer than its declared length " + length );
+				} else {
+					ostream.write( buffer, 0, r );
+				}
+				written += r;
+			}
+			if( chunked ) {
+				ostream.write( ("0" + HttpUtils.CRLF + HttpUtils.CRLF).getBytes( HttpUtils.URL_DECODER_ENC ) );
+			} else if( written < length ) {
+				throw new IOException( "Streamed content is shorter than its declared length " + length );
+			}
+		}
+	}
+
+	// Starts HTTP/2 if it is enabled, and the server supports it when TLS negotiates the protocol
+	private void send_checkForHttp2( OutputStream ostream )
+		throws IOException {
+		if( checkBooleanParameter( HttpUtils.Parameters.HTTP2 ) ) {
+			// Completes the TLS handshake, if any
+			ostream.flush();
+			if( applicationProtocol == null || applicationProtocol.equals( Http2Connection.APPLICATION_PROTOCOL ) ) {
+				http2 = new Http2Connection( false, recv_getStreamingThreshold() );
+				http2.connect( ostream );
+			}
+		}
+	}
+
+	private void send_writeHttp2( OutputStream ostream, InputStream istream, int streamId, CharSequence header,
+		ByteArray content, boolean headRequestResponse )
+		throws IOException {
+		InputStream body = null;
+		long length = 0;
+		// The content of a response to HEAD is not sent, and a stream is left unconsumed
+		if( !headRequestResponse ) {
+			if( content instanceof ByteStream ) {
+				body = ((ByteStream) content).openStream();
+				length = ((ByteStream) content).length();
+			} else if( content != null ) {
+				body = new ByteArrayInputStream( content.getBytes() );
+				length = content.size();
+			}
+		}
+		final List< Entry< String, String > > headers =
+			Http2Connection.headers( header, applicationProtocol == null ? "http" : "https" );
+		if( inInputPort ) {
+			if( streamId == 0 ) {
+				throw new IOException( "Could not find the HTTP/2 stream of the request" );
+			}
+			http2.sendResponse( istream, ostream, streamId, headers, body, length );
+		} else {
+			http2.sendRequest( istream, ostream, headers, body, length );
 		}
 	}
 
 	@Override
 	public void send( OutputStream ostream, CommMessage message, InputStream istream )
 		throws IOException {
+		if( inInputPort && http2 != null ) {
+			try {
+				send_internal( ostream, message, istream );
+			} catch( IOException e ) {
+				// Report the error on the stream of the request, as HttpUtils.send does for HTTP/1
+				if( !channel().isOpen() || !message.originalRequest().isPresent() ) {
+					throw e;
+				}
+				http2.sendError( istream, ostream, getHttpMetadata( message.originalRequest().get() ).streamId, e );
+				Interpreter.getInstance().logInfo( e.getMessage() );
+			}
+			return;
+		}
 		HttpUtils.send( ostream, message, istream, inInputPort, channel(), this );
 	}
 
@@ -1131,7 +1304,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 			decodedMessage.value.setValue( new String( message.content(), charset ) );
 		} else if( getOperationSpecificStringParameter( operationName, HttpUtils.Parameters.FORCE_CONTENT_DECODING )
 			.equals( NativeType.RAW.id() ) ) {
-			decodedMessage.value.setValue( new ByteArray( message.content() ) );
+			decodedMessage.value.setValue( message.contentValue() );
 		} else if( ContentTypes.TEXT_HTML.equals( type ) ) {
 			decodedMessage.value.setValue( new String( message.content(), charset ) );
 		} else if( ContentTypes.APPLICATION_X_WWW_FORM_URLENCODED.equals( type ) ) {
@@ -1142,7 +1315,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 			messageMetadata.multiPartFormDataParser = HttpUtils.parseMultiPartFormData( message, decodedMessage.value );
 		} else if( ContentTypes.APPLICATION_OCTET_STREAM.equals( type ) || type.startsWith( "image/" )
 			|| "application/zip".equals( type ) ) {
-			decodedMessage.value.setValue( new ByteArray( message.content() ) );
+			decodedMessage.value.setValue( message.contentValue() );
 		} else if( ContentTypes.APPLICATION_NDJSON.equals( type ) || type.contains( "ndjson" ) ) {
 			boolean strictEncoding = checkStringParameter( HttpUtils.Parameters.JSON_ENCODING, "strict" );
 			HttpUtils.parseNdJson( message, decodedMessage.value, strictEncoding, charset );
@@ -1206,46 +1379,41 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 			? message.requestPath().substring( 1 )
 			: message.requestPath() );
 		Value configurationValue = getParameterFirstValue( CommProtocol.Parameters.OPERATION_SPECIFIC_CONFIGURATION );
-		Iterator< Entry< String, ValueVector > > configurationIterator = configurationValue.children().entrySet()
-			.iterator();
-		boolean foundMatch = false;
-		String method = message.getMethod().name();
-		while( configurationIterator.hasNext() & !foundMatch ) {
-			Entry< String, ValueVector > configEntry = configurationIterator.next();
-
-			Value opConfig = configEntry.getValue().get( 0 );
-			if( !opConfig.hasChildren( HttpUtils.Parameters.TEMPLATE ) )
-				continue;
-
-			Value uriTemplateResult =
-				UriUtils.match( opConfig.getFirstChild( HttpUtils.Parameters.TEMPLATE ).strValue(), uri );
-			String opConfigMethod = opConfig.firstChildOrDefault( HttpUtils.Parameters.METHOD, Value::strValue, "" );
-
-			if( uriTemplateResult.boolValue() && method.equalsIgnoreCase( opConfigMethod ) ) {
-				foundMatch = true;
-				decodedMessage.operationName = configEntry.getKey();
-				decodedMessage.resourcePath = "/";
-
-				Iterator< Entry< String, ValueVector > > uriTemplateIterator = uriTemplateResult.children().entrySet()
-					.iterator();
-				while( uriTemplateIterator.hasNext() ) {
-					Entry< String, ValueVector > entry = uriTemplateIterator.next();
-					decodedMessage.value.getFirstChild( entry.getKey() )
-						.setValue( entry.getValue().get( 0 ).strValue() );
-				}
-				if( opConfig.hasChildren( HttpUtils.Parameters.INCOMING_HEADERS ) ) {
-					Iterator< Entry< String, ValueVector > > inHeadersIterator = opConfig
-						.getFirstChild( HttpUtils.Parameters.INCOMING_HEADERS ).children().entrySet().iterator();
-					while( inHeadersIterator.hasNext() ) {
-						Entry< String, ValueVector > entry = inHeadersIterator.next();
-						decodedMessage.value.getFirstChild( entry.getValue().get( 0 ).strValue() )
-							.setValue( message.getProperty( entry.getKey() ) );
-					}
+		UriTemplateRouter.Route route =
+			recv_getRouter( configurationValue ).route( message.getMethod().name(), uri, decodedMessage.value );
+		if( route != null ) {
+			decodedMessage.operationName = route.operationName();
+			decodedMessage.resourcePath = "/";
+
+			Value opConfig = route.configuration();
+			if( opConfig.hasChildren( HttpUtils.Parameters.INCOMING_HEADERS ) ) {
+				Iterator< Entry< String, ValueVector > > inHeadersIterator = opConfig
+					.getFirstChild( HttpUtils.Parameters.INCOMING_HEADERS ).children().entrySet().iterator();
+				while( inHeadersIterator.hasNext() ) {
+					Entry< String, ValueVector > entry = inHeadersIterator.next();
+					decodedMessage.value.getFirstChild( entry.getValue().get( 0 ).strValue() )
+						.setValue( message.getProperty( entry.getKey() ) );
 				}
 			}
 		}
 	}
 
+	/*
+	 * Returns the router for the templates of the input port, compiling them the first time and when
+	 * the configuration changes
+	 */
+	private UriTemplateRouter recv_getRouter( Value configurationValue ) {
+		final InputPort port = channel().parentInputPort();
+		UriTemplateRouter router = port == null ? null : ROUTERS.get( port );
+		if( router == null || !router.isCompiledFrom( configurationValue ) ) {
+			router = UriTemplateRouter.compile( configurationValue );
+			if( port != null ) {
+				ROUTERS.put( port, router );
+			}
+		}
+		return router;
+	}
+
 	private void recv_checkDefaultOp( HttpMessage message, HttpUtils.DecodedMessage decodedMessage )
 		throws UnsupportedMethodException {
 		if( "/".equals( decodedMessage.resourcePath )
@@ -1326,10 +1494,38 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 		}
 	}
 
+	private long recv_getStreamingThreshold() {
+		if( !checkBooleanParameter( HttpUtils.Parameters.STREAMING ) ) {
+			return -1;
+		}
+		return getParameterFirstValue( HttpUtils.Parameters.STREAMING ).firstChildOrDefault(
+			HttpUtils.Parameters.STREAMING_THRESHOLD, Value::longValue, HttpUtils.DEFAULT_STREAMING_THRESHOLD );
+	}
+
 	@Override
 	public CommMessage recv_internal( InputStream istream, OutputStream ostream )
 		throws IOException {
-		HttpMessage message = new HttpParser( istream ).parse();
+		return recv_decodeMessage( new HttpParser( istream, recv_getStreamingThreshold() ).parse() );
+	}
+
+	private CommMessage recv_decodeMessage( HttpMessage message )
+		throws IOException {
+		CommMessage retVal = null;
+		try {
+			retVal = recv_decode( message );
+			return retVal;
+		} finally {
+			// A streamed body that is not passed on as a raw value, e.g., because it was parsed, is no
+			// longer needed
+			if( message.isContentStreamed()
+				&& (retVal == null || retVal.value().valueObject() != message.contentValue()) ) {
+				((ByteStream) message.contentValue()).close();
+			}
+		}
+	}
+
+	private CommMessage recv_decode( HttpMessage message )
+		throws IOException {
 		CommMessage retVal;
 		final ExchangeContext messageMetadata = new ExchangeContext();
 		HttpUtils.DecodedMessage decodedMessage = new HttpUtils.DecodedMessage();
@@ -1370,6 +1566,7 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 
 		messageMetadata.encoding = message.getProperty( "accept-encoding" );
 		messageMetadata.headRequest = inInputPort && message.isHead();
+		messageMetadata.streamId = message.streamId();
 
 		String contentType = HttpUtils.DEFAULT_CONTENT_TYPE;
 		if( message.getProperty( "content-type" ) != null ) {
@@ -1518,9 +1715,52 @@ public class HttpProtocol extends CommProtocol implements HttpUtils.Protocol {
 		return retVal;
 	}
 
+	// Starts HTTP/2 if the client begins with its connection preface (prior knowledge or TLS with
+	// ALPN), and returns the stream to read the first message from
+	private InputStream recv_checkForHttp2( InputStream istream, OutputStream ostream )
+		throws IOException {
+		final byte[] start = istream.readNBytes( 3 );
+		final PushbackInputStream pushback = new PushbackInputStream( istream, start.length );
+		pushback.unread( start );
+		if( Arrays.equals( start, 0, start.length, Http2Connection.PREFACE, 0, 3 ) ) {
+			http2 = new Http2Connection( true, recv_getStreamingThreshold() );
+			http2.accept( pushback, ostream );
+			return istream;
+		}
+		return pushback;
+	}
+
+	private CommMessage recv_http2( InputStream istream, OutputStream ostream )
+		throws IOException {
+		final HttpMessage message = http2.receive( istream, ostream );
+		if( !inInputPort ) {
+			if( http2.isGoingAway() ) {
+				channel().setToBeClosed( true );
+			}
+			return recv_decodeMessage( message );
+		} else if( message == null ) {
+			return null;
+		}
+		try {
+			return recv_decodeMessage( message );
+		} catch( IOException e ) {
+			// Only this request is wrong, so the connection can go on
+			http2.sendError( istream, ostream, message.streamId(), e );
+			Interpreter.getInstance().logInfo( e.getMessage() );
+			return null;
+		}
+	}
+
 	@Override
 	public CommMessage recv( InputStream istream, OutputStream ostream )
 		throws IOException {
+		if( inInputPort && firstMessage ) {
+			firstMessage = false;
+			istream = recv_checkForHttp2( istream, ostream );
+		}
+		if( http2 != null ) {
+			return recv_http2( istream, ostream );
+		}
 		return HttpUtils.recv( istream, ostream, inInputPort, channel(), this );
 	}
 
@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * HPACK, the header compression of HTTP/2 (https://tools.ietf.org/html/rfc7541).
+ *
+ * Names and values are kept as strings with one character per octet, as {@link HttpScanner} reads
+ * HTTP/1 headers.
+ */
+final class Hpack {
+	static final int DEFAULT_TABLE_SIZE = 4096;
+
+	private static final int ENTRY_OVERHEAD = 32;
+
+	private static final String[][] STATIC_TABLE = {
+		{ ":authority", "" }, { ":method", "GET" }, { ":method", "POST" }, { ":path", "/" },
+		{ ":path", "/index.html" }, { ":scheme", "http" }, { ":scheme", "https" }, { ":status", "200" },
+		{ ":status", "204" }, { ":status", "206" }, { ":status", "304" }, { ":status", "400" },
+		{ ":status", "404" }, { ":status", "500" }, { "accept-charset", "" }, { "accept-encoding", "gzip, deflate" },
+		{ "accept-language", "" }, { "accept-ranges", "" }, { "accept", "" }, { "access-control-allow-origin", "" },
+		{ "age", "" }, { "allow", "" }, { "authorization", "" }, { "cache-control", "" },
+		{ "content-disposition", "" }, { "content-encoding", "" }, { "content-language", "" },
+		{ "content-length", "" }, { "content-location", "" }, { "content-range", "" }, { "content-type", "" },
+		{ "cookie", "" }, { "date", "" }, { "etag", "" }, { "expect", "" }, { "expires", "" }, { "from", "" },
+		{ "host", "" }, { "if-match", "" }, { "if-modified-since", "" }, { "if-none-match", "" },
+		{ "if-range", "" }, { "if-unmodified-since", "" }, { "last-modified", "" }, { "link", "" },
+		{ "location", "" }, { "max-forwards", "" }, { "proxy-authenticate", "" }, { "proxy-authorization", "" },
+		{ "range", "" }, { "referer", "" }, { "refresh", "" }, { "retry-after", "" }, { "server", "" },
+		{ "set-cookie", "" }, { "strict-transport-security", "" }, { "transfer-encoding", "" },
+		{ "user-agent", "" }, { "vary", "" }, { "via", "" }, { "www-authenticate", "" }
+	};
+
+	// The index of the first static entry with a name, and of every static entry with a name and value
+	private static final Map< String, Integer > STATIC_NAMES = new HashMap<>();
+	private static final Map< Entry< String, String >, Integer > STATIC_FIELDS = new HashMap<>();
+
+	// Headers that are never indexed, since they are sensitive or change with every message
+	private static final Set< String > NEVER_INDEXED =
+		Set.of( "authorization", "proxy-authorization", "cookie", "set-cookie" );
+	private static final Set< String > NOT_INDEXED =
+		Set.of( ":path", "content-length", "date", "etag", "last-modified", "location", "x-jolie-messageid" );
+
+	// The Huffman code of every octet (https://tools.ietf.org/html/rfc7541#appendix-B)
+	private static final int[] HUFFMAN_CODES = {
+		0x1ff8, 0x7fffd8, 0xfffffe2, 0xfffffe3, 0xfffffe4, 0xfffffe5, 0xfffffe6, 0xfffffe7,
+		0xfffffe8, 0xffffea, 0x3ffffffc, 0xfffffe9, 0xfffffea, 0x3ffffffd, 0xfffffeb, 0xfffffec,
+		0xfffffed, 0xfffffee, 0xfffffef, 0xffffff0, 0xffffff1, 0xffffff2, 0x3ffffffe, 0xffffff3,
+		0xffffff4, 0xffffff5, 0xffffff6, 0xffffff7, 0xffffff8, 0xffffff9, 0xffffffa, 0xffffffb,
+		0x14, 0x3f8, 0x3f9, 0xffa, 0x1ff9, 0x15, 0xf8, 0x7fa,
+		0x3fa, 0x3fb, 0xf9, 0x7fb, 0xfa, 0x16, 0x17, 0x18,
+		0x0, 0x1, 0x2, 0x19, 0x1a, 0x1b, 0x1c, 0x1d,
+		0x1e, 0x1f, 0x5c, 0xfb, 0x7ffc, 0x20, 0xffb, 0x3fc,
+		0x1ffa, 0x21, 0x5d, 0x5e, 0x5f, 0x60, 0x61, 0x62,
+		0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69, 0x6a,
+		0x6b, 0x6c, 0x6d, 0x6e, 0x6f, 0x70, 0x71, 0x72,
+		0xfc, 0x73, 0xfd, 0x1ffb, 0x7fff0, 0x1ffc, 0x3ffc, 0x22,
+		0x7ffd, 0x3, 0x23, 0x4, 0x24, 0x5, 0x25, 0x26,
+		0x27, 0x6, 0x74, 0x75, 0x28, 0x29, 0x2a, 0x7,
+		0x2b, 0x76, 0x2c, 0x8, 0x9, 0x2d, 0x77, 0x78,
+		0x79, 0x7a, 0x7b, 0x7ffe, 0x7fc, 0x3ffd, 0x1ffd, 0xffffffc,
+		0xfffe6, 0x3fffd2, 0xfffe7, 0xfffe8, 0x3fffd3, 0x3fffd4, 0x3fffd5, 0x7fffd9,
+		0x3fffd6, 0x7fffda, 0x7fffdb, 0x7fffdc, 0x7fffdd, 0x7fffde, 0xffffeb, 0x7fffdf,
+		0xffffec, 0xffffed, 0x3fffd7, 0x7fffe0, 0xffffee, 0x7fffe1, 0x7fffe2, 0x7fffe3,
+		0x7fffe4, 0x1fffdc, 0x3fffd8, 0x7fffe5, 0x3fffd9, 0x7fffe6, 0x7fffe7, 0xffffef,
+		0x3fffda, 0x1fffdd, 0xfffe9, 0x3fffdb, 0x3fffdc, 0x7fffe8, 0x7fffe9, 0x1fffde,
+		0x7fffea, 0x3fffdd, 0x3fffde, 0xfffff0, 0x1fffdf, 0x3fffdf, 0x7fffeb, 0x7fffec,
+		0x1fffe0, 0x1fffe1, 0x3fffe0, 0x1fffe2, 0x7fffed, 0x3fffe1, 0x7fffee, 0x7fffef,
+		0xfffea, 0x3fffe2, 0x3fffe3, 0x3fffe4, 0x7ffff0, 0x3fffe5, 0x3fffe6, 0x7ffff1,
+		0x3ffffe0, 0x3ffffe1, 0xfffeb, 0x7fff1, 0x3fffe7, 0x7ffff2, 0x3fffe8, 0x1ffffec,
+		0x3ffffe2, 0x3ffffe3, 0x3ffffe4, 0x7ffffde, 0x7ffffdf, 0x3ffffe5, 0xfffff1, 0x1ffffed,
+		0x7fff2, 0x1fffe3, 0x3ffffe6, 0x7ffffe0, 0x7ffffe1, 0x3ffffe7, 0x7ffffe2, 0xfffff2,
+		0x1fffe4, 0x1fffe5, 0x3ffffe8, 0x3ffffe9, 0xffffffd, 0x7ffffe3, 0x7ffffe4, 0x7ffffe5,
+		0xfffec, 0xfffff3, 0xfffed, 0x1fffe6, 0x3fffe9, 0x1fffe7, 0x1fffe8, 0x7ffff3,
+		0x3fffea, 0x3fffeb, 0x1ffffee, 0x1ffffef, 0xfffff4, 0xfffff5, 0x3ffffea, 0x7ffff4,
+		0x3ffffeb, 0x7ffffe6, 0x3ffffec, 0x3ffffed, 0x7ffffe7, 0x7ffffe8, 0x7ffffe9, 0x7ffffea,
+		0x7ffffeb, 0xffffffe, 0x7ffffec, 0x7ffffed, 0x7ffffee, 0x7ffffef, 0x7fffff0, 0x3ffffee
+	};
+
+	private static final byte[] HUFFMAN_LENGTHS = {
+		13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28,
+		28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+		6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6,
+		5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+		13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+		7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+		15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+		6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+		20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23,
+		24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+		22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23,
+		21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+		26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25,
+		19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+		20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+		26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26
+	};
+
+	// The Huffman codes as a binary tree: the children of node n are at 2n and 2n + 1, leaves hold the
+	// complement of their octet and 0 marks a missing child
+	private static final int[] HUFFMAN_TREE = new int[ 2 * 256 ];
+
+	static {
+		for( int i = 0; i < STATIC_TABLE.length; i++ ) {
+			STATIC_NAMES.putIfAbsent( STATIC_TABLE[ i ][ 0 ], i + 1 );
+			STATIC_FIELDS.put( Map.entry( STATIC_TABLE[ i ][ 0 ], STATIC_TABLE[ i ][ 1 ] ), i + 1 );
+		}
+
+		int nodes = 1;
+		for( int symbol = 0; symbol < 256; symbol++ ) {
+			final int code = HUFFMAN_CODES[ symbol ];
+			int node = 0;
+			for( int bit = HUFFMAN_LENGTHS[ symbol ] - 1; bit > 0; bit-- ) {
+				final int child = 2 * node + ((code >>> bit) & 1);
+				if( HUFFMAN_TREE[ child ] == 0 ) {
+					HUFFMAN_TREE[ child ] = nodes++;
+				}
+				node = HUFFMAN_TREE[ child ];
+			}
+			HUFFMAN_TREE[ 2 * node + (code & 1) ] = ~symbol;
+		}
+	}
+
+	private Hpack() {}
+
+	private static int entrySize( String name, String value ) {
+		return name.length() + value.length() + ENTRY_OVERHEAD;
+	}
+
+	private static void writeInteger( ByteArrayOutputStream out, int flags, int prefix, int value ) {
+		final int max = (1 << prefix) - 1;
+		if( value < max ) {
+			out.write( flags | value );
+		} else {
+			out.write( flags | max );
+			value -= max;
+			while( value >= 0x80 ) {
+				out.write( (value & 0x7f) | 0x80 );
+				value >>>= 7;
+			}
+			out.write( value );
+		}
+	}
+
+	private static void writeString( ByteArrayOutputStream out, String s ) {
+		final byte[] bytes = s.getBytes( StandardCharsets.ISO_8859_1 );
+		long bits = 0;
+		for( byte b : bytes ) {
+			bits += HUFFMAN_LENGTHS[ b & 0xff ];
+		}
+		final int huffmanLength = (int) ((bits + 7) / 8);
+		if( huffmanLength >= bytes.length ) {
+			writeInteger( out, 0x00, 7, bytes.length );
+			out.write( bytes, 0, bytes.length );
+			return;
+		}
+		writeInteger( out, 0x80, 7, huffmanLength );
+		long pending = 0;
+		int pendingBits = 0;
+		for( byte b : bytes ) {
+			final int symbol = b & 0xff;
+			pending = (pending << HUFFMAN_LENGTHS[ symbol ]) | HUFFMAN_CODES[ symbol ];
+			pendingBits += HUFFMAN_LENGTHS[ symbol ];
+			while( pendingBits >= 8 ) {
+				pendingBits -= 8;
+				out.write( (int) (pending >>> pendingBits) );
+			}
+			pending &= (1L << pendingBits) - 1;
+		}
+		if( pendingBits > 0 ) {
+			// Pad with the most significant bits of the EOS code, which are all ones
+			out.write( (int) (pending << (8 - pendingBits)) | (0xff >>> pendingBits) );
+		}
+	}
+
+	/**
+	 * Encodes header lists for a peer, keeping its dynamic table in sync.
+	 */
+	static final class Encoder {
+		private final Deque< Entry< String, String > > table = new ArrayDeque<>();
+		private int tableSize = 0;
+		private int maxTableSize = DEFAULT_TABLE_SIZE;
+		// The smallest maximum size since the last header block, which must be signalled first
+		private int minTableSize = -1;
+
+		/**
+		 * Sets the maximum size of the dynamic table to the one allowed by the peer, up to
+		 * {@link #DEFAULT_TABLE_SIZE}.
+		 */
+		void setMaxTableSize( int size ) {
+			size = Math.min( size, DEFAULT_TABLE_SIZE );
+			if( size != maxTableSize ) {
+				maxTableSize = size;
+				minTableSize = minTableSize < 0 ? size : Math.min( minTableSize, size );
+				evict( 0 );
+			}
+		}
+
+		private void evict( int room ) {
+			while( tableSize + room > maxTableSize && !table.isEmpty() ) {
+				final Entry< String, String > e = table.removeLast();
+				tableSize -= entrySize( e.getKey(), e.getValue() );
+			}
+		}
+
+		private int dynamicIndex( String name, String value ) {
+			int index = STATIC_TABLE.length + 1;
+			for( Entry< String, String > e : table ) {
+				if( e.getKey().equals( name ) && (value == null || e.getValue().equals( value )) ) {
+					return index;
+				}
+				index++;
+			}
+			return 0;
+		}
+
+		void encode( List< Entry< String, String > > headers, ByteArrayOutputStream out ) {
+			if( minTableSize >= 0 ) {
+				writeInteger( out, 0x20, 5, minTableSize );
+				if( minTableSize != maxTableSize ) {
+					writeInteger( out, 0x20, 5, maxTableSize );
+				}
+				minTableSize = -1;
+			}
+			for( Entry< String, String > header : headers ) {
+				final String name = header.getKey();
+				final String value = header.getValue();
+				Integer index = STATIC_FIELDS.get( header );
+				if( index == null ) {
+					final int dynamic = dynamicIndex( name, value );
+					index = dynamic > 0 ? dynamic : null;
+				}
+				if( index != null ) {
+					writeInteger( out, 0x80, 7, index );
+					continue;
+				}
+
+				Integer nameIndex = STATIC_NAMES.get( name );
+				if( nameIndex == null ) {
+					nameIndex = dynamicIndex( name, null );
+				}
+				if( NEVER_INDEXED.contains( name ) ) {
+					writeInteger( out, 0x10, 4, nameIndex );
+				} else if( NOT_INDEXED.contains( name ) ) {
+					writeInteger( out, 0x00, 4, nameIndex );
+				} else {
+					writeInteger( out, 0x40, 6, nameIndex );
+					final int size = entrySize( name, value );
+					evict( size );
+					if( size <= maxTableSize ) {
+						table.addFirst( Map.entry( name, value ) );
+						tableSize += size;
+					}
+				}
+				if( nameIndex == 0 ) {
+					writeString( out, name );
+				}
+				writeString( out, value );
+			}
+		}
+	}
+
+	/**
+	 * Decodes the header blocks sent by a peer.
+	 */
+	static final class Decoder {
+		private final List< Entry< String, String > > table = new ArrayList<>();
+		private int tableSize = 0;
+		private int maxTableSize = DEFAULT_TABLE_SIZE;
+
+		private byte[] block;
+		private int position;
+
+		private int readByte()
+			throws IOException {
+			if( position >= block.length ) {
+				throw new IOException( "Truncated HPACK header block" );
+			}
+			return block[ position++ ] & 0xff;
+		}
+
+		private int readInteger( int first, int prefix )
+			throws IOException {
+			final int max = (1 << prefix) - 1;
+			int value = first & max;
+			if( value < max ) {
+				return value;
+			}
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				if( shift > 21 ) {
+					throw new IOException( "HPACK integer overflow" );
+				}
+				value += (b & 0x7f) << shift;
+				shift += 7;
+			} while( (b & 0x80) != 0 );
+			if( value < 0 ) {
+				throw new IOException( "HPACK integer overflow" );
+			}
+			return value;
+		}
+
+		private String readString()
+			throws IOException {
+			final int first = readByte();
+			final int length = readInteger( first, 7 );
+			if( length > block.length - position ) {
+				throw new IOException( "Truncated HPACK string" );
+			}
+			final int start = position;
+			position += length;
+			if( (first & 0x80) == 0 ) {
+				return new String( block, start, length, StandardCharsets.ISO_8859_1 );
+			}
+
+			final StringBuilder builder = new StringBuilder( length * 8 / 5 );
+			int node = 0;
+			int depth = 0;
+			boolean ones = true;
+			for( int i = start; i < position; i++ ) {
+				for( int bit = 7; bit >= 0; bit-- ) {
+					final int b = (block[ i ] >>> bit) & 1;
+					final int child = HUFFMAN_TREE[ 2 * node + b ];
+					if( child == 0 ) {
+						throw new IOException( "Invalid Huffman code in HPACK string" );
+					} else if( child < 0 ) {
+						builder.append( (char) ~child );
+						node = 0;
+						depth = 0;
+						ones = true;
+					} else {
+						node = child;
+						depth++;
+						ones &= b == 1;
+					}
+				}
+			}
+			if( depth > 7 || !ones ) {
+				throw new IOException( "Invalid Huffman padding in HPACK string" );
+			}
+			return builder.toString();
+		}
+
+		private Entry< String, String > entry( int index )
+			throws IOException {
+			if( index > 0 && index <= STATIC_TABLE.length ) {
+				return Map.entry( STATIC_TABLE[ index - 1 ][ 0 ], STATIC_TABLE[ index - 1 ][ 1 ] );
+			}
+			index -= STATIC_TABLE.length + 1;
+			if( index < 0 || index >= table.size() ) {
+				throw new IOException( "Invalid HPACK index" );
+			}
+			// The newest entry is the last one
+			return table.get( table.size() - 1 - index );
+		}
+
+		private void evict( int room ) {
+			int evicted = 0;
+			while( tableSize + room > maxTableSize && evicted < table.size() ) {
+				final Entry< String, String > e = table.get( evicted++ );
+				tableSize -= entrySize( e.getKey(), e.getValue() );
+			}
+			table.subList( 0, evicted ).clear();
+		}
+
+		List< Entry< String, String > > decode( byte[] block )
+			throws IOException {
+			this.block = block;
+			position = 0;
+			final List< Entry< String, String > > headers = new ArrayList<>();
+			while( position < block.length ) {
+				final int first = readByte();
+				if( (first & 0x80) != 0 ) {
+					// Indexed header field
+					headers.add( entry( readInteger( first, 7 ) ) );
+				} else if( (first & 0xe0) == 0x20 ) {
+					// Dynamic table size update, only allowed before the first field
+					final int size = readInteger( first, 5 );
+					if( size > DEFAULT_TABLE_SIZE || !headers.isEmpty() ) {
+						throw new IOException( "Invalid HPACK dynamic table size update" );
+					}
+					maxTableSize = size;
+					evict( 0 );
+				} else {
+					// Literal header field, with incremental indexing if (first & 0x40) != 0
+					final boolean indexing = (first & 0x40) != 0;
+					final int nameIndex = readInteger( first, indexing ? 6 : 4 );
+					final String name = nameIndex == 0 ? readString() : entry( nameIndex ).getKey();
+					final Entry< String, String > header = Map.entry( name, readString() );
+					headers.add( header );
+					if( indexing ) {
+						final int size = entrySize( header.getKey(), header.getValue() );
+						evict( size );
+						if( size <= maxTableSize ) {
+							table.add( header );
+							tableSize += size;
+						}
+					}
+				}
+			}
+			this.block = null;
+			return headers;
+		}
+	}
+}
@@ -0,0 +1,1024 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net.http;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import jolie.net.ChannelClosingException;
+
+/**
+ * An HTTP/2 connection (https://tools.ietf.org/html/rfc9113) over the streams of a channel.
+ *
+ * Each stream carries one exchange. Servers return requests from {@link #receive} once they are
+ * complete, with their stream in {@link HttpMessage#streamId()}, and send every response on the
+ * stream of its request. Clients open one stream at a time. Bodies are collected per stream and
+ * then decoded like the ones of HTTP/1 messages.
+ *
+ * Received data is acknowledged to the peer once it is stored: the bodies kept in memory by a
+ * connection, including the ones of the requests that have not been returned by {@link #receive}
+ * yet, are limited to {@link #MAX_BUFFERED_SIZE} bytes. Bodies larger than the streaming threshold,
+ * or that would exceed this limit, are spooled to a temporary file as they arrive. If streaming is
+ * disabled, the streams that would exceed it are reset instead.
+ *
+ * Connections are not thread-safe: channels use them while holding their lock.
+ */
+public class Http2Connection {
+	public static final String APPLICATION_PROTOCOL = "h2";
+	public static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes( StandardCharsets.US_ASCII );
+
+	private static final int DATA = 0x0;
+	private static final int HEADERS = 0x1;
+	private static final int PRIORITY = 0x2;
+	private static final int RST_STREAM = 0x3;
+	private static final int SETTINGS = 0x4;
+	private static final int PUSH_PROMISE = 0x5;
+	private static final int PING = 0x6;
+	private static final int GOAWAY = 0x7;
+	private static final int WINDOW_UPDATE = 0x8;
+	private static final int CONTINUATION = 0x9;
+
+	private static final int FLAG_END_STREAM = 0x1;
+	private static final int FLAG_ACK = 0x1;
+	private static final int FLAG_END_HEADERS = 0x4;
+	private static final int FLAG_PADDED = 0x8;
+	private static final int FLAG_PRIORITY = 0x20;
+
+	private static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+	private static final int SETTINGS_ENABLE_PUSH = 0x2;
+	private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+	private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+	private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+
+	private static final int PROTOCOL_ERROR = 0x1;
+	private static final int INTERNAL_ERROR = 0x2;
+	private static final int FLOW_CONTROL_ERROR = 0x3;
+	private static final int STREAM_CLOSED = 0x5;
+	private static final int FRAME_SIZE_ERROR = 0x6;
+	private static final int REFUSED_STREAM = 0x7;
+	private static final int COMPRESSION_ERROR = 0x9;
+	private static final int ENHANCE_YOUR_CALM = 0xb;
+
+	private static final int FRAME_HEADER_LENGTH = 9;
+	private static final int DEFAULT_WINDOW_SIZE = 65535;
+	private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+	private static final int MAX_MAX_FRAME_SIZE = 16777215;
+	private static final int DATA_BLOCK_SIZE = 0x10000; // 64K
+
+	// What this endpoint advertises
+	private static final int MAX_CONCURRENT_STREAMS = 128;
+	private static final int STREAM_WINDOW_SIZE = 0x100000; // 1M
+	private static final int CONNECTION_WINDOW_SIZE = 0x1000000; // 16M
+	private static final int MAX_HEADER_BLOCK_SIZE = 0x100000; // 1M
+	private static final int MAX_BUFFERED_SIZE = CONNECTION_WINDOW_SIZE;
+
+	// The body of a stream, kept in memory until it is written to a file of the spool
+	private static class Body {
+		private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+		private Spool spool = null;
+		private Path file = null;
+		private OutputStream fileStream = null;
+		private long size = 0;
+
+		private void write( byte[] b, int offset, int length )
+			throws IOException {
+			if( file == null ) {
+				memory.write( b, offset, length );
+			} else {
+				spool.reserve( length );
+				fileStream.write( b, offset, length );
+			}
+			size += length;
+		}
+
+		private boolean isSpooled() {
+			return file != null;
+		}
+
+		private void spool( Spool spool )
+			throws IOException {
+			spool.reserve( size );
+			this.spool = spool;
+			try {
+				file = spool.createFile();
+				fileStream = new BufferedOutputStream( Files.newOutputStream( file ) );
+				memory.writeTo( fileStream );
+				memory = null;
+			} catch( IOException e ) {
+				discard();
+				throw e;
+			}
+		}
+
+		// Closes the file, which is then owned by the caller
+		private Path close()
+			throws IOException {
+			try {
+				fileStream.close();
+			} catch( IOException e ) {
+				discard();
+				throw e;
+			}
+			return file;
+		}
+
+		private void discard() {
+			memory = null;
+			if( spool != null ) {
+				if( fileStream != null ) {
+					try {
+						fileStream.close();
+					} catch( IOException e ) {
+						// The file is deleted anyway
+					}
+				}
+				if( file != null ) {
+					spool.delete( file, size );
+				} else {
+					spool.release( size );
+				}
+				spool = null;
+			}
+		}
+	}
+
+	private static class Stream {
+		private final int id;
+		private long sendWindow;
+		private List< Entry< String, String > > headers = null;
+		private List< Entry< String, String > > trailers = List.of();
+		private Body body = new Body();
+		// Received bytes that have not been given back to the peer with a WINDOW_UPDATE yet
+		private int unacknowledged = 0;
+		private boolean remoteClosed = false;
+		private boolean headersSent = false;
+		private boolean reset = false;
+
+		private Stream( int id, long sendWindow ) {
+			this.id = id;
+			this.sendWindow = sendWindow;
+		}
+	}
+
+	private final boolean server;
+	private final long streamingThreshold;
+	private final Spool spool;
+	private final Hpack.Encoder encoder = new Hpack.Encoder();
+	private final Hpack.Decoder decoder = new Hpack.Decoder();
+	private final Map< Integer, Stream > streams = new HashMap<>();
+	// Complete messages, with the bytes of their bodies kept in memory
+	private final Deque< Entry< HttpMessage, Long > > received = new ArrayDeque<>();
+	private final Deque< Entry< Integer, IOException > > failed = new ArrayDeque<>();
+
+	private long sendWindow = DEFAULT_WINDOW_SIZE;
+	private int initialSendWindow = DEFAULT_WINDOW_SIZE;
+	private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+	private int unacknowledged = 0;
+	// The bytes of the bodies in memory, see MAX_BUFFERED_SIZE
+	private long buffered = 0;
+	// The last stream opened by the peer for servers, and by this endpoint for clients
+	private int lastStreamId = 0;
+	private boolean goingAway = false;
+
+	// The header block being continued, if any
+	private ByteArrayOutputStream headerBlock = null;
+	private int headerBlockStream;
+	private int headerBlockFlags;
+
+	// The frame being processed
+	private int frameType;
+	private int frameFlags;
+	private int frameStream;
+	private byte[] payload;
+
+	/**
+	 * Creates the connection of a server, or of a client. Received bodies larger than the streaming
+	 * threshold are streamed from a file of the default {@link Spool}, as {@link HttpParser} does.
+	 */
+	public Http2Connection( boolean server, long streamingThreshold ) {
+		this( server, streamingThreshold, Spool.getDefault() );
+	}
+
+	/**
+	 * Creates a connection that streams the received bodies larger than the streaming threshold from a
+	 * file of the given spool.
+	 */
+	public Http2Connection( boolean server, long streamingThreshold, Spool spool ) {
+		this.server = server;
+		this.streamingThreshold = streamingThreshold;
+		this.spool = spool;
+	}
+
+	/**
+	 * Reads the connection preface of the client, and sends the one of the server.
+	 */
+	public void accept( InputStream in, OutputStream out )
+		throws IOException {
+		if( !Arrays.equals( in.readNBytes( PREFACE.length ), PREFACE ) ) {
+			throw new IOException( "[http2] Invalid connection preface" );
+		}
+		writeSettings( out, SETTINGS_MAX_CONCURRENT_STREAMS, MAX_CONCURRENT_STREAMS );
+		out.flush();
+	}
+
+	/**
+	 * Sends the connection preface of the client.
+	 */
+	public void connect( OutputStream out )
+		throws IOException {
+		out.write( PREFACE );
+		writeSettings( out, SETTINGS_ENABLE_PUSH, 0 );
+		out.flush();
+	}
+
+	private void writeSettings( OutputStream out, int setting, int value )
+		throws IOException {
+		final byte[] settings = new byte[ 12 ];
+		putSetting( settings, 0, setting, value );
+		putSetting( settings, 6, SETTINGS_INITIAL_WINDOW_SIZE, STREAM_WINDOW_SIZE );
+		writeFrame( out, SETTINGS, 0, 0, settings, 0, settings.length );
+		writeWindowUpdate( out, 0, CONNECTION_WINDOW_SIZE - DEFAULT_WINDOW_SIZE );
+	}
+
+	private static void putSetting( byte[] b, int offset, int setting, int value ) {
+		b[ offset ] = (byte) (setting >>> 8);
+		b[ offset + 1 ] = (byte) setting;
+		putInt( b, offset + 2, value );
+	}
+
+	private static void putInt( byte[] b, int offset, int value ) {
+		b[ offset ] = (byte) (value >>> 24);
+		b[ offset + 1 ] = (byte) (value >>> 16);
+		b[ offset + 2 ] = (byte) (value >>> 8);
+		b[ offset + 3 ] = (byte) value;
+	}
+
+	private static int getInt( byte[] b, int offset ) {
+		return ((b[ offset ] & 0xff) << 24) | ((b[ offset + 1 ] & 0xff) << 16) | ((b[ offset + 2 ] & 0xff) << 8)
+			| (b[ offset + 3 ] & 0xff);
+	}
+
+	/**
+	 * Returns true if some complete messages have been read but not returned by {@link #receive} yet.
+	 */
+	public boolean hasBufferedMessages() {
+		return !received.isEmpty() || !failed.isEmpty();
+	}
+
+	/**
+	 * Returns true if the peer is closing the connection.
+	 */
+	public boolean isGoingAway() {
+		return goingAway;
+	}
+
+	/**
+	 * Returns the next complete message. Clients wait for the response to their request. Servers
+	 * process the frames that are available, reading at least one if no message is buffered, and return
+	 * null if no request is complete yet.
+	 */
+	public HttpMessage receive( InputStream in, OutputStream out )
+		throws IOException {
+		if( server ) {
+			if( received.isEmpty() && failed.isEmpty() ) {
+				do {
+					readFrame( in, out );
+				} while( in.available() > 0 );
+			}
+			while( !failed.isEmpty() ) {
+				final Entry< Integer, IOException > request = failed.poll();
+				sendError( in, out, request.getKey(), request.getValue() );
+			}
+		} else {
+			while( received.isEmpty() ) {
+				readFrame( in, out );
+			}
+		}
+		final Entry< HttpMessage, Long > message = received.poll();
+		if( message == null ) {
+			return null;
+		}
+		buffered -= message.getValue();
+		return message.getKey();
+	}
+
+	/**
+	 * Sends a request on a new stream. The body can be null, and its length is -1 if unknown.
+	 */
+	public void sendRequest( InputStream in, OutputStream out, List< Entry< String, String > > headers,
+		InputStream body, long length )
+		throws IOException {
+		if( goingAway || lastStreamId >= Integer.MAX_VALUE - 2 ) {
+			throw new ChannelClosingException( "[http2] The connection is closing" );
+		}
+		lastStreamId = lastStreamId == 0 ? 1 : lastStreamId + 2;
+		final Stream stream = new Stream( lastStreamId, initialSendWindow );
+		streams.put( stream.id, stream );
+		send( in, out, stream, headers, body, length );
+	}
+
+	/**
+	 * Sends the response to the request received on the given stream. The body can be null, and its
+	 * length is -1 if unknown. Responses to streams reset by the client are discarded.
+	 */
+	public void sendResponse( InputStream in, OutputStream out, int streamId, List< Entry< String, String > > headers,
+		InputStream body, long length )
+		throws IOException {
+		final Stream stream = streams.get( streamId );
+		if( stream == null ) {
+			if( body != null ) {
+				body.close();
+			}
+			return;
+		}
+		try {
+			send( in, out, stream, headers, body, length );
+		} catch( IOException e ) {
+			if( stream.headersSent && !stream.reset ) {
+				// The response has begun, so it can only be cancelled
+				writeRstStream( out, streamId, INTERNAL_ERROR );
+			}
+			throw e;
+		} finally {
+			if( stream.headersSent ) {
+				streams.remove( streamId );
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reports an error to the client on the given stream, with an error response like the ones of
+	 * HTTP/1. Streams whose response has already begun are reset by {@link #sendResponse} instead.
+	 */
+	public void sendError( InputStream in, OutputStream out, int streamId, IOException e )
+		throws IOException {
+		final byte[] content = HttpUtils.errorContent( e );
+		sendResponse( in, out, streamId, headers( HttpUtils.errorHeader( e, content.length ), "http" ),
+			new ByteArrayInputStream( content ), content.length );
+	}
+
+	/**
+	 * Translates the head of an HTTP/1.1 message, as built for sending, to the headers of an HTTP/2
+	 * message. Header names are lowercased, and the ones specific to HTTP/1 connections are dropped.
+	 */
+	public static List< Entry< String, String > > headers( CharSequence head, String scheme ) {
+		// HPACK works on octets, which the head is sent as in HTTP/1
+		final String[] lines = new String( head.toString().getBytes( StandardCharsets.UTF_8 ),
+			StandardCharsets.ISO_8859_1 ).split( HttpUtils.CRLF );
+		final List< Entry< String, String > > pseudoHeaders = new ArrayList<>();
+		final List< Entry< String, String > > headers = new ArrayList<>();
+		final String startLine = lines[ 0 ];
+		if( startLine.startsWith( "HTTP/" ) ) {
+			final String[] status = startLine.split( " ", 3 );
+			pseudoHeaders.add( Map.entry( ":status", status[ 1 ] ) );
+		} else {
+			final int method = startLine.indexOf( ' ' );
+			final int path = startLine.lastIndexOf( ' ' );
+			pseudoHeaders.add( Map.entry( ":method", startLine.substring( 0, method ) ) );
+			pseudoHeaders.add( Map.entry( ":scheme", scheme ) );
+			pseudoHeaders.add( Map.entry( ":path", startLine.substring( method + 1, path ) ) );
+		}
+		for( int i = 1; i < lines.length; i++ ) {
+			final int colon = lines[ i ].indexOf( ':' );
+			if( colon <= 0 ) {
+				continue;
+			}
+			final String name = lines[ i ].substring( 0, colon ).trim().toLowerCase();
+			final String value = lines[ i ].substring( colon + 1 ).trim();
+			switch( name ) {
+			case "host":
+				pseudoHeaders.add( Map.entry( ":authority", value ) );
+				break;
+			case "connection":
+			case "keep-alive":
+			case "proxy-connection":
+			case "transfer-encoding":
+			case "upgrade":
+				break;
+			default:
+				headers.add( Map.entry( name, value ) );
+				break;
+			}
+		}
+		pseudoHeaders.addAll( headers );
+		return pseudoHeaders;
+	}
+
+	private void send( InputStream in, OutputStream out, Stream stream, List< Entry< String, String > > headers,
+		InputStream body, long length )
+		throws IOException {
+		final boolean endStream = body == null || length == 0;
+		final ByteArrayOutputStream block = new ByteArrayOutputStream();
+		encoder.encode( headers, block );
+		final byte[] b = block.toByteArray();
+		int offset = 0;
+		int type = HEADERS;
+		do {
+			final int n = Math.min( maxFrameSize, b.length - offset );
+			final int flags = (offset + n == b.length ? FLAG_END_HEADERS : 0)
+				| (type == HEADERS && endStream ? FLAG_END_STREAM : 0);
+			writeFrame( out, type, flags, stream.id, b, offset, n );
+			offset += n;
+			type = CONTINUATION;
+		} while( offset < b.length );
+		stream.headersSent = true;
+		if( body == null ) {
+			return;
+		}
+
+		try( InputStream content = body ) {
+			if( endStream ) {
+				return;
+			}
+			final byte[] buffer = new byte[ DATA_BLOCK_SIZE ];
+			long remaining = length;
+			boolean last = false;
+			while( !last ) {
+				final long window = awaitWindow( in, out, stream );
+				if( window <= 0 ) {
+					// The peer reset the stream
+					return;
+				}
+				final int n = (int) Math.min( Math.min( buffer.length, maxFrameSize ),
+					Math.min( window, remaining < 0 ? Long.MAX_VALUE : remaining ) );
+				final int r = content.readNBytes( buffer, 0, n );
+				if( remaining >= 0 ) {
+					if( r < n ) {
+						throw new IOException( "Streamed content is shorter than its declared length " + length );
+					}
+					remaining -= r;
+					last = remaining == 0;
+				} else {
+					last = r < n;
+				}
+				writeFrame( out, DATA, last ? FLAG_END_STREAM : 0, stream.id, buffer, 0, r );
+				sendWindow -= r;
+				stream.sendWindow -= r;
+			}
+		}
+	}
+
+	// Waits until the peer lets us send some data on the stream, and returns how much
+	private long awaitWindow( InputStream in, OutputStream out, Stream stream )
+		throws IOException {
+		while( !stream.reset && Math.min( sendWindow, stream.sendWindow ) <= 0 ) {
+			out.flush();
+			readFrame( in, out );
+		}
+		return stream.reset ? 0 : Math.min( sendWindow, stream.sendWindow );
+	}
+
+	private void writeFrame( OutputStream out, int type, int flags, int streamId, byte[] b, int offset, int length )
+		throws IOException {
+		// Written at once, so that secure channels send one record per frame
+		final byte[] frame = new byte[ FRAME_HEADER_LENGTH + length ];
+		frame[ 0 ] = (byte) (length >>> 16);
+		frame[ 1 ] = (byte) (length >>> 8);
+		frame[ 2 ] = (byte) length;
+		frame[ 3 ] = (byte) type;
+		frame[ 4 ] = (byte) flags;
+		putInt( frame, 5, streamId );
+		System.arraycopy( b, offset, frame, FRAME_HEADER_LENGTH, length );
+		out.write( frame );
+	}
+
+	private void writeWindowUpdate( OutputStream out, int streamId, int increment )
+		throws IOException {
+		final byte[] b = new byte[ 4 ];
+		putInt( b, 0, increment );
+		writeFrame( out, WINDOW_UPDATE, 0, streamId, b, 0, b.length );
+	}
+
+	private void writeRstStream( OutputStream out, int streamId, int errorCode )
+		throws IOException {
+		final byte[] b = new byte[ 4 ];
+		putInt( b, 0, errorCode );
+		writeFrame( out, RST_STREAM, 0, streamId, b, 0, b.length );
+	}
+
+	// Sends GOAWAY and returns the exception that closes the channel
+	private IOException connectionError( OutputStream out, int errorCode, String message ) {
+		final byte[] b = new byte[ 8 ];
+		putInt( b, 0, server ? lastStreamId : 0 );
+		putInt( b, 4, errorCode );
+		try {
+			writeFrame( out, GOAWAY, 0, 0, b, 0, b.length );
+			out.flush();
+		} catch( IOException e ) {
+			// The channel is being closed anyway
+		}
+		return new IOException( "[http2] " + message );
+	}
+
+	private void streamError( OutputStream out, int streamId, int errorCode )
+		throws IOException {
+		final Stream stream = streams.remove( streamId );
+		if( stream != null ) {
+			stream.reset = true;
+			discard( stream );
+		}
+		writeRstStream( out, streamId, errorCode );
+		out.flush();
+	}
+
+	private void readFrame( InputStream in, OutputStream out )
+		throws IOException {
+		try {
+			processFrame( in, out );
+		} catch( IOException e ) {
+			// The connection is lost, except when the server resets the only stream of a client, which is
+			// already gone
+			discardStreams();
+			throw e;
+		}
+	}
+
+	// Deletes the bodies of the streams that will not complete
+	private void discardStreams() {
+		for( Stream stream : streams.values() ) {
+			discard( stream );
+		}
+	}
+
+	private void discard( Stream stream ) {
+		if( stream.body != null ) {
+			if( !stream.body.isSpooled() ) {
+				buffered -= stream.body.size;
+			}
+			stream.body.discard();
+			stream.body = null;
+		}
+	}
+
+	private void processFrame( InputStream in, OutputStream out )
+		throws IOException {
+		final byte[] header = in.readNBytes( FRAME_HEADER_LENGTH );
+		if( header.length == 0 ) {
+			throw new ChannelClosingException( "[http2] Remote host closed connection." );
+		} else if( header.length < FRAME_HEADER_LENGTH ) {
+			throw new EOFException();
+		}
+		final int length = ((header[ 0 ] & 0xff) << 16) | ((header[ 1 ] & 0xff) << 8) | (header[ 2 ] & 0xff);
+		frameType = header[ 3 ] & 0xff;
+		frameFlags = header[ 4 ] & 0xff;
+		frameStream = getInt( header, 5 ) & 0x7fffffff;
+		if( length > DEFAULT_MAX_FRAME_SIZE ) {
+			throw connectionError( out, FRAME_SIZE_ERROR, "Frame larger than the maximum size" );
+		}
+		payload = in.readNBytes( length );
+		if( payload.length < length ) {
+			throw new EOFException();
+		}
+
+		if( headerBlock != null && (frameType != CONTINUATION || frameStream != headerBlockStream) ) {
+			throw connectionError( out, PROTOCOL_ERROR, "Expected the continuation of a header block" );
+		}
+		switch( frameType ) {
+		case DATA:
+			onData( out );
+			break;
+		case HEADERS:
+			onHeaders( out );
+			break;
+		case CONTINUATION:
+			if( headerBlock == null ) {
+				throw connectionError( out, PROTOCOL_ERROR, "Unexpected CONTINUATION frame" );
+			}
+			onHeaderBlockFragment( out, payload, 0, payload.length, frameFlags );
+			break;
+		case PRIORITY:
+			// Streams are served as their requests complete, so priorities are ignored
+			if( frameStream == 0 ) {
+				throw connectionError( out, PROTOCOL_ERROR, "PRIORITY frame on stream 0" );
+			}
+			break;
+		case RST_STREAM:
+			onRstStream( out );
+			break;
+		case SETTINGS:
+			onSettings( out );
+			break;
+		case PING:
+			if( frameStream != 0 || payload.length != 8 ) {
+				throw connectionError( out, frameStream != 0 ? PROTOCOL_ERROR : FRAME_SIZE_ERROR,
+					"Invalid PING frame" );
+			}
+			if( (frameFlags & FLAG_ACK) == 0 ) {
+				writeFrame( out, PING, FLAG_ACK, 0, payload, 0, payload.length );
+				out.flush();
+			}
+			break;
+		case GOAWAY:
+			goingAway = true;
+			break;
+		case WINDOW_UPDATE:
+			onWindowUpdate( out );
+			break;
+		case PUSH_PROMISE:
+			// Clients disable server push, and servers never receive it
+			throw connectionError( out, PROTOCOL_ERROR, "Unexpected PUSH_PROMISE frame" );
+		default:
+			// Unknown frame types are ignored
+			break;
+		}
+	}
+
+	// Returns the start of the payload after the padding length, and sets end to exclude the padding
+	private int unpad( OutputStream out, int[] end )
+		throws IOException {
+		end[ 0 ] = payload.length;
+		if( (frameFlags & FLAG_PADDED) == 0 ) {
+			return 0;
+		}
+		if( payload.length < 1 || (payload[ 0 ] & 0xff) >= payload.length ) {
+			throw connectionError( out, PROTOCOL_ERROR, "Invalid padding" );
+		}
+		end[ 0 ] = payload.length - (payload[ 0 ] & 0xff);
+		return 1;
+	}
+
+	private void onData( OutputStream out )
+		throws IOException {
+		if( frameStream == 0 ) {
+			throw connectionError( out, PROTOCOL_ERROR, "DATA frame on stream 0" );
+		}
+		final int[] end = new int[ 1 ];
+		final int start = unpad( out, end );
+
+		final Stream stream = streams.get( frameStream );
+		if( stream == null || stream.headers == null || stream.remoteClosed ) {
+			acknowledge( out, null );
+			streamError( out, frameStream, STREAM_CLOSED );
+			return;
+		}
+		final Body body = stream.body;
+		try {
+			final boolean inMemory = !body.isSpooled();
+			body.write( payload, start, end[ 0 ] - start );
+			if( inMemory ) {
+				buffered += end[ 0 ] - start;
+				if( streamingThreshold >= 0 && (body.size > streamingThreshold || buffered > MAX_BUFFERED_SIZE) ) {
+					body.spool( spool );
+					buffered -= body.size;
+				}
+			}
+		} catch( IOException e ) {
+			// The body cannot be spooled, e.g., because the spool is full
+			acknowledge( out, null );
+			streamError( out, stream.id, ENHANCE_YOUR_CALM );
+			return;
+		}
+		if( !body.isSpooled() && buffered > MAX_BUFFERED_SIZE ) {
+			// Keeping this body would exceed the memory of the connection, and it cannot be streamed
+			acknowledge( out, null );
+			streamError( out, stream.id, ENHANCE_YOUR_CALM );
+			return;
+		}
+		if( (frameFlags & FLAG_END_STREAM) != 0 ) {
+			acknowledge( out, null );
+			complete( out, stream );
+		} else {
+			acknowledge( out, stream );
+		}
+	}
+
+	// Gives the payload of the current DATA frame back to the peer, now that it is stored. Flow control
+	// counts the whole payload, padding included.
+	private void acknowledge( OutputStream out, Stream stream )
+		throws IOException {
+		unacknowledged += payload.length;
+		if( unacknowledged >= CONNECTION_WINDOW_SIZE / 2 ) {
+			writeWindowUpdate( out, 0, unacknowledged );
+			out.flush();
+			unacknowledged = 0;
+		}
+		if( stream != null ) {
+			stream.unacknowledged += payload.length;
+			if( stream.unacknowledged >= STREAM_WINDOW_SIZE / 2 ) {
+				writeWindowUpdate( out, stream.id, stream.unacknowledged );
+				out.flush();
+				stream.unacknowledged = 0;
+			}
+		}
+	}
+
+	private void onHeaders( OutputStream out )
+		throws IOException {
+		if( frameStream == 0 ) {
+			throw connectionError( out, PROTOCOL_ERROR, "HEADERS frame on stream 0" );
+		}
+		final int[] end = new int[ 1 ];
+		int start = unpad( out, end );
+		if( (frameFlags & FLAG_PRIORITY) != 0 ) {
+			start += 5;
+			if( start > end[ 0 ] ) {
+				throw connectionError( out, FRAME_SIZE_ERROR, "Invalid HEADERS frame" );
+			}
+		}
+		headerBlock = new ByteArrayOutputStream();
+		headerBlockStream = frameStream;
+		headerBlockFlags = frameFlags;
+		onHeaderBlockFragment( out, payload, start, end[ 0 ] - start, frameFlags );
+	}
+
+	private void onHeaderBlockFragment( OutputStream out, byte[] b, int offset, int length, int flags )
+		throws IOException {
+		headerBlock.write( b, offset, length );
+		if( headerBlock.size() > MAX_HEADER_BLOCK_SIZE ) {
+			throw connectionError( out, ENHANCE_YOUR_CALM, "Header block too large" );
+		}
+		if( (flags & FLAG_END_HEADERS) != 0 ) {
+			final byte[] block = headerBlock.toByteArray();
+			headerBlock = null;
+			onHeaderBlock( out, headerBlockStream, headerBlockFlags, block );
+		}
+	}
+
+	private void onHeaderBlock( OutputStream out, int streamId, int flags, byte[] block )
+		throws IOException {
+		// Decoded even if the stream is discarded, to keep the dynamic table in sync
+		final List< Entry< String, String > > headers;
+		try {
+			headers = decoder.decode( block );
+		} catch( IOException e ) {
+			throw connectionError( out, COMPRESSION_ERROR, e.getMessage() );
+		}
+
+		Stream stream = streams.get( streamId );
+		if( stream == null ) {
+			if( !server ) {
+				// A late response to a stream that is gone
+				return;
+			}
+			if( streamId % 2 == 0 || streamId <= lastStreamId ) {
+				throw connectionError( out, PROTOCOL_ERROR, "Invalid stream identifier " + streamId );
+			}
+			lastStreamId = streamId;
+			if( streams.size() >= MAX_CONCURRENT_STREAMS ) {
+				writeRstStream( out, streamId, REFUSED_STREAM );
+				out.flush();
+				return;
+			}
+			stream = new Stream( streamId, initialSendWindow );
+			streams.put( streamId, stream );
+		}
+
+		if( stream.remoteClosed ) {
+			streamError( out, streamId, STREAM_CLOSED );
+			return;
+		} else if( stream.headers == null ) {
+			if( !server && headers.stream().anyMatch( h -> h.getKey().equals( ":status" )
+				&& h.getValue().startsWith( "1" ) ) ) {
+				// Informational responses are skipped
+				return;
+			}
+			stream.headers = headers;
+		} else if( (flags & FLAG_END_STREAM) == 0 ) {
+			streamError( out, streamId, PROTOCOL_ERROR );
+			return;
+		} else {
+			stream.trailers = headers;
+		}
+		if( (flags & FLAG_END_STREAM) != 0 ) {
+			complete( out, stream );
+		}
+	}
+
+	private void onRstStream( OutputStream out )
+		throws IOException {
+		if( frameStream == 0 || payload.length != 4 ) {
+			throw connectionError( out, frameStream == 0 ? PROTOCOL_ERROR : FRAME_SIZE_ERROR,
+				"Invalid RST_STREAM frame" );
+		}
+		final Stream stream = streams.remove( frameStream );
+		if( stream != null ) {
+			stream.reset = true;
+			discard( stream );
+			if( !server ) {
+				throw new IOException( "[http2] The server reset the stream with error " + getInt( payload, 0 ) );
+			}
+		}
+	}
+
+	private void onSettings( OutputStream out )
+		throws IOException {
+		if( frameStream != 0 ) {
+			throw connectionError( out, PROTOCOL_ERROR, "SETTINGS frame on a stream" );
+		}
+		if( (frameFlags & FLAG_ACK) != 0 ) {
+			return;
+		}
+		if( payload.length % 6 != 0 ) {
+			throw connectionError( out, FRAME_SIZE_ERROR, "Invalid SETTINGS frame" );
+		}
+		for( int i = 0; i < payload.length; i += 6 ) {
+			final int setting = ((payload[ i ] & 0xff) << 8) | (payload[ i + 1 ] & 0xff);
+			final int value = getInt( payload, i + 2 );
+			switch( setting ) {
+			case SETTINGS_HEADER_TABLE_SIZE:
+				encoder.setMaxTableSize( value < 0 ? Integer.MAX_VALUE : value );
+				break;
+			case SETTINGS_INITIAL_WINDOW_SIZE:
+				if( value < 0 ) {
+					throw connectionError( out, FLOW_CONTROL_ERROR, "Invalid initial window size" );
+				}
+				for( Stream stream : streams.values() ) {
+					stream.sendWindow += value - initialSendWindow;
+				}
+				initialSendWindow = value;
+				break;
+			case SETTINGS_MAX_FRAME_SIZE:
+				if( value < DEFAULT_MAX_FRAME_SIZE || value > MAX_MAX_FRAME_SIZE ) {
+					throw connectionError( out, PROTOCOL_ERROR, "Invalid maximum frame size" );
+				}
+				maxFrameSize = value;
+				break;
+			default:
+				// Other settings only limit what this endpoint already does not do
+				break;
+			}
+		}
+		writeFrame( out, SETTINGS, FLAG_ACK, 0, payload, 0, 0 );
+		out.flush();
+	}
+
+	private void onWindowUpdate( OutputStream out )
+		throws IOException {
+		if( payload.length != 4 ) {
+			throw connectionError( out, FRAME_SIZE_ERROR, "Invalid WINDOW_UPDATE frame" );
+		}
+		final int increment = getInt( payload, 0 ) & 0x7fffffff;
+		if( frameStream == 0 ) {
+			if( increment == 0 || sendWindow + increment > Integer.MAX_VALUE ) {
+				throw connectionError( out, increment == 0 ? PROTOCOL_ERROR : FLOW_CONTROL_ERROR,
+					"Invalid connection window update" );
+			}
+			sendWindow += increment;
+		} else {
+			final Stream stream = streams.get( frameStream );
+			if( stream != null ) {
+				if( increment == 0 || stream.sendWindow + increment > Integer.MAX_VALUE ) {
+					streamError( out, frameStream, increment == 0 ? PROTOCOL_ERROR : FLOW_CONTROL_ERROR );
+				} else {
+					stream.sendWindow += increment;
+				}
+			}
+		}
+	}
+
+	private void complete( OutputStream out, Stream stream )
+		throws IOException {
+		stream.remoteClosed = true;
+		if( !server ) {
+			streams.remove( stream.id );
+		}
+		// Accounted until the message is returned by receive
+		final long size = stream.body.isSpooled() ? 0 : stream.body.size;
+		final HttpMessage message;
+		try {
+			message = toMessage( stream );
+		} catch( IOException e ) {
+			discard( stream );
+			if( !server ) {
+				throw e;
+			}
+			// Reported by receive, since this may run while sending
+			failed.add( Map.entry( stream.id, e ) );
+			return;
+		}
+		// Now owned by the message
+		stream.body = null;
+		received.add( Map.entry( message, size ) );
+	}
+
+	private HttpMessage toMessage( Stream stream )
+		throws IOException {
+		String method = null;
+		String path = null;
+		String status = null;
+		String authority = null;
+		for( Entry< String, String > header : stream.headers ) {
+			switch( header.getKey() ) {
+			case ":method":
+				method = header.getValue();
+				break;
+			case ":path":
+				path = header.getValue();
+				break;
+			case ":status":
+				status = header.getValue();
+				break;
+			case ":authority":
+				authority = header.getValue();
+				break;
+			default:
+				break;
+			}
+		}
+
+		final HttpMessage message;
+		if( server ) {
+			if( method == null || path == null ) {
+				throw new IOException( "Malformed HTTP/2 request" );
+			}
+			message = new HttpMessage( requestType( method ) );
+			message.setRequestPath( URLDecoder.decode( path, HttpUtils.URL_DECODER_ENC ) );
+			if( authority != null ) {
+				message.setProperty( "host", authority );
+			}
+		} else {
+			message = new HttpMessage( HttpMessage.Type.RESPONSE );
+			try {
+				message.setStatusCode( Integer.parseInt( status ) );
+			} catch( NumberFormatException e ) {
+				throw new IOException( "Malformed HTTP/2 response status " + status );
+			}
+			message.setReason( "" );
+		}
+		message.setVersion( HttpMessage.Version.HTTP_2 );
+		message.setStreamId( stream.id );
+		for( List< Entry< String, String > > headers : List.of( stream.headers, stream.trailers ) ) {
+			for( Entry< String, String > header : headers ) {
+				final String name = header.getKey();
+				if( !name.startsWith( ":" ) ) {
+					final String previous = message.getProperty( name );
+					HttpParser.setHeader( message, name,
+						previous == null || name.equals( "cookie" ) || name.equals( "set-cookie" )
+							? header.getValue()
+							: previous + ", " + header.getValue() );
+				}
+			}
+		}
+
+		final Body body = stream.body;
+		if( body.isSpooled() ) {
+			// The file is now owned by the message
+			stream.body = null;
+			HttpParser.readBody( message, body.close(), body.size, streamingThreshold, spool );
+		} else if( body.size == 0 ) {
+			message.setContent( new byte[ 0 ] );
+		} else {
+			HttpParser.readBody( message, new ByteArrayInputStream( body.memory.toByteArray() ),
+				streamingThreshold, spool );
+		}
+		return message;
+	}
+
+	private static HttpMessage.Type requestType( String method )
+		throws UnsupportedMethodException {
+		switch( method ) {
+		case "GET":
+			return HttpMessage.Type.GET;
+		case "POST":
+			return HttpMessage.Type.POST;
+		case "HEAD":
+			return HttpMessage.Type.HEAD;
+		case "DELETE":
+			return HttpMessage.Type.DELETE;
+		case "PUT":
+			return HttpMessage.Type.PUT;
+		case "PATCH":
+			return HttpMessage.Type.PATCH;
+		case "OPTIONS":
+			return HttpMessage.Type.OPTIONS;
+		default:
+			throw new UnsupportedMethodException( "Unknown/Unsupported HTTP request type: " + method );
+		}
+	}
+}
@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
 
 public class HttpMessage {
 	public enum Type {
@@ -35,7 +37,7 @@ public class HttpMessage {
 	}
 
 	public enum Version {
-		HTTP_1_0, HTTP_1_1
+		HTTP_1_0, HTTP_1_1, HTTP_2
 	}
 
 	static public class Cookie {
@@ -93,7 +95,7 @@ public class HttpMessage {
 
 	private Version version;
 	private final Type type;
-	private byte[] content = null;
+	private ByteArray content = null;
 	final private Map< String, String > propMap = new HashMap<>();
 	final private List< Cookie > setCookies = new ArrayList<>();
 
@@ -103,6 +105,7 @@ public class HttpMessage {
 	private String requestPath;
 	private String reason;
 	private String userAgent = null;
+	private int streamId = 0;
 
 	public boolean isSupported() {
 		return type != Type.UNSUPPORTED;
@@ -149,7 +152,22 @@ public class HttpMessage {
 		return version;
 	}
 
+	void setStreamId( int streamId ) {
+		this.streamId = streamId;
+	}
+
+	/**
+	 * Returns the HTTP/2 stream that carried this message, or 0 for messages of earlier versions.
+	 */
+	public int streamId() {
+		return streamId;
+	}
+
 	public void setContent( byte[] content ) {
+		this.content = new ByteArray( content );
+	}
+
+	public void setContent( ByteArray content ) {
 		this.content = content;
 	}
 
@@ -189,7 +207,7 @@ public class HttpMessage {
 	public int size() {
 		if( content == null )
 			return 0;
-		return content.length;
+		return content.size();
 	}
 
 	public String requestPath() {
@@ -220,7 +238,21 @@ public class HttpMessage {
 		return Method.fromString( type.name() );
 	}
 
+	/**
+	 * Returns the content of this message, reading it into memory if it is streamed.
+	 */
 	public byte[] content() {
+		return content == null ? null : content.getBytes();
+	}
+
+	/**
+	 * Returns the content of this message as a raw value, without reading it if it is streamed.
+	 */
+	public ByteArray contentValue() {
 		return content;
 	}
+
+	public boolean isContentStreamed() {
+		return content instanceof ByteStream;
+	}
 }
@@ -22,22 +22,26 @@
 
 package jolie.net.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 
 import jolie.lang.parse.Scanner;
 import jolie.net.ChannelClosingException;
+import jolie.net.protocols.FramedCommProtocol;
+import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
 
 public class HttpParser {
 	private static final String HTTP = "HTTP";
@@ -55,6 +59,8 @@ public class HttpParser {
 	private static final Pattern COOKIE_NAME_VALUE_SPLIT_PATTERN = Pattern.compile( "=" );
 
 	private final HttpScanner scanner;
+	private final long streamingThreshold;
+	private final Spool spool;
 	private Scanner.Token token;
 
 	private void nextToken()
@@ -63,9 +69,30 @@ public class HttpParser {
 	}
 
 	public HttpParser( InputStream istream )
+		throws IOException {
+		this( istream, -1 );
+	}
+
+	/**
+	 * Creates a parser that keeps message bodies up to streamingThreshold bytes in memory, and streams
+	 * larger ones from a file of the default {@link Spool}. A negative threshold keeps all bodies in
+	 * memory.
+	 */
+	public HttpParser( InputStream istream, long streamingThreshold )
+		throws IOException {
+		this( istream, streamingThreshold, Spool.getDefault() );
+	}
+
+	/**
+	 * Creates a parser that streams the message bodies larger than streamingThreshold bytes from a file
+	 * of the given spool.
+	 */
+	public HttpParser( InputStream istream, long streamingThreshold, Spool spool )
 		throws IOException {
 		scanner = new HttpScanner( istream );
 		// , URI.create( "urn:network" ) );
+		this.streamingThreshold = streamingThreshold;
+		this.spool = spool;
 	}
 
 	private void tokenAssert( Scanner.TokenType type )
@@ -83,40 +110,45 @@ public class HttpParser {
 		throws IOException {
 		String name, value;
 		nextToken();
-		HttpMessage.Cookie cookie;
 		while( token.is( Scanner.TokenType.ID ) ) {
 			name = token.content().toLowerCase();
 			nextToken();
 			tokenAssert( Scanner.TokenType.COLON );
 			value = scanner.readLine();
-			switch( name ) {
-			case "set-cookie":
-				if( (cookie = parseSetCookie( value )) != null ) {
-					message.addSetCookie( cookie );
-				}
-				break;
-			case "cookie":
-				String[] ss = value.split( ";" );
-				for( String s : ss ) {
-					String[] nv = s.trim().split( "=", 2 );
-					if( nv.length > 1 ) {
-						message.addCookie( nv[ 0 ], nv[ 1 ] );
-					}
+			setHeader( message, name, value );
+			nextToken();
+		}
+	}
+
+	// Sets a header of the message, given its lowercase name
+	static void setHeader( HttpMessage message, String name, String value ) {
+		HttpMessage.Cookie cookie;
+		switch( name ) {
+		case "set-cookie":
+			if( (cookie = parseSetCookie( value )) != null ) {
+				message.addSetCookie( cookie );
+			}
+			break;
+		case "cookie":
+			String[] ss = value.split( ";" );
+			for( String s : ss ) {
+				String[] nv = s.trim().split( "=", 2 );
+				if( nv.length > 1 ) {
+					message.addCookie( nv[ 0 ], nv[ 1 ] );
 				}
-				break;
-			case "user-agent":
-				message.setUserAgent( value );
-				message.setProperty( name, value );
-				break;
-			default:
-				message.setProperty( name, value );
-				break;
 			}
-			nextToken();
+			break;
+		case "user-agent":
+			message.setUserAgent( value );
+			message.setProperty( name, value );
+			break;
+		default:
+			message.setProperty( name, value );
+			break;
 		}
 	}
 
-	private HttpMessage.Cookie parseSetCookie( String cookieString ) {
+	private static HttpMessage.Cookie parseSetCookie( String cookieString ) {
 		String[] ss = COOKIES_SPLIT_PATTERN.split( cookieString );
 		if( cookieString.isEmpty() == false && ss.length > 0 ) {
 			boolean secure = false;
@@ -227,36 +259,119 @@ public class HttpParser {
 		return message;
 	}
 
-	private static void blockingRead( InputStream stream, byte[] buffer, int offset, int length )
-		throws IOException {
-		int s = 0;
-		do {
-			int r = stream.read( buffer, offset + s, length - s );
+	private static final int BLOCK_SIZE = 0x1000; // 4K
+
+	/*
+	 * Reads a chunked body (https://tools.ietf.org/html/rfc2616#section-3.6.1) one chunk at a time,
+	 * parsing the optional trailer into the message after the last chunk.
+	 */
+	private class ChunkedInputStream extends InputStream {
+		private final HttpMessage message;
+		private final InputStream stream = scanner.inputStream();
+		private long remaining = 0;
+		private boolean first = true;
+		private boolean eof = false;
+
+		private ChunkedInputStream( HttpMessage message ) {
+			this.message = message;
+		}
+
+		private boolean nextChunk()
+			throws IOException {
+			if( eof ) {
+				return false;
+			}
+			scanner.readChar();
+			if( first ) {
+				first = false;
+			} else {
+				// the CR-LF ending the previous chunk
+				scanner.eatSeparators();
+			}
+			// the chunk header contains the size in hex format
+			// and could contain additional parameters which we ignore atm
+			String chunkHeader = scanner.readLine();
+			String chunkSize = chunkHeader.split( ";", 2 )[ 0 ];
+			long l;
+			try {
+				l = Long.parseLong( chunkSize, 16 );
+			} catch( NumberFormatException e ) {
+				throw new IOException( "Illegal chunk size " + chunkSize );
+			}
+			if( l > 0 ) {
+				remaining = l;
+				return true;
+			}
+			eof = true;
+			// parse optional trailer (additional HTTP headers)
+			parseHeaderProperties( message );
+			return false;
+		}
+
+		@Override
+		public int read()
+			throws IOException {
+			final byte[] b = new byte[ 1 ];
+			return read( b, 0, 1 ) == -1 ? -1 : b[ 0 ] & 0xff;
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len )
+			throws IOException {
+			if( len == 0 ) {
+				return 0;
+			}
+			if( remaining == 0 && !nextChunk() ) {
+				return -1;
+			}
+			int r = stream.read( b, off, (int) Math.min( len, remaining ) );
 			if( r == -1 ) {
 				throw new EOFException();
 			}
-			s += r;
-		} while( s < length );
+			remaining -= r;
+			return r;
+		}
 	}
 
-	private static final int BLOCK_SIZE = 0x1000; // 4K
+	// Reads exactly length bytes from the underlying stream
+	private static class BoundedInputStream extends InputStream {
+		private final InputStream stream;
+		private long remaining;
 
-	private static byte[] readAll( InputStream stream )
-		throws IOException {
-		int r;
-		ByteArrayOutputStream c = new ByteArrayOutputStream();
-		byte[] tmp = new byte[ BLOCK_SIZE ];
-		while( (r = stream.read( tmp, 0, BLOCK_SIZE )) != -1 ) {
-			c.write( tmp, 0, r );
-			tmp = new byte[ BLOCK_SIZE ];
+		private BoundedInputStream( InputStream stream, long length ) {
+			this.stream = stream;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read()
+			throws IOException {
+			final byte[] b = new byte[ 1 ];
+			return read( b, 0, 1 ) == -1 ? -1 : b[ 0 ] & 0xff;
+		}
+
+		@Override
+		public int read( byte[] b, int off, int len )
+			throws IOException {
+			if( len == 0 ) {
+				return 0;
+			}
+			if( remaining == 0 ) {
+				return -1;
+			}
+			int r = stream.read( b, off, (int) Math.min( len, remaining ) );
+			if( r == -1 ) {
+				throw new EOFException();
+			}
+			remaining -= r;
+			return r;
 		}
-		return c.toByteArray();
 	}
 
 	private void readContent( HttpMessage message )
 		throws IOException {
 		boolean chunked = false;
-		int contentLength = -1;
+		long contentLength = -1;
 
 		String p = message.getProperty( "transfer-encoding" );
 
@@ -267,7 +382,7 @@ public class HttpParser {
 			p = message.getProperty( "content-length" );
 			if( p != null && !p.isEmpty() ) {
 				try {
-					contentLength = Integer.parseInt( p );
+					contentLength = Long.parseLong( p );
 					if( contentLength == 0 ) {
 						message.setContent( new byte[ 0 ] );
 						return;
@@ -278,41 +393,11 @@ public class HttpParser {
 			}
 		}
 
-		byte[] buffer = null;
-		InputStream stream = scanner.inputStream();
+		InputStream body = null;
 		if( chunked ) {
-			// Link: http://tools.ietf.org/html/rfc2616#section-3.6.1
-			List< byte[] > chunks = new ArrayList<>();
-			int l = -1, totalLen = 0;
-			scanner.readChar();
-			do {
-				// the chunk header contains the size in hex format
-				// and could contain additional parameters which we ignore atm
-				String chunkHeader = scanner.readLine();
-				String chunkSize = chunkHeader.split( ";", 2 )[ 0 ];
-				try {
-					l = Integer.parseInt( chunkSize, 16 );
-				} catch( NumberFormatException e ) {
-					throw new IOException( "Illegal chunk size " + chunkSize );
-				}
-				// parses the real chunk with the specified size, followed by CR-LF
-				if( l > 0 ) {
-					totalLen += l;
-					byte[] chunk = new byte[ l ];
-					blockingRead( stream, chunk, 0, l );
-					chunks.add( chunk );
-					scanner.readChar();
-					scanner.eatSeparators();
-				}
-			} while( l > 0 );
-			// parse optional trailer (additional HTTP headers)
-			parseHeaderProperties( message );
-			ByteBuffer b = ByteBuffer.allocate( totalLen );
-			chunks.forEach( b::put );
-			buffer = b.array();
+			body = new ChunkedInputStream( message );
 		} else if( contentLength > 0 ) {
-			buffer = new byte[ contentLength ];
-			blockingRead( stream, buffer, 0, contentLength );
+			body = new BoundedInputStream( scanner.inputStream(), contentLength );
 		} else if( message.isResponse() ) {
 			// Per https://tools.ietf.org/html/rfc7230#section-3.3.3 payload may only be sent on *responses*
 			// (including the HTTP version header) when there is NO transfer encoding and NO content length
@@ -330,25 +415,277 @@ public class HttpParser {
 				(version.equals( HttpMessage.Version.HTTP_1_0 )
 					&&
 					!message.getPropertyOrEmptyString( "connection" ).equalsIgnoreCase( "keep-alive" )) ) {
-				buffer = readAll( scanner.inputStream() );
+				body = scanner.inputStream();
 			}
 		}
 
-		if( buffer != null ) {
-			p = message.getProperty( "content-encoding" );
-			if( p != null ) {
-				if( p.contains( "deflate" ) ) {
-					buffer = readAll( new InflaterInputStream( new ByteArrayInputStream( buffer ) ) );
-				} else if( p.contains( "gzip" ) ) {
-					buffer = readAll( new GZIPInputStream( new ByteArrayInputStream( buffer ) ) );
-				} else if( !p.equals( "identity" ) ) {
-					throw new UnsupportedEncodingException( "Unrecognized Content-Encoding: " + p );
-				}
+		if( body != null ) {
+			readBody( message, body, streamingThreshold, spool );
+		} else {
+			message.setContent( new byte[ 0 ] );
+		}
+	}
+
+	/*
+	 * Reads the body of the message, decoding it according to its Content-Encoding.
+	 */
+	static void readBody( HttpMessage message, InputStream body, long streamingThreshold, Spool spool )
+		throws IOException {
+		InputStream content = body;
+		String p = message.getProperty( "content-encoding" );
+		if( p != null ) {
+			if( p.contains( "deflate" ) ) {
+				content = new InflaterInputStream( body );
+			} else if( p.contains( "gzip" ) ) {
+				content = new GZIPInputStream( body );
+			} else if( !p.equals( "identity" ) ) {
+				throw new UnsupportedEncodingException( "Unrecognized Content-Encoding: " + p );
 			}
+		}
 
-			message.setContent( buffer );
+		if( streamingThreshold < 0 ) {
+			message.setContent( content.readAllBytes() );
 		} else {
-			message.setContent( new byte[ 0 ] );
+			message.setContent( spool( content, streamingThreshold, spool ) );
+		}
+		// Consume what the decoder left, e.g., the last chunk and the trailer
+		if( content != body ) {
+			body.transferTo( OutputStream.nullOutputStream() );
+		}
+	}
+
+	/*
+	 * Reads the content into memory if it does not exceed the threshold, and into a file of the spool
+	 * otherwise.
+	 */
+	private static ByteArray spool( InputStream content, long threshold, Spool spool )
+		throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final byte[] block = new byte[ BLOCK_SIZE ];
+		int r;
+		while( (r = content.read( block )) != -1 ) {
+			buffer.write( block, 0, r );
+			if( buffer.size() > threshold ) {
+				return spoolToFile( buffer, content, spool );
+			}
+		}
+		return new ByteArray( buffer.toByteArray() );
+	}
+
+	private static ByteStream spoolToFile( ByteArrayOutputStream buffer, InputStream content, Spool spool )
+		throws IOException {
+		final Path file = spool.createFile();
+		long length = 0;
+		try {
+			try( OutputStream ostream = Files.newOutputStream( file ) ) {
+				spool.reserve( buffer.size() );
+				length = buffer.size();
+				buffer.writeTo( ostream );
+				final byte[] block = new byte[ BLOCK_SIZE ];
+				int r;
+				while( (r = content.read( block )) != -1 ) {
+					spool.reserve( r );
+					length += r;
+					ostream.write( block, 0, r );
+				}
+			}
+			return spool.content( file, length );
+		} catch( IOException e ) {
+			spool.delete( file, length );
+			throw e;
+		}
+	}
+
+	/*
+	 * Reads a body that has already been written to a file of the spool, which is then owned by the
+	 * message. Bodies without a Content-Encoding are streamed from the file itself.
+	 */
+	static void readBody( HttpMessage message, Path file, long length, long streamingThreshold, Spool spool )
+		throws IOException {
+		final String encoding = message.getProperty( "content-encoding" );
+		if( encoding == null || encoding.equals( "identity" ) ) {
+			message.setContent( spool.content( file, length ) );
+			return;
+		}
+		try( InputStream body = Files.newInputStream( file ) ) {
+			readBody( message, body, streamingThreshold, spool );
+		} finally {
+			spool.delete( file, length );
+		}
+	}
+
+	/**
+	 * Finds where the requests received by an event loop end. The body of a request is delimited by its
+	 * chunked encoding or its Content-Length header, and requests with neither have no body. The
+	 * preface of HTTP/2 cannot be framed.
+	 */
+	public static class RequestFramer implements FramedCommProtocol.Framer {
+		private enum State {
+			START, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILER
+		}
+
+		private State state = State.START;
+		// Offsets from the start of the request: the next byte to examine and the line it belongs to
+		private int p = 0;
+		private int lineStart = 0;
+		// Where the body or the current chunk ends. Larger messages than the event loop accepts are
+		// either handed over to a blocking channel or refused, so this is not a valid length.
+		private long end = 0;
+		private boolean requestLine = true;
+		private boolean chunked = false;
+		private long contentLength = 0;
+
+		@Override
+		public int frameLength( ByteBuffer buffer )
+			throws IOException {
+			final int start = buffer.position();
+			final int available = buffer.limit() - start;
+			while( true ) {
+				switch( state ) {
+				case START:
+					// The separators before the request line are skipped by parse()
+					while( p < available && Scanner.isSeparator( (char) buffer.get( start + p ) ) ) {
+						p++;
+					}
+					if( available - p < 3 ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					if( buffer.get( start + p ) == Http2Connection.PREFACE[ 0 ]
+						&& buffer.get( start + p + 1 ) == Http2Connection.PREFACE[ 1 ]
+						&& buffer.get( start + p + 2 ) == Http2Connection.PREFACE[ 2 ] ) {
+						reset();
+						return FramedCommProtocol.UNFRAMED;
+					}
+					lineStart = p;
+					state = State.HEADERS;
+					break;
+				case HEADERS: {
+					final String line = nextLine( buffer, start, available );
+					if( line == null ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					if( line.isEmpty() ) {
+						if( chunked ) {
+							state = State.CHUNK_SIZE;
+						} else {
+							end = p + Math.min( contentLength, Integer.MAX_VALUE );
+							state = State.BODY;
+						}
+					} else if( requestLine ) {
+						requestLine = false;
+					} else {
+						header( line );
+					}
+					break;
+				}
+				case BODY:
+					return end <= available ? complete( (int) end ) : FramedCommProtocol.INCOMPLETE;
+				case CHUNK_SIZE: {
+					// Follows ChunkedInputStream
+					final String line = nextLine( buffer, start, available );
+					if( line == null ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					final String chunkSize = line.split( ";", 2 )[ 0 ].trim();
+					final long size;
+					try {
+						size = Long.parseLong( chunkSize, 16 );
+					} catch( NumberFormatException e ) {
+						throw new IOException( "Illegal chunk size " + chunkSize );
+					}
+					if( size <= 0 ) {
+						state = State.TRAILER;
+					} else {
+						end = p + Math.min( size, Integer.MAX_VALUE );
+						state = State.CHUNK_DATA;
+					}
+					break;
+				}
+				case CHUNK_DATA:
+					if( end > available ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					p = (int) end;
+					state = State.CHUNK_END;
+					break;
+				case CHUNK_END:
+					// the CR-LF ending the chunk
+					while( p < available && Scanner.isNewLineChar( (char) buffer.get( start + p ) ) ) {
+						p++;
+					}
+					if( p == available ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					lineStart = p;
+					state = State.CHUNK_SIZE;
+					break;
+				case TRAILER: {
+					// The trailer ends with an empty line
+					final String line = nextLine( buffer, start, available );
+					if( line == null ) {
+						return FramedCommProtocol.INCOMPLETE;
+					}
+					if( line.isEmpty() ) {
+						return complete( p );
+					}
+					break;
+				}
+				}
+			}
+		}
+
+		@Override
+		public long minimumLength() {
+			return state == State.BODY || state == State.CHUNK_DATA ? Math.max( p, end ) : p;
+		}
+
+		// Returns the line starting at lineStart and moves past it, or null if it does not end yet
+		private String nextLine( ByteBuffer buffer, int start, int available ) {
+			while( p < available ) {
+				if( buffer.get( start + p++ ) == '\n' ) {
+					final int eol = p - 1;
+					final int lineEnd = eol > lineStart && buffer.get( start + eol - 1 ) == '\r' ? eol - 1 : eol;
+					final byte[] bytes = new byte[ lineEnd - lineStart ];
+					buffer.duplicate().position( start + lineStart ).get( bytes );
+					lineStart = p;
+					return new String( bytes, StandardCharsets.ISO_8859_1 ).trim();
+				}
+			}
+			return null;
+		}
+
+		private void header( String line )
+			throws IOException {
+			final String[] header = line.split( ":", 2 );
+			if( header.length == 2 ) {
+				final String name = header[ 0 ].trim().toLowerCase();
+				final String value = header[ 1 ].trim();
+				if( "transfer-encoding".equals( name ) && value.startsWith( "chunked" ) ) {
+					// Transfer-encoding has the precedence over Content-Length
+					chunked = true;
+				} else if( "content-length".equals( name ) && !value.isEmpty() ) {
+					try {
+						contentLength = Math.max( 0, Long.parseLong( value ) );
+					} catch( NumberFormatException e ) {
+						throw new IOException( "Illegal Content-Length value " + value );
+					}
+				}
+			}
+		}
+
+		private int complete( int length ) {
+			reset();
+			return length;
+		}
+
+		private void reset() {
+			state = State.START;
+			p = 0;
+			lineStart = 0;
+			end = 0;
+			requestLine = true;
+			chunked = false;
+			contentLength = 0;
 		}
 	}
 
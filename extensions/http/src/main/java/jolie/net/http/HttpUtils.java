@@ -61,6 +61,7 @@ import jolie.js.JsUtils;
 import jolie.net.CommChannel;
 import jolie.net.CommMessage;
 import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
 import jolie.runtime.FaultException;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
@@ -80,6 +81,7 @@ public class HttpUtils {
 	public static final String DEFAULT_CONTENT_TYPE = ContentTypes.APPLICATION_OCTET_STREAM; // default content type per
 																								// RFC 2616#7.2.1
 	public static final String DEFAULT_FORMAT = "xml";
+	public static final long DEFAULT_STREAMING_THRESHOLD = 0x100000; // 1M
 
 	public static final int DEFAULT_STATUS_CODE = 200;
 	public static final int DEFAULT_FAULT_STATUS_CODE = 500;
@@ -174,6 +176,9 @@ public class HttpUtils {
 		public static final String INCOMING_HEADERS = "inHeaders";
 		public static final String STATUS_CODES = "statusCodes";
 		public static final String FORCE_RECEIVING_CHARSET = "forceRecvCharset";
+		public static final String STREAMING = "streaming";
+		public static final String STREAMING_THRESHOLD = "threshold";
+		public static final String HTTP2 = "http2";
 
 		public static class MultiPartHeaders {
 			public static final String FILENAME = "filename";
@@ -286,6 +291,16 @@ public class HttpUtils {
 	}
 
 	private static void errorGenerator( OutputStream ostream, IOException e ) throws IOException {
+		final byte[] content = errorContent( e );
+		ostream.write( errorHeader( e, content.length ).getBytes( StandardCharsets.UTF_8 ) );
+		ostream.write( content );
+		ostream.flush();
+	}
+
+	/*
+	 * Returns the head of the response that reports the exception to the client
+	 */
+	public static String errorHeader( IOException e, int contentLength ) {
 		StringBuilder httpMessage = new StringBuilder( "HTTP/1.1 " );
 		if( e instanceof UnsupportedEncodingException ) { // 415 Unsupported Media Type
 			httpMessage.append( getStatusCodeDescription( 415 ) ).append( CRLF );
@@ -307,14 +322,15 @@ public class HttpUtils {
 		} else { // 500 Internal Server Error
 			httpMessage.append( getStatusCodeDescription( 500 ) ).append( CRLF );
 		}
-		String message = e.getMessage() != null ? e.getMessage() : e.toString();
-		ByteArray content = new ByteArray( message.getBytes( StandardCharsets.UTF_8 ) );
 		httpMessage.append( "Server: Jolie" ).append( CRLF )
 			.append( "Content-Type: text/plain; charset=utf-8" ).append( CRLF )
-			.append( "Content-Length: " ).append( content.size() ).append( CRLF ).append( CRLF );
-		ostream.write( httpMessage.toString().getBytes( StandardCharsets.UTF_8 ) );
-		ostream.write( content.getBytes() );
-		ostream.flush();
+			.append( "Content-Length: " ).append( contentLength ).append( CRLF ).append( CRLF );
+		return httpMessage.toString();
+	}
+
+	public static byte[] errorContent( IOException e ) {
+		String message = e.getMessage() != null ? e.getMessage() : e.toString();
+		return message.getBytes( StandardCharsets.UTF_8 );
 	}
 
 	public static CommMessage recv( InputStream istream, OutputStream ostream, boolean inInputPort, CommChannel channel,
@@ -473,7 +489,7 @@ public class HttpUtils {
 		final StringBuilder debugSB = new StringBuilder( "[HTTP debug] Sending:\n" )
 			.append( header );
 		if( showContent && encodedContent != null && encodedContent.content != null ) {
-			debugSB.append( encodedContent.content.toString( charset ) );
+			debugSB.append( contentToString( encodedContent.content, charset ) );
 		}
 		return debugSB.toString();
 	}
@@ -519,7 +535,19 @@ public class HttpUtils {
 	 */
 	public static String getHttpBody( HttpMessage message, String charset )
 		throws IOException {
-		return new String( message.content(), charset );
+		return contentToString( message.contentValue(), charset );
+	}
+
+	/*
+	 * Returns the content as a string for logging, without reading streamed content
+	 */
+	public static String contentToString( ByteArray content, String charset )
+		throws UnsupportedEncodingException {
+		if( content instanceof ByteStream ) {
+			final long length = ((ByteStream) content).length();
+			return "[streamed content of " + (length < 0 ? "unknown length" : length + " bytes") + "]";
+		}
+		return content.toString( charset );
 	}
 
 	public static FaultException recv_mapHttpStatusCodeFault( HttpMessage message, Value httpStatusValue,
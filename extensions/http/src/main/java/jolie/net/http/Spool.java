@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import jolie.runtime.ByteStream;
+
+/**
+ * The temporary files where the received bodies larger than the streaming threshold are written
+ * (see {@link HttpParser}). A file is deleted when the content read from it is closed or garbage
+ * collected. The total size of the files is bounded, so that peers cannot fill the disk: receiving
+ * a body that would exceed it fails with an IOException.
+ *
+ * The default spool, shared by all the connections of the JVM, keeps its files in a directory of
+ * its own, which is deleted with the files still in it when the JVM exits.
+ */
+public class Spool {
+	private static final long DEFAULT_MAX_SIZE = 1L << 30; // 1G
+	private static final Spool DEFAULT = new Spool( null, DEFAULT_MAX_SIZE );
+
+	private final long maxSize;
+	private final AtomicLong size = new AtomicLong();
+	private Path directory;
+
+	/**
+	 * Creates a spool that writes its files in the given directory, which must exist and is not deleted
+	 * by the spool.
+	 *
+	 * @param maxSize the maximum number of bytes in the files of this spool
+	 */
+	public Spool( Path directory, long maxSize ) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	public static Spool getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the directory of the files of this spool, creating it for the default spool.
+	 */
+	public synchronized Path directory()
+		throws IOException {
+		if( directory == null ) {
+			final Path created = Files.createTempDirectory( "jolie-http-" );
+			Runtime.getRuntime().addShutdownHook( new Thread( () -> deleteDirectory( created ) ) );
+			directory = created;
+		}
+		return directory;
+	}
+
+	/**
+	 * Returns the number of bytes in the files of this spool.
+	 */
+	public long size() {
+		return size.get();
+	}
+
+	// Creates an empty file, whose bytes must be reserved as they are written
+	Path createFile()
+		throws IOException {
+		return Files.createTempFile( directory(), "body-", ".tmp" );
+	}
+
+	void reserve( long bytes )
+		throws IOException {
+		if( size.addAndGet( bytes ) > maxSize ) {
+			size.addAndGet( -bytes );
+			throw new IOException( "Spooling this body would exceed the maximum size of the spool ("
+				+ maxSize + " bytes)" );
+		}
+	}
+
+	void release( long bytes ) {
+		size.addAndGet( -bytes );
+	}
+
+	// Deletes a file that is no longer needed, and releases its reserved bytes
+	void delete( Path file, long bytes ) {
+		try {
+			Files.deleteIfExists( file );
+		} catch( IOException e ) {
+			// Only a temporary file is left behind
+		}
+		release( bytes );
+	}
+
+	// Returns the content of a file, which releases the reserved bytes when it deletes the file
+	ByteStream content( Path file, long length ) {
+		return ByteStream.ofFile( file, length, () -> release( length ) );
+	}
+
+	private static void deleteDirectory( Path directory ) {
+		try( Stream< Path > files = Files.list( directory ) ) {
+			for( Path file : (Iterable< Path >) files::iterator ) {
+				Files.deleteIfExists( file );
+			}
+			Files.deleteIfExists( directory );
+		} catch( IOException e ) {
+			// The JVM is exiting, only temporary files are left behind
+		}
+	}
+}
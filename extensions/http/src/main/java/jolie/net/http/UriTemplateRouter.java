@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * Routes requests to operations by the URI templates of an operation-specific configuration
+ * ("osc"). The templates are compiled once into a trie for each method, with a level for each
+ * segment of the path: literal segments are looked up in a map and tried first, then the segments
+ * containing template expressions.
+ *
+ * Expressions match like {@link jolie.uri.UriUtils#match(String, String)}: each variable captures
+ * one or more characters other than '/', and operators and modifiers are ignored.
+ */
+public final class UriTemplateRouter {
+	private static final String VARIABLE = "([^/]+)";
+	private static final String OPERATORS = "+#./;?&=,!@|";
+
+	/**
+	 * An operation reachable through a URI template.
+	 */
+	public static final class Route {
+		private final String operationName;
+		private final Value configuration;
+		private final String[] variables;
+
+		private Route( String operationName, Value configuration, String[] variables ) {
+			this.operationName = operationName;
+			this.configuration = configuration;
+			this.variables = variables;
+		}
+
+		public String operationName() {
+			return operationName;
+		}
+
+		/**
+		 * Returns the configuration of the operation, i.e., its child in the osc parameter.
+		 */
+		public Value configuration() {
+			return configuration;
+		}
+	}
+
+	private static class Node {
+		private final Map< String, Node > literals = new HashMap<>();
+		// Segments with literal text come before those made of a single variable
+		private final List< Segment > segments = new ArrayList<>();
+		private Route route = null;
+	}
+
+	private static class Segment {
+		private final String key;
+		// null if the segment is a single variable
+		private final Pattern pattern;
+		private final int variables;
+		private final Node next = new Node();
+
+		private Segment( String key, int variables ) {
+			this.key = key;
+			this.pattern = key.equals( VARIABLE ) ? null : Pattern.compile( key );
+			this.variables = variables;
+		}
+	}
+
+	private final Map< String, Node > roots = new HashMap<>();
+	private final Value source;
+	private final int size;
+	private int maxVariables = 0;
+
+	private UriTemplateRouter( Value source ) {
+		this.source = source;
+		this.size = source.children().size();
+	}
+
+	/**
+	 * Compiles the templates in the given osc parameter. Operations without a template or a method are
+	 * left out, and the first of the operations with the same method and template wins.
+	 */
+	public static UriTemplateRouter compile( Value configuration ) {
+		final UriTemplateRouter router = new UriTemplateRouter( configuration );
+		for( Entry< String, ValueVector > entry : configuration.children().entrySet() ) {
+			if( entry.getValue().isEmpty() ) {
+				continue;
+			}
+			final Value opConfig = entry.getValue().first();
+			final String method = opConfig.firstChildOrDefault( HttpUtils.Parameters.METHOD, Value::strValue, "" );
+			if( opConfig.hasChildren( HttpUtils.Parameters.TEMPLATE ) && !method.isEmpty() ) {
+				router.add( method.toUpperCase(), entry.getKey(), opConfig,
+					opConfig.getFirstChild( HttpUtils.Parameters.TEMPLATE ).strValue() );
+			}
+		}
+		return router;
+	}
+
+	/**
+	 * Returns whether this router was compiled from the given osc parameter, as long as its templates
+	 * have not been changed in place since.
+	 */
+	public boolean isCompiledFrom( Value configuration ) {
+		return configuration == source && configuration.children().size() == size;
+	}
+
+	private void add( String method, String operationName, Value opConfig, String template ) {
+		Node node = roots.computeIfAbsent( method, k -> new Node() );
+		final List< String > variables = new ArrayList<>();
+		for( String segment : splitTemplate( template ) ) {
+			final StringBuilder key = new StringBuilder();
+			final int count = variables.size();
+			if( !parseSegment( segment, key, variables ) ) {
+				node = node.literals.computeIfAbsent( segment, k -> new Node() );
+			} else {
+				node = segment( node, key.toString(), variables.size() - count ).next;
+			}
+		}
+		if( node.route == null ) {
+			node.route = new Route( operationName, opConfig, variables.toArray( new String[ 0 ] ) );
+		}
+		maxVariables = Math.max( maxVariables, variables.size() );
+	}
+
+	private static Segment segment( Node node, String key, int variables ) {
+		int position = node.segments.size();
+		for( int i = 0; i < node.segments.size(); i++ ) {
+			final Segment segment = node.segments.get( i );
+			if( segment.key.equals( key ) ) {
+				return segment;
+			} else if( segment.pattern == null && position > i ) {
+				position = i;
+			}
+		}
+		final Segment segment = new Segment( key, variables );
+		node.segments.add( segment.pattern == null ? node.segments.size() : position, segment );
+		return segment;
+	}
+
+	// Splits the template at the slashes that are not in expressions
+	private static List< String > splitTemplate( String template ) {
+		final List< String > segments = new ArrayList<>();
+		int start = 0;
+		boolean inExpression = false;
+		for( int i = 0; i < template.length(); i++ ) {
+			final char c = template.charAt( i );
+			if( c == '{' ) {
+				inExpression = template.indexOf( '}', i ) > 0;
+			} else if( c == '}' ) {
+				inExpression = false;
+			} else if( c == '/' && !inExpression ) {
+				segments.add( template.substring( start, i ) );
+				start = i + 1;
+			}
+		}
+		segments.add( template.substring( start ) );
+		return segments;
+	}
+
+	/*
+	 * Builds the regular expression matching a segment of a template and collects the names of its
+	 * variables. Returns false if the segment has no expressions, and is thus a literal.
+	 */
+	private static boolean parseSegment( String segment, StringBuilder regex, List< String > variables ) {
+		boolean hasExpressions = false;
+		int literalStart = 0;
+		int open = segment.indexOf( '{' );
+		while( open >= 0 ) {
+			final int close = segment.indexOf( '}', open );
+			if( close < 0 ) {
+				// An unterminated expression is literal text
+				break;
+			}
+			String expression = segment.substring( open + 1, close );
+			if( !expression.isEmpty() && OPERATORS.indexOf( expression.charAt( 0 ) ) >= 0 ) {
+				expression = expression.substring( 1 );
+			}
+			if( !expression.isEmpty() ) {
+				if( open > literalStart ) {
+					regex.append( Pattern.quote( segment.substring( literalStart, open ) ) );
+				}
+				for( String spec : expression.split( ",", -1 ) ) {
+					final int modifier = spec.indexOf( ':' );
+					if( modifier >= 0 ) {
+						spec = spec.substring( 0, modifier );
+					} else if( spec.endsWith( "*" ) ) {
+						spec = spec.substring( 0, spec.length() - 1 );
+					}
+					variables.add( spec );
+					regex.append( VARIABLE );
+				}
+				hasExpressions = true;
+				literalStart = close + 1;
+			}
+			open = segment.indexOf( '{', close );
+		}
+		if( hasExpressions && literalStart < segment.length() ) {
+			regex.append( Pattern.quote( segment.substring( literalStart ) ) );
+		}
+		return hasExpressions;
+	}
+
+	/**
+	 * Returns the operation whose template matches the given request, and sets the variables of its
+	 * template as children of value. Returns null if no template matches.
+	 *
+	 * @param method the name of the method of the request, in upper case
+	 * @param path the path of the request, without the query string
+	 */
+	public Route route( String method, String path, Value value ) {
+		final Node root = roots.get( method );
+		if( root == null ) {
+			return null;
+		}
+		final String[] captures = new String[ maxVariables ];
+		final Route route = match( root, path.split( "/", -1 ), 0, captures, 0 );
+		if( route != null ) {
+			for( int i = 0; i < route.variables.length; i++ ) {
+				value.getFirstChild( route.variables[ i ] ).setValue( captures[ i ] );
+			}
+		}
+		return route;
+	}
+
+	private static Route match( Node node, String[] segments, int index, String[] captures, int captured ) {
+		if( index == segments.length ) {
+			return node.route;
+		}
+		final String segment = segments[ index ];
+		final Node literal = node.literals.get( segment );
+		if( literal != null ) {
+			final Route route = match( literal, segments, index + 1, captures, captured );
+			if( route != null ) {
+				return route;
+			}
+		}
+		for( Segment s : node.segments ) {
+			if( s.pattern == null ) {
+				if( segment.isEmpty() ) {
+					continue;
+				}
+				captures[ captured ] = segment;
+			} else {
+				final Matcher m = s.pattern.matcher( segment );
+				if( !m.matches() ) {
+					continue;
+				}
+				for( int i = 0; i < s.variables; i++ ) {
+					captures[ captured + i ] = m.group( i + 1 );
+				}
+			}
+			final Route route = match( s.next, segments, index + 1, captures, captured + s.variables );
+			if( route != null ) {
+				return route;
+			}
+		}
+		return null;
+	}
+}
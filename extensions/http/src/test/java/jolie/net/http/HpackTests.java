@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The examples of RFC 7541, Appendix C.
+ */
+class HpackTests {
+	private static final String DATE_21 = "Mon, 21 Oct 2013 20:13:21 GMT";
+	private static final String DATE_22 = "Mon, 21 Oct 2013 20:13:22 GMT";
+	private static final String LOCATION = "https://www.example.com";
+	private static final String COOKIE = "foo=ASDJKHQKBZXOQWEOPIUAXQWEOIU; max-age=3600; version=1";
+
+	private static final List< List< Entry< String, String > > > REQUESTS = List.of(
+		List.of( Map.entry( ":method", "GET" ), Map.entry( ":scheme", "http" ), Map.entry( ":path", "/" ),
+			Map.entry( ":authority", "www.example.com" ) ),
+		List.of( Map.entry( ":method", "GET" ), Map.entry( ":scheme", "http" ), Map.entry( ":path", "/" ),
+			Map.entry( ":authority", "www.example.com" ), Map.entry( "cache-control", "no-cache" ) ),
+		List.of( Map.entry( ":method", "GET" ), Map.entry( ":scheme", "https" ), Map.entry( ":path", "/index.html" ),
+			Map.entry( ":authority", "www.example.com" ), Map.entry( "custom-key", "custom-value" ) ) );
+
+	private static final List< List< Entry< String, String > > > RESPONSES = List.of(
+		List.of( Map.entry( ":status", "302" ), Map.entry( "cache-control", "private" ),
+			Map.entry( "date", DATE_21 ), Map.entry( "location", LOCATION ) ),
+		List.of( Map.entry( ":status", "307" ), Map.entry( "cache-control", "private" ),
+			Map.entry( "date", DATE_21 ), Map.entry( "location", LOCATION ) ),
+		List.of( Map.entry( ":status", "200" ), Map.entry( "cache-control", "private" ),
+			Map.entry( "date", DATE_22 ), Map.entry( "location", LOCATION ),
+			Map.entry( "content-encoding", "gzip" ), Map.entry( "set-cookie", COOKIE ) ) );
+
+	// The responses are sent with a dynamic table of 256 bytes, which the blocks announce first
+	private static final String TABLE_SIZE_256 = "3fe101";
+
+	private static byte[] hex( String s ) {
+		s = s.replace( " ", "" );
+		final byte[] b = new byte[ s.length() / 2 ];
+		for( int i = 0; i < b.length; i++ ) {
+			b[ i ] = (byte) Integer.parseInt( s.substring( 2 * i, 2 * i + 2 ), 16 );
+		}
+		return b;
+	}
+
+	private static byte[] encode( Hpack.Encoder encoder, List< Entry< String, String > > headers ) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encoder.encode( headers, out );
+		return out.toByteArray();
+	}
+
+	@Test
+	void integerRepresentation() throws IOException {
+		// C.1.2, as the size of the dynamic table
+		final Hpack.Encoder encoder = new Hpack.Encoder();
+		encoder.setMaxTableSize( 1337 );
+		assertArrayEquals( hex( "3f9a0a" ), encode( encoder, List.of() ), "C.1.2" );
+		assertEquals( List.of( Map.entry( ":method", "GET" ) ), new Hpack.Decoder().decode( hex( "3f9a0a 82" ) ),
+			"C.1.2" );
+	}
+
+	@Test
+	void literalHeaderFields() throws IOException {
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		assertEquals( List.of( Map.entry( "custom-key", "custom-header" ) ),
+			decoder.decode( hex( "400a 6375 7374 6f6d 2d6b 6579 0d63 7573 746f 6d2d 6865 6164 6572" ) ), "C.2.1" );
+		assertEquals( List.of( Map.entry( "custom-key", "custom-header" ) ), decoder.decode( hex( "be" ) ),
+			"C.2.1 is indexed" );
+		assertEquals( List.of( Map.entry( ":path", "/sample/path" ) ),
+			decoder.decode( hex( "040c 2f73 616d 706c 652f 7061 7468" ) ), "C.2.2" );
+		assertEquals( List.of( Map.entry( "password", "secret" ) ),
+			decoder.decode( hex( "1008 7061 7373 776f 7264 0673 6563 7265 74" ) ), "C.2.3" );
+		assertEquals( List.of( Map.entry( ":method", "GET" ) ), decoder.decode( hex( "82" ) ), "C.2.4" );
+		// Neither C.2.2 nor C.2.3 was indexed
+		assertThrows( IOException.class, () -> decoder.decode( hex( "bf" ) ) );
+	}
+
+	@Test
+	void requestsWithoutHuffmanCoding() throws IOException {
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		assertEquals( REQUESTS.get( 0 ),
+			decoder.decode( hex( "8286 8441 0f77 7777 2e65 7861 6d70 6c65 2e63 6f6d" ) ), "C.3.1" );
+		assertEquals( REQUESTS.get( 1 ), decoder.decode( hex( "8286 84be 5808 6e6f 2d63 6163 6865" ) ), "C.3.2" );
+		assertEquals( REQUESTS.get( 2 ), decoder.decode(
+			hex( "8287 85bf 400a 6375 7374 6f6d 2d6b 6579 0c63 7573 746f 6d2d 7661 6c75 65" ) ), "C.3.3" );
+	}
+
+	@Test
+	void requestsWithHuffmanCoding() throws IOException {
+		final String[] blocks = {
+			"8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff",
+			"8286 84be 5886 a8eb 1064 9cbf",
+			"8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf"
+		};
+		final Hpack.Encoder encoder = new Hpack.Encoder();
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		for( int i = 0; i < blocks.length; i++ ) {
+			assertArrayEquals( hex( blocks[ i ] ), encode( encoder, REQUESTS.get( i ) ), "C.4." + (i + 1) );
+			assertEquals( REQUESTS.get( i ), decoder.decode( hex( blocks[ i ] ) ), "C.4." + (i + 1) );
+		}
+	}
+
+	@Test
+	void responsesWithoutHuffmanCoding() throws IOException {
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		assertEquals( RESPONSES.get( 0 ), decoder.decode( hex( TABLE_SIZE_256
+			+ "4803 3330 3258 0770 7269 7661 7465 611d 4d6f 6e2c 2032 3120 4f63 7420 3230 3133 2032 303a"
+			+ "3133 3a32 3120 474d 546e 1768 7474 7073 3a2f 2f77 7777 2e65 7861 6d70 6c65 2e63 6f6d" ) ), "C.5.1" );
+		assertEquals( RESPONSES.get( 1 ), decoder.decode( hex( "4803 3330 37c1 c0bf" ) ), "C.5.2" );
+		assertEquals( RESPONSES.get( 2 ), decoder.decode( hex(
+			"88c1 611d 4d6f 6e2c 2032 3120 4f63 7420 3230 3133 2032 303a 3133 3a32 3220 474d 54c0 5a04"
+				+ "677a 6970 7738 666f 6f3d 4153 444a 4b48 514b 425a 584f 5157 454f 5049 5541 5851 5745 4f49"
+				+ "553b 206d 6178 2d61 6765 3d33 3630 303b 2076 6572 7369 6f6e 3d31" ) ),
+			"C.5.3" );
+		assertEvicted( decoder );
+	}
+
+	@Test
+	void responsesWithHuffmanCoding() throws IOException {
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		assertEquals( RESPONSES.get( 0 ), decoder.decode( hex( TABLE_SIZE_256
+			+ "4882 6402 5885 aec3 771a 4b61 96d0 7abe 9410 54d4 44a8 2005 9504 0b81 66e0 82a6 2d1b ff6e"
+			+ "919d 29ad 1718 63c7 8f0b 97c8 e9ae 82ae 43d3" ) ), "C.6.1" );
+		assertEquals( RESPONSES.get( 1 ), decoder.decode( hex( "4883 640e ffc1 c0bf" ) ), "C.6.2" );
+		assertEquals( RESPONSES.get( 2 ), decoder.decode( hex(
+			"88c1 6196 d07a be94 1054 d444 a820 0595 040b 8166 e084 a62d 1bff c05a 839b d9ab 77ad 94e7"
+				+ "821d d7f2 e6c7 b335 dfdf cd5b 3960 d5af 2708 7f36 72c1 ab27 0fb5 291f 9587 3160 65c0 03ed"
+				+ "4ee5 b106 3d50 07" ) ),
+			"C.6.3" );
+		assertEvicted( decoder );
+	}
+
+	// After the third response, the table holds set-cookie, content-encoding and date (215 bytes)
+	private static void assertEvicted( Hpack.Decoder decoder ) throws IOException {
+		assertEquals( List.of( Map.entry( "set-cookie", COOKIE ), Map.entry( "content-encoding", "gzip" ),
+			Map.entry( "date", DATE_22 ) ), decoder.decode( hex( "bebfc0" ) ) );
+		assertThrows( IOException.class, () -> decoder.decode( hex( "c1" ) ) );
+	}
+
+	@Test
+	void encoderFollowsTableSize() throws IOException {
+		// The encoder indexes fewer headers than the examples, but must stay in sync with the decoder
+		final Hpack.Encoder encoder = new Hpack.Encoder();
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		encoder.setMaxTableSize( 256 );
+		for( int round = 0; round < 3; round++ ) {
+			for( List< Entry< String, String > > headers : RESPONSES ) {
+				final byte[] block = encode( encoder, headers );
+				assertEquals( headers, decoder.decode( block ) );
+			}
+		}
+		assertThrows( IOException.class, () -> decoder.decode( hex( "3f e1 3f" ) ),
+			"a table larger than the one advertised" );
+	}
+}
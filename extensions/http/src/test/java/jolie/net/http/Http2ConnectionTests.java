@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Stream;
+import jolie.net.ChannelClosingException;
+import jolie.runtime.ByteStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Drives the server side of a connection with the frames of a client written by hand.
+ */
+class Http2ConnectionTests {
+	private static final int DATA = 0x0;
+	private static final int HEADERS = 0x1;
+	private static final int RST_STREAM = 0x3;
+	private static final int SETTINGS = 0x4;
+	private static final int WINDOW_UPDATE = 0x8;
+	private static final int FLAG_END_STREAM = 0x1;
+	private static final int FLAG_END_HEADERS = 0x4;
+	private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+	private static final int ENHANCE_YOUR_CALM = 0xb;
+	// What the server advertises
+	private static final int STREAM_WINDOW_SIZE = 0x100000;
+	private static final int FRAME_SIZE = 16384;
+
+	@TempDir
+	Path directory;
+
+	private static class Frame {
+		private final int type;
+		private final int flags;
+		private final int stream;
+		private final byte[] payload;
+
+		private Frame( int type, int flags, int stream, byte[] payload ) {
+			this.type = type;
+			this.flags = flags;
+			this.stream = stream;
+			this.payload = payload;
+		}
+
+		private int getInt() {
+			return ((payload[ 0 ] & 0x7f) << 24) | ((payload[ 1 ] & 0xff) << 16) | ((payload[ 2 ] & 0xff) << 8)
+				| (payload[ 3 ] & 0xff);
+		}
+	}
+
+	// The client, which writes its frames in advance
+	private static class Peer {
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		private final Hpack.Encoder encoder = new Hpack.Encoder();
+
+		private Peer() {
+			out.writeBytes( Http2Connection.PREFACE );
+		}
+
+		private Peer frame( int type, int flags, int stream, byte[] payload ) {
+			out.write( payload.length >>> 16 );
+			out.write( payload.length >>> 8 );
+			out.write( payload.length );
+			out.write( type );
+			out.write( flags );
+			out.writeBytes( int32( stream ) );
+			out.writeBytes( payload );
+			return this;
+		}
+
+		private Peer settings( int setting, int value ) {
+			final byte[] b = new byte[ 6 ];
+			b[ 1 ] = (byte) setting;
+			System.arraycopy( int32( value ), 0, b, 2, 4 );
+			return frame( SETTINGS, 0, 0, b );
+		}
+
+		private Peer request( int stream, String method, String path, boolean endStream ) {
+			final ByteArrayOutputStream block = new ByteArrayOutputStream();
+			encoder.encode( List.of( Map.entry( ":method", method ), Map.entry( ":scheme", "http" ),
+				Map.entry( ":path", path ), Map.entry( ":authority", "localhost" ) ), block );
+			return frame( HEADERS, FLAG_END_HEADERS | (endStream ? FLAG_END_STREAM : 0), stream,
+				block.toByteArray() );
+		}
+
+		private Peer data( int stream, byte[] b, boolean endStream ) {
+			return frame( DATA, endStream ? FLAG_END_STREAM : 0, stream, b );
+		}
+
+		private Peer windowUpdate( int stream, int increment ) {
+			return frame( WINDOW_UPDATE, 0, stream, int32( increment ) );
+		}
+
+		// Reads one frame for every call to read, so that the frames are processed when they are needed
+		private InputStream input() {
+			return new FilterInputStream( new ByteArrayInputStream( out.toByteArray() ) ) {
+				@Override
+				public int available() {
+					return 0;
+				}
+			};
+		}
+	}
+
+	private static byte[] int32( int value ) {
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+	private static List< Frame > frames( ByteArrayOutputStream out ) {
+		final byte[] b = out.toByteArray();
+		final List< Frame > frames = new ArrayList<>();
+		for( int p = 0; p < b.length; ) {
+			final int length = ((b[ p ] & 0xff) << 16) | ((b[ p + 1 ] & 0xff) << 8) | (b[ p + 2 ] & 0xff);
+			final int stream = ((b[ p + 5 ] & 0x7f) << 24) | ((b[ p + 6 ] & 0xff) << 16) | ((b[ p + 7 ] & 0xff) << 8)
+				| (b[ p + 8 ] & 0xff);
+			frames.add( new Frame( b[ p + 3 ], b[ p + 4 ], stream, Arrays.copyOfRange( b, p + 9, p + 9 + length ) ) );
+			p += 9 + length;
+		}
+		return frames;
+	}
+
+	// Receives the requests of the peer until it has no more frames
+	private static List< HttpMessage > receiveAll( Http2Connection connection, InputStream in,
+		ByteArrayOutputStream out ) throws IOException {
+		final List< HttpMessage > messages = new ArrayList<>();
+		connection.accept( in, out );
+		assertThrows( ChannelClosingException.class, () -> {
+			while( true ) {
+				final HttpMessage message = connection.receive( in, out );
+				if( message != null ) {
+					messages.add( message );
+				}
+			}
+		} );
+		return messages;
+	}
+
+	private long spooledFiles() throws IOException {
+		try( Stream< Path > files = Files.list( directory ) ) {
+			return files.count();
+		}
+	}
+
+	@Test
+	void sendingWaitsForWindowUpdates() throws IOException {
+		final InputStream in = new Peer()
+			.settings( SETTINGS_INITIAL_WINDOW_SIZE, 16 )
+			.request( 1, "GET", "/", true )
+			.windowUpdate( 1, 84 )
+			.input();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Http2Connection connection = new Http2Connection( true, -1 );
+		connection.accept( in, out );
+		assertNull( connection.receive( in, out ), "the settings are not a request" );
+		final HttpMessage request = connection.receive( in, out );
+		assertEquals( "/", request.requestPath() );
+
+		final byte[] body = new byte[ 100 ];
+		Arrays.fill( body, (byte) 'x' );
+		connection.sendResponse( in, out, request.streamId(), List.of( Map.entry( ":status", "200" ) ),
+			new ByteArrayInputStream( body ), body.length );
+		final List< Integer > sent = new ArrayList<>();
+		for( Frame frame : frames( out ) ) {
+			if( frame.type == DATA ) {
+				assertEquals( 1, frame.stream );
+				sent.add( frame.payload.length );
+			}
+		}
+		// The window of the stream allowed 16 bytes, until the peer updated it
+		assertEquals( List.of( 16, 84 ), sent );
+	}
+
+	@Test
+	void receivedDataIsAcknowledged() throws IOException {
+		final byte[] block = new byte[ FRAME_SIZE ];
+		final Peer peer = new Peer().request( 1, "POST", "/", false );
+		for( int sent = 0; sent < 2 * STREAM_WINDOW_SIZE; sent += block.length ) {
+			peer.data( 1, block, sent + block.length == 2 * STREAM_WINDOW_SIZE );
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final List< HttpMessage > messages = receiveAll( new Http2Connection( true, -1 ), peer.input(), out );
+		assertEquals( 1, messages.size() );
+		assertEquals( 2 * STREAM_WINDOW_SIZE, messages.get( 0 ).content().length );
+		long acknowledged = 0;
+		for( Frame frame : frames( out ) ) {
+			if( frame.type == WINDOW_UPDATE && frame.stream == 1 ) {
+				acknowledged += frame.getInt();
+			}
+		}
+		// Without updates, the peer could not have sent more than the initial window of the stream
+		assertTrue( acknowledged >= STREAM_WINDOW_SIZE, "acknowledged " + acknowledged );
+	}
+
+	// Streams whose bodies are received concurrently, each filling its window
+	private static Peer concurrentBodies( int streams ) {
+		final byte[] block = new byte[ FRAME_SIZE ];
+		final Peer peer = new Peer();
+		for( int i = 0; i < streams; i++ ) {
+			peer.request( 2 * i + 1, "POST", "/", false );
+		}
+		for( int sent = 0; sent < STREAM_WINDOW_SIZE; sent += block.length ) {
+			for( int i = 0; i < streams; i++ ) {
+				peer.data( 2 * i + 1, block, false );
+			}
+		}
+		return peer;
+	}
+
+	@Test
+	void bufferedBodiesAreLimited() throws IOException {
+		// 17 MiB in memory would exceed the limit of 16 MiB
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		receiveAll( new Http2Connection( true, -1 ), concurrentBodies( 17 ).input(), out );
+		final List< Frame > resets = new ArrayList<>();
+		for( Frame frame : frames( out ) ) {
+			if( frame.type == RST_STREAM ) {
+				resets.add( frame );
+			}
+		}
+		assertFalse( resets.isEmpty(), "no stream was reset" );
+		for( Frame reset : resets ) {
+			assertTrue( reset.stream > 1, "the first stream was reset" );
+		}
+		assertEquals( ENHANCE_YOUR_CALM, resets.get( 0 ).getInt() );
+	}
+
+	@Test
+	void streamedBodiesAreSpooled() throws IOException {
+		final Spool spool = new Spool( directory, Long.MAX_VALUE );
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		receiveAll( new Http2Connection( true, 0x10000, spool ), concurrentBodies( 17 ).input(), out );
+		for( Frame frame : frames( out ) ) {
+			assertFalse( frame.type == RST_STREAM, "stream " + frame.stream + " was reset" );
+		}
+		// The connection ended before the streams, so their files are gone
+		assertEquals( 0, spooledFiles() );
+		assertEquals( 0, spool.size() );
+	}
+
+	@Test
+	void spooledBodiesAreLimited() throws IOException {
+		// Room for a little more than two of the 1 MiB bodies
+		final Spool spool = new Spool( directory, 2 * STREAM_WINDOW_SIZE + FRAME_SIZE );
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		receiveAll( new Http2Connection( true, 0x10000, spool ), concurrentBodies( 4 ).input(), out );
+		final List< Integer > reset = new ArrayList<>();
+		for( Frame frame : frames( out ) ) {
+			// Later frames of a reset stream are answered with STREAM_CLOSED
+			if( frame.type == RST_STREAM && frame.getInt() == ENHANCE_YOUR_CALM ) {
+				reset.add( frame.stream );
+			}
+		}
+		assertEquals( 2, reset.size(), "reset streams " + reset );
+		assertEquals( 0, spooledFiles() );
+		assertEquals( 0, spool.size() );
+	}
+
+	@Test
+	void closedContentDeletesItsFile() throws IOException {
+		final byte[] body = new byte[ 100 ];
+		final Peer peer = new Peer().request( 1, "POST", "/", false ).data( 1, body, true );
+		final Spool spool = new Spool( directory, Long.MAX_VALUE );
+		final List< HttpMessage > messages =
+			receiveAll( new Http2Connection( true, 10, spool ), peer.input(), new ByteArrayOutputStream() );
+		assertTrue( messages.get( 0 ).isContentStreamed() );
+		assertEquals( 1, spooledFiles() );
+		assertEquals( body.length, spool.size() );
+		((ByteStream) messages.get( 0 ).contentValue()).close();
+		assertEquals( 0, spooledFiles() );
+		assertEquals( 0, spool.size() );
+	}
+
+	@Test
+	void streamsAreMultiplexed() throws IOException {
+		final byte[] a = "aaaaaaa".getBytes( StandardCharsets.US_ASCII );
+		final byte[] b = "bbbbbb".getBytes( StandardCharsets.US_ASCII );
+		final Peer peer = new Peer()
+			.request( 1, "POST", "/a", false )
+			.request( 3, "POST", "/b", false )
+			.data( 1, Arrays.copyOf( a, 5 ), false )
+			.data( 3, b, true )
+			.request( 5, "GET", "/c", true )
+			.data( 1, Arrays.copyOfRange( a, 5, a.length ), true );
+		final InputStream in = peer.input();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// Bodies larger than 4 bytes are spooled
+		final Http2Connection connection = new Http2Connection( true, 4 );
+		final List< HttpMessage > requests = receiveAll( connection, in, out );
+
+		// Returned as they complete
+		assertEquals( 3, requests.size() );
+		assertEquals( List.of( 3, 5, 1 ), List.of( requests.get( 0 ).streamId(), requests.get( 1 ).streamId(),
+			requests.get( 2 ).streamId() ) );
+		assertEquals( "/b", requests.get( 0 ).requestPath() );
+		assertArrayEquals( b, requests.get( 0 ).content() );
+		assertEquals( "/c", requests.get( 1 ).requestPath() );
+		assertEquals( 0, requests.get( 1 ).content().length );
+		assertEquals( "/a", requests.get( 2 ).requestPath() );
+		assertTrue( requests.get( 2 ).isContentStreamed() );
+		assertArrayEquals( a, requests.get( 2 ).content() );
+
+		// Answered in any order
+		out.reset();
+		final Hpack.Decoder decoder = new Hpack.Decoder();
+		for( int stream : new int[] { 1, 5, 3 } ) {
+			final byte[] body = ("response " + stream).getBytes( StandardCharsets.US_ASCII );
+			connection.sendResponse( in, out, stream, List.of( Map.entry( ":status", "200" ) ),
+				new ByteArrayInputStream( body ), body.length );
+		}
+		final List< Frame > frames = frames( out );
+		assertEquals( 6, frames.size() );
+		for( int i = 0; i < 3; i++ ) {
+			final Frame headers = frames.get( 2 * i );
+			final Frame data = frames.get( 2 * i + 1 );
+			assertEquals( HEADERS, headers.type );
+			assertEquals( List.of( Map.entry( ":status", "200" ) ), decoder.decode( headers.payload ) );
+			assertEquals( DATA, data.type );
+			assertEquals( headers.stream, data.stream );
+			assertEquals( FLAG_END_STREAM, data.flags & FLAG_END_STREAM );
+			assertEquals( "response " + data.stream, new String( data.payload, StandardCharsets.US_ASCII ) );
+		}
+	}
+}
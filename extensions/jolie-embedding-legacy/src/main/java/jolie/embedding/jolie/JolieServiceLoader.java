@@ -80,7 +80,7 @@ public class JolieServiceLoader extends EmbeddedServiceLoader {
 			interpreter = new Interpreter(
 				config,
 				params,
-				Optional.of( currInterpreter.logPrefix() ) );
+				currInterpreter );
 		}
 	}
 
@@ -107,7 +107,7 @@ public class JolieServiceLoader extends EmbeddedServiceLoader {
 				currInterpreter.configuration(), source );
 
 			interpreter = new Interpreter( configuration,
-				Optional.empty(), Optional.of( currInterpreter.logPrefix() ) );
+				Optional.empty(), currInterpreter );
 		} catch( FileNotFoundException e ) {
 			throw new IOException(
 				new IllegalStateException( "URI creation should not fail. error: " + e.getMessage() ) );
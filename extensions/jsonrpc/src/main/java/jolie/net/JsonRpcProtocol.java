@@ -296,16 +296,13 @@ public class JsonRpcProtocol extends SequentialCommProtocol implements HttpUtils
 		Type fullMessageType =
 			Type.create( BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( NativeType.VOID ) ),
 				new Range( 1, 1 ), false, subTypes );
-		final StringBuilder json = new StringBuilder();
-		JsUtils.valueToJsonString( value, true, fullMessageType, json );
-		String jsonMessage = json.toString();
-
 		/*
 		 * LSP clients sometimes want a empty array for some fields, the only way to do in jolie is to have
 		 * a type like the follwoing: t*: void then you assing t = void, resulting in t[0] = void the
 		 * problem is that JsUtils will convert this in "t": [null] with this we remove manually null values
 		 * iff there is the parameter osc."operationName".isNullable = true
 		 */
+		boolean removeNulls = false;
 		if( hasParameter( Parameters.OSC ) ) {
 			Value osc = getParameterFirstValue( Parameters.OSC );
 			String opName = message.operationName();
@@ -314,16 +311,21 @@ public class JsonRpcProtocol extends SequentialCommProtocol implements HttpUtils
 				Value childOp = osc.getFirstChild( opName );
 				// if osc has a child with opName and grandChild isNullable
 				if( childOp.hasChildren( Parameters.IS_NULLABLE ) ) {
-					if( childOp.getFirstChild( Parameters.IS_NULLABLE ).boolValue() ) {
-						// then we replace all null with and empty string
-						// TODO use a regex
-						jsonMessage = jsonMessage.replaceAll( "null", "" );
-					}
+					removeNulls = childOp.getFirstChild( Parameters.IS_NULLABLE ).boolValue();
 				}
 			}
 		}
 
-		ByteArray content = new ByteArray( jsonMessage.getBytes( StandardCharsets.UTF_8 ) );
+		ByteArray content;
+		if( removeNulls ) {
+			final StringBuilder json = new StringBuilder();
+			JsUtils.valueToJsonString( value, true, fullMessageType, json );
+			// then we replace all null with and empty string
+			// TODO use a regex
+			content = new ByteArray( json.toString().replaceAll( "null", "" ).getBytes( StandardCharsets.UTF_8 ) );
+		} else {
+			content = JsUtils.valueToJsonBytes( value, true, fullMessageType, StandardCharsets.UTF_8 );
+		}
 
 		if( checkStringParameter( Parameters.TRANSPORT, LSP ) ) {
 			String lspHeaders = "Content-Length: " + content.size() + HttpUtils.CRLF + HttpUtils.CRLF;
@@ -333,7 +335,7 @@ public class JsonRpcProtocol extends SequentialCommProtocol implements HttpUtils
 			}
 
 			ostream.write( lspHeaders.getBytes( HttpUtils.URL_DECODER_ENC ) );
-			ostream.write( content.getBytes() );
+			content.writeTo( ostream );
 		} else {
 			StringBuilder httpMessage = new StringBuilder();
 			if( inInputPort ) {
@@ -383,7 +385,7 @@ public class JsonRpcProtocol extends SequentialCommProtocol implements HttpUtils
 			}
 
 			ostream.write( httpMessage.toString().getBytes( HttpUtils.URL_DECODER_ENC ) );
-			ostream.write( content.getBytes() );
+			content.writeTo( ostream );
 		}
 	}
 
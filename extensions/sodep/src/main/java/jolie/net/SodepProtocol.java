@@ -26,25 +26,35 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import jolie.net.protocols.ByteBufferCommProtocol;
 import jolie.net.protocols.ConcurrentCommProtocol;
+import jolie.net.protocols.FramedCommProtocol;
 import jolie.runtime.ByteArray;
 import jolie.runtime.FaultException;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
 import jolie.runtime.VariablePath;
 
-public class SodepProtocol extends ConcurrentCommProtocol {
+public class SodepProtocol extends ConcurrentCommProtocol implements FramedCommProtocol, ByteBufferCommProtocol {
 	private static class DataTypeHeaderId {
 		private static final int NULL = 0;
 		private static final int STRING = 1;
@@ -245,20 +255,377 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 		return new CommMessage( id, operationName, resourcePath, value, fault );
 	}
 
+	// The buffer codec follows the stream one above. Byte arrays of at least this size are written and
+	// read without copying them
+	private static final int ZERO_COPY_THRESHOLD = 1024;
+
+	private CharsetEncoder newEncoder() {
+		return stringCharset.newEncoder()
+			.onMalformedInput( CodingErrorAction.REPLACE )
+			.onUnmappableCharacter( CodingErrorAction.REPLACE );
+	}
+
+	private static void writeString( ByteBufferOutput out, CharsetEncoder encoder, String str ) {
+		final ByteBuffer lengthBuffer = out.reserve( Integer.BYTES );
+		final int lengthPosition = lengthBuffer.position();
+		lengthBuffer.putInt( 0 );
+		if( str.isEmpty() ) {
+			return;
+		}
+		// Encode straight into the output, then fill in the length
+		final CharBuffer chars = CharBuffer.wrap( str );
+		encoder.reset();
+		int length = 0;
+		int needed = 16;
+		boolean flushing = false;
+		while( true ) {
+			final ByteBuffer b = out.reserve( needed );
+			final int start = b.position();
+			final CoderResult result = flushing ? encoder.flush( b ) : encoder.encode( chars, b, true );
+			length += b.position() - start;
+			if( result.isOverflow() ) {
+				// Move on to a new buffer
+				needed = b.remaining() + 1;
+			} else if( !flushing ) {
+				flushing = true;
+			} else {
+				break;
+			}
+		}
+		lengthBuffer.putInt( lengthPosition, length );
+	}
+
+	private static void writeByteArray( ByteBufferOutput out, ByteArray byteArray ) {
+		final int size = byteArray.size();
+		out.reserve( Integer.BYTES ).putInt( size );
+		if( size >= ZERO_COPY_THRESHOLD ) {
+			out.append( byteArray.asByteBuffer() );
+		} else if( size > 0 ) {
+			out.write( byteArray.getBytes(), 0, size );
+		}
+	}
+
+	private static void writeValue( ByteBufferOutput out, CharsetEncoder encoder, Value value ) {
+		final Object valueObject = value.valueObject();
+		if( valueObject instanceof String ) {
+			out.reserve( 1 ).put( (byte) DataTypeHeaderId.STRING );
+			writeString( out, encoder, (String) valueObject );
+		} else if( valueObject instanceof Integer ) {
+			out.reserve( 1 + Integer.BYTES ).put( (byte) DataTypeHeaderId.INT ).putInt( (Integer) valueObject );
+		} else if( valueObject instanceof Double ) {
+			out.reserve( 1 + Long.BYTES ).put( (byte) DataTypeHeaderId.DOUBLE )
+				.putLong( Double.doubleToLongBits( (Double) valueObject ) );
+		} else if( valueObject instanceof ByteArray ) {
+			out.reserve( 1 ).put( (byte) DataTypeHeaderId.BYTE_ARRAY );
+			writeByteArray( out, (ByteArray) valueObject );
+		} else if( valueObject instanceof Boolean ) {
+			out.reserve( 2 ).put( (byte) DataTypeHeaderId.BOOL ).put( (byte) ((Boolean) valueObject ? 1 : 0) );
+		} else if( valueObject instanceof Long ) {
+			out.reserve( 1 + Long.BYTES ).put( (byte) DataTypeHeaderId.LONG ).putLong( (Long) valueObject );
+		} else {
+			out.reserve( 1 ).put( (byte) DataTypeHeaderId.NULL );
+		}
+
+		final Map< String, ValueVector > children = value.children();
+		out.reserve( Integer.BYTES ).putInt( children.size() );
+		for( Entry< String, ValueVector > entry : children.entrySet() ) {
+			writeString( out, encoder, entry.getKey() );
+			out.reserve( Integer.BYTES ).putInt( entry.getValue().size() );
+			for( Value v : entry.getValue() ) {
+				writeValue( out, encoder, v );
+			}
+		}
+	}
+
+	private static void writeMessage( ByteBufferOutput out, CharsetEncoder encoder, CommMessage message ) {
+		out.reserve( Long.BYTES ).putLong( message.requestId() );
+		writeString( out, encoder, message.resourcePath() );
+		writeString( out, encoder, message.operationName() );
+		final FaultException fault = message.fault();
+		if( fault == null ) {
+			out.reserve( 1 ).put( (byte) 0 );
+		} else {
+			out.reserve( 1 ).put( (byte) 1 );
+			writeString( out, encoder, fault.faultName() );
+			writeValue( out, encoder, fault.value() );
+		}
+		writeValue( out, encoder, message.value() );
+	}
+
+	private String readString( ByteBuffer in ) {
+		final int len = in.getInt();
+		if( len <= 0 ) {
+			return "";
+		}
+		if( len > in.remaining() ) {
+			throw new BufferUnderflowException();
+		}
+		final String ret;
+		if( in.hasArray() ) {
+			ret = new String( in.array(), in.arrayOffset() + in.position(), len, stringCharset );
+		} else {
+			final ByteBuffer bytes = in.duplicate();
+			bytes.limit( bytes.position() + len );
+			ret = stringCharset.decode( bytes ).toString();
+		}
+		in.position( in.position() + len );
+		return ret;
+	}
+
+	private static ByteArray readByteArray( ByteBuffer in ) {
+		final int size = in.getInt();
+		if( size <= 0 ) {
+			return new ByteArray( new byte[ 0 ] );
+		}
+		if( size > in.remaining() ) {
+			throw new BufferUnderflowException();
+		}
+		if( size >= ZERO_COPY_THRESHOLD && in.hasArray() ) {
+			final ByteArray ret = new ByteArray( in.array(), in.arrayOffset() + in.position(), size );
+			in.position( in.position() + size );
+			return ret;
+		}
+		final byte[] bytes = new byte[ size ];
+		in.get( bytes );
+		return new ByteArray( bytes );
+	}
+
+	private Value readValue( ByteBuffer in ) {
+		final Value value = Value.create();
+		switch( in.get() ) {
+		case DataTypeHeaderId.STRING:
+			value.setValue( readString( in ) );
+			break;
+		case DataTypeHeaderId.INT:
+			value.setValue( in.getInt() );
+			break;
+		case DataTypeHeaderId.LONG:
+			value.setValue( in.getLong() );
+			break;
+		case DataTypeHeaderId.DOUBLE:
+			value.setValue( in.getDouble() );
+			break;
+		case DataTypeHeaderId.BYTE_ARRAY:
+			value.setValue( readByteArray( in ) );
+			break;
+		case DataTypeHeaderId.BOOL:
+			value.setValue( in.get() != 0 );
+			break;
+		case DataTypeHeaderId.NULL:
+		default:
+			break;
+		}
+
+		final Map< String, ValueVector > children = value.children();
+		final int n = in.getInt();
+		for( int i = 0; i < n; i++ ) {
+			final String name = readString( in );
+			final ValueVector vec = ValueVector.create();
+			final int size = in.getInt();
+			for( int k = 0; k < size; k++ ) {
+				vec.add( readValue( in ) );
+			}
+			children.put( name, vec );
+		}
+		return value;
+	}
+
+	private CommMessage readMessage( ByteBuffer in ) {
+		final long id = in.getLong();
+		final String resourcePath = readString( in );
+		final String operationName = readString( in );
+		FaultException fault = null;
+		if( in.get() != 0 ) {
+			final String faultName = readString( in );
+			fault = new FaultException( faultName, readValue( in ) );
+		}
+		final Value value = readValue( in );
+		return new CommMessage( id, operationName, resourcePath, value, fault );
+	}
+
+	/**
+	 * Follows readMessage, one step at a time, so that it can resume where the bytes received so far
+	 * end. Nested values are tracked by a stack of the children and values left to read at each level.
+	 */
+	private static class MessageFramer implements Framer {
+		private enum State {
+			ID, RESOURCE, OPERATION, FAULT, FAULT_NAME, VALUE, VALUE_STRING, CHILDREN, CHILD_NAME, CHILD_SIZE, NEXT
+		}
+
+		private State state = State.ID;
+		// Offset of the next byte from the start of the message, and the bytes to skip from there
+		private int p = 0;
+		private int skip = 0;
+		private boolean faultValue = false;
+		private int depth = 0;
+		private int[] childrenLeft = new int[ 16 ];
+		private int[] valuesLeft = new int[ 16 ];
+
+		@Override
+		public int frameLength( ByteBuffer buffer ) {
+			final int start = buffer.position();
+			final int available = buffer.limit() - start;
+			while( true ) {
+				if( skip > 0 ) {
+					final int skipped = Math.min( skip, available - p );
+					p += skipped;
+					skip -= skipped;
+					if( skip > 0 ) {
+						return INCOMPLETE;
+					}
+				}
+				switch( state ) {
+				case ID:
+					skip = Long.BYTES;
+					state = State.RESOURCE;
+					break;
+				case RESOURCE:
+					if( !skipString( buffer, start, available ) ) {
+						return INCOMPLETE;
+					}
+					state = State.OPERATION;
+					break;
+				case OPERATION:
+					if( !skipString( buffer, start, available ) ) {
+						return INCOMPLETE;
+					}
+					state = State.FAULT;
+					break;
+				case FAULT:
+					if( available - p < 1 ) {
+						return INCOMPLETE;
+					}
+					state = buffer.get( start + p++ ) != 0 ? State.FAULT_NAME : State.VALUE;
+					break;
+				case FAULT_NAME:
+					if( !skipString( buffer, start, available ) ) {
+						return INCOMPLETE;
+					}
+					faultValue = true;
+					state = State.VALUE;
+					break;
+				case VALUE:
+					if( available - p < 1 ) {
+						return INCOMPLETE;
+					}
+					state = State.CHILDREN;
+					switch( buffer.get( start + p++ ) ) {
+					case DataTypeHeaderId.STRING:
+					case DataTypeHeaderId.BYTE_ARRAY:
+						state = State.VALUE_STRING;
+						break;
+					case DataTypeHeaderId.INT:
+						skip = Integer.BYTES;
+						break;
+					case DataTypeHeaderId.LONG:
+					case DataTypeHeaderId.DOUBLE:
+						skip = Long.BYTES;
+						break;
+					case DataTypeHeaderId.BOOL:
+						skip = 1;
+						break;
+					case DataTypeHeaderId.NULL:
+					default:
+						break;
+					}
+					break;
+				case VALUE_STRING:
+					// Byte arrays are encoded in the same way
+					if( !skipString( buffer, start, available ) ) {
+						return INCOMPLETE;
+					}
+					state = State.CHILDREN;
+					break;
+				case CHILDREN:
+					if( available - p < Integer.BYTES ) {
+						return INCOMPLETE;
+					}
+					if( depth == childrenLeft.length ) {
+						childrenLeft = Arrays.copyOf( childrenLeft, depth * 2 );
+						valuesLeft = Arrays.copyOf( valuesLeft, depth * 2 );
+					}
+					childrenLeft[ depth ] = Math.max( 0, buffer.getInt( start + p ) );
+					valuesLeft[ depth ] = 0;
+					depth++;
+					p += Integer.BYTES;
+					state = State.NEXT;
+					break;
+				case CHILD_NAME:
+					if( !skipString( buffer, start, available ) ) {
+						return INCOMPLETE;
+					}
+					state = State.CHILD_SIZE;
+					break;
+				case CHILD_SIZE:
+					if( available - p < Integer.BYTES ) {
+						return INCOMPLETE;
+					}
+					valuesLeft[ depth - 1 ] = Math.max( 0, buffer.getInt( start + p ) );
+					p += Integer.BYTES;
+					state = State.NEXT;
+					break;
+				case NEXT:
+					if( valuesLeft[ depth - 1 ] > 0 ) {
+						valuesLeft[ depth - 1 ]--;
+						state = State.VALUE;
+					} else if( childrenLeft[ depth - 1 ] > 0 ) {
+						childrenLeft[ depth - 1 ]--;
+						state = State.CHILD_NAME;
+					} else if( --depth == 0 ) {
+						if( faultValue ) {
+							// The value of the message follows the one of its fault
+							faultValue = false;
+							state = State.VALUE;
+						} else {
+							final int length = p;
+							state = State.ID;
+							p = 0;
+							return length;
+						}
+					}
+					break;
+				}
+			}
+		}
+
+		@Override
+		public long minimumLength() {
+			return (long) p + skip;
+		}
+
+		// Reads the length of a string and schedules its characters to be skipped
+		private boolean skipString( ByteBuffer buffer, int start, int available ) {
+			if( available - p < Integer.BYTES ) {
+				return false;
+			}
+			skip = Math.max( 0, buffer.getInt( start + p ) );
+			p += Integer.BYTES;
+			return true;
+		}
+	}
+
+	@Override
+	public Framer newFramer() {
+		return new MessageFramer();
+	}
+
 	public SodepProtocol( VariablePath configurationPath ) {
 		super( configurationPath );
 	}
 
-	@Override
-	public void send( OutputStream ostream, CommMessage message, InputStream istream )
-		throws IOException {
+	private void configure() {
 		channel().setToBeClosed( !checkBooleanParameter( "keepAlive", true ) );
 
 		String charset = getStringParameter( "charset" );
 		if( !charset.isEmpty() ) {
 			stringCharset = Charset.forName( charset );
 		}
+	}
 
+	@Override
+	public void send( OutputStream ostream, CommMessage message, InputStream istream )
+		throws IOException {
+		configure();
 		final DataOutputStream oos = new DataOutputStream( ostream );
 		writeMessage( oos, message );
 	}
@@ -266,14 +633,25 @@ public class SodepProtocol extends ConcurrentCommProtocol {
 	@Override
 	public CommMessage recv( InputStream istream, OutputStream ostream )
 		throws IOException {
-		channel().setToBeClosed( !checkBooleanParameter( "keepAlive", true ) );
-
-		String charset = getStringParameter( "charset" );
-		if( !charset.isEmpty() ) {
-			stringCharset = Charset.forName( charset );
-		}
-
+		configure();
 		final DataInputStream ios = new DataInputStream( istream );
 		return readMessage( ios );
 	}
+
+	@Override
+	public void send( ByteBufferOutput out, CommMessage message ) {
+		configure();
+		writeMessage( out, newEncoder(), message );
+	}
+
+	@Override
+	public CommMessage recv( ByteBuffer message )
+		throws IOException {
+		configure();
+		try {
+			return readMessage( message );
+		} catch( BufferUnderflowException e ) {
+			throw new EOFException( "Truncated sodep message" );
+		}
+	}
 }
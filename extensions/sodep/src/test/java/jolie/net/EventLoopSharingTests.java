@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import jolie.HashedWheelTimer;
+import jolie.Interpreter;
+import jolie.JolieClassLoader;
+import jolie.lang.Constants;
+import jolie.lang.parse.module.ModuleSource;
+import jolie.runtime.Value;
+import jolie.runtime.correlation.CorrelationEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Embedded services share the event loops of the interpreter that embeds them, which keep running
+ * when one of the embedded services exits.
+ */
+class EventLoopSharingTests {
+	private static final int EVENT_LOOPS = 2;
+
+	@TempDir
+	Path directory;
+
+	/*
+	 * Main embeds a service that exits after its first request and the given number of concurrent ones,
+	 * all listening on sodep sockets served by the event loops.
+	 */
+	private static String program( int counters ) {
+		final StringBuilder b = new StringBuilder()
+			.append( "interface CounterInterface { RequestResponse: inc( int )( int ) }\n" )
+			.append( "interface MainInterface { RequestResponse: once( int )( int ), call( undefined )( int ) }\n" )
+			.append( "service Once( p: undefined ) {\n" )
+			.append( "\tinputPort Input {\n" )
+			.append( "\t\tlocation: p.location\n\t\tprotocol: sodep\n\t\tinterfaces: CounterInterface\n\t}\n" )
+			.append( "\tmain { inc( x )( y ) { y = x + 1 } }\n" )
+			.append( "}\n" )
+			.append( "service Counter( p: undefined ) {\n" )
+			.append( "\texecution: concurrent\n" )
+			.append( "\tinputPort Input {\n" )
+			.append( "\t\tlocation: p.location\n\t\tprotocol: sodep\n\t\tinterfaces: CounterInterface\n\t}\n" )
+			.append( "\tmain { [ inc( x )( y ) { y = x + 1 } ] }\n" )
+			.append( "}\n" )
+			.append( "service Main( p: undefined ) {\n" )
+			.append( "\texecution: concurrent\n" )
+			.append( "\tinputPort Input {\n\t\tlocation: \"local\"\n\t\tinterfaces: MainInterface\n\t}\n" )
+			.append( "\toutputPort OncePort {\n\t\tprotocol: sodep\n\t\tinterfaces: CounterInterface\n\t}\n" )
+			.append( "\toutputPort CounterPort {\n\t\tprotocol: sodep\n\t\tinterfaces: CounterInterface\n\t}\n" )
+			.append( "\tembed Once( p.once ) as OnceLocal\n" );
+		for( int i = 0; i < counters; i++ ) {
+			b.append( "\tembed Counter( p.counter[" ).append( i ).append( "] ) as CounterLocal" ).append( i )
+				.append( "\n" );
+		}
+		return b
+			.append( "\tmain {\n" )
+			.append( "\t\t[ once( x )( y ) { OncePort.location = p.once.location; inc@OncePort( x )( y ) } ]\n" )
+			.append( "\t\t[ call( req )( y ) {\n" )
+			.append( "\t\t\tCounterPort.location = p.counter[ req.counter ].location\n" )
+			.append( "\t\t\tinc@CounterPort( req.x )( y )\n" )
+			.append( "\t\t} ]\n" )
+			.append( "\t}\n" )
+			.append( "}\n" )
+			.toString();
+	}
+
+	private static String freeLocation()
+		throws IOException {
+		try( ServerSocket socket = new ServerSocket( 0 ) ) {
+			return "socket://localhost:" + socket.getLocalPort();
+		}
+	}
+
+	// The classes of sodep are on the class path: the jar only tells the interpreter about them
+	private URL sodepExtension()
+		throws IOException {
+		final Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+		manifest.getMainAttributes().put( Constants.Manifest.PROTOCOL_EXTENSION,
+			"sodep:" + SodepProtocolFactory.class.getName() );
+		final Path jar = directory.resolve( "sodep.jar" );
+		try( OutputStream os = Files.newOutputStream( jar ) ) {
+			new JarOutputStream( os, manifest ).close();
+		}
+		return new URL( "jar:" + jar.toUri() + "!/" );
+	}
+
+	private Interpreter start( String name, int counters )
+		throws Exception {
+		final Path source = directory.resolve( name );
+		Files.writeString( source, program( counters ) );
+		final URL extension = sodepExtension();
+		final Value params = Value.create();
+		params.getFirstChild( "once" ).setFirstChild( "location", freeLocation() );
+		for( int i = 0; i < counters; i++ ) {
+			params.getChildren( "counter" ).get( i ).setFirstChild( "location", freeLocation() );
+		}
+		final Interpreter.Configuration configuration = Interpreter.Configuration.create( -1, 0,
+			CorrelationEngine.Type.HASH, new String[ 0 ], new String[ 0 ], new URL[] { extension },
+			ModuleSource.create( source.toUri() ), "UTF-8", new String[ 0 ], Map.of(),
+			new JolieClassLoader( new URL[] { extension }, EventLoopSharingTests.class.getClassLoader() ), false, false,
+			false,
+			"all", "printing", false, false, 60000, Level.WARNING, false, false, EVENT_LOOPS,
+			EventLoopCommChannel.DEFAULT_MAX_FRAME_SIZE, HashedWheelTimer.DEFAULT_TICK, new String[ 0 ], "Main",
+			Optional.empty() );
+		final Interpreter interpreter = new Interpreter( configuration, Optional.of( params ), Optional.empty() );
+		assertNull( interpreter.start().get() );
+		return interpreter;
+	}
+
+	private static CommMessage call( Interpreter interpreter, String operationName, Value request )
+		throws Exception {
+		final CommChannel channel = interpreter.commCore().getLocalCommChannel();
+		final CommMessage message = CommMessage.createRequest( operationName, "/", request );
+		channel.send( message );
+		return channel.recvResponseFor( message ).get();
+	}
+
+	private static int callCounter( Interpreter interpreter, int counter, int x )
+		throws Exception {
+		final Value request = Value.create();
+		request.setFirstChild( "counter", counter );
+		request.setFirstChild( "x", x );
+		final CommMessage response = call( interpreter, "call", request );
+		if( response.isFault() ) {
+			throw response.fault();
+		}
+		return response.value().intValue();
+	}
+
+	private static List< Thread > threads( String name, String kind ) {
+		return Thread.getAllStackTraces().keySet().stream()
+			.filter( t -> t.isAlive() && t.getName().startsWith( name + "-" + kind ) )
+			.collect( Collectors.toList() );
+	}
+
+	@Test
+	void embeddedServiceExitsWhileParentRuns()
+		throws Exception {
+		final String name = "exit.ol";
+		final Interpreter interpreter = start( name, 1 );
+		try {
+			assertEquals( 2, call( interpreter, "once", Value.create( 1 ) ).value().intValue() );
+			// Once has served its only request: wait for it to exit and close its port
+			boolean exited = false;
+			for( int i = 0; i < 100 && !exited; i++ ) {
+				exited = call( interpreter, "once", Value.create( 1 ) ).isFault();
+				if( !exited ) {
+					Thread.sleep( 50 );
+				}
+			}
+			assertTrue( exited, "The embedded service did not exit" );
+
+			// The threads it shared with Main keep serving Main and its other embedded service
+			for( int i = 0; i < 100; i++ ) {
+				assertEquals( i + 1, callCounter( interpreter, 0, i ) );
+			}
+			// Once shut down its communication core, which must not have stopped the loops
+			final List< Thread > loops = threads( name, "EventLoop" );
+			assertEquals( EVENT_LOOPS, loops.size() );
+			assertTrue( loops.stream().noneMatch( Thread::isInterrupted ) );
+		} finally {
+			interpreter.exit();
+		}
+	}
+
+	@Test
+	void embeddedServicesShareThreads()
+		throws Exception {
+		final String name = "share.ol";
+		final int counters = 8;
+		// Embedded services of other tests may still be running
+		final int before = threads( "Counter", "" ).size();
+		final Interpreter interpreter = start( name, counters );
+		try {
+			for( int i = 0; i < counters; i++ ) {
+				assertEquals( i + 1, callCounter( interpreter, i, i ) );
+			}
+			// Each embedded service has only the thread that started it and the listener of its port: the
+			// others are shared, and named after Main
+			assertEquals( 2 * counters, threads( "Counter", "" ).size() - before );
+			assertEquals( EVENT_LOOPS, threads( name, "EventLoop" ).size() );
+			assertTrue( threads( name, "SelectorThread" ).size() <= Runtime.getRuntime().availableProcessors() );
+			assertEquals( counters + 2, interpreter.sharedRuntime().interpreters() );
+		} finally {
+			interpreter.exit();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map.Entry;
+import org.junit.jupiter.api.Test;
+import jolie.runtime.ByteArray;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.VariablePathBuilder;
+
+/**
+ * The stream and the buffer codecs of sodep must produce the same bytes, and decode each other's
+ * output.
+ */
+class SodepProtocolTests {
+	private static SodepProtocol protocol() {
+		return new SodepProtocol( new VariablePathBuilder( false ).toClosedVariablePath( Value.create() ) );
+	}
+
+	private static byte[] encodeToStream( CommMessage message ) throws IOException {
+		var ostream = new ByteArrayOutputStream();
+		protocol().send( ostream, message, null );
+		return ostream.toByteArray();
+	}
+
+	private static byte[] encodeToBuffers( CommMessage message ) {
+		var out = new ByteBufferOutput();
+		protocol().send( out, message );
+		var buffers = out.finish();
+		var bytes = new ByteArrayOutputStream();
+		for( ByteBuffer buffer : buffers ) {
+			var chunk = new byte[ buffer.remaining() ];
+			buffer.get( chunk );
+			bytes.write( chunk, 0, chunk.length );
+		}
+		ByteBufferOutput.release( buffers );
+		return bytes.toByteArray();
+	}
+
+	private static void checkEquivalence( CommMessage message ) throws IOException {
+		var streamBytes = encodeToStream( message );
+		var bufferBytes = encodeToBuffers( message );
+		assertArrayEquals( streamBytes, bufferBytes, "the codecs encode differently" );
+
+		var fromBuffers = protocol().recv( new ByteArrayInputStream( bufferBytes ), null );
+		var fromStream = protocol().recv( ByteBuffer.wrap( streamBytes ) );
+		checkMessage( message, fromBuffers );
+		checkMessage( message, fromStream );
+	}
+
+	private static void checkMessage( CommMessage expected, CommMessage actual ) {
+		assertEquals( expected.requestId(), actual.requestId(), "wrong request id" );
+		assertEquals( expected.operationName(), actual.operationName(), "wrong operation" );
+		assertEquals( expected.resourcePath(), actual.resourcePath(), "wrong resource path" );
+		assertEquals( expected.isFault(), actual.isFault(), "wrong fault flag" );
+		if( expected.isFault() ) {
+			assertEquals( expected.fault().faultName(), actual.fault().faultName(), "wrong fault name" );
+			checkValue( expected.fault().value(), actual.fault().value(), "fault" );
+		}
+		checkValue( expected.value(), actual.value(), "" );
+	}
+
+	private static void checkValue( Value expected, Value actual, String path ) {
+		assertEquals( expected.isDefined(), actual.isDefined(), "wrong definition at " + path );
+		if( expected.isDefined() ) {
+			assertEquals( expected.valueObject().getClass(), actual.valueObject().getClass(),
+				"wrong type at " + path );
+			assertEquals( expected.valueObject(), actual.valueObject(), "wrong content at " + path );
+		}
+		assertEquals( expected.children().keySet(), actual.children().keySet(), "wrong children at " + path );
+		for( Entry< String, ValueVector > entry : expected.children().entrySet() ) {
+			var actualVector = actual.children().get( entry.getKey() );
+			assertEquals( entry.getValue().size(), actualVector.size(),
+				"wrong size of " + path + "." + entry.getKey() );
+			for( int i = 0; i < actualVector.size(); i++ ) {
+				checkValue( entry.getValue().get( i ), actualVector.get( i ),
+					path + "." + entry.getKey() + "[" + i + "]" );
+			}
+		}
+	}
+
+	private static byte[] bytes( int size ) {
+		var ret = new byte[ size ];
+		for( int i = 0; i < size; i++ ) {
+			ret[ i ] = (byte) (i * 31);
+		}
+		return ret;
+	}
+
+	@Test
+	void nestedValues() throws IOException {
+		var value = Value.create( "root" );
+		value.getFirstChild( "int" ).setValue( -42 );
+		value.getFirstChild( "long" ).setValue( Long.MAX_VALUE );
+		value.getFirstChild( "double" ).setValue( 3.25 );
+		value.getFirstChild( "bool" ).setValue( true );
+		value.getFirstChild( "void" );
+		value.getFirstChild( "unicode" ).setValue( "àèì € 😀" );
+		for( int i = 0; i < 3; i++ ) {
+			var item = value.getChildren( "item" ).get( i );
+			item.setValue( i );
+			item.getFirstChild( "name" ).setValue( "item" + i );
+			item.getFirstChild( "nested" ).getFirstChild( "deeper" ).setValue( i * 0.5 );
+		}
+		checkEquivalence( CommMessage.createRequest( "op", "/", value ) );
+		checkEquivalence( CommMessage.createRequest( "op", "/a/resource", Value.create() ) );
+	}
+
+	@Test
+	void byteArrays() throws IOException {
+		var value = Value.create( new ByteArray( bytes( 10 ) ) );
+		value.getFirstChild( "empty" ).setValue( new ByteArray( new byte[ 0 ] ) );
+		// Raw values of at least 1K are appended to the buffers without copying
+		value.getFirstChild( "large" ).setValue( new ByteArray( bytes( 5000 ) ) );
+		value.getFirstChild( "range" ).setValue( new ByteArray( bytes( 3000 ), 100, 2048 ) );
+		value.getFirstChild( "after" ).setValue( "trailer" );
+		checkEquivalence( CommMessage.createRequest( "op", "/", value ) );
+	}
+
+	@Test
+	void faults() throws IOException {
+		var request = CommMessage.createRequest( "op", "/", Value.create() );
+		var faultValue = Value.create( "reason" );
+		faultValue.getFirstChild( "code" ).setValue( 404 );
+		faultValue.getFirstChild( "data" ).setValue( new ByteArray( bytes( 2000 ) ) );
+		checkEquivalence( CommMessage.createFaultResponse( request, new FaultException( "MyFault", faultValue ) ) );
+		checkEquivalence( CommMessage.createFaultResponse( request, new FaultException( "EmptyFault" ) ) );
+		checkEquivalence( CommMessage.createResponse( request, Value.create( 1 ) ) );
+	}
+
+	@Test
+	void largeStrings() throws IOException {
+		// Longer than a pooled buffer, with multi-byte characters falling on the buffer boundaries
+		var builder = new StringBuilder();
+		while( builder.length() < DirectBufferPool.BUFFER_SIZE * 3 ) {
+			builder.append( "abcé€😀" );
+		}
+		var string = builder.toString();
+		assertTrue( string.length() > DirectBufferPool.BUFFER_SIZE, "string too short" );
+		var value = Value.create( string );
+		value.getFirstChild( "child" ).setValue( string.substring( 1 ) );
+		checkEquivalence( CommMessage.createRequest( string.substring( 0, 100 ), "/", value ) );
+	}
+}
@@ -33,11 +33,14 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 // Connection Pooling
 import com.zaxxer.hikari.HikariConfig;
@@ -54,6 +57,7 @@ import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
 import jolie.runtime.embedding.RequestResponse;
 import joliex.db.impl.NamedStatementParser;
+import joliex.db.impl.StatementCache;
 
 /**
  * @author Fabrizio Montesi 2008 - Marco Montesi: connection string fix for Microsoft SQL Server
@@ -76,7 +80,7 @@ import joliex.db.impl.NamedStatementParser;
 } )
 public class DatabaseService extends JavaService {
 	private HikariDataSource connectionPool = null;
-	private ConcurrentHashMap< Long, Connection > openTxs = null;
+	private ConcurrentHashMap< Long, StatementCache > openTxs = null;
 	private AtomicLong txHandles = null;
 
 	private String connectionString = null;
@@ -88,6 +92,15 @@ public class DatabaseService extends JavaService {
 	private static boolean toUpperCase = false;
 	private boolean mustCheckConnection = false;
 	private final static String TEMPLATE_FIELD = "_template";
+	private final static int DEFAULT_STATEMENT_CACHE_SIZE = 256;
+
+	// Parsed statements are shared by all connections, prepared ones are cached per transaction
+	private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+	private Map< String, NamedStatementParser > parsedStatements = createParsedStatementCache( 0 );
+	private final LongAdder parseHits = new LongAdder();
+	private final LongAdder parseMisses = new LongAdder();
+	private final LongAdder prepareHits = new LongAdder();
+	private final LongAdder prepareMisses = new LongAdder();
 
 	@RequestResponse
 	public void close() {
@@ -117,6 +130,15 @@ public class DatabaseService extends JavaService {
 		toUpperCase = request.getFirstChild( "toUpperCase" ).isDefined()
 			&& request.getFirstChild( "toUpperCase" ).boolValue();
 
+		statementCacheSize = request.hasChildren( "statementCacheSize" )
+			? request.getFirstChild( "statementCacheSize" ).intValue()
+			: DEFAULT_STATEMENT_CACHE_SIZE;
+		parsedStatements = createParsedStatementCache( statementCacheSize );
+		parseHits.reset();
+		parseMisses.reset();
+		prepareHits.reset();
+		prepareMisses.reset();
+
 		driver = request.getChildren( "driver" ).first().strValue();
 		if( request.getFirstChild( "driver" ).hasChildren( "class" ) ) {
 			driverClass = request.getFirstChild( "driver" ).getFirstChild( "class" ).strValue();
@@ -182,6 +204,7 @@ public class DatabaseService extends JavaService {
 				}
 			}
 			Class.forName( driverClass );
+			_setDriverStatementCache( attributes );
 
 			if( driver.endsWith( "_embedded" ) || "sqlite".equals( driver ) ) {
 				driver = driver.split( "_", 2 )[ 0 ]; // "derby_embedded" => "derby", "sqlite" => "sqlite"
@@ -246,6 +269,19 @@ public class DatabaseService extends JavaService {
 		}
 	}
 
+	@RequestResponse
+	public Value statementCacheStats() {
+		Value response = Value.create();
+		Value parsed = response.getFirstChild( "parsed" );
+		parsed.getFirstChild( "hits" ).setValue( parseHits.sum() );
+		parsed.getFirstChild( "misses" ).setValue( parseMisses.sum() );
+		parsed.getFirstChild( "size" ).setValue( parsedStatements.size() );
+		Value prepared = response.getFirstChild( "prepared" );
+		prepared.getFirstChild( "hits" ).setValue( prepareHits.sum() );
+		prepared.getFirstChild( "misses" ).setValue( prepareMisses.sum() );
+		return response;
+	}
+
 	@RequestResponse
 	public Value update( Value request )
 		throws FaultException {
@@ -253,21 +289,24 @@ public class DatabaseService extends JavaService {
 		Value resultValue = Value.create();
 
 		if( request.isString() ) {
-			try( Connection con = connectionPool.getConnection() ) {
-				PreparedStatement stm = new NamedStatementParser( con, request.strValue(), request )
-					.getPreparedStatement();
+			try( Connection con = connectionPool.getConnection();
+				PreparedStatement stm = _prepareStatement( con, request.strValue(), request ) ) {
 				resultValue.setValue( stm.executeUpdate() );
 			} catch( SQLException e ) {
 				throw createFaultException( e );
 			}
 		} else {
 			long txHandle = request.getFirstChild( "txHandle" ).longValue();
-			Connection tx = _getOpenTransaction( txHandle );
+			StatementCache tx = _getOpenTransaction( txHandle );
 
-			try( PreparedStatement stm = new NamedStatementParser( tx, request.getFirstChild( "update" ).strValue(),
-				request.getFirstChild( "update" ) )
-				.getPreparedStatement(); ) {
-				resultValue.setValue( stm.executeUpdate() );
+			try {
+				PreparedStatement stm = _prepareStatement( tx, request.getFirstChild( "update" ).strValue(),
+					request.getFirstChild( "update" ) );
+				try {
+					resultValue.setValue( stm.executeUpdate() );
+				} finally {
+					tx.release( stm );
+				}
 				openTxs.put( txHandle, tx );
 			} catch( SQLException e ) {
 				throw createFaultException( e );
@@ -276,14 +315,70 @@ public class DatabaseService extends JavaService {
 		return resultValue;
 	}
 
-	private Connection _getOpenTransaction( long txHandle ) throws FaultException {
-		Connection tx = openTxs.remove( txHandle );
+	private StatementCache _getOpenTransaction( long txHandle ) throws FaultException {
+		StatementCache tx = openTxs.remove( txHandle );
 		if( tx == null ) {
 			throw createTransactionException( "Transaction " + txHandle + " is unavailable or closed" );
 		}
 		return tx;
 	}
 
+	private static Map< String, NamedStatementParser > createParsedStatementCache( int capacity ) {
+		return Collections.synchronizedMap( new LinkedHashMap< String, NamedStatementParser >( 16, 0.75f, true ) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry< String, NamedStatementParser > eldest ) {
+				return size() > capacity;
+			}
+		} );
+	}
+
+	private NamedStatementParser _parseStatement( String sql ) {
+		NamedStatementParser parser = parsedStatements.get( sql );
+		if( parser == null ) {
+			parseMisses.increment();
+			parser = new NamedStatementParser( sql );
+			if( statementCacheSize > 0 ) {
+				parsedStatements.put( sql, parser );
+			}
+		} else {
+			parseHits.increment();
+		}
+		return parser;
+	}
+
+	private PreparedStatement _prepareStatement( Connection connection, String sql, Value parameters )
+		throws SQLException {
+		NamedStatementParser parser = _parseStatement( sql );
+		PreparedStatement stm = connection.prepareStatement( parser.getJdbcSql() );
+		try {
+			parser.setParameters( stm, parameters );
+		} catch( SQLException e ) {
+			stm.close();
+			throw e;
+		}
+		return stm;
+	}
+
+	// The returned statement must be given back with StatementCache.release
+	private PreparedStatement _prepareStatement( StatementCache cache, String sql, Value parameters )
+		throws SQLException {
+		NamedStatementParser parser = _parseStatement( sql );
+		PreparedStatement stm = cache.prepare( parser.getJdbcSql() );
+		try {
+			parser.setParameters( stm, parameters );
+		} catch( SQLException e ) {
+			cache.release( stm );
+			throw e;
+		}
+		return stm;
+	}
+
+	private StatementCache _createStatementCache( Connection connection ) {
+		return new StatementCache( connection, statementCacheSize, prepareHits, prepareMisses );
+	}
+
 	private static void setValue( Value fieldValue, ResultSet result, int columnType, int index )
 		throws SQLException {
 		ByteArray supportByteArray;
@@ -460,31 +555,35 @@ public class DatabaseService extends JavaService {
 		_checkConnection();
 		Value resultValue = Value.create();
 		ValueVector resultVector = resultValue.getChildren( "result" );
-		try( Connection connection = connectionPool.getConnection() ) {
+		try( Connection connection = connectionPool.getConnection();
+			StatementCache statements = _createStatementCache( connection ) ) {
 			connection.setAutoCommit( false );
 			Value currResultValue;
 			int updateCount;
 
 			for( Value statementValue : request.getChildren( "statement" ) ) {
 				currResultValue = Value.create();
-				try( PreparedStatement stm = new NamedStatementParser( connection, statementValue.strValue(),
-					statementValue )
-					.getPreparedStatement() ) {
-					updateCount = -1;
-					if( stm.execute() == true ) {
-						updateCount = stm.getUpdateCount();
-						if( updateCount == -1 ) {
-							if( statementValue.hasChildren( TEMPLATE_FIELD ) ) {
-								resultSetToValueVectorWithTemplate( stm.getResultSet(),
-									currResultValue.getChildren( "row" ),
-									statementValue.getFirstChild( TEMPLATE_FIELD ) );
-							} else {
-								resultSetToValueVector( stm.getResultSet(), currResultValue.getChildren( "row" ) );
+				try {
+					PreparedStatement stm = _prepareStatement( statements, statementValue.strValue(), statementValue );
+					try {
+						updateCount = -1;
+						if( stm.execute() == true ) {
+							updateCount = stm.getUpdateCount();
+							if( updateCount == -1 ) {
+								if( statementValue.hasChildren( TEMPLATE_FIELD ) ) {
+									resultSetToValueVectorWithTemplate( stm.getResultSet(),
+										currResultValue.getChildren( "row" ),
+										statementValue.getFirstChild( TEMPLATE_FIELD ) );
+								} else {
+									resultSetToValueVector( stm.getResultSet(), currResultValue.getChildren( "row" ) );
+								}
+								stm.getResultSet().close();
 							}
-							stm.getResultSet().close();
 						}
+						currResultValue.setValue( updateCount );
+					} finally {
+						statements.release( stm );
 					}
-					currResultValue.setValue( updateCount );
 					resultVector.add( currResultValue );
 				} catch( SQLException e ) {
 					try {
@@ -528,19 +627,22 @@ public class DatabaseService extends JavaService {
 
 		if( request.isString() ) {
 			try( Connection con = connectionPool.getConnection();
-				PreparedStatement stm = new NamedStatementParser( con, request.strValue(), request )
-					.getPreparedStatement() ) {
+				PreparedStatement stm = _prepareStatement( con, request.strValue(), request ) ) {
 				resultValue = _executeQuery( stm, request );
 			} catch( SQLException e ) {
 				throw createFaultException( e );
 			}
 		} else {
 			long txHandle = request.getFirstChild( "txHandle" ).longValue();
-			Connection tx = _getOpenTransaction( txHandle );
-			try( PreparedStatement stm = new NamedStatementParser( tx, request.getFirstChild( "query" ).strValue(),
-				request.getFirstChild( "query" ) )
-				.getPreparedStatement(); ) {
-				resultValue = _executeQuery( stm, request.getFirstChild( "query" ) );
+			StatementCache tx = _getOpenTransaction( txHandle );
+			try {
+				PreparedStatement stm = _prepareStatement( tx, request.getFirstChild( "query" ).strValue(),
+					request.getFirstChild( "query" ) );
+				try {
+					resultValue = _executeQuery( stm, request.getFirstChild( "query" ) );
+				} finally {
+					tx.release( stm );
+				}
 				openTxs.put( txHandle, tx );
 			} catch( SQLException e ) {
 				throw createFaultException( e );
@@ -578,7 +680,7 @@ public class DatabaseService extends JavaService {
 			long txHandle = txHandles.getAndIncrement();
 			con.setAutoCommit( false );
 
-			openTxs.put( txHandle, con );
+			openTxs.put( txHandle, _createStatementCache( con ) );
 
 			response.setValue( txHandle );
 			return response;
@@ -592,9 +694,9 @@ public class DatabaseService extends JavaService {
 		_checkConnection();
 
 		long txHandle = request.longValue();
-		Connection tx = openTxs.remove( txHandle );
+		StatementCache tx = openTxs.remove( txHandle );
 		try {
-			tx.commit();
+			tx.connection().commit();
 		} catch( SQLException e ) {
 			throw createFaultException( e );
 		} finally {
@@ -607,11 +709,13 @@ public class DatabaseService extends JavaService {
 		_checkConnection();
 
 		long txHandle = request.longValue();
-		Connection tx = openTxs.remove( txHandle );
+		StatementCache tx = openTxs.remove( txHandle );
 		_closeTransaction( tx );
 	}
 
-	private void _closeTransaction( Connection con ) throws FaultException {
+	private void _closeTransaction( StatementCache tx ) throws FaultException {
+		tx.close();
+		Connection con = tx.connection();
 		try {
 			con.rollback();
 			con.setAutoCommit( true );
@@ -628,7 +732,9 @@ public class DatabaseService extends JavaService {
 	private void _closeConnectionPool() {
 		for( long handle : openTxs.keySet() ) {
 			try {
-				Connection con = openTxs.remove( handle );
+				StatementCache tx = openTxs.remove( handle );
+				tx.close();
+				Connection con = tx.connection();
 				con.rollback();
 				con.close();
 			} catch( SQLException e ) {
@@ -650,6 +756,28 @@ public class DatabaseService extends JavaService {
 		return new HikariDataSource( config );
 	}
 
+	/*
+	 * Statements prepared outside of transactions cannot be kept across calls, since the pool closes
+	 * them with their connection. Drivers that support it cache them instead.
+	 */
+	private void _setDriverStatementCache( Properties attributes ) {
+		if( statementCacheSize <= 0 ) {
+			return;
+		}
+		switch( driver ) {
+		case "mysql":
+			attributes.putIfAbsent( "cachePrepStmts", "true" );
+			attributes.putIfAbsent( "prepStmtCacheSize", String.valueOf( statementCacheSize ) );
+			attributes.putIfAbsent( "prepStmtCacheSqlLimit", "2048" );
+			break;
+		case "postgresql":
+			attributes.putIfAbsent( "preparedStatementCacheQueries", String.valueOf( statementCacheSize ) );
+			break;
+		default:
+			break;
+		}
+	}
+
 	private void _setUserProvidedConfig( HikariConfig config, Value providedConfig, Properties attributes ) {
 		if( providedConfig.hasChildren() ) {
 			if( providedConfig.hasChildren( "connectionTimeout" ) ) {
@@ -50,14 +50,35 @@ public class NamedStatementParser {
 	}
 
 	private final Map< String, List< Integer > > parameterPositions = new HashMap<>();
+	private final String jdbcSql;
 	private final PreparedStatement statement;
 	// private final GregorianCalendar cal = new GregorianCalendar();
 
+	/**
+	 * Parses a parametrized query once, so that it can be bound to many statements with
+	 * {@link #setParameters(PreparedStatement, Value)}.
+	 */
+	public NamedStatementParser( String sql ) {
+		jdbcSql = parse( sql );
+		statement = null;
+	}
+
 	public NamedStatementParser( Connection connection, String sql, Value parameters )
 		throws SQLException {
-		String jdbcSql = parse( sql );
-
+		jdbcSql = parse( sql );
 		statement = connection.prepareStatement( jdbcSql );
+		setParameters( statement, parameters );
+	}
+
+	/**
+	 * Returns the query with its named parameters replaced by JDBC placeholders.
+	 */
+	public String getJdbcSql() {
+		return jdbcSql;
+	}
+
+	public void setParameters( PreparedStatement statement, Value parameters )
+		throws SQLException {
 		Value v;
 		for( Entry< String, List< Integer > > entry : parameterPositions.entrySet() ) {
 			v = parameters.getFirstChild( entry.getKey() );
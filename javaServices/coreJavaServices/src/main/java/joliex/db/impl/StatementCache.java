@@ -0,0 +1,105 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by The Jolie Programming Language contributors          *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.db.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The prepared statements of a connection, kept open for reuse and keyed by their SQL text. The
+ * least recently used statement is closed when the cache is full.
+ *
+ * A cache is used by one caller at a time, like the connection it belongs to.
+ */
+public class StatementCache implements AutoCloseable {
+	private final Connection connection;
+	private final int capacity;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LinkedHashMap< String, PreparedStatement > statements = new LinkedHashMap<>( 16, 0.75f, true );
+
+	public StatementCache( Connection connection, int capacity, LongAdder hits, LongAdder misses ) {
+		this.connection = connection;
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+	}
+
+	public Connection connection() {
+		return connection;
+	}
+
+	/**
+	 * Returns an open statement for the given SQL text, preparing it if it is not cached. Callers must
+	 * not close the statement: it is closed by the cache.
+	 */
+	public PreparedStatement prepare( String sql )
+		throws SQLException {
+		PreparedStatement statement = statements.get( sql );
+		if( statement != null && !statement.isClosed() ) {
+			hits.increment();
+			statement.clearParameters();
+			return statement;
+		}
+		misses.increment();
+		statement = connection.prepareStatement( sql );
+		if( capacity > 0 ) {
+			statements.put( sql, statement );
+			if( statements.size() > capacity ) {
+				Iterator< Map.Entry< String, PreparedStatement > > it = statements.entrySet().iterator();
+				PreparedStatement eldest = it.next().getValue();
+				it.remove();
+				eldest.close();
+			}
+		}
+		return statement;
+	}
+
+	/**
+	 * Closes a statement returned by {@link #prepare(String)}, unless it is cached.
+	 */
+	public void release( PreparedStatement statement )
+		throws SQLException {
+		if( capacity <= 0 ) {
+			statement.close();
+		}
+	}
+
+	/**
+	 * Closes the cached statements, but not the connection.
+	 */
+	@Override
+	public void close() {
+		for( PreparedStatement statement : statements.values() ) {
+			try {
+				statement.close();
+			} catch( SQLException e ) {
+			}
+		}
+		statements.clear();
+	}
+}
@@ -20,6 +20,7 @@
 package joliex.io;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -78,6 +79,7 @@ import jolie.jap.JapURLConnection;
 import jolie.js.JsUtils;
 import jolie.runtime.AndJarDeps;
 import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
 import jolie.runtime.FaultException;
 import jolie.runtime.JavaService;
 import jolie.runtime.Value;
@@ -432,6 +434,11 @@ public class FileService extends JavaService {
 				case "binary":
 					readBinaryIntoValue( istream, size, retValue );
 					break;
+				case "stream":
+					// The file is read when the value is consumed, which also closes it
+					retValue.setValue( new ByteStream( istream, size ) );
+					istream = null;
+					break;
 				case "xml":
 					istream = new BufferedInputStream( istream );
 					readXMLIntoValue( istream, retValue, charset, skipMixedText );
@@ -465,7 +472,9 @@ public class FileService extends JavaService {
 					break;
 				}
 			} finally {
-				istream.close();
+				if( istream != null ) {
+					istream.close();
+				}
 			}
 		} catch( FileNotFoundException e ) {
 			throw new FaultException( "FileNotFound", e );
@@ -638,7 +647,13 @@ public class FileService extends JavaService {
 	private static void writeBinary( File file, Value value, boolean append )
 		throws IOException {
 		try( FileOutputStream os = new FileOutputStream( file, append ) ) {
-			os.write( value.byteArrayValue().getBytes() );
+			if( value.valueObject() instanceof ByteStream ) {
+				try( InputStream istream = ((ByteStream) value.valueObject()).openStream() ) {
+					istream.transferTo( os );
+				}
+			} else {
+				os.write( value.byteArrayValue().getBytes() );
+			}
 			os.flush();
 		}
 	}
@@ -657,12 +672,10 @@ public class FileService extends JavaService {
 
 	private static void writeJson( File file, Value value, boolean append, String encoding )
 		throws IOException {
-		StringBuilder json = new StringBuilder();
-		JsUtils.valueToJsonString( value, true, Type.UNDEFINED, json );
-
 		try( OutputStream fos = new FileOutputStream( file, append ) ) {
-			OutputStreamWriter writer = new OutputStreamWriter( fos, encoding != null ? encoding : "UTF-8" );
-			writer.write( json.toString() );
+			Writer writer =
+				new BufferedWriter( new OutputStreamWriter( fos, encoding != null ? encoding : "UTF-8" ) );
+			JsUtils.valueToJson( value, true, Type.UNDEFINED, writer );
 			writer.flush();
 		}
 	}
@@ -26,13 +26,21 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
 import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 
 import com.sun.management.UnixOperatingSystemMXBean;
 
 import jolie.ExecutionThread;
+import jolie.HashedWheelTimer;
 import jolie.lang.Constants;
+import jolie.monitoring.MonitorPipeline;
+import jolie.monitoring.metrics.LatencyHistogram;
+import jolie.monitoring.metrics.Metrics;
+import jolie.monitoring.metrics.OperationMetrics;
+import jolie.net.ChannelCache;
 import jolie.net.CommListener;
 import jolie.net.LocalCommChannel;
 import jolie.net.ports.OutputPort;
@@ -41,6 +49,7 @@ import jolie.runtime.InvalidIdException;
 import jolie.runtime.JavaService;
 import jolie.runtime.Value;
 import jolie.runtime.ValuePrettyPrinter;
+import jolie.runtime.ValueVector;
 import jolie.runtime.VariablePath;
 import jolie.runtime.VariablePathBuilder;
 import jolie.runtime.embedding.EmbeddedServiceLoader;
@@ -49,6 +58,8 @@ import jolie.runtime.embedding.EmbeddedServiceLoadingException;
 import jolie.runtime.embedding.RequestResponse;
 
 public class RuntimeService extends JavaService {
+	private static final double NANOS_PER_MILLISECOND = 1e6;
+
 	public Value getLocalLocation() {
 		Value v = Value.create();
 		v.setValue( interpreter().commCore().getLocalCommChannel() );
@@ -56,7 +67,8 @@ public class RuntimeService extends JavaService {
 	}
 
 	@RequestResponse
-	public void setMonitor( final Value request ) {
+	public void setMonitor( final Value request )
+		throws FaultException {
 		final VariablePath locationPath = new VariablePathBuilder( true )
 			.add( Constants.MONITOR_OUTPUTPORT_NAME, 0 )
 			.add( Constants.LOCATION_NODE_NAME, 0 ).toVariablePath();
@@ -76,7 +88,20 @@ public class RuntimeService extends JavaService {
 			true );
 		port.optimizeLocation();
 
-		interpreter().setMonitor( port );
+		final MonitorPipeline monitor;
+		try {
+			monitor = new MonitorPipeline(
+				interpreter(),
+				port,
+				request.firstChildOrDefault( "bufferSize", Value::intValue, MonitorPipeline.DEFAULT_BUFFER_SIZE ),
+				request.firstChildOrDefault( "batchSize", Value::intValue, MonitorPipeline.DEFAULT_BATCH_SIZE ),
+				request.hasChildren( "overflow" )
+					? MonitorPipeline.Overflow.fromString( request.getFirstChild( "overflow" ).strValue() )
+					: MonitorPipeline.Overflow.DROP );
+		} catch( IllegalArgumentException e ) {
+			throw new FaultException( "RuntimeException", e );
+		}
+		interpreter().setMonitor( monitor );
 	}
 
 	@RequestResponse
@@ -90,13 +115,18 @@ public class RuntimeService extends JavaService {
 				name );
 		Value l;
 		Value r = interpreter().initThread().state().root();
-		l = r.getFirstChild( name ).getFirstChild( Constants.LOCATION_NODE_NAME );
+		// Sessions share the subtrees of the init state (see State.lazyClone): replace the variable of
+		// the port instead of modifying it
+		ValueVector portVector = r.hasChildren( name ) ? ValueVector.createClone( r.getChildren( name ) )
+			: ValueVector.create();
+		l = portVector.get( 0 ).getFirstChild( Constants.LOCATION_NODE_NAME );
 		if( locationValue.isChannel() ) {
 			l.setValue( locationValue.channelValue() );
 		} else {
 			l.setValue( locationValue.strValue() );
 		}
-		r.getFirstChild( name ).getFirstChild( Constants.PROTOCOL_NODE_NAME ).refCopy( protocolValue );
+		portVector.get( 0 ).getFirstChild( Constants.PROTOCOL_NODE_NAME ).refCopy( protocolValue );
+		r.children().put( name, portVector );
 
 		r = ExecutionThread.currentThread().state().root();
 		l = r.getFirstChild( name ).getFirstChild( Constants.LOCATION_NODE_NAME );
@@ -353,9 +383,79 @@ public class RuntimeService extends JavaService {
 		stats_files( stats.getFirstChild( "files" ) );
 		stats_os( stats.getFirstChild( "os" ) );
 		stats_memory( stats.getFirstChild( "memory" ) );
+		interpreter().monitor().ifPresent( monitor -> stats_monitor( monitor, stats.getFirstChild( "monitor" ) ) );
 		return stats;
 	}
 
+	public Value metrics() {
+		final Metrics metrics = interpreter().metrics();
+		final Value result = Value.create();
+		result.getFirstChild( "sessions" ).setFirstChild( "started", metrics.startedSessions() );
+		result.getFirstChild( "sessions" ).setFirstChild( "running", metrics.runningSessions() );
+		final ThreadPoolExecutor pool = metrics.commPool();
+		if( pool != null ) {
+			final Value commPool = result.getFirstChild( "commPool" );
+			commPool.setFirstChild( "threads", pool.getPoolSize() );
+			commPool.setFirstChild( "activeThreads", pool.getActiveCount() );
+			commPool.setFirstChild( "queuedTasks", pool.getQueue().size() );
+		}
+		result.getFirstChild( "channels" ).setFirstChild( "open", metrics.openChannels() );
+		final HashedWheelTimer timer = interpreter().timer();
+		result.getFirstChild( "timers" ).setFirstChild( "pending", timer.pending() );
+		result.getFirstChild( "timers" ).setFirstChild( "tickLag", timer.tickLag() / NANOS_PER_MILLISECOND );
+		result.getFirstChild( "timers" ).setFirstChild( "maxTickLag", timer.maxTickLag() / NANOS_PER_MILLISECOND );
+		for( OutputPort port : interpreter().outputPorts() ) {
+			final ChannelCache.Statistics s = port.channelCacheStatistics();
+			final Value cache = Value.create();
+			cache.setFirstChild( "port", port.id() );
+			cache.setFirstChild( "hits", s.hits() );
+			cache.setFirstChild( "misses", s.misses() );
+			cache.setFirstChild( "evictions", s.evictions() );
+			cache.setFirstChild( "discards", s.discards() );
+			cache.setFirstChild( "timeouts", s.timeouts() );
+			cache.setFirstChild( "idle", s.idle() );
+			cache.setFirstChild( "inUse", s.inUse() );
+			result.getChildren( "channelCaches" ).add( cache );
+		}
+		for( OperationMetrics m : metrics.operations() ) {
+			final Value operation = Value.create();
+			operation.setFirstChild( "port", m.port() );
+			operation.setFirstChild( "operation", m.operation() );
+			operation.setFirstChild( "direction", m.direction().label() );
+			operation.setFirstChild( "calls", m.calls() );
+			operation.setFirstChild( "faults", m.faults() );
+			final LatencyHistogram.Snapshot latency = m.latency().snapshot();
+			if( latency.count() > 0 ) {
+				final Value l = operation.getFirstChild( "latency" );
+				l.setFirstChild( "mean", latency.mean() / NANOS_PER_MILLISECOND );
+				l.setFirstChild( "p50", latency.quantile( 0.5 ) / NANOS_PER_MILLISECOND );
+				l.setFirstChild( "p90", latency.quantile( 0.9 ) / NANOS_PER_MILLISECOND );
+				l.setFirstChild( "p99", latency.quantile( 0.99 ) / NANOS_PER_MILLISECOND );
+				l.setFirstChild( "max", latency.max() / NANOS_PER_MILLISECOND );
+			}
+			result.getChildren( "operations" ).add( operation );
+		}
+		return result;
+	}
+
+	public String openMetrics() {
+		final StringBuilder text = new StringBuilder();
+		interpreter().metrics().writeOpenMetrics( text );
+		return text.toString();
+	}
+
+	@RequestResponse
+	public void exposeMetrics( Value request )
+		throws FaultException {
+		final String host = request.firstChildOrDefault( "host", Value::strValue, "localhost" );
+		try {
+			interpreter().metrics().startEndpoint(
+				new InetSocketAddress( host, request.getFirstChild( "port" ).intValue() ) );
+		} catch( IOException | IllegalArgumentException e ) {
+			throw new FaultException( "RuntimeException", e );
+		}
+	}
+
 	private void stats_os( Value stats ) {
 		OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
 		stats.setFirstChild( "arch", osBean.getArch() );
@@ -374,6 +474,13 @@ public class RuntimeService extends JavaService {
 		}
 	}
 
+	private void stats_monitor( MonitorPipeline monitor, Value stats ) {
+		stats.setFirstChild( "sent", monitor.sent() );
+		stats.setFirstChild( "failed", monitor.failed() );
+		stats.setFirstChild( "dropped", monitor.dropped() );
+		stats.setFirstChild( "pending", monitor.pending() );
+	}
+
 	private void stats_memory( Value stats ) {
 		Runtime runtime = Runtime.getRuntime();
 		stats.setFirstChild( "free", runtime.freeMemory() );
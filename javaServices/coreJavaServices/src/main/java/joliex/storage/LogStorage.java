@@ -0,0 +1,223 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by The Jolie Programming Language contributors          *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.storage;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.embedding.RequestResponse;
+import joliex.storage.log.KeyValueLog;
+import joliex.storage.log.ValueCodec;
+import joliex.storage.types.LoadRequest;
+import joliex.storage.types.SaveRequest;
+
+/**
+ * A storage of keyed values backed by a {@link KeyValueLog}. Unlike {@link XmlStorage}, an update
+ * appends only the value that changed to the storage file.
+ *
+ * The value written by {@link #save(SaveRequest)} is kept apart from the keys, so that this service
+ * can replace an {@link XmlStorage}.
+ */
+public class LogStorage extends AbstractStorageService {
+	private static final long MAINTENANCE_INTERVAL = 1000; // milliseconds
+	private static final double DEFAULT_COMPACTION_RATIO = 0.5;
+	private static final long DEFAULT_COMPACTION_MIN_SIZE = 1L << 20;
+
+	private volatile KeyValueLog log = null;
+	private volatile long syncInterval;
+	private volatile double compactionRatio;
+	private volatile long compactionMinSize;
+
+	@RequestResponse
+	public synchronized void connect( Value request )
+		throws FaultException {
+		final long interval = request.hasChildren( "syncInterval" )
+			? request.getFirstChild( "syncInterval" ).longValue()
+			: 0;
+		try {
+			if( log != null ) {
+				log.close();
+				log = null;
+			}
+			syncInterval = interval;
+			compactionRatio = request.hasChildren( "compactionRatio" )
+				? request.getFirstChild( "compactionRatio" ).doubleValue()
+				: DEFAULT_COMPACTION_RATIO;
+			compactionMinSize = request.hasChildren( "compactionMinSize" )
+				? request.getFirstChild( "compactionMinSize" ).longValue()
+				: DEFAULT_COMPACTION_MIN_SIZE;
+			log = KeyValueLog.open( Paths.get( request.getFirstChild( "directory" ).strValue() ), interval == 0 );
+		} catch( IOException | RuntimeException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+		scheduleMaintenance( log, interval > 0 ? interval : MAINTENANCE_INTERVAL );
+	}
+
+	private void scheduleMaintenance( KeyValueLog target, long interval ) {
+		try {
+			// The timer thread must not block, so the maintenance runs in the interpreter pool
+			interpreter().schedule( () -> interpreter().execute( () -> maintain( target, interval ) ), interval );
+		} catch( RejectedExecutionException e ) {
+			// The interpreter is exiting
+		}
+	}
+
+	// Syncs the writes of the last interval if they are batched, and compacts the log if needed
+	private void maintain( KeyValueLog target, long interval ) {
+		if( target != log ) {
+			// Replaced by a new connection
+			return;
+		}
+		try {
+			if( syncInterval > 0 ) {
+				target.sync();
+			}
+			if( target.needsCompaction( compactionRatio, compactionMinSize ) ) {
+				target.compact();
+			}
+		} catch( ClosedChannelException e ) {
+			return;
+		} catch( IOException e ) {
+			interpreter().logWarning( e );
+		}
+		scheduleMaintenance( target, interval );
+	}
+
+	private KeyValueLog checkConnection()
+		throws IOException {
+		final KeyValueLog current = log;
+		if( current == null ) {
+			throw new IOException( "Storage directory not specified (maybe you forgot to call connect?)" );
+		}
+		return current;
+	}
+
+	@RequestResponse
+	@Override
+	public Value load( LoadRequest request )
+		throws FaultException {
+		try {
+			byte[] document = checkConnection().getDocument();
+			return document == null ? Value.create() : ValueCodec.decode( document );
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	@Override
+	public void save( SaveRequest request )
+		throws FaultException {
+		try {
+			checkConnection().putDocument( ValueCodec.encode( request.value() ) );
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public Value get( Value request )
+		throws FaultException {
+		try {
+			byte[] value = checkConnection().get( request.getFirstChild( "key" ).strValue() );
+			Value response = Value.create();
+			if( value != null ) {
+				response.getChildren( "value" ).add( ValueCodec.decode( value ) );
+			}
+			return response;
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public void put( Value request )
+		throws FaultException {
+		try {
+			checkConnection().put(
+				request.getFirstChild( "key" ).strValue(),
+				ValueCodec.encode( request.getFirstChild( "value" ) ) );
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public Boolean delete( Value request )
+		throws FaultException {
+		try {
+			return checkConnection().delete( request.getFirstChild( "key" ).strValue() );
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public Value scan( Value request )
+		throws FaultException {
+		final String prefix = request.hasChildren( "prefix" ) ? request.getFirstChild( "prefix" ).strValue() : "";
+		final int limit = request.hasChildren( "limit" ) ? request.getFirstChild( "limit" ).intValue() : -1;
+		try {
+			Value response = Value.create();
+			ValueVector entries = response.getChildren( "entry" );
+			for( Map.Entry< String, byte[] > e : checkConnection().scan( prefix, limit ) ) {
+				Value entry = Value.create();
+				entry.setFirstChild( "key", e.getKey() );
+				entry.getChildren( "value" ).add( ValueCodec.decode( e.getValue() ) );
+				entries.add( entry );
+			}
+			return response;
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public void compact()
+		throws FaultException {
+		try {
+			checkConnection().compact();
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+
+	@RequestResponse
+	public Value stats()
+		throws FaultException {
+		try {
+			KeyValueLog current = checkConnection();
+			Value response = Value.create();
+			response.setFirstChild( "keys", current.size() );
+			response.setFirstChild( "fileSize", current.fileSize() );
+			response.setFirstChild( "liveSize", current.liveSize() );
+			return response;
+		} catch( IOException e ) {
+			throw new FaultException( "StorageFault", e.getMessage() );
+		}
+	}
+}
@@ -0,0 +1,675 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by The Jolie Programming Language contributors          *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.storage.log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * A durable map from string keys to byte arrays, kept in a single append-only file.
+ *
+ * Every update appends a record (checksum, key length, value length, kind, key, value) to the file,
+ * and an in-memory hash index maps each key to its latest record. Values are read through a
+ * memory-mapped view of the file. {@link #compact()} rewrites the live records to a new file, while
+ * reads and writes go on, and replaces the old file with it.
+ *
+ * When a log is opened, the index is rebuilt by reading the file. A record torn by a crash is
+ * detected by its checksum and truncated, together with anything after it.
+ *
+ * Besides its keys, a log holds a single document: a value that is not indexed by any key.
+ */
+public class KeyValueLog implements AutoCloseable {
+	private static final int HEADER_SIZE = 13; // checksum, key length, value length, kind
+	private static final byte PUT = 0, DELETE = 1, DOCUMENT = 2;
+	private static final String SUFFIX = ".log", TMP_SUFFIX = ".log.tmp";
+	private static final Pattern FILE_NAME = Pattern.compile( "\\d+\\.log(\\.tmp)?" );
+	// Values appended after the file was mapped are read from the channel until the mapping is this
+	// much behind the end of the file
+	private static final long REMAP_THRESHOLD = 4L << 20;
+
+	private static final class Entry {
+		private final long offset;
+		private final int keyLength;
+		private final int valueLength;
+
+		private Entry( long offset, int keyLength, int valueLength ) {
+			this.offset = offset;
+			this.keyLength = keyLength;
+			this.valueLength = valueLength;
+		}
+
+		private int size() {
+			return HEADER_SIZE + keyLength + valueLength;
+		}
+
+		private long valuePosition() {
+			return offset + HEADER_SIZE + keyLength;
+		}
+
+		private Entry moveTo( long offset ) {
+			return new Entry( offset, keyLength, valueLength );
+		}
+	}
+
+	private static final class Index {
+		private final Map< String, Entry > entries = new HashMap<>();
+		private Entry document = null;
+		private long liveBytes = 0;
+
+		private void apply( byte kind, String key, Entry entry ) {
+			final Entry previous;
+			if( kind == DOCUMENT ) {
+				previous = document;
+				document = entry;
+			} else if( kind == PUT ) {
+				previous = entries.put( key, entry );
+			} else {
+				previous = entries.remove( key );
+			}
+			if( previous != null ) {
+				liveBytes -= previous.size();
+			}
+			if( kind != DELETE ) {
+				liveBytes += entry.size();
+			}
+		}
+	}
+
+	private final Path directory;
+	private final boolean syncWrites;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ReentrantLock compactionLock = new ReentrantLock();
+	private final Object mappingMonitor = new Object();
+	private final Object syncMonitor = new Object();
+	// Guarded by lock
+	private Index index;
+	private long end;
+	private long generation;
+	private boolean closed = false;
+	// Replaced under the write lock, read without it by sync()
+	private volatile FileChannel channel;
+	private volatile MappedByteBuffer mapped = null;
+	// Number of records appended since opening, incremented under the write lock
+	private volatile long appended = 0;
+	// Guarded by syncMonitor
+	private long synced = 0;
+	private boolean syncing = false;
+
+	private KeyValueLog( Path directory, boolean syncWrites, FileChannel channel, Index index, long end,
+		long generation ) {
+		this.directory = directory;
+		this.syncWrites = syncWrites;
+		this.channel = channel;
+		this.index = index;
+		this.end = end;
+		this.generation = generation;
+	}
+
+	/**
+	 * Opens the log kept in a directory, creating both if they do not exist.
+	 *
+	 * @param syncWrites if {@code true}, updates return only after they have been forced to the storage
+	 *        device, and concurrent updates share the same force. Otherwise, updates are forced by
+	 *        {@link #sync()}.
+	 */
+	public static KeyValueLog open( Path directory, boolean syncWrites )
+		throws IOException {
+		Files.createDirectories( directory );
+		long generation = 0;
+		List< Path > files = new ArrayList<>();
+		try( DirectoryStream< Path > stream = Files.newDirectoryStream( directory ) ) {
+			for( Path file : stream ) {
+				String name = file.getFileName().toString();
+				if( FILE_NAME.matcher( name ).matches() ) {
+					files.add( file );
+					if( name.endsWith( SUFFIX ) ) {
+						generation = Math.max( generation,
+							Long.parseLong( name.substring( 0, name.length() - SUFFIX.length() ) ) );
+					}
+				}
+			}
+		}
+		// Leftovers of compactions that did not complete, or whose old file was not deleted
+		Path current = logFile( directory, generation );
+		for( Path file : files ) {
+			if( !file.equals( current ) ) {
+				Files.deleteIfExists( file );
+			}
+		}
+
+		FileChannel channel = FileChannel.open( current,
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+		try {
+			Index index = new Index();
+			long end = replay( channel, 0, index );
+			if( end < channel.size() ) {
+				channel.truncate( end );
+				channel.force( true );
+			}
+			return new KeyValueLog( directory, syncWrites, channel, index, end, generation );
+		} catch( IOException e ) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static Path logFile( Path directory, long generation ) {
+		return directory.resolve( generation + SUFFIX );
+	}
+
+	/**
+	 * Returns the value of a key, or {@code null} if the key is not in this log.
+	 */
+	public byte[] get( String key )
+		throws IOException {
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			Entry entry = index.entries.get( key );
+			return entry == null ? null : read( entry );
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the document of this log, or {@code null} if none has been written.
+	 */
+	public byte[] getDocument()
+		throws IOException {
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			return index.document == null ? null : read( index.document );
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the keys starting with a prefix and their values, sorted by key.
+	 *
+	 * @param limit the maximum number of entries to return, or a negative number for no limit
+	 */
+	public List< Map.Entry< String, byte[] > > scan( String prefix, int limit )
+		throws IOException {
+		lock.readLock().lock();
+		try {
+			checkOpen();
+			List< String > keys = new ArrayList<>();
+			for( String key : index.entries.keySet() ) {
+				if( key.startsWith( prefix ) ) {
+					keys.add( key );
+				}
+			}
+			Collections.sort( keys );
+			if( limit >= 0 && keys.size() > limit ) {
+				keys = keys.subList( 0, limit );
+			}
+			List< Map.Entry< String, byte[] > > result = new ArrayList<>( keys.size() );
+			for( String key : keys ) {
+				result.add( new AbstractMap.SimpleImmutableEntry<>( key, read( index.entries.get( key ) ) ) );
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void put( String key, byte[] value )
+		throws IOException {
+		final long sequence;
+		lock.writeLock().lock();
+		try {
+			checkOpen();
+			sequence = append( PUT, key, value );
+		} finally {
+			lock.writeLock().unlock();
+		}
+		awaitSync( sequence );
+	}
+
+	public void putDocument( byte[] value )
+		throws IOException {
+		final long sequence;
+		lock.writeLock().lock();
+		try {
+			checkOpen();
+			sequence = append( DOCUMENT, "", value );
+		} finally {
+			lock.writeLock().unlock();
+		}
+		awaitSync( sequence );
+	}
+
+	/**
+	 * Removes a key from this log.
+	 *
+	 * @return {@code true} if the key was in this log
+	 */
+	public boolean delete( String key )
+		throws IOException {
+		final long sequence;
+		lock.writeLock().lock();
+		try {
+			checkOpen();
+			if( !index.entries.containsKey( key ) ) {
+				return false;
+			}
+			sequence = append( DELETE, key, new byte[ 0 ] );
+		} finally {
+			lock.writeLock().unlock();
+		}
+		awaitSync( sequence );
+		return true;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.entries.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the size of the log file, in bytes.
+	 */
+	public long fileSize() {
+		lock.readLock().lock();
+		try {
+			return end;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the size of the records that have not been overwritten or deleted, in bytes. This is what
+	 * the log file would take after a compaction.
+	 */
+	public long liveSize() {
+		lock.readLock().lock();
+		try {
+			return index.liveBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Call with the write lock held
+	private long append( byte kind, String key, byte[] value )
+		throws IOException {
+		byte[] keyBytes = key.getBytes( StandardCharsets.UTF_8 );
+		ByteBuffer record = ByteBuffer.allocate( HEADER_SIZE + keyBytes.length + value.length );
+		record.putInt( 0 ).putInt( keyBytes.length ).putInt( value.length ).put( kind ).put( keyBytes ).put( value );
+		CRC32 crc = new CRC32();
+		crc.update( record.array(), 4, record.capacity() - 4 );
+		record.putInt( 0, (int) crc.getValue() );
+		record.flip();
+
+		final long offset = end;
+		// A record that is not completely written is overwritten by the next one
+		writeFully( channel, record, offset );
+		end += record.capacity();
+		index.apply( kind, key, new Entry( offset, keyBytes.length, value.length ) );
+		return ++appended;
+	}
+
+	private void awaitSync( long sequence )
+		throws IOException {
+		if( syncWrites ) {
+			sync( sequence );
+		}
+	}
+
+	/**
+	 * Forces the records appended so far to the storage device.
+	 */
+	public void sync()
+		throws IOException {
+		sync( appended );
+	}
+
+	private void sync( long sequence )
+		throws IOException {
+		synchronized( syncMonitor ) {
+			while( syncing && synced < sequence ) {
+				try {
+					syncMonitor.wait();
+				} catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			if( synced >= sequence ) {
+				return;
+			}
+			syncing = true;
+		}
+
+		// The force covers the records appended before it starts, so the writers that are waiting for
+		// it share it
+		final long target = appended;
+		final FileChannel c = channel;
+		boolean forced = false;
+		try {
+			c.force( false );
+			forced = true;
+		} catch( ClosedChannelException e ) {
+			// Replaced by a compaction or closed, both of which force the records first
+		} finally {
+			synchronized( syncMonitor ) {
+				syncing = false;
+				if( forced ) {
+					synced = Math.max( synced, target );
+				}
+				syncMonitor.notifyAll();
+			}
+		}
+		if( !forced ) {
+			synchronized( syncMonitor ) {
+				if( synced < sequence ) {
+					throw new ClosedChannelException();
+				}
+			}
+		}
+	}
+
+	private void markSynced() {
+		synchronized( syncMonitor ) {
+			synced = Math.max( synced, appended );
+			syncMonitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Returns whether the records that have been overwritten or deleted take more than the given ratio
+	 * of the log file, and the file is at least {@code minSize} bytes long.
+	 */
+	public boolean needsCompaction( double ratio, long minSize ) {
+		lock.readLock().lock();
+		try {
+			return !closed && end >= minSize && end - index.liveBytes > ratio * end;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the live records to a new file and replaces the current file with it. The log can be
+	 * read and updated during a compaction, except while the records appended during the copy are moved
+	 * to the new file. Does nothing if another compaction is running.
+	 */
+	public void compact()
+		throws IOException {
+		if( !compactionLock.tryLock() ) {
+			return;
+		}
+		try {
+			final List< Map.Entry< String, Entry > > live = new ArrayList<>();
+			final Entry document;
+			final long snapshotEnd;
+			final long nextGeneration;
+			final FileChannel source;
+			lock.readLock().lock();
+			try {
+				checkOpen();
+				for( Map.Entry< String, Entry > e : index.entries.entrySet() ) {
+					live.add( new AbstractMap.SimpleImmutableEntry<>( e.getKey(), e.getValue() ) );
+				}
+				document = index.document;
+				snapshotEnd = end;
+				nextGeneration = generation + 1;
+				source = channel;
+			} finally {
+				lock.readLock().unlock();
+			}
+
+			// Records are immutable, so the live ones can be copied without holding the lock
+			live.sort( Comparator.comparingLong( e -> e.getValue().offset ) );
+			final Path tmpFile = directory.resolve( nextGeneration + TMP_SUFFIX );
+			final FileChannel target = FileChannel.open( tmpFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE );
+			boolean replaced = false;
+			try {
+				final Index compacted = new Index();
+				long position = 0;
+				if( document != null ) {
+					transfer( source, document.offset, document.size(), target );
+					compacted.apply( DOCUMENT, "", document.moveTo( position ) );
+					position += document.size();
+				}
+				for( Map.Entry< String, Entry > e : live ) {
+					Entry entry = e.getValue();
+					transfer( source, entry.offset, entry.size(), target );
+					compacted.apply( PUT, e.getKey(), entry.moveTo( position ) );
+					position += entry.size();
+				}
+
+				lock.writeLock().lock();
+				try {
+					checkOpen();
+					// The records appended during the copy
+					transfer( source, snapshotEnd, end - snapshotEnd, target );
+					final long compactedEnd = replay( target, position, compacted );
+					target.force( true );
+					Files.move( tmpFile, logFile( directory, nextGeneration ), StandardCopyOption.ATOMIC_MOVE );
+					syncDirectory();
+					channel = target;
+					mapped = null;
+					index = compacted;
+					end = compactedEnd;
+					generation = nextGeneration;
+					markSynced();
+					replaced = true;
+				} finally {
+					lock.writeLock().unlock();
+				}
+			} finally {
+				if( !replaced ) {
+					target.close();
+					Files.deleteIfExists( tmpFile );
+				}
+			}
+			source.close();
+			Files.deleteIfExists( logFile( directory, nextGeneration - 1 ) );
+		} finally {
+			compactionLock.unlock();
+		}
+	}
+
+	/**
+	 * Forces the records appended so far and closes the log file.
+	 */
+	@Override
+	public void close()
+		throws IOException {
+		lock.writeLock().lock();
+		try {
+			if( closed ) {
+				return;
+			}
+			closed = true;
+			mapped = null;
+			try {
+				channel.force( false );
+				markSynced();
+			} finally {
+				channel.close();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void checkOpen()
+		throws IOException {
+		if( closed ) {
+			throw new ClosedChannelException();
+		}
+	}
+
+	// Call with the read or write lock held
+	private byte[] read( Entry entry )
+		throws IOException {
+		final byte[] value = new byte[ entry.valueLength ];
+		final long position = entry.valuePosition();
+		final MappedByteBuffer buffer = mapping( position + value.length );
+		if( buffer != null ) {
+			ByteBuffer view = buffer.duplicate();
+			view.position( (int) position );
+			view.get( value );
+		} else {
+			readFully( channel, ByteBuffer.wrap( value ), position );
+		}
+		return value;
+	}
+
+	// Returns a mapping of the file that contains the given position, or null if there is none
+	private MappedByteBuffer mapping( long required )
+		throws IOException {
+		MappedByteBuffer buffer = mapped;
+		if( buffer != null && required <= buffer.capacity() ) {
+			return buffer;
+		}
+		synchronized( mappingMonitor ) {
+			buffer = mapped;
+			if( (buffer == null || end - buffer.capacity() >= REMAP_THRESHOLD) && end <= Integer.MAX_VALUE ) {
+				buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, end );
+				mapped = buffer;
+			}
+		}
+		return buffer != null && required <= buffer.capacity() ? buffer : null;
+	}
+
+	private void syncDirectory() {
+		try( FileChannel dir = FileChannel.open( directory, StandardOpenOption.READ ) ) {
+			dir.force( true );
+		} catch( IOException e ) {
+			// Directories cannot be opened on some platforms
+		}
+	}
+
+	// Reads the records from a position, applying them to an index. Returns the position after the
+	// last complete record.
+	private static long replay( FileChannel channel, long from, Index index )
+		throws IOException {
+		final long size = channel.size();
+		long position = from;
+		channel.position( from );
+		// Not closed, as that would close the channel
+		DataInputStream in =
+			new DataInputStream( new BufferedInputStream( Channels.newInputStream( channel ), 1 << 16 ) );
+		final byte[] header = new byte[ HEADER_SIZE ];
+		final byte[] buffer = new byte[ 8192 ];
+		final CRC32 crc = new CRC32();
+		while( size - position >= HEADER_SIZE ) {
+			in.readFully( header );
+			ByteBuffer h = ByteBuffer.wrap( header );
+			int checksum = h.getInt();
+			int keyLength = h.getInt();
+			int valueLength = h.getInt();
+			byte kind = h.get();
+			if( keyLength < 0 || valueLength < 0 || kind < PUT || kind > DOCUMENT
+				|| (long) keyLength + valueLength > size - position - HEADER_SIZE ) {
+				break;
+			}
+			crc.reset();
+			crc.update( header, 4, HEADER_SIZE - 4 );
+			byte[] key = new byte[ keyLength ];
+			in.readFully( key );
+			crc.update( key );
+			for( int remaining = valueLength; remaining > 0; ) {
+				int n = Math.min( remaining, buffer.length );
+				in.readFully( buffer, 0, n );
+				crc.update( buffer, 0, n );
+				remaining -= n;
+			}
+			if( (int) crc.getValue() != checksum ) {
+				break;
+			}
+			index.apply( kind, new String( key, StandardCharsets.UTF_8 ),
+				new Entry( position, keyLength, valueLength ) );
+			position += HEADER_SIZE + keyLength + valueLength;
+		}
+		return position;
+	}
+
+	// Appends a region of a file to the position of another
+	private static void transfer( FileChannel source, long position, long count, FileChannel target )
+		throws IOException {
+		while( count > 0 ) {
+			long n = source.transferTo( position, count, target );
+			if( n <= 0 ) {
+				throw new EOFException();
+			}
+			position += n;
+			count -= n;
+		}
+	}
+
+	private static void readFully( FileChannel channel, ByteBuffer buffer, long position )
+		throws IOException {
+		while( buffer.hasRemaining() ) {
+			int n = channel.read( buffer, position );
+			if( n < 0 ) {
+				throw new EOFException();
+			}
+			position += n;
+		}
+	}
+
+	private static void writeFully( FileChannel channel, ByteBuffer buffer, long position )
+		throws IOException {
+		while( buffer.hasRemaining() ) {
+			position += channel.write( buffer, position );
+		}
+	}
+}
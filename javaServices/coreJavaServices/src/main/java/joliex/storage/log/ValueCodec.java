@@ -0,0 +1,166 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by The Jolie Programming Language contributors          *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.storage.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import jolie.runtime.ByteArray;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * A compact binary encoding of Jolie values, used for the records of a {@link KeyValueLog}.
+ *
+ * A value is encoded as a type tag, its content and its children. Each child is encoded as its
+ * name, the size of its vector and the vector elements.
+ */
+public class ValueCodec {
+	private static final byte VOID = 0, STRING = 1, INT = 2, LONG = 3, DOUBLE = 4, BOOL = 5, BYTES = 6;
+
+	private ValueCodec() {}
+
+	public static byte[] encode( Value value ) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+		try( DataOutputStream out = new DataOutputStream( bytes ) ) {
+			writeValue( out, value );
+		} catch( IOException e ) {
+			// ByteArrayOutputStream does not throw
+			throw new IllegalStateException( e );
+		}
+		return bytes.toByteArray();
+	}
+
+	public static Value decode( byte[] bytes )
+		throws IOException {
+		Value value = Value.create();
+		try( DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes ) ) ) {
+			readValue( in, value );
+		}
+		return value;
+	}
+
+	private static void writeValue( DataOutputStream out, Value value )
+		throws IOException {
+		if( value.isString() ) {
+			out.writeByte( STRING );
+			writeString( out, value.strValue() );
+		} else if( value.isInt() ) {
+			out.writeByte( INT );
+			out.writeInt( value.intValue() );
+		} else if( value.isLong() ) {
+			out.writeByte( LONG );
+			out.writeLong( value.longValue() );
+		} else if( value.isDouble() ) {
+			out.writeByte( DOUBLE );
+			out.writeDouble( value.doubleValue() );
+		} else if( value.isBool() ) {
+			out.writeByte( BOOL );
+			out.writeBoolean( value.boolValue() );
+		} else if( value.isByteArray() ) {
+			out.writeByte( BYTES );
+			byte[] b = value.byteArrayValue().getBytes();
+			out.writeInt( b.length );
+			out.write( b );
+		} else {
+			out.writeByte( VOID );
+		}
+
+		Map< String, ValueVector > children = value.children();
+		out.writeInt( children.size() );
+		for( Map.Entry< String, ValueVector > child : children.entrySet() ) {
+			writeString( out, child.getKey() );
+			ValueVector vector = child.getValue();
+			out.writeInt( vector.size() );
+			for( Value element : vector ) {
+				writeValue( out, element );
+			}
+		}
+	}
+
+	private static void readValue( DataInputStream in, Value value )
+		throws IOException {
+		byte type = in.readByte();
+		switch( type ) {
+		case VOID:
+			break;
+		case STRING:
+			value.setValue( readString( in ) );
+			break;
+		case INT:
+			value.setValue( in.readInt() );
+			break;
+		case LONG:
+			value.setValue( in.readLong() );
+			break;
+		case DOUBLE:
+			value.setValue( in.readDouble() );
+			break;
+		case BOOL:
+			value.setValue( in.readBoolean() );
+			break;
+		case BYTES:
+			value.setValue( new ByteArray( readBytes( in ) ) );
+			break;
+		default:
+			throw new IOException( "Unknown value type in storage record: " + type );
+		}
+
+		int childrenCount = in.readInt();
+		for( int i = 0; i < childrenCount; i++ ) {
+			ValueVector vector = value.getChildren( readString( in ) );
+			int size = in.readInt();
+			for( int k = 0; k < size; k++ ) {
+				Value element = Value.create();
+				readValue( in, element );
+				vector.add( element );
+			}
+		}
+	}
+
+	private static void writeString( DataOutputStream out, String s )
+		throws IOException {
+		byte[] b = s.getBytes( StandardCharsets.UTF_8 );
+		out.writeInt( b.length );
+		out.write( b );
+	}
+
+	private static String readString( DataInputStream in )
+		throws IOException {
+		return new String( readBytes( in ), StandardCharsets.UTF_8 );
+	}
+
+	private static byte[] readBytes( DataInputStream in )
+		throws IOException {
+		int length = in.readInt();
+		if( length < 0 || length > in.available() ) {
+			throw new IOException( "Malformed storage record" );
+		}
+		byte[] b = new byte[ length ];
+		in.readFully( b );
+		return b;
+	}
+}
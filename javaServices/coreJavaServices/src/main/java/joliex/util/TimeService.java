@@ -22,7 +22,6 @@
 package joliex.util;
 
 
-import java.lang.ref.Cleaner;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -30,8 +29,6 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
-import jolie.Interpreter;
-import jolie.InterpreterThread;
 import jolie.net.CommMessage;
 import jolie.runtime.FaultException;
 import jolie.runtime.JavaService;
@@ -40,42 +37,11 @@ import jolie.runtime.ValueVector;
 import jolie.runtime.embedding.RequestResponse;
 
 public class TimeService extends JavaService {
-	protected static class TimeThread extends Thread implements InterpreterThread {
-		private final long waitTime;
-		private final String callbackOperation;
-		private final Value callbackValue;
-		private final TimeService parent;
-
-		public TimeThread( TimeService parent, long waitTime, String callbackOperation, Value callbackValue ) {
-			this.waitTime = waitTime;
-			this.callbackOperation =
-				(callbackOperation == null) ? "timeout" : callbackOperation;
-			this.callbackValue =
-				(callbackValue == null) ? Value.create() : callbackValue;
-			this.parent = parent;
-		}
-
-		@Override
-		public void run() {
-			try {
-				Thread.sleep( waitTime );
-				parent.sendMessage( CommMessage.createRequest( callbackOperation, "/", callbackValue ) );
-			} catch( InterruptedException e ) {
-			}
-		}
-
-		@Override
-		public Interpreter interpreter() {
-			return parent.interpreter();
-		}
-	}
-
-	private TimeThread thread = null;
-	private final Cleaner cleaner = Cleaner.create();
+	// The timeout set by setNextTimeout and its variants
+	private Future< ? > nextTimeout = null;
 
 	private final DateFormat dateFormat, dateTimeFormat;
-	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-	private final Map< Long, ScheduledFuture< ? > > scheduledFutureHashMap = new ConcurrentHashMap<>();
+	private final Map< Long, Future< ? > > scheduledFutureHashMap = new ConcurrentHashMap<>();
 	private final AtomicLong atomicLong = new AtomicLong();
 
 	public TimeService() {
@@ -83,19 +49,20 @@ public class TimeService extends JavaService {
 		dateTimeFormat = DateFormat.getDateTimeInstance( DateFormat.SHORT, DateFormat.MEDIUM );
 	}
 
-	private void launchTimeThread( long waitTime, String callbackOperation, Value callbackValue ) {
-		waitTime = (waitTime > 0) ? waitTime : 0L;
-		if( thread != null ) {
-			thread.interrupt();
+	private synchronized void scheduleNextTimeout( long waitTime, String callbackOperation, Value callbackValue ) {
+		final String operation = (callbackOperation == null) ? "timeout" : callbackOperation;
+		final Value message = (callbackValue == null) ? Value.create() : callbackValue;
+		if( nextTimeout != null ) {
+			nextTimeout.cancel( false );
 		}
-		thread = new TimeThread( this, waitTime, callbackOperation, callbackValue );
-		cleaner.register( thread, thread::interrupt );
-		thread.start();
+		nextTimeout = interpreter().schedule(
+			() -> sendMessage( CommMessage.createRequest( operation, "/", message ) ), waitTime );
 	}
 
-	public void stopNextTimeout( Value request ) {
-		if( thread != null ) {
-			thread.interrupt();
+	public synchronized void stopNextTimeout( Value request ) {
+		if( nextTimeout != null ) {
+			nextTimeout.cancel( false );
+			nextTimeout = null;
 		}
 	}
 
@@ -111,7 +78,7 @@ public class TimeService extends JavaService {
 			callbackValue = vec.first();
 		}
 
-		launchTimeThread( waitTime, callbackOperation, callbackValue );
+		scheduleNextTimeout( waitTime, callbackOperation, callbackValue );
 	}
 
 	public void setNextTimeoutByDateTime( Value request ) {
@@ -134,7 +101,7 @@ public class TimeService extends JavaService {
 			callbackValue = vec.first();
 		}
 
-		launchTimeThread( waitTime, callbackOperation, callbackValue );
+		scheduleNextTimeout( waitTime, callbackOperation, callbackValue );
 	}
 
 	public void setNextTimeoutByTime( Value request ) {
@@ -156,7 +123,7 @@ public class TimeService extends JavaService {
 		if( (vec = request.children().get( "message" )) != null )
 			callbackValue = vec.first();
 
-		launchTimeThread( waitTime, callbackOperation, callbackValue );
+		scheduleNextTimeout( waitTime, callbackOperation, callbackValue );
 	}
 
 	@RequestResponse
@@ -425,9 +392,10 @@ public class TimeService extends JavaService {
 			operationName = "timeout";
 		}
 
-		ScheduledFuture< ? > scheduledFuture = executor.schedule( () -> {
+		Future< ? > scheduledFuture = interpreter().schedule( () -> {
+			scheduledFutureHashMap.remove( timeoutId );
 			sendMessage( CommMessage.createRequest( operationName, "/", request.getFirstChild( "message" ) ) );
-		}, request.intValue(), unit );
+		}, unit.toMillis( request.intValue() ) );
 		scheduledFutureHashMap.put( timeoutId, scheduledFuture );
 		return timeoutId;
 	}
@@ -435,7 +403,7 @@ public class TimeService extends JavaService {
 	@RequestResponse
 	public Boolean cancelTimeout( Value request ) {
 		long timeoutId = request.longValue();
-		ScheduledFuture< ? > f = scheduledFutureHashMap.remove( timeoutId );
+		Future< ? > f = scheduledFutureHashMap.remove( timeoutId );
 		return f != null && f.cancel( false );
 	}
 }
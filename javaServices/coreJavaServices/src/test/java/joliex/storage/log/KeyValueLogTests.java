@@ -0,0 +1,274 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by The Jolie Programming Language contributors          *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.storage.log;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyValueLogTests {
+	@TempDir
+	Path directory;
+
+	private static byte[] bytes( String s ) {
+		return s.getBytes( StandardCharsets.UTF_8 );
+	}
+
+	private List< String > files()
+		throws IOException {
+		try( Stream< Path > files = Files.list( directory ) ) {
+			return files.map( f -> f.getFileName().toString() ).sorted().collect( Collectors.toList() );
+		}
+	}
+
+	private Path logFile()
+		throws IOException {
+		final List< String > files = files();
+		assertEquals( 1, files.size(), files.toString() );
+		return directory.resolve( files.get( 0 ) );
+	}
+
+	private void append( Path file, byte[] data )
+		throws IOException {
+		Files.write( file, data, StandardOpenOption.APPEND );
+	}
+
+	@Test
+	void tornTailIsTruncatedOnReopen()
+		throws IOException {
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			log.put( "a", bytes( "1" ) );
+			log.put( "b", bytes( "2" ) );
+		}
+		final Path file = logFile();
+		final long size = Files.size( file );
+
+		// A crash in the middle of a header, then in the middle of a value
+		append( file, new byte[] { 1, 2, 3, 4, 0, 0 } );
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertEquals( size, Files.size( file ) );
+			assertArrayEquals( bytes( "2" ), log.get( "b" ) );
+			log.put( "c", bytes( "a value long enough to be torn" ) );
+		}
+		final long withC = Files.size( file );
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.WRITE ) ) {
+			channel.truncate( withC - 5 );
+		}
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertEquals( size, Files.size( file ) );
+			assertEquals( 2, log.size() );
+			assertNull( log.get( "c" ) );
+			// Appending after the truncation leaves a readable log
+			log.put( "d", bytes( "4" ) );
+		}
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertArrayEquals( bytes( "1" ), log.get( "a" ) );
+			assertArrayEquals( bytes( "4" ), log.get( "d" ) );
+		}
+	}
+
+	@Test
+	void corruptRecordIsTruncatedWithWhatFollows()
+		throws IOException {
+		final long sizeOfA;
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			log.put( "a", bytes( "1" ) );
+			sizeOfA = log.fileSize();
+			log.put( "b", bytes( "2" ) );
+			log.put( "c", bytes( "3" ) );
+		}
+		final Path file = logFile();
+		// Flips the last byte of the value of b, whose record is followed by a valid one
+		final long lastByteOfB = 2 * sizeOfA - 1;
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE ) ) {
+			final ByteBuffer b = ByteBuffer.allocate( 1 );
+			channel.read( b, lastByteOfB );
+			b.put( 0, (byte) (b.get( 0 ) ^ 0xFF) ).rewind();
+			channel.write( b, lastByteOfB );
+		}
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertEquals( sizeOfA, Files.size( file ) );
+			assertArrayEquals( bytes( "1" ), log.get( "a" ) );
+			assertNull( log.get( "b" ) );
+			assertNull( log.get( "c" ) );
+		}
+	}
+
+	@Test
+	void leftoversOfCompactionsAreDeletedOnOpen()
+		throws IOException {
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			log.put( "a", bytes( "old" ) );
+			log.put( "a", bytes( "new" ) );
+			log.putDocument( bytes( "document" ) );
+			log.compact();
+		}
+		assertEquals( List.of( "1.log" ), files() );
+
+		// A compaction interrupted while copying, and an older generation that was not deleted
+		Files.write( directory.resolve( "2.log.tmp" ), bytes( "partial copy" ) );
+		Files.write( directory.resolve( "0.log" ), bytes( "stale generation" ) );
+		// Not a file of the log
+		Files.write( directory.resolve( "notes.txt" ), bytes( "kept" ) );
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertEquals( List.of( "1.log", "notes.txt" ), files() );
+			assertArrayEquals( bytes( "new" ), log.get( "a" ) );
+			assertArrayEquals( bytes( "document" ), log.getDocument() );
+			// The next compaction does not collide with the deleted files
+			log.compact();
+		}
+		assertEquals( List.of( "2.log", "notes.txt" ), files() );
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			assertArrayEquals( bytes( "new" ), log.get( "a" ) );
+		}
+	}
+
+	@Test
+	void updatesDuringCompactionAreKept()
+		throws Exception {
+		final int writers = 4;
+		final int keys = 200;
+		final int rounds = 20;
+		final List< Map< String, byte[] > > expected = new ArrayList<>();
+		final ExecutorService executor = Executors.newFixedThreadPool( writers );
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			final CountDownLatch started = new CountDownLatch( writers );
+			final List< Future< ? > > futures = new ArrayList<>();
+			for( int w = 0; w < writers; w++ ) {
+				final int writer = w;
+				final Map< String, byte[] > values = new HashMap<>();
+				expected.add( values );
+				futures.add( executor.submit( () -> {
+					started.countDown();
+					for( int round = 0; round < rounds; round++ ) {
+						for( int k = 0; k < keys; k++ ) {
+							final String key = writer + ":" + k;
+							if( (k + round) % 3 == 0 ) {
+								log.delete( key );
+								values.remove( key );
+							} else {
+								final byte[] value = bytes( key + "@" + round );
+								log.put( key, value );
+								values.put( key, value );
+							}
+						}
+					}
+					return null;
+				} ) );
+			}
+			started.await();
+			int compactions = 0;
+			while( futures.stream().anyMatch( f -> !f.isDone() ) ) {
+				log.compact();
+				compactions++;
+			}
+			for( Future< ? > f : futures ) {
+				f.get();
+			}
+			assertTrue( compactions > 0 );
+			check( log, expected );
+			log.compact();
+			check( log, expected );
+			assertEquals( log.liveSize(), log.fileSize() );
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals( 1, files().size() );
+		try( KeyValueLog log = KeyValueLog.open( directory, false ) ) {
+			check( log, expected );
+		}
+	}
+
+	private static void check( KeyValueLog log, List< Map< String, byte[] > > expected )
+		throws IOException {
+		int size = 0;
+		for( Map< String, byte[] > values : expected ) {
+			size += values.size();
+			for( Map.Entry< String, byte[] > e : values.entrySet() ) {
+				assertArrayEquals( e.getValue(), log.get( e.getKey() ), e.getKey() );
+			}
+		}
+		assertEquals( size, log.size() );
+	}
+
+	@Test
+	void concurrentWritersShareSyncs()
+		throws Exception {
+		final int writers = 8;
+		final int keys = 100;
+		final ExecutorService executor = Executors.newFixedThreadPool( writers );
+		try( KeyValueLog log = KeyValueLog.open( directory, true ) ) {
+			final CountDownLatch start = new CountDownLatch( 1 );
+			final List< Future< ? > > futures = new ArrayList<>();
+			for( int w = 0; w < writers; w++ ) {
+				final int writer = w;
+				futures.add( executor.submit( () -> {
+					start.await();
+					for( int k = 0; k < keys; k++ ) {
+						log.put( writer + ":" + k, bytes( Integer.toString( k ) ) );
+					}
+					assertTrue( log.delete( writer + ":0" ) );
+					assertFalse( log.delete( writer + ":0" ) );
+					return null;
+				} ) );
+			}
+			start.countDown();
+			for( Future< ? > f : futures ) {
+				f.get( 1, TimeUnit.MINUTES );
+			}
+			assertEquals( writers * (keys - 1), log.size() );
+			// Everything was forced by the writers already
+			log.sync();
+		} finally {
+			executor.shutdown();
+		}
+		try( KeyValueLog log = KeyValueLog.open( directory, true ) ) {
+			assertEquals( writers * (keys - 1), log.size() );
+			for( int w = 0; w < writers; w++ ) {
+				assertNull( log.get( w + ":0" ) );
+				assertArrayEquals( bytes( Integer.toString( keys - 1 ) ), log.get( w + ":" + (keys - 1) ) );
+			}
+		}
+	}
+}
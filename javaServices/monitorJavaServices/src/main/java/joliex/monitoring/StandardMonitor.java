@@ -21,9 +21,9 @@
 
 package joliex.monitoring;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 import jolie.monitoring.MonitoringEvent;
 import jolie.net.CommMessage;
 import jolie.runtime.Value;
@@ -35,7 +35,7 @@ import jolie.runtime.Value;
  *
  */
 public class StandardMonitor extends AbstractMonitorJavaService {
-	private final Deque< MonitoringEvent > q = new LinkedList<>(); // event list
+	private final Deque< MonitoringEvent > q = new ArrayDeque<>(); // event list
 	private boolean triggerEnabled;
 	private int queueMax;
 	private int triggerThreshold;
@@ -52,17 +52,31 @@ public class StandardMonitor extends AbstractMonitorJavaService {
 
 	@Override
 	public void pushEvent( MonitoringEvent e ) {
+		synchronized( this ) {
+			add( e );
+		}
+	}
 
+	/*
+	 * request: .events*: MonitoringEvent
+	 */
+	public void pushEvents( Value request ) {
 		synchronized( this ) {
-			if( q.size() >= queueMax ) {
-				q.removeFirst();
+			for( Value event : request.getChildren( "events" ) ) {
+				add( MonitoringEvent.fromValue( event ) );
 			}
-			q.addLast( e );
-			if( triggerEnabled && !alert ) {
-				if( q.size() >= triggerThreshold ) {
-					sendMessage( CommMessage.createRequest( "monitorAlert", "/", Value.create() ) );
-					alert = true;
-				}
+		}
+	}
+
+	private void add( MonitoringEvent e ) {
+		if( q.size() >= queueMax ) {
+			q.removeFirst();
+		}
+		q.addLast( e );
+		if( triggerEnabled && !alert ) {
+			if( q.size() >= triggerThreshold ) {
+				sendMessage( CommMessage.createRequest( "monitorAlert", "/", Value.create() ) );
+				alert = true;
 			}
 		}
 	}
@@ -51,11 +51,13 @@ import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import jolie.HashedWheelTimer;
 import jolie.Interpreter;
 import jolie.JolieClassLoader;
 import jolie.lang.Constants;
 import jolie.lang.parse.Scanner;
 import jolie.lang.parse.module.ModuleSource;
+import jolie.net.EventLoopCommChannel;
 import jolie.runtime.correlation.CorrelationEngine;
 import jolie.util.Helpers;
 import jolie.util.UriUtils;
@@ -88,6 +90,11 @@ public class CommandLineParser implements AutoCloseable {
 	private final boolean check;
 	private final long responseTimeout;
 	private final boolean printStackTraces;
+	private final boolean virtualThreads;
+	private final boolean compactValues;
+	private final int eventLoops;
+	private final int maxFrameSize;
+	private final long timerTick;
 	private final Level logLevel;
 	private final String executionTarget;
 	private final Optional< Path > parametersFilepath;
@@ -147,19 +154,34 @@ public class CommandLineParser implements AutoCloseable {
 					"Set the timeout for request-response invocations (in milliseconds, default 1 min = 60*1000)" ) )
 			.append(
 				getOptionString( "--correlationAlgorithm [simple|hash]",
-					"Set the algorithm to use for message correlation" ) )
+					"Set the algorithm to use for message correlation (default: simple)" ) )
 			.append(
 				getOptionString( "--log [severe|warning|info|fine]", "Set the logging level (default: info)" ) )
 			.append(
 				getOptionString( "--stackTraces", "Activate the printing of Java stack traces (default: false)" ) )
+			.append(
+				getOptionString( "--virtualThreads",
+					"Run sessions and communication handlers on virtual threads (default: false)" ) )
+			.append(
+				getOptionString( "--compactValues",
+					"Store data trees in a compact representation, saving memory on large messages (default: false)" ) )
+			.append(
+				getOptionString( "--eventLoops [number]",
+					"Serve the connections of sodep and http input ports with the given number of event loop threads, instead of one thread per receiving connection (default: 0, disabled)" ) )
+			.append(
+				getOptionString( "--maxFrameSize [number]",
+					"Set the size of the largest message kept in memory by event loops (in bytes, default: 16777216). Larger http requests are streamed by a dedicated thread, larger messages of other protocols close their connection" ) )
+			.append(
+				getOptionString( "--timerTick [number]",
+					"Set the resolution of the timer running timeouts (in milliseconds, default: 10)" ) )
 			.append(
 				getOptionString( "--typecheck [true|false]",
 					"Check for correlation and other data related typing errors (default: false)" ) )
 			.append(
 				getOptionString( "--check", "Check for syntactic and semantic errors." ) )
 			.append(
-				getOptionString( "--trace [console|file]",
-					"Activate tracer. console prints out in the console, file creates a json file" ) )
+				getOptionString( "--trace [console|file|binary]",
+					"Activate tracer. console prints out in the console, file creates a json file, binary creates compact trace files (see jolietrace2json)" ) )
 			.append(
 				getOptionString( "--traceLevel [all|comm|comp]",
 					"Defines tracer level: all - all the traces; comm - only communication traces; comp - only computation traces. Default is all. " ) )
@@ -276,6 +298,8 @@ public class CommandLineParser implements AutoCloseable {
 		Deque< String > optionsList = new LinkedList<>();
 		boolean bTracer = false;
 		boolean bStackTraces = false;
+		boolean bVirtualThreads = false;
+		boolean bCompactValues = false;
 		boolean bCheck = false;
 		boolean bTypeCheck = false; // Default for typecheck
 		Level lLogLevel = Level.INFO;
@@ -286,6 +310,9 @@ public class CommandLineParser implements AutoCloseable {
 		Deque< String > libList = new ArrayDeque<>();
 		Deque< String > packagesList = new ArrayDeque<>();
 		int cLimit = -1;
+		int nEventLoops = 0;
+		int nMaxFrameSize = EventLoopCommChannel.DEFAULT_MAX_FRAME_SIZE;
+		long tTick = HashedWheelTimer.DEFAULT_TICK;
 		long rTimeout = 60 * 1000; // 1 minute, in milliseconds
 		String pwd = UriUtils.normalizeWindowsPath( new File( "" ).getCanonicalPath() );
 		String tService = null;
@@ -349,6 +376,48 @@ public class CommandLineParser implements AutoCloseable {
 						"The number specified for cLimit (" + argsList.get( i ) + ") is not allowed" );
 				}
 				optionsList.add( argsList.get( i ) );
+			} else if( "--eventLoops".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				try {
+					nEventLoops = Integer.parseInt( argsList.get( i ) );
+				} catch( Exception e ) {
+					throw new CommandLineException(
+						"The number specified for eventLoops (" + argsList.get( i ) + ") is not allowed" );
+				}
+				if( nEventLoops < 0 ) {
+					throw new CommandLineException(
+						"The number specified for eventLoops (" + argsList.get( i ) + ") is not allowed" );
+				}
+				optionsList.add( argsList.get( i ) );
+			} else if( "--maxFrameSize".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				try {
+					nMaxFrameSize = Integer.parseInt( argsList.get( i ) );
+				} catch( Exception e ) {
+					throw new CommandLineException(
+						"The number specified for maxFrameSize (" + argsList.get( i ) + ") is not allowed" );
+				}
+				if( nMaxFrameSize <= 0 ) {
+					throw new CommandLineException(
+						"The number specified for maxFrameSize (" + argsList.get( i ) + ") is not allowed" );
+				}
+				optionsList.add( argsList.get( i ) );
+			} else if( "--timerTick".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				try {
+					tTick = Long.parseLong( argsList.get( i ) );
+				} catch( Exception e ) {
+					throw new CommandLineException(
+						"The number specified for timerTick (" + argsList.get( i ) + ") is not allowed" );
+				}
+				if( tTick <= 0 ) {
+					throw new CommandLineException(
+						"The number specified for timerTick (" + argsList.get( i ) + ") is not allowed" );
+				}
+				optionsList.add( argsList.get( i ) );
 			} else if( "--responseTimeout".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				i++;
@@ -377,6 +446,12 @@ public class CommandLineParser implements AutoCloseable {
 			} else if( "--stackTraces".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				bStackTraces = true;
+			} else if( "--virtualThreads".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				bVirtualThreads = true;
+			} else if( "--compactValues".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				bCompactValues = true;
 			} else if( "--check".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				bCheck = true;
@@ -394,6 +469,11 @@ public class CommandLineParser implements AutoCloseable {
 					i++;
 					optionsList.add( argsList.get( i ) );
 					break;
+				case "binary":
+					tMode = "binary";
+					i++;
+					optionsList.add( argsList.get( i ) );
+					break;
 				}
 			} else if( "--traceLevel".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
@@ -532,6 +612,11 @@ public class CommandLineParser implements AutoCloseable {
 		tracerMode = tMode;
 		tracerLevel = tLevel;
 		printStackTraces = bStackTraces;
+		virtualThreads = bVirtualThreads;
+		compactValues = bCompactValues;
+		eventLoops = nEventLoops;
+		maxFrameSize = nMaxFrameSize;
+		timerTick = tTick;
 		executionTarget = tService;
 		parametersFilepath = Optional.ofNullable( tParams );
 
@@ -856,6 +941,11 @@ public class CommandLineParser implements AutoCloseable {
 			printStackTraces,
 			responseTimeout,
 			logLevel,
+			virtualThreads,
+			compactValues,
+			eventLoops,
+			maxFrameSize,
+			timerTick,
 			packagePaths,
 			executionTarget,
 			parametersFilepath );
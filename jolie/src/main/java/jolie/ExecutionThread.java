@@ -28,8 +28,11 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jolie.lang.Constants;
 import jolie.net.CommChannelHandler;
@@ -165,10 +168,13 @@ public abstract class ExecutionThread extends JolieThread {
 	private final Deque< WeakReference< Future< ? > > > futureToCancel = new ArrayDeque<>();
 	private boolean canBeInterrupted = false;
 	private FaultException killerFault = null;
-	private Future< ? > taskFuture;
+	// Completed by start() or cancelStart(), so that join() can be called before the thread is started
+	private final CompletableFuture< Future< ? > > taskFuture = new CompletableFuture<>();
+	// Not using the monitor of this object, so that virtual threads do not get pinned to their carriers
+	private final Lock lock = new ReentrantLock();
 
 	private void setTaskFuture( Future< ? > taskFuture ) {
-		this.taskFuture = taskFuture;
+		this.taskFuture.complete( taskFuture );
 	}
 
 	/**
@@ -207,18 +213,24 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @param fault the fault causing the interruption.
 	 */
-	public synchronized void kill( FaultException fault ) {
-		killerFault = fault;
+	public void kill( FaultException fault ) {
+		lock.lock();
+		try {
+			killerFault = fault;
 
-		while( !futureToCancel.isEmpty() ) {
-			final WeakReference< Future< ? > > ref = futureToCancel.poll();
-			if( ref.get() != null ) {
-				ref.get().cancel( true );
+			while( !futureToCancel.isEmpty() ) {
+				final WeakReference< Future< ? > > ref = futureToCancel.poll();
+				if( ref.get() != null ) {
+					ref.get().cancel( true );
+				}
 			}
-		}
 
-		if( canBeInterrupted ) {
-			taskFuture.cancel( canBeInterrupted );
+			final Future< ? > future = taskFuture.getNow( null );
+			if( canBeInterrupted && future != null ) {
+				future.cancel( canBeInterrupted );
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -252,12 +264,17 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @return the compensator of the current executing scope.
 	 */
-	public synchronized Process getCurrentScopeCompensation() {
-		if( scopeStack.isEmpty() && parent != null ) {
-			return parent.getCurrentScopeCompensation();
-		}
+	public Process getCurrentScopeCompensation() {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				return parent.getCurrentScopeCompensation();
+			}
 
-		return scopeStack.peek().getSelfCompensation();
+			return scopeStack.peek().getSelfCompensation();
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -266,12 +283,17 @@ public abstract class ExecutionThread extends JolieThread {
 	 * @param id the scope name owning the compensator to retrieve
 	 * @return the compensator for scope name id.
 	 */
-	public synchronized Process getCompensation( String id ) {
-		if( scopeStack.isEmpty() && parent != null ) {
-			return parent.getCompensation( id );
-		}
+	public Process getCompensation( String id ) {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				return parent.getCompensation( id );
+			}
 
-		return scopeStack.peek().getCompensation( id );
+			return scopeStack.peek().getCompensation( id );
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -282,8 +304,13 @@ public abstract class ExecutionThread extends JolieThread {
 	 * @see #popScope(boolean)
 	 * @return true if this thread is executing inside a scope.
 	 */
-	public synchronized boolean hasScope() {
-		return !scopeStack.isEmpty();
+	public boolean hasScope() {
+		lock.lock();
+		try {
+			return !scopeStack.isEmpty();
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -291,12 +318,17 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @return the id of the current executing scope.
 	 */
-	public synchronized String currentScopeId() {
-		if( scopeStack.isEmpty() && parent != null ) {
-			return parent.currentScopeId();
-		}
+	public String currentScopeId() {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				return parent.currentScopeId();
+			}
 
-		return scopeStack.peek().id();
+			return scopeStack.peek().id();
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -304,12 +336,17 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @param f the future to cancel
 	 */
-	public synchronized void cancelIfKilled( Future< ? > f ) {
-		cleanFuturesToKill();
-		if( isKilled() ) {
-			f.cancel( true );
+	public void cancelIfKilled( Future< ? > f ) {
+		lock.lock();
+		try {
+			cleanFuturesToKill();
+			if( isKilled() ) {
+				f.cancel( true );
+			}
+			futureToCancel.add( new WeakReference<>( f ) );
+		} finally {
+			lock.unlock();
 		}
-		futureToCancel.add( new WeakReference<>( f ) );
 	}
 
 	private void cleanFuturesToKill() {
@@ -331,12 +368,17 @@ public abstract class ExecutionThread extends JolieThread {
 	 * @param erase <code>true</code> if the fault handler should be removed before returning it.
 	 * @return the current fault handler for fault id.
 	 */
-	public synchronized Process getFaultHandler( String id, boolean erase ) {
-		if( scopeStack.isEmpty() && parent != null ) {
-			return parent.getFaultHandler( id, erase );
-		}
+	public Process getFaultHandler( String id, boolean erase ) {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				return parent.getFaultHandler( id, erase );
+			}
 
-		return scopeStack.peek().getFaultHandler( id, erase );
+			return scopeStack.peek().getFaultHandler( id, erase );
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -344,8 +386,13 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @param id the id of the scope to push.
 	 */
-	public synchronized void pushScope( String id ) {
-		scopeStack.push( new Scope( id ) );
+	public void pushScope( String id ) {
+		lock.lock();
+		try {
+			scopeStack.push( new Scope( id ) );
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -354,10 +401,15 @@ public abstract class ExecutionThread extends JolieThread {
 	 * @param merge <code>true</code> if the popped scope compensators should be propagated upstream to
 	 *        the parent scope.
 	 */
-	public synchronized void popScope( boolean merge ) {
-		final Scope s = scopeStack.pop();
-		if( merge ) {
-			mergeCompensations( s );
+	public void popScope( boolean merge ) {
+		lock.lock();
+		try {
+			final Scope s = scopeStack.pop();
+			if( merge ) {
+				mergeCompensations( s );
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -365,17 +417,22 @@ public abstract class ExecutionThread extends JolieThread {
 	 * Pops the current executing scope from the scope stack of this thread. This method is a shortcut
 	 * for <code>popScope(true)</code>.
 	 */
-	public synchronized void popScope() {
+	public void popScope() {
 		popScope( true );
 	}
 
-	private synchronized void mergeCompensations( Scope s ) {
-		if( scopeStack.isEmpty() ) {
-			if( parent != null ) {
-				parent.mergeCompensations( s );
+	private void mergeCompensations( Scope s ) {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() ) {
+				if( parent != null ) {
+					parent.mergeCompensations( s );
+				}
+			} else {
+				scopeStack.peek().mergeCompensations( s );
 			}
-		} else {
-			scopeStack.peek().mergeCompensations( s );
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -384,11 +441,16 @@ public abstract class ExecutionThread extends JolieThread {
 	 *
 	 * @param process the process to install as compensator for the current scope
 	 */
-	public synchronized void installCompensation( Process process ) {
-		if( scopeStack.isEmpty() && parent != null ) {
-			parent.installCompensation( process );
-		} else {
-			scopeStack.peek().installCompensation( process );
+	public void installCompensation( Process process ) {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				parent.installCompensation( process );
+			} else {
+				scopeStack.peek().installCompensation( process );
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -398,11 +460,16 @@ public abstract class ExecutionThread extends JolieThread {
 	 * @param id the fault to be handled by process
 	 * @param process the Process to be called for handling fault id
 	 */
-	public synchronized void installFaultHandler( String id, Process process ) {
-		if( scopeStack.isEmpty() && parent != null ) {
-			parent.installFaultHandler( id, process );
-		} else {
-			scopeStack.peek().installFaultHandler( id, process );
+	public void installFaultHandler( String id, Process process ) {
+		lock.lock();
+		try {
+			if( scopeStack.isEmpty() && parent != null ) {
+				parent.installFaultHandler( id, process );
+			} else {
+				scopeStack.peek().installFaultHandler( id, process );
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -420,7 +487,8 @@ public abstract class ExecutionThread extends JolieThread {
 			return ((CommChannelHandler) currThread).executionThread();
 		}
 
-		return null;
+		final VirtualThreadContext context = VirtualThreadContext.current();
+		return context == null ? null : context.executionThread();
 	}
 
 	/**
@@ -460,19 +528,42 @@ public abstract class ExecutionThread extends JolieThread {
 	@Override
 	public final void run() {
 		JolieExecutorThread t = JolieExecutorThread.currentThread();
-		t.setExecutionThread( this );
-		t.setContextClassLoader( interpreter().getClassLoader() );
+		if( t == null ) {
+			VirtualThreadContext.current().setExecutionThread( this );
+		} else {
+			t.setExecutionThread( this );
+		}
+		Thread.currentThread().setContextClassLoader( interpreter().getClassLoader() );
 		runProcess();
 	}
 
 	public void start() {
-		setTaskFuture( interpreter().runJolieThread( this ) );
+		try {
+			setTaskFuture( interpreter().runJolieThread( this ) );
+		} catch( RuntimeException e ) {
+			taskFuture.completeExceptionally( e );
+			throw e;
+		}
+	}
+
+	/**
+	 * Makes the callers of {@link #join()} fail instead of waiting, if this thread has not been
+	 * started. Used when it never will be, e.g., because the interpreter is exiting.
+	 */
+	public void cancelStart() {
+		taskFuture.completeExceptionally( new IllegalStateException( "The thread was never started" ) );
 	}
 
+	/**
+	 * Waits for this thread to terminate, first waiting for it to be started if needed.
+	 *
+	 * @throws InterruptedException if waiting was interrupted, the thread failed or it will never be
+	 *         started
+	 */
 	public void join()
 		throws InterruptedException {
 		try {
-			taskFuture.get();
+			taskFuture.get().get();
 		} catch( ExecutionException e ) {
 			ByteArrayOutputStream bs = new ByteArrayOutputStream();
 			e.printStackTrace( new PrintStream( bs ) );
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer for many short-lived timeouts, most of which are cancelled before they expire (response
+ * timeouts, channel expirations, etc.).
+ *
+ * Timeouts are kept in a wheel of buckets, one per tick, so scheduling and cancelling take constant
+ * time. A single thread advances the wheel once per tick and runs the tasks that expired, hence a
+ * task runs up to a tick later than requested and should not block. The thread is started by the
+ * first call to {@link #schedule(Runnable, long)}.
+ *
+ * A timer can also be driven by the thread of another timer (see
+ * {@link #HashedWheelTimer(HashedWheelTimer)}), so that many timers with separate lifecycles cost a
+ * single thread.
+ */
+public class HashedWheelTimer {
+	public static final long DEFAULT_TICK = 10; // milliseconds
+	private static final int WHEEL_SIZE = 512;
+	// Limits the work of a tick when timeouts are scheduled faster than they can be moved to the wheel
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private static final int STATE_INIT = 0, STATE_STARTED = 1, STATE_STOPPED = 2;
+
+	private final Thread worker; // null if driven by another timer
+	private final HashedWheelTimer driver; // null if this timer has its own thread
+	private final long tickNanos;
+	private final Bucket[] wheel = new Bucket[ WHEEL_SIZE ];
+	private final Queue< Timeout > newTimeouts = new ConcurrentLinkedQueue<>();
+	private final Queue< Timeout > cancelledTimeouts = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger state = new AtomicInteger( STATE_INIT );
+	private final LongAdder pending = new LongAdder();
+	private volatile long tickLag = 0;
+	private volatile long maxTickLag = 0;
+	// Owned by the worker thread
+	private long startTime;
+	private long tick = 0;
+	private final List< Runnable > unprocessed = new ArrayList<>();
+	// The timers driven by this one
+	private final Queue< HashedWheelTimer > attaching = new ConcurrentLinkedQueue<>();
+	private final List< HashedWheelTimer > driven = new ArrayList<>(); // Owned by the worker thread
+	// Completed by the thread of the driver with the timeouts that did not expire
+	private final CompletableFuture< List< Runnable > > detached = new CompletableFuture<>();
+
+	private static final class Bucket {
+		private Timeout head = null;
+		private Timeout tail = null;
+
+		private void add( Timeout timeout ) {
+			timeout.bucket = this;
+			if( head == null ) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		private void remove( Timeout timeout ) {
+			if( timeout.prev == null ) {
+				head = timeout.next;
+			} else {
+				timeout.prev.next = timeout.next;
+			}
+			if( timeout.next == null ) {
+				tail = timeout.prev;
+			} else {
+				timeout.next.prev = timeout.prev;
+			}
+			timeout.bucket = null;
+			timeout.prev = null;
+			timeout.next = null;
+		}
+	}
+
+	private final class Timeout extends FutureTask< Void > {
+		private final long deadline; // System.nanoTime()
+		// Owned by the worker thread
+		private long remainingRounds;
+		private Bucket bucket = null;
+		private Timeout prev = null;
+		private Timeout next = null;
+
+		private Timeout( Runnable task, long deadline ) {
+			super( task, null );
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean cancel( boolean mayInterruptIfRunning ) {
+			final boolean cancelled = super.cancel( mayInterruptIfRunning );
+			if( cancelled ) {
+				cancelledTimeouts.add( this );
+			}
+			return cancelled;
+		}
+	}
+
+	/**
+	 * @param threadFactory creates the thread running the expired tasks
+	 * @param tick the resolution of this timer, in milliseconds
+	 */
+	public HashedWheelTimer( ThreadFactory threadFactory, long tick ) {
+		if( tick <= 0 ) {
+			throw new IllegalArgumentException( "The tick of a timer must be positive: " + tick );
+		}
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos( tick );
+		for( int i = 0; i < wheel.length; i++ ) {
+			wheel[ i ] = new Bucket();
+		}
+		worker = threadFactory.newThread( this::run );
+		worker.setDaemon( true );
+		driver = null;
+	}
+
+	/**
+	 * Creates a timer whose timeouts expire in the thread of another timer, with the same tick.
+	 * Stopping this timer does not affect the driver, while stopping the driver stops this timer.
+	 *
+	 * @param driver the timer running the timeouts of this one
+	 */
+	public HashedWheelTimer( HashedWheelTimer driver ) {
+		this.tickNanos = driver.tickNanos;
+		for( int i = 0; i < wheel.length; i++ ) {
+			wheel[ i ] = new Bucket();
+		}
+		this.worker = null;
+		this.driver = driver;
+	}
+
+	/**
+	 * Runs a task after the given delay, in milliseconds.
+	 *
+	 * @throws RejectedExecutionException if this timer has been stopped
+	 */
+	public Future< ? > schedule( Runnable task, long delay ) {
+		if( state.get() == STATE_INIT && state.compareAndSet( STATE_INIT, STATE_STARTED ) ) {
+			if( worker != null ) {
+				worker.start();
+			} else if( !driver.attach( this ) ) {
+				state.set( STATE_STOPPED );
+				detached.complete( new ArrayList<>() );
+				throw new RejectedExecutionException( "Timer stopped" );
+			}
+		} else if( state.get() == STATE_STOPPED ) {
+			throw new RejectedExecutionException( "Timer stopped" );
+		}
+		final Timeout timeout =
+			new Timeout( task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( Math.max( delay, 0 ) ) );
+		pending.increment();
+		newTimeouts.add( timeout );
+		return timeout;
+	}
+
+	/**
+	 * Returns the number of timeouts that have been scheduled and have neither expired nor been
+	 * discarded after a cancellation.
+	 */
+	public long pending() {
+		return pending.sum();
+	}
+
+	/**
+	 * Returns how late the last tick started, in nanoseconds.
+	 */
+	public long tickLag() {
+		return driver == null ? tickLag : driver.tickLag();
+	}
+
+	/**
+	 * Returns the longest delay of a tick so far, in nanoseconds.
+	 */
+	public long maxTickLag() {
+		return driver == null ? maxTickLag : driver.maxTickLag();
+	}
+
+	// Returns false if this timer has been stopped
+	private boolean attach( HashedWheelTimer timer ) {
+		attaching.add( timer );
+		if( state.get() == STATE_INIT && state.compareAndSet( STATE_INIT, STATE_STARTED ) ) {
+			worker.start();
+		}
+		return state.get() != STATE_STOPPED;
+	}
+
+	/**
+	 * Stops this timer, waiting up to the given time (in milliseconds) for the task being run, if any.
+	 * Like {@link java.util.concurrent.ExecutorService#shutdownNow()}, returns the timeouts that did
+	 * not expire: running one of them runs its task unless it has been cancelled.
+	 */
+	public List< Runnable > stop( long timeout ) {
+		final int previousState = state.getAndSet( STATE_STOPPED );
+		if( previousState == STATE_INIT || (previousState == STATE_STOPPED && worker != null) ) {
+			final List< Runnable > tasks = new ArrayList<>( newTimeouts );
+			newTimeouts.clear();
+			return tasks;
+		}
+		if( worker == null ) {
+			// The thread of the driver detaches this timer at its next tick, unless it already has
+			try {
+				return detached.get( timeout, TimeUnit.MILLISECONDS );
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			} catch( ExecutionException | TimeoutException e ) {
+			}
+			return new ArrayList<>();
+		}
+		LockSupport.unpark( worker );
+		try {
+			worker.join( timeout );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		if( worker.isAlive() ) {
+			return new ArrayList<>();
+		}
+		unprocessed.addAll( newTimeouts );
+		newTimeouts.clear();
+		return unprocessed;
+	}
+
+	private void run() {
+		startTime = System.nanoTime();
+		while( waitForNextTick() ) {
+			HashedWheelTimer timer;
+			while( (timer = attaching.poll()) != null ) {
+				// Aligned with the tick of this timer
+				timer.startTime = startTime + tickNanos * tick;
+				driven.add( timer );
+			}
+			advance();
+			for( Iterator< HashedWheelTimer > it = driven.iterator(); it.hasNext(); ) {
+				timer = it.next();
+				if( timer.state.get() == STATE_STOPPED ) {
+					it.remove();
+					timer.detach();
+				} else {
+					timer.advance();
+				}
+			}
+		}
+
+		collectUnprocessed();
+		driven.forEach( HashedWheelTimer::detach );
+		driven.clear();
+		HashedWheelTimer timer;
+		while( (timer = attaching.poll()) != null ) {
+			timer.detach();
+		}
+	}
+
+	private void advance() {
+		removeCancelled();
+		transferNewTimeouts();
+		expire( wheel[ (int) (tick & (WHEEL_SIZE - 1)) ] );
+		tick++;
+	}
+
+	private void collectUnprocessed() {
+		for( Bucket bucket : wheel ) {
+			for( Timeout t = bucket.head; t != null; t = t.next ) {
+				if( !t.isCancelled() ) {
+					unprocessed.add( t );
+				}
+			}
+		}
+	}
+
+	// Called by the thread of the driver, after which this timer is no longer advanced
+	private void detach() {
+		state.set( STATE_STOPPED );
+		collectUnprocessed();
+		unprocessed.addAll( newTimeouts );
+		newTimeouts.clear();
+		detached.complete( unprocessed );
+	}
+
+	// Returns false if the timer has been stopped
+	private boolean waitForNextTick() {
+		final long deadline = startTime + tickNanos * (tick + 1);
+		while( state.get() != STATE_STOPPED ) {
+			final long now = System.nanoTime();
+			if( now - deadline >= 0 ) {
+				final long lag = now - deadline;
+				tickLag = lag;
+				if( lag > maxTickLag ) {
+					maxTickLag = lag;
+				}
+				return true;
+			}
+			LockSupport.parkNanos( this, deadline - now );
+		}
+		return false;
+	}
+
+	private void removeCancelled() {
+		Timeout timeout;
+		while( (timeout = cancelledTimeouts.poll()) != null ) {
+			// Timeouts not yet in the wheel are discarded by transferNewTimeouts
+			if( timeout.bucket != null ) {
+				timeout.bucket.remove( timeout );
+				pending.decrement();
+			}
+		}
+	}
+
+	private void transferNewTimeouts() {
+		Timeout timeout;
+		for( int i = 0; i < MAX_TRANSFERS_PER_TICK && (timeout = newTimeouts.poll()) != null; i++ ) {
+			if( timeout.isCancelled() ) {
+				pending.decrement();
+				continue;
+			}
+			// The bucket of tick t expires at the end of the tick, startTime + (t + 1) * tickNanos
+			final long expiryTick = Math.max( (timeout.deadline - startTime) / tickNanos, tick );
+			timeout.remainingRounds = (expiryTick - tick) / WHEEL_SIZE;
+			wheel[ (int) (expiryTick & (WHEEL_SIZE - 1)) ].add( timeout );
+		}
+	}
+
+	private void expire( Bucket bucket ) {
+		Timeout timeout = bucket.head;
+		while( timeout != null ) {
+			final Timeout next = timeout.next;
+			if( timeout.isCancelled() ) {
+				bucket.remove( timeout );
+				pending.decrement();
+			} else if( timeout.remainingRounds <= 0 ) {
+				bucket.remove( timeout );
+				pending.decrement();
+				timeout.run();
+			} else {
+				timeout.remainingRounds--;
+			}
+			timeout = next;
+		}
+	}
+}
@@ -19,15 +19,16 @@
 
 package jolie;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.PrintStream;
 import java.io.StringWriter;
 import java.lang.ref.Cleaner;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -40,16 +41,13 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -73,11 +71,14 @@ import jolie.lang.parse.module.ModuleParsingConfiguration;
 import jolie.lang.parse.module.ModuleSource;
 import jolie.lang.parse.module.Modules;
 import jolie.lang.parse.module.SymbolTable;
+import jolie.lang.parse.util.ProgramImage;
+import jolie.monitoring.MonitorPipeline;
 import jolie.monitoring.MonitoringEvent;
 import jolie.monitoring.events.MonitorAttachedEvent;
 import jolie.monitoring.events.OperationStartedEvent;
 import jolie.monitoring.events.SessionEndedEvent;
 import jolie.monitoring.events.SessionStartedEvent;
+import jolie.monitoring.metrics.Metrics;
 import jolie.net.CommChannel;
 import jolie.net.CommCore;
 import jolie.net.CommMessage;
@@ -100,6 +101,7 @@ import jolie.runtime.correlation.CorrelationError;
 import jolie.runtime.correlation.CorrelationSet;
 import jolie.runtime.embedding.EmbeddedServiceLoader;
 import jolie.runtime.embedding.EmbeddedServiceLoaderFactory;
+import jolie.tracer.BinaryFileTracer;
 import jolie.tracer.DummyTracer;
 import jolie.tracer.FileTracer;
 import jolie.tracer.PrintingTracer;
@@ -131,15 +133,16 @@ public class Interpreter {
 
 		private void onSuccessfulInitExecution() {
 			if( executionMode == Constants.ExecutionMode.SINGLE ) {
-				synchronized( correlationEngine ) {
-					try {
-						mainSession = new SessionThread( getDefinition( "main" ), initExecutionThread );
-						correlationEngine.onSingleExecutionSessionStart( mainSession );
-						mainSession.addSessionListener( correlationEngine );
-						correlationEngine.onSessionExecuted( this );
-					} catch( InvalidIdException e ) {
-						assert false;
-					}
+				correlationEngine.lock().lock();
+				try {
+					mainSession = new SessionThread( getDefinition( "main" ), initExecutionThread );
+					correlationEngine.onSingleExecutionSessionStart( mainSession );
+					mainSession.addSessionListener( correlationEngine );
+					correlationEngine.onSessionExecuted( this );
+				} catch( InvalidIdException e ) {
+					assert false;
+				} finally {
+					correlationEngine.lock().unlock();
 				}
 			} else {
 				correlationEngine.onSessionExecuted( this );
@@ -186,36 +189,6 @@ public class Interpreter {
 
 	}
 
-	private static class JolieExecutionThreadFactory implements ThreadFactory {
-		private final Interpreter interpreter;
-
-		public JolieExecutionThreadFactory( Interpreter interpreter ) {
-			this.interpreter = interpreter;
-		}
-
-		@Override
-		public Thread newThread( Runnable r ) {
-			JolieExecutorThread t = new JolieExecutorThread( r, interpreter );
-			if( r instanceof ExecutionThread ) {
-				t.setExecutionThread( (ExecutionThread) r );
-			}
-			return t;
-		}
-	}
-
-	private static class NativeJolieThreadFactory implements ThreadFactory {
-		private final Interpreter interpreter;
-
-		public NativeJolieThreadFactory( Interpreter interpreter ) {
-			this.interpreter = interpreter;
-		}
-
-		@Override
-		public Thread newThread( Runnable r ) {
-			return new NativeJolieThread( interpreter, r );
-		}
-	}
-
 	public static class SessionStarter {
 		private final InputOperationProcess guard;
 		private final jolie.process.Process body;
@@ -280,19 +253,35 @@ public class Interpreter {
 
 	private final Configuration configuration;
 
-	private final ScheduledExecutorService scheduledExecutor =
-		Executors.newSingleThreadScheduledExecutor( new NativeJolieThreadFactory( this ) );
+	private final SharedRuntime sharedRuntime;
+	private final HashedWheelTimer timer;
 
-	private OutputPort monitor = null;
+	private volatile MonitorPipeline monitor = null;
 
-	private final Cleaner cleaner = Cleaner.create();
+	private final Metrics metrics = new Metrics( this );
 
 	public Cleaner cleaner() {
-		return cleaner;
+		return sharedRuntime.cleaner();
 	}
 
+	/**
+	 * Sends the monitoring events of this interpreter to the given port from now on, with the default
+	 * settings of {@link MonitorPipeline}.
+	 */
 	public void setMonitor( OutputPort monitor ) {
+		setMonitor( new MonitorPipeline( this, monitor ) );
+	}
+
+	/**
+	 * Sends the monitoring events of this interpreter through the given pipeline from now on. The
+	 * previous pipeline, if any, is closed after sending the events it holds.
+	 */
+	public void setMonitor( MonitorPipeline monitor ) {
+		final MonitorPipeline previous = this.monitor;
 		this.monitor = monitor;
+		if( previous != null ) {
+			previous.close( 0 );
+		}
 		fireMonitorEvent( new MonitorAttachedEvent() );
 	}
 
@@ -300,6 +289,21 @@ public class Interpreter {
 		return monitor != null;
 	}
 
+	/**
+	 * Returns the pipeline delivering the monitoring events of this interpreter, if it is being
+	 * monitored.
+	 */
+	public Optional< MonitorPipeline > monitor() {
+		return Optional.ofNullable( monitor );
+	}
+
+	/**
+	 * Returns the metrics of this interpreter.
+	 */
+	public Metrics metrics() {
+		return metrics;
+	}
+
 	/*
 	 * public long inputMessageTimeout() { return inputMessageTimeout; }
 	 */
@@ -313,27 +317,9 @@ public class Interpreter {
 	}
 
 	public void fireMonitorEvent( MonitoringEvent event ) {
-		if( monitor != null ) {
-			CommMessage m = CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( event ) );
-			CommChannel channel = null;
-			try {
-				channel = monitor.getCommChannel();
-				channel.send( m );
-				CommMessage response;
-				do {
-					response = channel.recvResponseFor( m ).get();
-				} while( response == null );
-			} catch( URISyntaxException | InterruptedException | ExecutionException | IOException e ) {
-				logWarning( e );
-			} finally {
-				if( channel != null ) {
-					try {
-						channel.release();
-					} catch( IOException e ) {
-						logWarning( e );
-					}
-				}
-			}
+		final MonitorPipeline pipeline = monitor;
+		if( pipeline != null ) {
+			pipeline.fire( event );
 		}
 	}
 
@@ -349,8 +335,16 @@ public class Interpreter {
 		return correlationEngine;
 	}
 
+	/**
+	 * Runs a task after the given delay, in milliseconds, on the thread of the timer of this
+	 * interpreter. The task should not block, since it delays the other timeouts.
+	 */
 	public Future< ? > schedule( Runnable task, long delay ) {
-		return scheduledExecutor.schedule( task, delay, TimeUnit.MILLISECONDS );
+		return timer.schedule( SharedRuntime.bind( this, task ), delay );
+	}
+
+	public HashedWheelTimer timer() {
+		return timer;
 	}
 
 	/**
@@ -576,7 +570,18 @@ public class Interpreter {
 
 		embeddedServiceLoaders.forEach( EmbeddedServiceLoader::exit );
 
-		final List< Runnable > pendingTimedTasks = scheduledExecutor.shutdownNow();
+		final MonitorPipeline pipeline = monitor;
+		if( pipeline != null ) {
+			// Send the last events while the channels to the monitor still work
+			pipeline.close( terminationTimeout );
+		}
+
+		final SessionThread initThread = initExecutionThread;
+		if( initThread != null ) {
+			initThread.cancelStart();
+		}
+
+		final List< Runnable > pendingTimedTasks = timer.stop( terminationTimeout );
 		execute( () -> pendingTimedTasks.forEach( Runnable::run ) );
 		processExecutorService.shutdown();
 		nativeExecutorService.shutdown();
@@ -589,11 +594,10 @@ public class Interpreter {
 			processExecutorService.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
 		} catch( InterruptedException e ) {
 		}
-		try {
-			scheduledExecutor.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
-		} catch( InterruptedException e ) {
-		}
+		tracer.close();
+		metrics.stopEndpoint();
 		free();
+		sharedRuntime.release( terminationTimeout );
 	}
 
 	/**
@@ -785,7 +789,8 @@ public class Interpreter {
 			return ((InterpreterThread) t).interpreter();
 		}
 
-		return null;
+		final VirtualThreadContext context = VirtualThreadContext.current();
+		return context == null ? null : context.interpreter();
 	}
 
 	/**
@@ -815,6 +820,27 @@ public class Interpreter {
 	 * @throws IOException
 	 */
 	public Interpreter( Configuration configuration, Optional< Value > params, Optional< String > parentLogPrefix )
+		throws IOException {
+		this( configuration, params, parentLogPrefix, null );
+	}
+
+	/**
+	 * Constructor for an interpreter embedded by another one, which shares the threads of its parent.
+	 *
+	 * @param configuration the configuration of this Interpreter
+	 * @param params the input parameters for the service
+	 * @param parent the interpreter embedding this one
+	 * @throws IOException
+	 * @see SharedRuntime
+	 */
+	public Interpreter( Configuration configuration, Optional< Value > params, Interpreter parent )
+		throws IOException {
+		this( configuration, params, Optional.of( parent.logPrefix() ), parent.sharedRuntime() );
+	}
+
+	// Creates a new shared runtime if sharedRuntime is null
+	private Interpreter( Configuration configuration, Optional< Value > params, Optional< String > parentLogPrefix,
+		SharedRuntime sharedRuntime )
 		throws IOException {
 		TracerUtils.TracerLevels tracerLevel = TracerUtils.TracerLevels.ALL;
 		this.configuration = configuration;
@@ -831,36 +857,51 @@ public class Interpreter {
 		}
 
 		this.correlationEngine = configuration.correlationAlgorithm().createInstance( this );
+		this.sharedRuntime = sharedRuntime == null ? new SharedRuntime( this ) : sharedRuntime;
+		this.sharedRuntime.acquire();
+		this.timer = new HashedWheelTimer( this.sharedRuntime.timer() );
+		nativeExecutorService = this.sharedRuntime.newNativeExecutor( this );
+		processExecutorService = this.sharedRuntime.newProcessExecutor( this );
 
-		commCore = new CommCore( this, configuration.connectionsLimit() /* , cmdParser.connectionsCache() */ );
-		includePaths = configuration.includePaths();
-
-		logPrefix =
-			(parentLogPrefix.isPresent() ? parentLogPrefix.get() + " -> " + this.programFilename()
-				: this.programFilename())
-				+ (configuration.executionTarget() != null ? " -> " + configuration.executionTarget() : "");
-
-		if( configuration.tracer() ) {
-			if( configuration.tracerMode().equals( "file" ) ) {
-				tracer = new FileTracer( this, tracerLevel );
+		try {
+			commCore = new CommCore( this, configuration.connectionsLimit() /* , cmdParser.connectionsCache() */ );
+			includePaths = configuration.includePaths();
+
+			logPrefix =
+				(parentLogPrefix.isPresent() ? parentLogPrefix.get() + " -> " + this.programFilename()
+					: this.programFilename())
+					+ (configuration.executionTarget() != null ? " -> " + configuration.executionTarget() : "");
+
+			if( configuration.tracer() ) {
+				if( configuration.tracerMode().equals( "file" ) ) {
+					tracer = new FileTracer( this, tracerLevel );
+				} else if( configuration.tracerMode().equals( "binary" ) ) {
+					tracer = new BinaryFileTracer( this, tracerLevel );
+				} else {
+					tracer = new PrintingTracer( this, tracerLevel );
+				}
 			} else {
-				tracer = new PrintingTracer( this, tracerLevel );
+				tracer = new DummyTracer();
 			}
-		} else {
-			tracer = new DummyTracer();
-		}
 
-		LOGGER.setLevel( configuration.logLevel() );
+			LOGGER.setLevel( configuration.logLevel() );
 
-		exitingLock = new ReentrantLock();
-		exitingCondition = exitingLock.newCondition();
+			exitingLock = new ReentrantLock();
+			exitingCondition = exitingLock.newCondition();
 
-		this.receivingEmbeddedValue = params.orElse( Value.create() );
+			this.receivingEmbeddedValue = params.orElse( Value.create() );
+		} catch( IOException | RuntimeException | Error e ) {
+			// The interpreter will never exit, so it gives its share of the runtime back now
+			nativeExecutorService.shutdown();
+			processExecutorService.shutdown();
+			this.sharedRuntime.release( 0 );
+			throw e;
+		}
 	}
 
 	public Interpreter( Configuration configuration, Interpreter parentInterpreter, Program internalServiceProgram )
 		throws IOException {
-		this( configuration, Optional.empty(), Optional.of( parentInterpreter.logPrefix() ) );
+		this( configuration, Optional.empty(), parentInterpreter );
 
 		this.parentInterpreter = parentInterpreter;
 		this.internalServiceProgram = internalServiceProgram;
@@ -869,18 +910,17 @@ public class Interpreter {
 	/**
 	 * Constructor. for the JolieServiceNodeLoader
 	 *
-	 * @param parentSymbolTables symbol table from the parent service
+	 * @param parent the interpreter embedding the service, whose symbol tables and threads are shared
 	 * @param internalServiceProgram Jolie program for
 	 * @param receivingEmbeddedValue
 	 * @throws IOException if a Scanner constructor signals an error.
 	 */
-	public Interpreter( Configuration configuration, Map< URI, SymbolTable > parentSymbolTables,
-		Program internalServiceProgram,
-		Value receivingEmbeddedValue, String parentLogPrefix )
+	public Interpreter( Configuration configuration, Interpreter parent, Program internalServiceProgram,
+		Value receivingEmbeddedValue )
 		throws IOException {
-		this( configuration, Optional.of( receivingEmbeddedValue ), Optional.of( parentLogPrefix ) );
+		this( configuration, Optional.of( receivingEmbeddedValue ), parent );
 		this.internalServiceProgram = internalServiceProgram;
-		this.symbolTables.putAll( parentSymbolTables );
+		this.symbolTables.putAll( parent.symbolTables() );
 	}
 
 	/**
@@ -900,6 +940,14 @@ public class Interpreter {
 		return parentInterpreter;
 	}
 
+	/**
+	 * Returns the threads this interpreter shares with the interpreter that embeds it (if any) and the
+	 * ones it embeds.
+	 */
+	public SharedRuntime sharedRuntime() {
+		return sharedRuntime;
+	}
+
 	/**
 	 * Returns the receiving value from Service node's embed statement.
 	 *
@@ -1015,6 +1063,11 @@ public class Interpreter {
 				initExecutionThread.start();
 			} catch( InvalidIdException e ) {
 				assert false;
+			} finally {
+				// Does nothing if it was started: otherwise, joining it must not wait forever
+				if( initExecutionThread != null ) {
+					initExecutionThread.cancelStart();
+				}
 			}
 		}
 	}
@@ -1073,10 +1126,8 @@ public class Interpreter {
 		runCode();
 	}
 
-	private final ExecutorService nativeExecutorService =
-		new JolieThreadPoolExecutor( new NativeJolieThreadFactory( this ) );
-	private final ExecutorService processExecutorService =
-		new JolieThreadPoolExecutor( new JolieExecutionThreadFactory( this ) );
+	private final ExecutorService nativeExecutorService;
+	private final ExecutorService processExecutorService;
 
 	/**
 	 * Runs an asynchronous task in this Interpreter internal thread pool.
@@ -1155,37 +1206,57 @@ public class Interpreter {
 		throws InterpreterException {
 		try {
 			Program program;
-			if( configuration.isProgramCompiled() ) {
-				try( final ObjectInputStream istream = new ObjectInputStream( configuration.source().openStream() ) ) {
-					final Object o = istream.readObject();
-					if( o instanceof Program ) {
-						program = (Program) o;
+			ProgramImage image = null;
+			if( this.internalServiceProgram != null ) {
+				program = this.internalServiceProgram;
+				program = OLParseTreeOptimizer.optimize( program );
+			} else if( configuration.isProgramCompiled() ) {
+				try( final InputStream istream = new BufferedInputStream( configuration.source().openStream() ) ) {
+					if( ProgramImage.isImage( istream ) ) {
+						image = ProgramImage.readFrom( istream );
+						program = image.program();
+						this.symbolTables.putAll( image.symbolTables() );
 					} else {
-						throw new InterpreterException( "Input compiled program is not a JOLIE program" );
+						// A program serialized by an older joliec, which still has to be verified
+						final Object o = new ObjectInputStream( istream ).readObject();
+						if( o instanceof Program ) {
+							program = (Program) o;
+						} else {
+							throw new InterpreterException( "Input compiled program is not a JOLIE program" );
+						}
 					}
 				}
 			} else {
-				if( this.internalServiceProgram != null ) {
-					program = this.internalServiceProgram;
-					program = OLParseTreeOptimizer.optimize( program );
-				} else {
-					ModuleParsingConfiguration configuration = new ModuleParsingConfiguration(
-						configuration().charset(),
-						configuration().includePaths(),
-						configuration().packagePaths(),
-						configuration().jolieClassLoader(),
-						configuration().constants(),
-						false,
-						true );
-					Modules.ModuleParsedResult parsedResult =
-						Modules.parseModule( configuration, configuration().source() );
-					this.symbolTables.putAll( parsedResult.symbolTables() );
-					program = parsedResult.mainProgram();
-				}
+				ModuleParsingConfiguration configuration = new ModuleParsingConfiguration(
+					configuration().charset(),
+					configuration().includePaths(),
+					configuration().packagePaths(),
+					configuration().jolieClassLoader(),
+					configuration().constants(),
+					false,
+					true );
+				Modules.ModuleParsedResult parsedResult =
+					Modules.parseModule( configuration, configuration().source() );
+				this.symbolTables.putAll( parsedResult.symbolTables() );
+				program = parsedResult.mainProgram();
 			}
 
 			check = configuration.check();
 
+			if( image != null && !check
+				&& Objects.equals( image.executionTarget(), configuration.executionTarget() )
+				&& (image.typeChecked() || !configuration.typeCheck()) ) {
+				// Verified (and type checked, if requested) when the image was compiled. Images compiled
+				// without type checking are verified again below when it is requested.
+				return (new OOITBuilder(
+					this,
+					program,
+					image.constantFlags(),
+					image.correlationFunctionInfo(),
+					initValue ))
+					.build();
+			}
+
 			final SemanticVerifier semanticVerifier;
 
 			SemanticVerifier.Configuration conf =
@@ -1256,7 +1327,7 @@ public class Interpreter {
 		final SessionThread spawnedSession;
 
 		if( executionMode == Constants.ExecutionMode.CONCURRENT ) {
-			State state = initExecutionThread.state().clone();
+			State state = initExecutionThread.state().lazyClone();
 			jolie.process.Process sequence = new SequentialProcess(
 				starter.guard.receiveMessage( new SessionMessage( message, channel ), state ),
 				starter.body );
@@ -1264,6 +1335,7 @@ public class Interpreter {
 				sequence, state, initExecutionThread );
 			correlationEngine.onSessionStart( spawnedSession, starter, message );
 			spawnedSession.addSessionListener( correlationEngine );
+			metrics.sessionStarted( spawnedSession );
 
 			logSessionStart( message, spawnedSession.getSessionId() );
 
@@ -1283,7 +1355,7 @@ public class Interpreter {
 			/*
 			 * We use sessionThreads to handle sequential execution of spawn requests
 			 */
-			State state = initExecutionThread.state().clone();
+			State state = initExecutionThread.state().lazyClone();
 			jolie.process.Process sequence = new SequentialProcess(
 				starter.guard.receiveMessage( new SessionMessage( message, channel ), state ),
 				starter.body );
@@ -1293,6 +1365,7 @@ public class Interpreter {
 
 			logSessionStart( message, spawnedSession.getSessionId() );
 			spawnedSession.addSessionListener( correlationEngine );
+			metrics.sessionStarted( spawnedSession );
 			spawnedSession.addSessionListener( new SessionListener() {
 				@Override
 				public void onSessionExecuted( SessionThread session ) {
@@ -1389,6 +1462,11 @@ public class Interpreter {
 		private final long responseTimeout;
 		private final boolean printStackTraces;
 		private final Level logLevel;
+		private final boolean virtualThreads;
+		private final boolean compactValues;
+		private final int eventLoops;
+		private final int maxFrameSize;
+		private final long timerTick;
 		private final String[] packagePaths;
 		private final String executionTarget;
 		private final Optional< Path > parametersFilePath;
@@ -1413,6 +1491,11 @@ public class Interpreter {
 			boolean printStackTraces,
 			long responseTimeout,
 			Level logLevel,
+			boolean virtualThreads,
+			boolean compactValues,
+			int eventLoops,
+			int maxFrameSize,
+			long timerTick,
 			String[] packagePaths,
 			String executionTarget,
 			Optional< Path > parametersFilePath ) {
@@ -1436,6 +1519,11 @@ public class Interpreter {
 			this.printStackTraces = printStackTraces;
 			this.responseTimeout = responseTimeout;
 			this.logLevel = logLevel;
+			this.virtualThreads = virtualThreads;
+			this.compactValues = compactValues;
+			this.eventLoops = eventLoops;
+			this.maxFrameSize = maxFrameSize;
+			this.timerTick = timerTick;
 			this.packagePaths = packagePaths;
 			this.executionTarget = executionTarget;
 			this.parametersFilePath = parametersFilePath;
@@ -1465,6 +1553,11 @@ public class Interpreter {
 		 * @param printStackTraces whether to print stack traces
 		 * @param responseTimeout the response timeout
 		 * @param logLevel the log level
+		 * @param virtualThreads whether to run sessions and communication handlers on virtual threads
+		 * @param compactValues whether to use the compact representation for values
+		 * @param eventLoops the number of event loop threads serving input ports, or zero for none
+		 * @param maxFrameSize the size of the largest message that event loops keep in memory, in bytes
+		 * @param timerTick the resolution of the timer of the interpreter, in milliseconds
 		 * @param packagePaths the package paths
 		 * @param executionTarget the execution target
 		 * @param parametersFilePath the path to the parameters file
@@ -1490,6 +1583,11 @@ public class Interpreter {
 			boolean printStackTraces,
 			long responseTimeout,
 			Level logLevel,
+			boolean virtualThreads,
+			boolean compactValues,
+			int eventLoops,
+			int maxFrameSize,
+			long timerTick,
 			String[] packagePaths,
 			String executionTarget,
 			Optional< Path > parametersFilePath ) {
@@ -1497,7 +1595,8 @@ public class Interpreter {
 				source, charset, arguments, constants, jolieClassLoader,
 				isProgramCompiled,
 				typeCheck, tracer, tracerLevel, tracerMode, check, printStackTraces, responseTimeout, logLevel,
-				packagePaths, executionTarget, parametersFilePath );
+				virtualThreads, compactValues, eventLoops, maxFrameSize, timerTick, packagePaths, executionTarget,
+				parametersFilePath );
 		}
 
 
@@ -1529,12 +1628,21 @@ public class Interpreter {
 				config.optionArgs,
 				config.libURLs, source, config.charset,
 				config.arguments, config.constants,
-				config.jolieClassLoader, config.isProgramCompiled, config.typeCheck, config.tracer, config.tracerLevel,
+				config.jolieClassLoader, isCompiledProgram( source ), config.typeCheck, config.tracer,
+				config.tracerLevel,
 				config.tracerMode, config.check, config.printStackTraces, config.responseTimeout, config.logLevel,
-				config.packagePaths, executionTarget, parametersFilePath );
+				config.virtualThreads, config.compactValues, config.eventLoops, config.maxFrameSize, config.timerTick,
+				config.packagePaths,
+				executionTarget, parametersFilePath );
 		}
 
 
+		// Services embedded by a compiled program are compiled only if they come from another .olc file
+		private static boolean isCompiledProgram( ModuleSource source ) {
+			final String path = source.uri().getPath();
+			return path != null && path.endsWith( ".olc" );
+		}
+
 		/**
 		 * Creates a new instance of the Configuration class, starting from the given config object. The
 		 * parameters are overwritten with the ones given in the parameters.
@@ -1764,6 +1872,62 @@ public class Interpreter {
 			return this.logLevel;
 		}
 
+		/**
+		 * Returns whether sessions and communication handlers should run on virtual threads, as specified
+		 * by the --virtualThreads option.
+		 *
+		 * @return {@code true} if virtual threads should be used, {@code false} otherwise
+		 * @see VirtualThreadContext
+		 */
+		public boolean virtualThreads() {
+			return this.virtualThreads;
+		}
+
+		/**
+		 * Returns the number of event loop threads that serve the connections of input ports using framed
+		 * protocols, as specified by the --eventLoops option. Zero means that every connection is served by
+		 * blocking reads.
+		 *
+		 * @return the number of event loop threads
+		 * @see jolie.net.protocols.FramedCommProtocol
+		 */
+		public int eventLoops() {
+			return this.eventLoops;
+		}
+
+		/**
+		 * Returns the size of the largest message that event loops keep in memory while receiving it, in
+		 * bytes, as specified by the --maxFrameSize option.
+		 *
+		 * @return the largest size of a message buffered by event loops
+		 * @see jolie.net.EventLoopCommChannel
+		 */
+		public int maxFrameSize() {
+			return this.maxFrameSize;
+		}
+
+		/**
+		 * Returns the resolution of the timer running the timeouts of the interpreter, in milliseconds, as
+		 * specified by the --timerTick option.
+		 *
+		 * @return the tick of the timer, in milliseconds
+		 * @see HashedWheelTimer
+		 */
+		public long timerTick() {
+			return this.timerTick;
+		}
+
+		/**
+		 * Returns whether the values created by the threads of the interpreter should use the compact
+		 * representation, as specified by the --compactValues option.
+		 *
+		 * @return {@code true} if the compact representation should be used, {@code false} otherwise
+		 * @see Value#createCompact()
+		 */
+		public boolean compactValues() {
+			return this.compactValues;
+		}
+
 		/**
 		 * Returns the package paths passed by command line with the -p option.
 		 *
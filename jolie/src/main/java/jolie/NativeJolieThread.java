@@ -24,7 +24,7 @@ package jolie;
 import java.lang.ref.WeakReference;
 
 public class NativeJolieThread extends Thread implements InterpreterThread {
-	private final WeakReference< Interpreter > interpreter;
+	private WeakReference< Interpreter > interpreter;
 
 	/**
 	 * Constructor
@@ -72,6 +72,17 @@ public class NativeJolieThread extends Thread implements InterpreterThread {
 		return interpreter.get();
 	}
 
+	/**
+	 * Makes this thread refer to another interpreter. Used by the threads that run the tasks of all the
+	 * interpreters sharing a {@link SharedRuntime}, before running each task. Must be called by this
+	 * thread.
+	 */
+	public void setInterpreter( Interpreter interpreter ) {
+		if( this.interpreter.get() != interpreter ) {
+			this.interpreter = new WeakReference<>( interpreter );
+		}
+	}
+
 	/**
 	 * Clear interpreter reference
 	 */
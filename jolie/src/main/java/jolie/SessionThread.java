@@ -30,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import jolie.lang.Constants;
 import jolie.net.SessionMessage;
 import jolie.process.Process;
@@ -58,6 +60,7 @@ public class SessionThread extends ExecutionThread {
 	protected final Map< CorrelationSet, Deque< SessionMessage > > messageQueues = new HashMap<>();
 	protected final Deque< SessionMessage > uncorrelatedMessageQueue = new ArrayDeque<>();
 	private final Map< String, Set< CompletableFuture< SessionMessage > > > messageWaiters = new HashMap<>();
+	private final Lock messageLock = new ReentrantLock();
 
 	private final static VariablePath TYPE_MISMATCH_PATH;
 	private final static VariablePath IO_EXCEPTION_PATH;
@@ -169,51 +172,61 @@ public class SessionThread extends ExecutionThread {
 	}
 
 	@Override
-	public synchronized Future< SessionMessage > requestMessage( Map< String, InputOperation > operations,
+	public Future< SessionMessage > requestMessage( Map< String, InputOperation > operations,
 		ExecutionThread ethread ) {
-		final var messageFuture = new CompletableFuture< SessionMessage >();
-		ethread.cancelIfKilled( messageFuture );
-		if( messageFuture.isCancelled() ) {
+		messageLock.lock();
+		try {
+			final var messageFuture = new CompletableFuture< SessionMessage >();
+			ethread.cancelIfKilled( messageFuture );
+			if( messageFuture.isCancelled() ) {
+				return messageFuture;
+			}
+
+			operations.forEach( ( opName, operation ) -> {
+				final var queue = getQueueForOperation( operation.id() );
+				final var message = queue.peekFirst();
+				if( message != null && message.message().operationName().equals( operation.id() ) ) {
+					messageFuture.complete( message );
+					queue.removeFirst();
+					checkPendingWaiters( queue );
+				}
+			} );
+
+			if( !messageFuture.isDone() ) {
+				operations.entrySet().forEach(
+					entry -> addMessageWaiter( entry.getValue(), messageFuture ) );
+			}
+
 			return messageFuture;
+		} finally {
+			messageLock.unlock();
 		}
+	}
+
+	@Override
+	public Future< SessionMessage > requestMessage( InputOperation operation, ExecutionThread ethread ) {
+		messageLock.lock();
+		try {
+			final var messageFuture = new CompletableFuture< SessionMessage >();
+			ethread.cancelIfKilled( messageFuture );
+			if( messageFuture.isCancelled() ) {
+				return messageFuture;
+			}
 
-		operations.forEach( ( opName, operation ) -> {
 			final var queue = getQueueForOperation( operation.id() );
-			final var message = queue.peekFirst();
+			final SessionMessage message = queue.peekFirst();
 			if( message != null && message.message().operationName().equals( operation.id() ) ) {
 				messageFuture.complete( message );
 				queue.removeFirst();
 				checkPendingWaiters( queue );
+			} else {
+				addMessageWaiter( operation, messageFuture );
 			}
-		} );
 
-		if( !messageFuture.isDone() ) {
-			operations.entrySet().forEach(
-				entry -> addMessageWaiter( entry.getValue(), messageFuture ) );
-		}
-
-		return messageFuture;
-	}
-
-	@Override
-	public synchronized Future< SessionMessage > requestMessage( InputOperation operation, ExecutionThread ethread ) {
-		final var messageFuture = new CompletableFuture< SessionMessage >();
-		ethread.cancelIfKilled( messageFuture );
-		if( messageFuture.isCancelled() ) {
 			return messageFuture;
+		} finally {
+			messageLock.unlock();
 		}
-
-		final var queue = getQueueForOperation( operation.id() );
-		final SessionMessage message = queue.peekFirst();
-		if( message != null && message.message().operationName().equals( operation.id() ) ) {
-			messageFuture.complete( message );
-			queue.removeFirst();
-			checkPendingWaiters( queue );
-		} else {
-			addMessageWaiter( operation, messageFuture );
-		}
-
-		return messageFuture;
 	}
 
 	private void checkPendingWaiters( Deque< SessionMessage > queue ) {
@@ -261,13 +274,18 @@ public class SessionThread extends ExecutionThread {
 		messageWaiters.values().forEach( waiterSet -> waiterSet.remove( waiter ) );
 	}
 
-	public synchronized void pushMessage( SessionMessage message ) {
-		final var queue = getQueueForOperation( message.message().operationName() );
-		final var future = getMessageWaiter( message.message().operationName() );
-		if( future != null && queue.isEmpty() ) {
-			completeWaiter( future, message );
-		} else {
-			queue.addLast( message );
+	public void pushMessage( SessionMessage message ) {
+		messageLock.lock();
+		try {
+			final var queue = getQueueForOperation( message.message().operationName() );
+			final var future = getMessageWaiter( message.message().operationName() );
+			if( future != null && queue.isEmpty() ) {
+				completeWaiter( future, message );
+			} else {
+				queue.addLast( message );
+			}
+		} finally {
+			messageLock.unlock();
 		}
 	}
 
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jolie.net.CommChannelHandler;
+import jolie.net.EventLoopPool;
+import jolie.net.SelectorPool;
+
+/**
+ * The threads shared by an interpreter and the interpreters it embeds: the pools running native
+ * tasks, sessions and communication handlers, the thread of the timers, the selectors and event
+ * loops of the communication cores and the thread of the cleaner.
+ *
+ * Each interpreter submits tasks to the pools through executors of its own, which keep count of its
+ * tasks: shutting down the executors of an interpreter that exits waits only for its tasks. The
+ * threads are stopped when the last interpreter using them exits.
+ *
+ * With virtual threads, every interpreter keeps executors of its own, since its threads are not
+ * pooled anyway.
+ */
+public final class SharedRuntime {
+	private final Interpreter owner;
+	private final boolean virtualThreads;
+	private final ThreadPoolExecutor nativePool;
+	private final ThreadPoolExecutor processPool;
+	private final ThreadPoolExecutor commPool;
+	private final HashedWheelTimer timer;
+	private final SelectorPool selectors;
+	private final EventLoopPool eventLoops;
+	private final Cleaner cleaner = Cleaner.create();
+	private final AtomicInteger interpreters = new AtomicInteger( 0 );
+
+	SharedRuntime( Interpreter owner )
+		throws IOException {
+		this.owner = owner;
+		this.virtualThreads = owner.configuration().virtualThreads();
+		if( virtualThreads ) {
+			nativePool = null;
+			processPool = null;
+			commPool = null;
+		} else {
+			nativePool = new JolieThreadPoolExecutor( r -> new NativeJolieThread( owner, r ) );
+			processPool = new JolieThreadPoolExecutor( r -> new JolieExecutorThread( r, owner ) );
+			commPool = new JolieThreadPoolExecutor( CommChannelHandler::new );
+		}
+		timer = new HashedWheelTimer( r -> new NativeJolieThread( owner, r ), owner.configuration().timerTick() );
+		selectors = new SelectorPool( owner, Runtime.getRuntime().availableProcessors() );
+		eventLoops = new EventLoopPool( owner, owner.configuration().eventLoops() );
+	}
+
+	/**
+	 * Returns the interpreter that created this runtime, whose name is in the names of the shared
+	 * threads.
+	 */
+	public Interpreter owner() {
+		return owner;
+	}
+
+	/**
+	 * Returns the number of interpreters using this runtime.
+	 */
+	public int interpreters() {
+		return interpreters.get();
+	}
+
+	void acquire() {
+		interpreters.incrementAndGet();
+	}
+
+	/**
+	 * Called by an interpreter that has exited. The last one stops the threads.
+	 */
+	void release( long timeout ) {
+		if( interpreters.decrementAndGet() > 0 ) {
+			return;
+		}
+		timer.stop( timeout );
+		selectors.shutdown();
+		eventLoops.shutdown();
+		if( !virtualThreads ) {
+			nativePool.shutdown();
+			processPool.shutdown();
+			commPool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the timer driving the timers of the interpreters.
+	 *
+	 * @see HashedWheelTimer#HashedWheelTimer(HashedWheelTimer)
+	 */
+	HashedWheelTimer timer() {
+		return timer;
+	}
+
+	Cleaner cleaner() {
+		return cleaner;
+	}
+
+	public SelectorPool selectors() {
+		return selectors;
+	}
+
+	/**
+	 * Returns the event loops, sized by the --eventLoops option of the interpreter that created this
+	 * runtime.
+	 */
+	public EventLoopPool eventLoops() {
+		return eventLoops;
+	}
+
+	/**
+	 * Returns the pool of the communication handlers, or {@code null} if virtual threads are used.
+	 */
+	public ThreadPoolExecutor commPool() {
+		return commPool;
+	}
+
+	ExecutorService newNativeExecutor( Interpreter interpreter ) {
+		return virtualThreads
+			? VirtualThreadContext.newExecutor( interpreter )
+			: new InterpreterExecutor( interpreter, nativePool, true );
+	}
+
+	ExecutorService newProcessExecutor( Interpreter interpreter ) {
+		// Sessions set the interpreter of their thread themselves
+		return virtualThreads
+			? VirtualThreadContext.newExecutor( interpreter )
+			: new InterpreterExecutor( interpreter, processPool, false );
+	}
+
+	/**
+	 * Returns a new executor for the communication handlers of an interpreter.
+	 */
+	public ExecutorService newCommExecutor( Interpreter interpreter ) {
+		// Handlers set the execution thread of their thread themselves
+		return virtualThreads
+			? VirtualThreadContext.newExecutor( interpreter )
+			: new InterpreterExecutor( interpreter, commPool, false );
+	}
+
+	/**
+	 * Returns a task that runs the given one referring to an interpreter, for tasks run by a shared
+	 * {@link NativeJolieThread}.
+	 */
+	static Runnable bind( Interpreter interpreter, Runnable task ) {
+		return () -> {
+			if( Thread.currentThread() instanceof NativeJolieThread ) {
+				((NativeJolieThread) Thread.currentThread()).setInterpreter( interpreter );
+			}
+			task.run();
+		};
+	}
+
+	/**
+	 * The tasks of an interpreter in a shared pool. Shutting down this executor rejects new tasks of
+	 * the interpreter and lets it wait for the ones that are running, without affecting the pool.
+	 */
+	private static final class InterpreterExecutor extends AbstractExecutorService {
+		private final Interpreter interpreter;
+		private final ExecutorService pool;
+		private final boolean bind;
+		private final AtomicInteger active = new AtomicInteger( 0 );
+		private final LongAdder completed = new LongAdder();
+		private final Object terminationMonitor = new Object();
+		private volatile boolean shutdown = false;
+
+		private InterpreterExecutor( Interpreter interpreter, ExecutorService pool, boolean bind ) {
+			this.interpreter = interpreter;
+			this.pool = pool;
+			this.bind = bind;
+		}
+
+		@Override
+		public void execute( Runnable task ) {
+			if( shutdown ) {
+				throw new RejectedExecutionException( "Interpreter executor shut down" );
+			}
+			final Runnable t = bind ? bind( interpreter, task ) : task;
+			active.incrementAndGet();
+			try {
+				pool.execute( () -> {
+					try {
+						t.run();
+					} finally {
+						done();
+					}
+				} );
+			} catch( RejectedExecutionException e ) {
+				done();
+				throw e;
+			}
+		}
+
+		private void done() {
+			completed.increment();
+			if( active.decrementAndGet() == 0 && shutdown ) {
+				synchronized( terminationMonitor ) {
+					terminationMonitor.notifyAll();
+				}
+			}
+		}
+
+		@Override
+		public void shutdown() {
+			shutdown = true;
+			if( active.get() == 0 ) {
+				synchronized( terminationMonitor ) {
+					terminationMonitor.notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Like {@link #shutdown()}: the running tasks are not interrupted, since the threads of the pool
+		 * run the tasks of other interpreters as well.
+		 */
+		@Override
+		public List< Runnable > shutdownNow() {
+			shutdown();
+			return List.of();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return shutdown;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return shutdown && active.get() == 0;
+		}
+
+		@Override
+		public boolean awaitTermination( long timeout, TimeUnit unit )
+			throws InterruptedException {
+			final long deadline = System.nanoTime() + unit.toNanos( timeout );
+			synchronized( terminationMonitor ) {
+				while( !isTerminated() ) {
+					final long remaining = deadline - System.nanoTime();
+					if( remaining <= 0 ) {
+						return false;
+					}
+					TimeUnit.NANOSECONDS.timedWait( terminationMonitor, remaining );
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "InterpreterExecutor[" + interpreter.programFilename() + ", active tasks = " + active.get()
+				+ ", completed tasks = " + completed.sum() + "]";
+		}
+	}
+}
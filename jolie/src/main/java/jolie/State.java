@@ -42,6 +42,7 @@ public final class State implements Cloneable {
 	private final ConcurrentHashMap< String, InternalLink > linksMap = new ConcurrentHashMap<>();
 	private final LoopDetectionMap< Value > valueLoopDetectionMap = new LoopDetectionMap<>();
 	private final LoopDetectionMap< ValueVector > valueVectorLoopDetectionMap = new LoopDetectionMap<>();
+	private volatile Runnable undefListener = null;
 
 	private State( Value root ) {
 		this.root = root;
@@ -69,6 +70,18 @@ public final class State implements Cloneable {
 		return new State( Value.createClone( root ) );
 	}
 
+	/**
+	 * Returns a clone of this State whose variables are copied when they are first accessed, sharing
+	 * their content with this State until then. This State must not be modified afterwards, as is the
+	 * case of the state of a terminated init process.
+	 *
+	 * @return the clone of this State
+	 * @see Value#createLazyClone(Value)
+	 */
+	public State lazyClone() {
+		return new State( Value.createLazyClone( root ) );
+	}
+
 	/**
 	 * Returns the root Value of this State.
 	 *
@@ -79,6 +92,27 @@ public final class State implements Cloneable {
 		return root;
 	}
 
+	/**
+	 * Sets the listener to be invoked after a variable of this State has been undefined, e.g., so that
+	 * a correlation engine can restore the correlation values it installed in the removed subtree.
+	 *
+	 * @param listener the listener, or {@code null} to remove it
+	 */
+	public void setUndefListener( Runnable listener ) {
+		undefListener = listener;
+	}
+
+	/**
+	 * Notifies the listener set with {@link #setUndefListener(Runnable)}, if any, that a variable of
+	 * this State has been undefined.
+	 */
+	public void notifyUndef() {
+		final Runnable listener = undefListener;
+		if( listener != null ) {
+			listener.run();
+		}
+	}
+
 	public void putAlias( VariablePath p, Value l ) {
 		valueLoopDetectionMap.put( p, l );
 	}
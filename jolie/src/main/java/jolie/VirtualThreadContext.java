@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The Jolie context of a virtual thread. Virtual threads cannot be instances of
+ * {@link JolieExecutorThread}, {@link NativeJolieThread} or {@link jolie.net.CommChannelHandler},
+ * so the interpreter and the execution thread they refer to are kept in a thread local instead.
+ *
+ * @see Interpreter.Configuration#virtualThreads()
+ */
+public final class VirtualThreadContext {
+	private static final ThreadLocal< VirtualThreadContext > CURRENT = new ThreadLocal<>();
+
+	private final WeakReference< Interpreter > interpreter;
+	private volatile ExecutionThread executionThread = null;
+
+	private VirtualThreadContext( Interpreter interpreter ) {
+		this.interpreter = new WeakReference<>( interpreter );
+	}
+
+	/**
+	 * Returns the context of the current thread, or {@code null} if the current thread has not been
+	 * created by {@link #newExecutor(Interpreter)}.
+	 *
+	 * @return the context of the current thread
+	 */
+	public static VirtualThreadContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Creates an executor that runs each task in a new virtual thread referring to the given
+	 * interpreter.
+	 *
+	 * @param interpreter the interpreter the created threads refer to
+	 * @return the executor
+	 */
+	public static ExecutorService newExecutor( Interpreter interpreter ) {
+		return Executors.newThreadPerTaskExecutor( new Factory( interpreter ) );
+	}
+
+	/**
+	 * Returns the interpreter this thread refers to.
+	 */
+	public Interpreter interpreter() {
+		final ExecutionThread t = executionThread;
+		return t == null ? interpreter.get() : t.interpreter();
+	}
+
+	/**
+	 * Returns the {@link ExecutionThread} this thread refers to for variable state resolution.
+	 */
+	public ExecutionThread executionThread() {
+		return executionThread;
+	}
+
+	/**
+	 * Sets the {@link ExecutionThread} this thread must refer to for variable state resolution.
+	 *
+	 * @param executionThread the execution thread to refer to
+	 */
+	public void setExecutionThread( ExecutionThread executionThread ) {
+		this.executionThread = executionThread;
+	}
+
+	private static class Factory implements ThreadFactory {
+		private final Interpreter interpreter;
+
+		private Factory( Interpreter interpreter ) {
+			this.interpreter = interpreter;
+		}
+
+		@Override
+		public Thread newThread( Runnable r ) {
+			final VirtualThreadContext context = new VirtualThreadContext( interpreter );
+			return Thread.ofVirtual()
+				.name( interpreter.programFilename() + "-" + JolieThread.createThreadName() )
+				.unstarted( () -> {
+					CURRENT.set( context );
+					try {
+						r.run();
+					} finally {
+						CURRENT.remove();
+					}
+				} );
+		}
+	}
+}
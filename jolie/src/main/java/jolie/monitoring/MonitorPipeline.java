@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.monitoring;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import jolie.Interpreter;
+import jolie.net.CommChannel;
+import jolie.net.CommChannelHandler;
+import jolie.net.CommMessage;
+import jolie.net.ports.OutputPort;
+import jolie.runtime.FaultException;
+import jolie.runtime.InvalidIdException;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * Delivers the monitoring events of an interpreter to its monitor without blocking the threads that
+ * fire them. Events are put in a {@link RingBuffer} and a background thread sends them in batches,
+ * with the operation pushEvents( void { events*: MonitoringEvent } ). Monitors that do not offer it
+ * receive each event with pushEvent instead.
+ *
+ * When the buffer is full, new events are dropped or their threads wait, depending on the
+ * {@link Overflow} policy. Events that the monitor replies to with a fault are counted apart from
+ * the delivered ones.
+ */
+public class MonitorPipeline {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	// How long the sending thread waits for events before checking again
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+	// How long the threads firing events wait for space under Overflow.BLOCK
+	private static final long BLOCKED_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+	private static final String PUSH_EVENTS = "pushEvents";
+	// The fault sent by a Jolie service for an operation its input port does not have (see CommCore)
+	private static final String UNKNOWN_OPERATION_FAULT = "IOException";
+	private static final String UNKNOWN_OPERATION_MESSAGE = "Invalid operation: " + PUSH_EVENTS;
+
+	/**
+	 * What to do with an event when the buffer is full.
+	 */
+	public enum Overflow {
+		/**
+		 * The event is dropped and counted.
+		 */
+		DROP,
+		/**
+		 * The thread firing the event waits until there is space.
+		 */
+		BLOCK;
+
+		public static Overflow fromString( String name ) {
+			for( Overflow overflow : values() ) {
+				if( overflow.name().equalsIgnoreCase( name ) ) {
+					return overflow;
+				}
+			}
+			throw new IllegalArgumentException( "Invalid overflow policy: " + name );
+		}
+	}
+
+	private final Interpreter interpreter;
+	private final OutputPort port;
+	private final RingBuffer< MonitoringEvent > buffer;
+	private final int batchSize;
+	private final Overflow overflow;
+	private final Thread sender;
+	private final AtomicLong sent = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean senderIdle = false;
+	private volatile boolean closed = false;
+	// Written only by the sending thread
+	private boolean batching = true;
+
+	public MonitorPipeline( Interpreter interpreter, OutputPort port, int bufferSize, int batchSize,
+		Overflow overflow ) {
+		if( batchSize < 1 ) {
+			throw new IllegalArgumentException( "Invalid batch size: " + batchSize );
+		}
+		this.interpreter = interpreter;
+		this.port = port;
+		this.buffer = new RingBuffer<>( bufferSize );
+		this.batchSize = batchSize;
+		this.overflow = overflow;
+
+		// The sender runs in the context of the init thread, like the handlers of incoming messages
+		final CommChannelHandler handler = new CommChannelHandler( this::run );
+		handler.setExecutionThread( interpreter.initThread() );
+		handler.setName( interpreter.programFilename() + "-Monitor" );
+		handler.setDaemon( true );
+		sender = handler;
+		sender.start();
+	}
+
+	public MonitorPipeline( Interpreter interpreter, OutputPort port ) {
+		this( interpreter, port, DEFAULT_BUFFER_SIZE, DEFAULT_BATCH_SIZE, Overflow.DROP );
+	}
+
+	/**
+	 * Queues the given event for the monitor.
+	 */
+	public void fire( MonitoringEvent event ) {
+		while( closed || !buffer.offer( event ) ) {
+			if( closed || overflow == Overflow.DROP ) {
+				dropped.incrementAndGet();
+				return;
+			}
+			LockSupport.unpark( sender );
+			LockSupport.parkNanos( this, BLOCKED_NANOS );
+		}
+		if( senderIdle ) {
+			LockSupport.unpark( sender );
+		}
+	}
+
+	/**
+	 * Returns the number of events received by the monitor so far.
+	 */
+	public long sent() {
+		return sent.get();
+	}
+
+	/**
+	 * Returns the number of events that reached the monitor so far, but that it replied to with a
+	 * fault.
+	 */
+	public long failed() {
+		return failed.get();
+	}
+
+	/**
+	 * Returns the number of events dropped so far, because the buffer was full or the monitor could not
+	 * be reached.
+	 */
+	public long dropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the number of events waiting to be sent.
+	 */
+	public int pending() {
+		return buffer.size();
+	}
+
+	/**
+	 * Stops accepting events and waits up to the given time for the queued ones to be sent.
+	 */
+	public void close( long timeout ) {
+		closed = true;
+		LockSupport.unpark( sender );
+		if( timeout > 0 ) {
+			try {
+				sender.join( timeout );
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void run() {
+		final List< MonitoringEvent > batch = new ArrayList<>( batchSize );
+		while( true ) {
+			buffer.drainTo( batch, batchSize );
+			if( !batch.isEmpty() ) {
+				send( batch );
+				batch.clear();
+			} else if( closed && buffer.isEmpty() ) {
+				return;
+			} else {
+				senderIdle = true;
+				if( buffer.isEmpty() && !closed ) {
+					LockSupport.parkNanos( this, IDLE_NANOS );
+				}
+				senderIdle = false;
+			}
+		}
+	}
+
+	private void send( List< MonitoringEvent > batch ) {
+		CommChannel channel = null;
+		int delivered = 0;
+		int refused = 0;
+		try {
+			channel = port.getCommChannel();
+			if( batching ) {
+				final Value request = Value.create();
+				final ValueVector events = request.getChildren( "events" );
+				for( MonitoringEvent event : batch ) {
+					events.add( MonitoringEvent.toValue( event ) );
+				}
+				try {
+					final CommMessage response =
+						call( channel, CommMessage.createRequest( PUSH_EVENTS, "/", request ) );
+					if( !response.isFault() ) {
+						delivered = batch.size();
+						return;
+					} else if( !isUnknownOperation( response.fault() ) ) {
+						interpreter.logWarning( response.fault() );
+						refused = batch.size();
+						return;
+					}
+				} catch( ExecutionException e ) {
+					// Embedded Java services report unknown operations this way
+					if( !(e.getCause() instanceof IOException
+						&& e.getCause().getCause() instanceof InvalidIdException) ) {
+						throw e;
+					}
+				}
+				interpreter.logFine( "The monitor does not support pushEvents, sending events one by one" );
+				batching = false;
+			}
+			for( MonitoringEvent event : batch ) {
+				if( call( channel, CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( event ) ) )
+					.isFault() ) {
+					refused++;
+				} else {
+					delivered++;
+				}
+			}
+		} catch( URISyntaxException | InterruptedException | ExecutionException | IOException e ) {
+			interpreter.logWarning( e );
+		} finally {
+			sent.addAndGet( delivered );
+			failed.addAndGet( refused );
+			dropped.addAndGet( batch.size() - delivered - refused );
+			if( channel != null ) {
+				try {
+					channel.release();
+				} catch( IOException e ) {
+					interpreter.logWarning( e );
+				}
+			}
+		}
+	}
+
+	private static boolean isUnknownOperation( FaultException fault ) {
+		return UNKNOWN_OPERATION_FAULT.equals( fault.faultName() )
+			&& UNKNOWN_OPERATION_MESSAGE.equals( fault.value().strValue() );
+	}
+
+	private static CommMessage call( CommChannel channel, CommMessage request )
+		throws IOException, InterruptedException, ExecutionException {
+		channel.send( request );
+		CommMessage response;
+		do {
+			response = channel.recvResponseFor( request ).get();
+		} while( response == null );
+		return response;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.monitoring;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producers and a single consumer, backed by an array used as a
+ * ring. Each slot has a sequence number telling whether it is free for the producer of a given
+ * position or holds the element for the consumer, as in the bounded queue by Dmitry Vyukov.
+ *
+ * @param <E> the type of the elements
+ */
+public final class RingBuffer< E > {
+	private final AtomicReferenceArray< E > elements;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	// Written only by the consumer
+	private volatile long head = 0;
+
+	/**
+	 * Creates a ring buffer holding at least the given number of elements, rounded up to a power of
+	 * two.
+	 */
+	public RingBuffer( int capacity ) {
+		if( capacity < 1 || capacity > (1 << 30) ) {
+			throw new IllegalArgumentException( "Invalid capacity: " + capacity );
+		}
+		final int size = Integer.highestOneBit( capacity ) == capacity ? capacity
+			: Integer.highestOneBit( capacity ) << 1;
+		elements = new AtomicReferenceArray<>( size );
+		sequences = new AtomicLongArray( size );
+		for( int i = 0; i < size; i++ ) {
+			sequences.set( i, i );
+		}
+		mask = size - 1;
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Adds the given element, unless the buffer is full. Safe to call from any thread.
+	 *
+	 * @return <code>true</code> if the element was added
+	 */
+	public boolean offer( E element ) {
+		long position = tail.get();
+		while( true ) {
+			final int index = (int) (position & mask);
+			final long difference = sequences.get( index ) - position;
+			if( difference == 0 ) {
+				if( tail.compareAndSet( position, position + 1 ) ) {
+					elements.set( index, element );
+					sequences.set( index, position + 1 );
+					return true;
+				}
+				position = tail.get();
+			} else if( difference < 0 ) {
+				// The consumer has not freed this slot yet
+				return false;
+			} else {
+				// Another producer took this position
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the oldest element, or <code>null</code> if there is none. Must be called
+	 * only by the consumer.
+	 */
+	public E poll() {
+		final long position = head;
+		final int index = (int) (position & mask);
+		if( sequences.get( index ) != position + 1 ) {
+			return null;
+		}
+		final E element = elements.get( index );
+		elements.set( index, null );
+		sequences.set( index, position + mask + 1 );
+		head = position + 1;
+		return element;
+	}
+
+	/**
+	 * Moves up to max elements to the given collection, oldest first. Must be called only by the
+	 * consumer.
+	 *
+	 * @return the number of elements moved
+	 */
+	public int drainTo( Collection< ? super E > collection, int max ) {
+		int count = 0;
+		E element;
+		while( count < max && (element = poll()) != null ) {
+			collection.add( element );
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of elements in the buffer, which may be already outdated when several threads
+	 * use it.
+	 */
+	public int size() {
+		final long size = tail.get() - head;
+		return (int) Math.max( 0, Math.min( size, capacity() ) );
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+}
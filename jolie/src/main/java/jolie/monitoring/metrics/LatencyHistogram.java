@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.monitoring.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds with log-linear buckets, in the style of HdrHistogram:
+ * every power of two is split in {@link #SUB_BUCKETS} buckets, so quantiles are reported with a
+ * relative error of at most 12.5%. Durations above {@link #MAX_VALUE} are counted in the last
+ * bucket.
+ *
+ * Recording is lock-free. The total count and sum are striped, while concurrent recordings of
+ * different durations mostly hit different buckets.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	/**
+	 * The largest duration told apart from longer ones, about 18 minutes.
+	 */
+	public static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator( Math::max, 0L );
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record( long nanos ) {
+		final long value = Math.max( 0L, nanos );
+		buckets.incrementAndGet( bucket( Math.min( value, MAX_VALUE ) ) );
+		count.increment();
+		sum.add( value );
+		max.accumulate( value );
+	}
+
+	static int bucket( long value ) {
+		if( value < SUB_BUCKETS ) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros( value );
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	// The largest value counted in the given bucket
+	static long highestValue( int bucket ) {
+		if( bucket < SUB_BUCKETS ) {
+			return bucket;
+		}
+		final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * Returns a consistent view of the recorded durations.
+	 */
+	public Snapshot snapshot() {
+		final long[] counts = new long[ BUCKETS ];
+		long total = 0;
+		for( int i = 0; i < BUCKETS; i++ ) {
+			counts[ i ] = buckets.get( i );
+			total += counts[ i ];
+		}
+		return new Snapshot( counts, total, sum.sum(), max.get() );
+	}
+
+	/**
+	 * The durations recorded by a histogram up to some point.
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot( long[] counts, long count, long sum, long max ) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Returns the number of recorded durations.
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * Returns the sum of the recorded durations, in nanoseconds.
+		 */
+		public long sum() {
+			return sum;
+		}
+
+		/**
+		 * Returns the longest recorded duration, in nanoseconds.
+		 */
+		public long max() {
+			return max;
+		}
+
+		/**
+		 * Returns the mean of the recorded durations in nanoseconds, or zero if there are none.
+		 */
+		public double mean() {
+			return count == 0 ? 0.0 : (double) sum / count;
+		}
+
+		/**
+		 * Returns the duration below which the given fraction of the recorded durations falls, in
+		 * nanoseconds, or zero if there are none.
+		 *
+		 * @param quantile a number between 0 and 1
+		 */
+		public long quantile( double quantile ) {
+			if( count == 0 ) {
+				return 0L;
+			}
+			final long rank = Math.max( 1L, (long) Math.ceil( quantile * count ) );
+			long seen = 0;
+			for( int i = 0; i < counts.length; i++ ) {
+				seen += counts[ i ];
+				if( seen >= rank ) {
+					return Math.min( highestValue( i ), max );
+				}
+			}
+			return max;
+		}
+	}
+}
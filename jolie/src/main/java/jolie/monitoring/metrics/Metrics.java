@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.monitoring.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import com.sun.net.httpserver.HttpServer;
+import jolie.HashedWheelTimer;
+import jolie.Interpreter;
+import jolie.SessionListener;
+import jolie.SessionThread;
+import jolie.net.ChannelCache;
+import jolie.net.CommChannel;
+import jolie.net.SocketCommChannel;
+import jolie.net.ports.InputPort;
+import jolie.net.ports.OutputPort;
+import jolie.runtime.FaultException;
+
+/**
+ * The metrics of an interpreter: calls and latencies of the operations of its ports, running
+ * sessions, the communication thread pool, open channels, the timer and the channel caches of its
+ * output ports.
+ *
+ * Counters are updated by the threads executing the program and cost a few striped increments per
+ * call. The other values are read when a snapshot is requested, e.g., by
+ * {@link #writeOpenMetrics(StringBuilder)}.
+ */
+public class Metrics {
+	/**
+	 * Whether an operation is offered by an input port or used through an output port.
+	 */
+	public enum Direction {
+		INPUT, OUTPUT;
+
+		public String label() {
+			return name().toLowerCase();
+		}
+	}
+
+	/**
+	 * The quantiles of latencies reported by {@link #writeOpenMetrics(StringBuilder)}.
+	 */
+	public static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	/**
+	 * The content type of {@link #writeOpenMetrics(StringBuilder)}.
+	 */
+	public static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final Interpreter interpreter;
+	// Port name -> Operation name -> Metrics
+	private final Map< String, Map< String, OperationMetrics > > input = new ConcurrentHashMap<>();
+	private final Map< String, Map< String, OperationMetrics > > output = new ConcurrentHashMap<>();
+	private final LongAdder startedSessions = new LongAdder();
+	private final LongAdder runningSessions = new LongAdder();
+	private HttpServer endpoint = null;
+
+	private final SessionListener sessionListener = new SessionListener() {
+		@Override
+		public void onSessionExecuted( SessionThread session ) {
+			runningSessions.decrement();
+		}
+
+		@Override
+		public void onSessionError( SessionThread session, FaultException fault ) {
+			// Always followed by onSessionExecuted
+		}
+	};
+
+	public Metrics( Interpreter interpreter ) {
+		this.interpreter = interpreter;
+	}
+
+	/**
+	 * Returns the metrics of an operation received through the given input port.
+	 */
+	public OperationMetrics input( String port, String operation ) {
+		return operation( input, port, operation, Direction.INPUT );
+	}
+
+	/**
+	 * Returns the metrics of an operation received through the given channel.
+	 */
+	public OperationMetrics input( CommChannel channel, String operation ) {
+		final InputPort port = channel.parentInputPort();
+		return input( port == null ? "" : port.name(), operation );
+	}
+
+	/**
+	 * Returns the metrics of an operation invoked through the given output port.
+	 */
+	public OperationMetrics output( String port, String operation ) {
+		return operation( output, port, operation, Direction.OUTPUT );
+	}
+
+	private static OperationMetrics operation( Map< String, Map< String, OperationMetrics > > operations,
+		String port, String operation, Direction direction ) {
+		Map< String, OperationMetrics > portOperations = operations.get( port );
+		if( portOperations == null ) {
+			portOperations = operations.computeIfAbsent( port, k -> new ConcurrentHashMap<>() );
+		}
+		final OperationMetrics metrics = portOperations.get( operation );
+		return metrics != null
+			? metrics
+			: portOperations.computeIfAbsent( operation, k -> new OperationMetrics( port, operation, direction ) );
+	}
+
+	/**
+	 * Returns the metrics of all the operations called so far, received ones first.
+	 */
+	public List< OperationMetrics > operations() {
+		final List< OperationMetrics > operations = new ArrayList<>();
+		input.values().forEach( m -> operations.addAll( m.values() ) );
+		output.values().forEach( m -> operations.addAll( m.values() ) );
+		return operations;
+	}
+
+	/**
+	 * Counts the given session as running until it ends.
+	 */
+	public void sessionStarted( SessionThread session ) {
+		startedSessions.increment();
+		runningSessions.increment();
+		session.addSessionListener( sessionListener );
+	}
+
+	/**
+	 * Returns the number of sessions started so far.
+	 */
+	public long startedSessions() {
+		return startedSessions.sum();
+	}
+
+	/**
+	 * Returns the number of sessions that are running or waiting to run.
+	 */
+	public long runningSessions() {
+		return runningSessions.sum();
+	}
+
+	/**
+	 * Returns the pool of threads handling communications, if it has a bounded number of threads that
+	 * can be inspected (it does not when virtual threads are used). The pool is shared with the
+	 * embedded services.
+	 */
+	public ThreadPoolExecutor commPool() {
+		return interpreter.sharedRuntime().commPool();
+	}
+
+	/**
+	 * Returns the number of open socket channels in this virtual machine, which includes the ones of
+	 * embedded services.
+	 */
+	public long openChannels() {
+		return SocketCommChannel.openCount();
+	}
+
+	/**
+	 * Writes a snapshot of these metrics in the OpenMetrics text format.
+	 */
+	public void writeOpenMetrics( StringBuilder out ) {
+		family( out, "jolie_sessions_started", "counter", "Sessions started" );
+		out.append( "jolie_sessions_started_total " ).append( startedSessions() ).append( '\n' );
+		family( out, "jolie_sessions_running", "gauge", "Sessions running or waiting to run" );
+		out.append( "jolie_sessions_running " ).append( runningSessions() ).append( '\n' );
+
+		final ThreadPoolExecutor pool = commPool();
+		if( pool != null ) {
+			family( out, "jolie_comm_pool_threads", "gauge", "Threads in the communication pool" );
+			out.append( "jolie_comm_pool_threads " ).append( pool.getPoolSize() ).append( '\n' );
+			family( out, "jolie_comm_pool_active_threads", "gauge",
+				"Threads of the communication pool running a task" );
+			out.append( "jolie_comm_pool_active_threads " ).append( pool.getActiveCount() ).append( '\n' );
+			family( out, "jolie_comm_pool_queued_tasks", "gauge", "Tasks waiting for a communication thread" );
+			out.append( "jolie_comm_pool_queued_tasks " ).append( pool.getQueue().size() ).append( '\n' );
+		}
+
+		family( out, "jolie_channels_open", "gauge", "Open socket channels in this virtual machine" );
+		out.append( "jolie_channels_open " ).append( openChannels() ).append( '\n' );
+
+		final HashedWheelTimer timer = interpreter.timer();
+		family( out, "jolie_timers_pending", "gauge", "Timeouts scheduled that have not expired yet" );
+		out.append( "jolie_timers_pending " ).append( timer.pending() ).append( '\n' );
+		family( out, "jolie_timer_tick_lag_seconds", "gauge", "Delay of the last tick of the timer" );
+		out.append( "# UNIT jolie_timer_tick_lag_seconds seconds\n" );
+		out.append( "jolie_timer_tick_lag_seconds " ).append( timer.tickLag() / NANOS_PER_SECOND ).append( '\n' );
+		family( out, "jolie_timer_tick_lag_max_seconds", "gauge", "Longest delay of a tick of the timer" );
+		out.append( "# UNIT jolie_timer_tick_lag_max_seconds seconds\n" );
+		out.append( "jolie_timer_tick_lag_max_seconds " ).append( timer.maxTickLag() / NANOS_PER_SECOND )
+			.append( '\n' );
+
+		writeChannelCaches( out );
+		writeOperations( out );
+		out.append( "# EOF\n" );
+	}
+
+	private void writeChannelCaches( StringBuilder out ) {
+		final List< String > ports = new ArrayList<>();
+		final List< ChannelCache.Statistics > statistics = new ArrayList<>();
+		for( OutputPort port : interpreter.outputPorts() ) {
+			ports.add( port.id() );
+			statistics.add( port.channelCacheStatistics() );
+		}
+		if( ports.isEmpty() ) {
+			return;
+		}
+		cacheCounter( out, "jolie_channel_cache_hits", "Channel acquisitions served by an idle channel", ports,
+			statistics, ChannelCache.Statistics::hits );
+		cacheCounter( out, "jolie_channel_cache_misses", "Channel acquisitions that opened a new channel", ports,
+			statistics, ChannelCache.Statistics::misses );
+		cacheCounter( out, "jolie_channel_cache_evictions", "Idle channels closed by the cache", ports, statistics,
+			ChannelCache.Statistics::evictions );
+		cacheCounter( out, "jolie_channel_cache_discards", "Idle channels found broken when reused", ports,
+			statistics, ChannelCache.Statistics::discards );
+		cacheCounter( out, "jolie_channel_cache_timeouts", "Channel acquisitions that timed out", ports, statistics,
+			ChannelCache.Statistics::timeouts );
+		family( out, "jolie_channel_cache_channels", "gauge", "Channels of the cache, idle or in use" );
+		for( int i = 0; i < ports.size(); i++ ) {
+			out.append( "jolie_channel_cache_channels{port=" );
+			label( out, ports.get( i ) ).append( ",state=\"idle\"} " ).append( statistics.get( i ).idle() )
+				.append( '\n' );
+			out.append( "jolie_channel_cache_channels{port=" );
+			label( out, ports.get( i ) ).append( ",state=\"in_use\"} " ).append( statistics.get( i ).inUse() )
+				.append( '\n' );
+		}
+	}
+
+	private static void cacheCounter( StringBuilder out, String name, String help, List< String > ports,
+		List< ChannelCache.Statistics > statistics, ToLongFunction< ChannelCache.Statistics > counter ) {
+		family( out, name, "counter", help );
+		for( int i = 0; i < ports.size(); i++ ) {
+			out.append( name ).append( "_total{port=" );
+			label( out, ports.get( i ) ).append( "} " ).append( counter.applyAsLong( statistics.get( i ) ) )
+				.append( '\n' );
+		}
+	}
+
+	private void writeOperations( StringBuilder out ) {
+		final List< OperationMetrics > operations = operations();
+		if( operations.isEmpty() ) {
+			return;
+		}
+		family( out, "jolie_operation_calls", "counter", "Calls of operations" );
+		for( OperationMetrics m : operations ) {
+			labels( out.append( "jolie_operation_calls_total" ), m ).append( ' ' ).append( m.calls() ).append( '\n' );
+		}
+		family( out, "jolie_operation_faults", "counter", "Calls of operations that ended with a fault" );
+		for( OperationMetrics m : operations ) {
+			labels( out.append( "jolie_operation_faults_total" ), m ).append( ' ' ).append( m.faults() ).append( '\n' );
+		}
+		family( out, "jolie_operation_latency_seconds", "summary",
+			"Time from receiving a request to sending its response, or from sending a request to receiving its response" );
+		out.append( "# UNIT jolie_operation_latency_seconds seconds\n" );
+		for( OperationMetrics m : operations ) {
+			final LatencyHistogram.Snapshot latency = m.latency().snapshot();
+			if( latency.count() == 0 ) {
+				continue;
+			}
+			for( double quantile : QUANTILES ) {
+				out.append( "jolie_operation_latency_seconds{port=" );
+				label( out, m.port() ).append( ",operation=" );
+				label( out, m.operation() ).append( ",direction=\"" ).append( m.direction().label() )
+					.append( "\",quantile=\"" ).append( quantile ).append( "\"} " )
+					.append( latency.quantile( quantile ) / NANOS_PER_SECOND ).append( '\n' );
+			}
+			labels( out.append( "jolie_operation_latency_seconds_sum" ), m ).append( ' ' )
+				.append( latency.sum() / NANOS_PER_SECOND ).append( '\n' );
+			labels( out.append( "jolie_operation_latency_seconds_count" ), m ).append( ' ' )
+				.append( latency.count() ).append( '\n' );
+		}
+	}
+
+	private static void family( StringBuilder out, String name, String type, String help ) {
+		out.append( "# TYPE " ).append( name ).append( ' ' ).append( type ).append( '\n' )
+			.append( "# HELP " ).append( name ).append( ' ' ).append( help ).append( '\n' );
+	}
+
+	private static StringBuilder labels( StringBuilder out, OperationMetrics m ) {
+		out.append( "{port=" );
+		label( out, m.port() ).append( ",operation=" );
+		return label( out, m.operation() ).append( ",direction=\"" ).append( m.direction().label() ).append( "\"}" );
+	}
+
+	private static StringBuilder label( StringBuilder out, String value ) {
+		out.append( '"' );
+		for( int i = 0; i < value.length(); i++ ) {
+			final char c = value.charAt( i );
+			if( c == '"' || c == '\\' ) {
+				out.append( '\\' ).append( c );
+			} else if( c == '\n' ) {
+				out.append( "\\n" );
+			} else {
+				out.append( c );
+			}
+		}
+		return out.append( '"' );
+	}
+
+	/**
+	 * Serves these metrics in the OpenMetrics text format at the path /metrics of the given address,
+	 * replacing the endpoint started by a previous call.
+	 *
+	 * @throws IOException if the address cannot be bound
+	 */
+	public synchronized void startEndpoint( InetSocketAddress address )
+		throws IOException {
+		final HttpServer server = HttpServer.create( address, 0 );
+		server.createContext( "/metrics", exchange -> {
+			try( exchange ) {
+				if( !"GET".equals( exchange.getRequestMethod() ) ) {
+					exchange.sendResponseHeaders( 405, -1 );
+					return;
+				}
+				final StringBuilder text = new StringBuilder();
+				writeOpenMetrics( text );
+				final byte[] body = text.toString().getBytes( StandardCharsets.UTF_8 );
+				exchange.getResponseHeaders().set( "Content-Type", OPENMETRICS_CONTENT_TYPE );
+				exchange.sendResponseHeaders( 200, body.length );
+				try( OutputStream stream = exchange.getResponseBody() ) {
+					stream.write( body );
+				}
+			}
+		} );
+		server.start();
+		stopEndpoint();
+		endpoint = server;
+	}
+
+	/**
+	 * Stops serving these metrics, if {@link #startEndpoint(InetSocketAddress)} has been called.
+	 */
+	public synchronized void stopEndpoint() {
+		if( endpoint != null ) {
+			endpoint.stop( 0 );
+			endpoint = null;
+		}
+	}
+}
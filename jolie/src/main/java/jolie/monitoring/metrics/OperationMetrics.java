@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.monitoring.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The calls of an operation through a port, in one direction.
+ */
+public final class OperationMetrics {
+	private final String port;
+	private final String operation;
+	private final Metrics.Direction direction;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder faults = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	OperationMetrics( String port, String operation, Metrics.Direction direction ) {
+		this.port = port;
+		this.operation = operation;
+		this.direction = direction;
+	}
+
+	/**
+	 * Records a call whose duration is not known, e.g., a received one-way message.
+	 */
+	public void record( boolean fault ) {
+		calls.increment();
+		if( fault ) {
+			faults.increment();
+		}
+	}
+
+	/**
+	 * Records a call that took the given time.
+	 *
+	 * @param nanos the duration of the call, in nanoseconds
+	 * @param fault whether the call ended with a fault
+	 */
+	public void record( long nanos, boolean fault ) {
+		record( fault );
+		latency.record( nanos );
+	}
+
+	public String port() {
+		return port;
+	}
+
+	public String operation() {
+		return operation;
+	}
+
+	public Metrics.Direction direction() {
+		return direction;
+	}
+
+	public long calls() {
+		return calls.sum();
+	}
+
+	public long faults() {
+		return faults.sum();
+	}
+
+	public LatencyHistogram latency() {
+		return latency;
+	}
+}
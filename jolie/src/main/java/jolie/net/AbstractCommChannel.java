@@ -171,7 +171,7 @@ public abstract class AbstractCommChannel extends CommChannel {
 			 * Warning: the following line implies that this whole thing is safe iff the CommChannel is used
 			 * only for outputs, otherwise we are messing with correlation set checking.
 			 */
-			CommChannelHandler.currentThread().setExecutionThread( ethread ); // TODO: this is hacky..
+			CommChannelHandler.setCurrentExecutionThread( ethread ); // TODO: this is hacky..
 
 			CommMessage response;
 			while( keepRun ) {
@@ -197,13 +197,14 @@ public abstract class AbstractCommChannel extends CommChannel {
 						}
 					}
 				} catch( IOException e ) {
+					// Do not reuse the channel: the waiting requests release it, closing it
+					parent.setToBeClosed( true );
 					synchronized( parent.responseRecvMutex ) {
 						throwIOExceptionFault( e );
 						keepRun = false;
 						parent.responseReceiver = null;
 						timeoutHandler.cancel( false );
 					}
-					// TODO: close the channel?
 				}
 			}
 		}
@@ -89,7 +89,7 @@ public abstract class AggregatedOperation {
 					throw new IOException( e );
 				}
 
-				State state = initThread.state().clone();
+				State state = initThread.state().lazyClone();
 				Process p = new SequentialProcess(
 					new OneWayProcess( operation, inputVariablePath, context )
 						.receiveMessage( new SessionMessage( requestMessage, channel ), state ),
@@ -197,7 +197,7 @@ public abstract class AggregatedOperation {
 					throw new IOException( e );
 				}
 
-				State state = initThread.state().clone();
+				State state = initThread.state().lazyClone();
 				Process p = new RequestResponseProcess( operation, inputVariablePath, outputVariablePath,
 					courierProcess, context )
 					.receiveMessage( new SessionMessage( requestMessage, channel ), state );
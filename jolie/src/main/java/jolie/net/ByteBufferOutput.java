@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An output stream that collects what is written to it in direct buffers taken from the
+ * {@link DirectBufferPool}, so that a message can be written to a channel with a single gathering
+ * write. Large payloads can be appended without copying them, see {@link #append(ByteBuffer)}.
+ *
+ * Once {@link #finish()} has been called, the caller owns the returned buffers and must return them
+ * to the pool when they have been written, see {@link #release(ByteBuffer[])}.
+ */
+public final class ByteBufferOutput extends OutputStream {
+	private final List< ByteBuffer > buffers = new ArrayList<>();
+	// In write mode, not yet in buffers
+	private ByteBuffer current = null;
+
+	/**
+	 * Returns the buffer to write the next bytes to, in write mode, with at least the given number of
+	 * bytes remaining.
+	 *
+	 * @param length the number of bytes to be written, at most {@link DirectBufferPool#BUFFER_SIZE}
+	 */
+	public ByteBuffer reserve( int length ) {
+		if( current == null || current.remaining() < length ) {
+			if( length > DirectBufferPool.BUFFER_SIZE ) {
+				throw new IllegalArgumentException( "Cannot reserve " + length + " bytes" );
+			}
+			finishCurrent();
+			current = DirectBufferPool.acquire();
+		}
+		return current;
+	}
+
+	/**
+	 * Appends the remaining bytes of the given buffer, without copying them. The buffer must not be
+	 * modified until the output has been written.
+	 */
+	public void append( ByteBuffer data ) {
+		finishCurrent();
+		buffers.add( data );
+	}
+
+	private void finishCurrent() {
+		if( current != null ) {
+			if( current.position() == 0 ) {
+				DirectBufferPool.release( current );
+			} else {
+				buffers.add( current.flip() );
+			}
+			current = null;
+		}
+	}
+
+	@Override
+	public void write( int b ) {
+		reserve( 1 ).put( (byte) b );
+	}
+
+	@Override
+	public void write( byte[] b ) {
+		write( b, 0, b.length );
+	}
+
+	@Override
+	public void write( byte[] b, int off, int len ) {
+		Objects.checkFromIndexSize( off, len, b.length );
+		while( len > 0 ) {
+			final ByteBuffer buffer = reserve( 1 );
+			final int n = Math.min( len, buffer.remaining() );
+			buffer.put( b, off, n );
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Returns the buffers holding what has been written, in read mode, and empties this output.
+	 */
+	public ByteBuffer[] finish() {
+		finishCurrent();
+		final ByteBuffer[] ret = buffers.toArray( new ByteBuffer[ 0 ] );
+		buffers.clear();
+		return ret;
+	}
+
+	/**
+	 * Discards what has been written, returning the buffers of this output to the pool.
+	 */
+	public void discard() {
+		release( finish() );
+	}
+
+	/**
+	 * Returns the given buffers, obtained from {@link #finish()}, to the pool. Appended buffers are
+	 * left alone.
+	 */
+	public static void release( ByteBuffer[] buffers ) {
+		for( ByteBuffer buffer : buffers ) {
+			DirectBufferPool.release( buffer );
+		}
+	}
+}
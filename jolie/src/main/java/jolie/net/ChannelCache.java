@@ -21,78 +21,517 @@ package jolie.net;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import jolie.Interpreter;
+import jolie.runtime.Value;
+import jolie.util.ExceptionalCallable;
 import jolie.util.Helpers;
 
+/**
+ * A pool of persistent channels, kept per destination (location and protocol).
+ *
+ * Idle channels are reused in LIFO order and checked before being handed out. Channels left idle
+ * for longer than {@link Settings#idleTimeout()} are closed, keeping at least
+ * {@link Settings#minIdle()} of them. If {@link Settings#maxTotal()} is positive, acquiring a
+ * channel for a destination that has reached that number of channels in use waits for one to be
+ * released, for at most {@link Settings#acquireTimeout()} milliseconds.
+ *
+ * If {@link Settings#multiplex()} is set and the protocol supports it (see
+ * {@link CommChannel#enableMultiplexing()}), all requests to a destination share a single channel
+ * instead.
+ */
 public class ChannelCache {
-	// Location URI -> Protocol name -> Persistent CommChannel object
-	private final Map< URI, Map< String, CommChannel > > persistentChannels = new HashMap<>();
+	/**
+	 * The name of the protocol configuration node containing the pool settings of an output port, e.g.,
+	 * <code>protocol: sodep { connectionPool.maxIdle = 16 }</code>.
+	 */
+	public static final String CONFIGURATION_NODE_NAME = "connectionPool";
+
+	/**
+	 * The name of the protocol parameter enabling multiplexing, e.g.,
+	 * <code>protocol: sodep { multiplex = true }</code>.
+	 */
+	public static final String MULTIPLEX_PARAMETER_NAME = "multiplex";
+
+	private static final int DEFAULT_MAX_IDLE = 8;
+
+	/**
+	 * The settings of a pool.
+	 *
+	 * @param maxIdle the maximum number of idle channels kept per destination
+	 * @param minIdle the number of idle channels per destination that are not closed when idle for too
+	 *        long
+	 * @param maxTotal the maximum number of channels in use per destination, or zero for no limit
+	 * @param acquireTimeout how long to wait for a channel when maxTotal is reached, in milliseconds
+	 * @param idleTimeout how long a channel can stay idle before being closed, in milliseconds
+	 * @param multiplex whether all requests to a destination should share a single channel
+	 */
+	public static record Settings(int maxIdle, int minIdle, int maxTotal, long acquireTimeout, long idleTimeout,
+		boolean multiplex) {
+		/**
+		 * Reads the settings from the {@link #CONFIGURATION_NODE_NAME} child of a protocol configuration,
+		 * using defaults for the missing ones.
+		 */
+		public static Settings fromProtocolConfiguration( Value protocolConfiguration, Interpreter interpreter ) {
+			final Value c = protocolConfiguration.hasChildren( CONFIGURATION_NODE_NAME )
+				? protocolConfiguration.getFirstChild( CONFIGURATION_NODE_NAME )
+				: null;
+			return new Settings(
+				intSetting( c, "maxIdle", DEFAULT_MAX_IDLE ),
+				intSetting( c, "minIdle", 0 ),
+				intSetting( c, "maxTotal", 0 ),
+				longSetting( c, "acquireTimeout", interpreter.responseTimeout() ),
+				longSetting( c, "idleTimeout", interpreter.persistentConnectionTimeout() ),
+				protocolConfiguration.hasChildren( MULTIPLEX_PARAMETER_NAME )
+					&& protocolConfiguration.getFirstChild( MULTIPLEX_PARAMETER_NAME ).boolValue() );
+		}
+
+		/**
+		 * Returns the default settings.
+		 */
+		public static Settings defaults( Interpreter interpreter ) {
+			return fromProtocolConfiguration( Value.create(), interpreter );
+		}
+
+		private static int intSetting( Value configuration, String name, int defaultValue ) {
+			return configuration != null && configuration.hasChildren( name )
+				? configuration.getFirstChild( name ).intValue()
+				: defaultValue;
+		}
+
+		private static long longSetting( Value configuration, String name, long defaultValue ) {
+			return configuration != null && configuration.hasChildren( name )
+				? configuration.getFirstChild( name ).longValue()
+				: defaultValue;
+		}
+	}
+
+	/**
+	 * A snapshot of the counters of a cache.
+	 *
+	 * @param hits acquisitions served with an idle channel
+	 * @param misses acquisitions that required a new channel
+	 * @param evictions idle channels closed because of the idle timeout or of the maxIdle bound
+	 * @param discards idle channels found broken or busy when trying to reuse them
+	 * @param timeouts acquisitions that failed because maxTotal was reached for too long
+	 * @param idle the number of idle channels
+	 * @param inUse the number of channels in use
+	 */
+	public static record Statistics(long hits, long misses, long evictions, long discards, long timeouts, int idle,
+		int inUse) {
+	}
+
+	private static class Pool {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition released = lock.newCondition();
+		private final Deque< CommChannel > idle = new ArrayDeque<>();
+		// Weak, so that channels that are never given back do not keep their slot forever
+		private final Set< CommChannel > inUse = Collections.newSetFromMap( new WeakHashMap<>() );
+		// Channels being created, counted as in use
+		private int creating = 0;
+		private Settings settings;
+		// In multiplexed mode, the channel shared by all requests and how many of them are using it
+		private CommChannel shared = null;
+		private int sharedUsers = 0;
+		private boolean creatingShared = false;
+		private boolean multiplexingUnsupported = false;
+
+		private Pool( Settings settings ) {
+			this.settings = settings;
+		}
 
-	private void removePersistentChannel( URI location, String protocol, Map< String, CommChannel > protocolChannels ) {
-		protocolChannels.remove( protocol );
-		if( protocolChannels.isEmpty() ) {
-			persistentChannels.remove( location );
+		private int inUseCount() {
+			return inUse.size() + creating;
 		}
 	}
 
-	private void removePersistentChannel( URI location, String protocol, CommChannel channel ) {
-		if( persistentChannels.containsKey( location ) ) {
-			if( persistentChannels.get( location ).get( protocol ) == channel ) {
-				removePersistentChannel( location, protocol, persistentChannels.get( location ) );
+	// Location URI -> Protocol name -> Pool
+	private final Map< URI, Map< String, Pool > > pools = new HashMap<>();
+	// The pool each channel belongs to, which is not necessarily the one of the location it reports
+	// (e.g., when a location is resolved by its medium)
+	private final Map< CommChannel, Pool > owners = new WeakHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder discards = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+
+	/*
+	 * Returns the pool of a destination, creating it if needed. The settings of an existing pool are
+	 * replaced only if reconfigure is true.
+	 */
+	private Pool pool( URI location, String protocol, Settings settings, boolean reconfigure ) {
+		synchronized( pools ) {
+			final Pool pool = pools.computeIfAbsent( location, k -> new HashMap<>() )
+				.computeIfAbsent( protocol, k -> new Pool( settings ) );
+			if( reconfigure ) {
+				pool.settings = settings;
 			}
+			return pool;
+		}
+	}
+
+	private Pool owner( CommChannel channel ) {
+		synchronized( pools ) {
+			return owners.get( channel );
 		}
 	}
 
-	public CommChannel getPersistentChannel( URI location, String protocol ) {
-		synchronized( persistentChannels ) {
-			Map< String, CommChannel > protocolChannels = persistentChannels.get( location );
-			if( protocolChannels != null ) {
-				final var ret = protocolChannels.get( protocol );
-				if( ret != null ) {
-					removePersistentChannel( location, protocol, protocolChannels );
-					if( Helpers.tryLockOrElse( ret.rwLock, () -> ret.isOpen() && ret.cancelTimeoutHandler(),
-						() -> false ) ) {
-						return ret;
+	/**
+	 * Acquires a channel for the given destination, reusing an idle one if possible and creating a new
+	 * one through channelFactory otherwise.
+	 *
+	 * @param location the location of the destination
+	 * @param protocol the protocol name of the destination
+	 * @param settings the current settings for the pool of the destination
+	 * @param channelFactory creates a new channel for the destination
+	 * @return a channel for the destination
+	 * @throws IOException if no channel becomes available in time, or if channelFactory fails
+	 */
+	public CommChannel acquire( URI location, String protocol, Settings settings,
+		ExceptionalCallable< CommChannel, IOException > channelFactory )
+		throws IOException {
+		final Pool pool = pool( location, protocol, settings, true );
+		if( settings.multiplex() ) {
+			final CommChannel channel = acquireShared( pool, location, channelFactory );
+			if( channel != null ) {
+				return channel;
+			}
+		}
+		while( true ) {
+			final CommChannel candidate;
+			pool.lock.lock();
+			try {
+				candidate = nextCandidate( pool, location );
+				if( candidate == null ) {
+					pool.creating++;
+					break;
+				}
+			} finally {
+				pool.lock.unlock();
+			}
+			// Checked outside of the pool lock, since the check needs the timeout handler mutex
+			if( isReusable( candidate ) ) {
+				hits.increment();
+				return candidate;
+			}
+			discards.increment();
+			pool.lock.lock();
+			try {
+				pool.inUse.remove( candidate );
+				pool.released.signal();
+			} finally {
+				pool.lock.unlock();
+			}
+		}
+
+		misses.increment();
+		CommChannel channel = null;
+		try {
+			channel = channelFactory.call();
+			return channel;
+		} finally {
+			pool.lock.lock();
+			try {
+				pool.creating--;
+				if( channel == null ) {
+					pool.released.signal();
+				} else {
+					pool.inUse.add( channel );
+				}
+			} finally {
+				pool.lock.unlock();
+			}
+			if( channel != null ) {
+				synchronized( pools ) {
+					owners.put( channel, pool );
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns the shared channel of the pool, creating it if needed, or null if the protocol does not
+	 * support multiplexing.
+	 */
+	private CommChannel acquireShared( Pool pool, URI location,
+		ExceptionalCallable< CommChannel, IOException > channelFactory )
+		throws IOException {
+		pool.lock.lock();
+		try {
+			long nanos = TimeUnit.MILLISECONDS.toNanos( pool.settings.acquireTimeout() );
+			while( !pool.multiplexingUnsupported ) {
+				if( pool.shared != null && !pool.shared.toBeClosed() ) {
+					// A stale idle timeout finds the channel in use, so there is nothing to cancel
+					pool.sharedUsers++;
+					hits.increment();
+					return pool.shared;
+				}
+				if( !pool.creatingShared ) {
+					pool.creatingShared = true;
+					break;
+				}
+				if( nanos <= 0L ) {
+					timeouts.increment();
+					throw new IOException( "Timed out waiting for a connection to " + location );
+				}
+				try {
+					nanos = pool.released.awaitNanos( nanos );
+				} catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+					throw new IOException( e );
+				}
+			}
+			if( pool.multiplexingUnsupported ) {
+				return null;
+			}
+		} finally {
+			pool.lock.unlock();
+		}
+
+		misses.increment();
+		CommChannel channel = null;
+		try {
+			channel = channelFactory.call();
+			return channel;
+		} finally {
+			pool.lock.lock();
+			try {
+				pool.creatingShared = false;
+				if( channel != null ) {
+					if( channel.enableMultiplexing() ) {
+						pool.shared = channel;
+						pool.sharedUsers++;
+					} else {
+						// Use the channel exclusively, and do not try again
+						pool.multiplexingUnsupported = true;
+						pool.inUse.add( channel );
 					}
 				}
+				pool.released.signalAll();
+			} finally {
+				pool.lock.unlock();
+			}
+			if( channel != null ) {
+				synchronized( pools ) {
+					owners.put( channel, pool );
+				}
+			}
+		}
+	}
+
+	/*
+	 * Must be called while holding pool.lock. Returns an idle channel, marked as in use, or null if a
+	 * new channel should be created.
+	 */
+	private CommChannel nextCandidate( Pool pool, URI location )
+		throws IOException {
+		final Settings settings = pool.settings;
+		long nanos = TimeUnit.MILLISECONDS.toNanos( settings.acquireTimeout() );
+		while( pool.idle.isEmpty() && settings.maxTotal() > 0 && pool.inUseCount() >= settings.maxTotal() ) {
+			if( nanos <= 0L ) {
+				timeouts.increment();
+				throw new IOException( "Timed out waiting for a connection to " + location + " (maximum of "
+					+ settings.maxTotal() + " connections in use reached)" );
+			}
+			try {
+				nanos = pool.released.awaitNanos( nanos );
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new IOException( e );
 			}
 		}
+		final CommChannel channel = pool.idle.pollFirst();
+		if( channel != null ) {
+			pool.inUse.add( channel );
+		}
+		return channel;
+	}
 
-		return null;
+	private static boolean isReusable( CommChannel channel ) {
+		return Helpers.tryLockOrElse( channel.rwLock, () -> {
+			if( channel.isOpen() && channel.cancelTimeoutHandler() ) {
+				return true;
+			}
+			// Broken, or about to be closed by its timeout handler
+			closeQuietly( channel );
+			return false;
+		}, () -> false );
 	}
 
+	/**
+	 * Returns a channel to the pool of its destination, making it available for reuse.
+	 *
+	 * @param location the location of the destination
+	 * @param protocol the protocol name of the destination
+	 * @param channel the channel to return
+	 * @param interpreter the interpreter handling the idle timeout of the channel
+	 */
 	public void putPersistentChannel( URI location, String protocol, final CommChannel channel,
 		Interpreter interpreter ) {
-		synchronized( persistentChannels ) {
-			Map< String, CommChannel > protocolChannels =
-				persistentChannels.computeIfAbsent( location, k -> new HashMap<>() );
-			// Set the timeout
-			setTimeoutHandler( channel, location, protocol, interpreter );
-			// Put the protocol in the cache (may overwrite another one)
-			protocolChannels.put( protocol, channel );
-			/*
-			 * if ( protocolChannels.size() <= connectionCacheSize && protocolChannels.containsKey( protocol )
-			 * == false ) { // Set the timeout setTimeoutHandler( channel ); // Put the protocol in the cache
-			 * protocolChannels.put( protocol, channel ); } else { try { if ( protocolChannels.get( protocol )
-			 * != channel ) { channel.close(); } else { setTimeoutHandler( channel ); } } catch( IOException e )
-			 * { interpreter.logWarning( e ); } }
-			 */
+		Pool pool = owner( channel );
+		if( pool == null ) {
+			// A channel that has not been acquired from this cache
+			pool = pool( location, protocol, Settings.defaults( interpreter ), false );
+			synchronized( pools ) {
+				owners.put( channel, pool );
+			}
+		}
+		if( channel.isMultiplexed() ) {
+			releaseShared( pool, channel, interpreter );
+			return;
+		}
+		final boolean close;
+		pool.lock.lock();
+		try {
+			pool.inUse.remove( channel );
+			if( pool.idle.contains( channel ) ) {
+				return;
+			}
+			close = pool.idle.size() >= pool.settings.maxIdle();
+			if( !close ) {
+				pool.idle.addFirst( channel );
+			}
+			pool.released.signal();
+		} finally {
+			pool.lock.unlock();
+		}
+		if( close ) {
+			evictions.increment();
+			closeQuietly( channel );
+		} else {
+			// Outside of the pool lock, since timeout handlers acquire it while holding the timeout handler
+			// mutex. A handler set on a channel that has been acquired in the meantime finds it not idle.
+			setTimeoutHandler( pool, channel, interpreter );
 		}
 	}
 
-	private void setTimeoutHandler( final CommChannel channel, final URI location, final String protocol,
-		Interpreter interpreter ) {
+	private void releaseShared( Pool pool, CommChannel channel, Interpreter interpreter ) {
+		final boolean unused;
+		pool.lock.lock();
+		try {
+			unused = pool.shared == channel && --pool.sharedUsers == 0;
+		} finally {
+			pool.lock.unlock();
+		}
+		if( unused ) {
+			channel.setTimeoutHandler( () -> {
+				final boolean evict;
+				pool.lock.lock();
+				try {
+					evict = pool.shared == channel && pool.sharedUsers == 0;
+					if( evict ) {
+						pool.shared = null;
+					}
+				} finally {
+					pool.lock.unlock();
+				}
+				if( evict ) {
+					evictions.increment();
+					try {
+						channel.close();
+					} catch( IOException e ) {
+						interpreter.logSevere( e );
+					}
+				}
+			}, interpreter, pool.settings.idleTimeout() );
+		}
+	}
+
+	/**
+	 * Forgets a channel that has been closed, freeing its slot in the pool of its destination.
+	 *
+	 * @param channel the closed channel
+	 */
+	public void discard( CommChannel channel ) {
+		final Pool pool;
+		synchronized( pools ) {
+			pool = owners.remove( channel );
+		}
+		if( pool != null ) {
+			pool.lock.lock();
+			try {
+				if( pool.shared == channel ) {
+					pool.shared = null;
+					pool.sharedUsers = 0;
+					pool.released.signalAll();
+				} else if( pool.inUse.remove( channel ) | pool.idle.remove( channel ) ) {
+					pool.released.signal();
+				}
+			} finally {
+				pool.lock.unlock();
+			}
+		}
+	}
+
+	private void setTimeoutHandler( Pool pool, final CommChannel channel, Interpreter interpreter ) {
 		channel.setTimeoutHandler( () -> {
+			final boolean evict;
+			pool.lock.lock();
 			try {
-				synchronized( persistentChannels ) {
-					removePersistentChannel( location, protocol, channel );
+				evict = pool.idle.size() > pool.settings.minIdle() && pool.idle.remove( channel );
+			} finally {
+				pool.lock.unlock();
+			}
+			if( evict ) {
+				evictions.increment();
+				try {
 					channel.close();
+				} catch( IOException e ) {
+					interpreter.logSevere( e );
 				}
-			} catch( IOException e ) {
-				interpreter.logSevere( e );
 			}
-		}, interpreter, interpreter.persistentConnectionTimeout() );
+		}, interpreter, pool.settings.idleTimeout() );
+	}
+
+	private static void closeQuietly( CommChannel channel ) {
+		try {
+			channel.close();
+		} catch( IOException e ) {
+			Interpreter.getInstance().logFine( e );
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the counters of this cache, summed over all destinations.
+	 *
+	 * @return a snapshot of the counters of this cache
+	 */
+	public Statistics statistics() {
+		int idle = 0;
+		int inUse = 0;
+		synchronized( pools ) {
+			for( Map< String, Pool > protocolPools : pools.values() ) {
+				for( Pool pool : protocolPools.values() ) {
+					pool.lock.lock();
+					try {
+						idle += pool.idle.size();
+						inUse += pool.inUseCount();
+						if( pool.shared != null ) {
+							if( pool.sharedUsers > 0 ) {
+								inUse++;
+							} else {
+								idle++;
+							}
+						}
+					} finally {
+						pool.lock.unlock();
+					}
+				}
+			}
+		}
+		return new Statistics( hits.sum(), misses.sum(), evictions.sum(), discards.sum(), timeouts.sum(), idle,
+			inUse );
 	}
 }
@@ -189,6 +189,36 @@ public abstract class CommChannel {
 		return false;
 	}
 
+	/**
+	 * Makes this channel usable by many concurrent requests at once, so that requests can be sent while
+	 * the responses to previous ones are being received. Must be called before using the channel.
+	 *
+	 * @return <code>true</code> if this channel supports multiplexing, <code>false</code> otherwise
+	 */
+	public boolean enableMultiplexing() {
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if this channel is shared by many concurrent requests.
+	 *
+	 * @return <code>true</code> if this channel is shared by many concurrent requests
+	 * @see #enableMultiplexing()
+	 */
+	public boolean isMultiplexed() {
+		return false;
+	}
+
+	/**
+	 * Returns the lock held while receiving messages. This is {@link #rwLock} unless the channel allows
+	 * for sending and receiving concurrently.
+	 *
+	 * @return the lock held while receiving messages
+	 */
+	protected ReentrantLock recvLock() {
+		return rwLock;
+	}
+
 	/**
 	 * Receives a message from the channel. This is a blocking operation.
 	 *
@@ -197,7 +227,7 @@ public abstract class CommChannel {
 	 */
 	public CommMessage recv()
 		throws IOException {
-		return Helpers.lockAndThen( rwLock, this::recvImpl );
+		return Helpers.lockAndThen( recvLock(), this::recvImpl );
 	}
 
 	/**
@@ -291,7 +321,13 @@ public abstract class CommChannel {
 	protected final void close()
 		throws IOException {
 		isOpen = false;
-		closeImpl();
+		try {
+			closeImpl();
+		} finally {
+			if( outputPort != null ) {
+				outputPort.discardChannel( this );
+			}
+		}
 	}
 
 	/**
@@ -26,6 +26,7 @@ import jolie.ExecutionThread;
 import jolie.Interpreter;
 import jolie.InterpreterThread;
 import jolie.JolieThread;
+import jolie.VirtualThreadContext;
 
 /**
  * <code>CommChannelHandler</code> is a <code>JolieThread</code> used by <code>CommCore</code> to
@@ -63,12 +64,34 @@ public class CommChannelHandler extends Thread implements InterpreterThread {
 		executionThread = thread;
 	}
 
+	/**
+	 * Sets the <code>ExecutionThread</code> the current thread must refer to. The current thread must
+	 * be either a <code>CommChannelHandler</code> or a virtual thread started by <code>CommCore</code>.
+	 *
+	 * @param thread the <code>ExecutionThread</code> the current thread must refer to for variable
+	 *        state resolution
+	 * @see VirtualThreadContext
+	 */
+	public static void setCurrentExecutionThread( ExecutionThread thread ) {
+		final Thread t = Thread.currentThread();
+		if( t instanceof CommChannelHandler ) {
+			((CommChannelHandler) t).setExecutionThread( thread );
+		} else {
+			VirtualThreadContext.current().setExecutionThread( thread );
+		}
+	}
+
 	public ExecutionThread executionThread() {
 		return executionThread;
 	}
 
+	/**
+	 * Returns the interpreter of the execution thread this thread refers to, or {@code null} if it does
+	 * not refer to any yet.
+	 */
 	@Override
 	public Interpreter interpreter() {
-		return executionThread.interpreter();
+		final ExecutionThread t = executionThread;
+		return t == null ? null : t.interpreter();
 	}
 }
@@ -23,8 +23,6 @@
 package jolie.net;
 
 import jolie.Interpreter;
-import jolie.JolieThreadPoolExecutor;
-import jolie.NativeJolieThread;
 import jolie.lang.Constants;
 import jolie.net.ext.CommChannelFactory;
 import jolie.net.ext.CommListenerFactory;
@@ -32,6 +30,7 @@ import jolie.net.ext.CommProtocolFactory;
 import jolie.net.ports.InputPort;
 import jolie.net.ports.OutputPort;
 import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.FramedCommProtocol;
 import jolie.process.Process;
 import jolie.runtime.*;
 import jolie.runtime.correlation.CorrelationError;
@@ -40,17 +39,12 @@ import jolie.runtime.typing.TypeCheckingException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.channels.ClosedChannelException;
-import java.nio.channels.SelectableChannel;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
@@ -74,7 +68,8 @@ public class CommCore {
 	private final int connectionsLimit;
 	private final Interpreter interpreter;
 	private final ReadWriteLock channelHandlersLock = new ReentrantReadWriteLock( true );
-	private SelectorThread[] selectorThreads;
+	private final SelectorPool selectors;
+	private final EventLoopPool eventLoops;
 
 	/**
 	 * Returns the Interpreter instance this CommCore refers to.
@@ -104,7 +99,9 @@ public class CommCore {
 		 * new CommThreadFactory() ); } else { executorService = Executors.newCachedThreadPool( new
 		 * CommThreadFactory() ); }
 		 */
-		executorService = new JolieThreadPoolExecutor( new CommThreadFactory() );
+		executorService = interpreter.sharedRuntime().newCommExecutor( interpreter );
+		selectors = interpreter.sharedRuntime().selectors();
+		eventLoops = interpreter.sharedRuntime().eventLoops();
 
 		// TODO make socket an extension, too?
 		CommListenerFactory listenerFactory = new SocketListenerFactory( this );
@@ -117,19 +114,31 @@ public class CommCore {
 		return executorService;
 	}
 
-	private SelectorThread[] selectorThreads()
-		throws IOException {
-		if( selectorThreads == null ) {
-			selectorThreads = new SelectorThread[ Runtime.getRuntime().availableProcessors() ];
-			for( int i = 0; i < selectorThreads.length; i++ ) {
-				selectorThreads[ i ] = new SelectorThread( interpreter );
-			}
-		}
-
-		return selectorThreads;
+	/**
+	 * Returns <code>true</code> if the input ports of this CommCore serve the connections of framed
+	 * protocols with event loops, as requested with the --eventLoops option.
+	 *
+	 * @see FramedCommProtocol
+	 */
+	public boolean hasEventLoops() {
+		return eventLoops.isEnabled();
 	}
 
-
+	/**
+	 * Serves a connection accepted by the given input port with an event loop. The protocol must
+	 * implement {@link FramedCommProtocol}.
+	 *
+	 * @param socketChannel the accepted connection
+	 * @param port the input port that accepted the connection
+	 * @param protocol the protocol of the connection
+	 * @throws IOException if the connection cannot be registered with the event loop
+	 * @see #hasEventLoops()
+	 */
+	public void registerWithEventLoop( SocketChannel socketChannel, InputPort port, CommProtocol protocol )
+		throws IOException {
+		new EventLoopCommChannel( socketChannel, port.location(), protocol, port, this, eventLoops.next(),
+			interpreter.configuration().maxFrameSize() ).start();
+	}
 
 	/**
 	 * Returns the Logger used by this CommCore.
@@ -297,13 +306,6 @@ public class CommCore {
 
 	private final ExecutorService executorService;
 
-	private final static class CommThreadFactory implements ThreadFactory {
-		@Override
-		public Thread newThread( Runnable r ) {
-			return new CommChannelHandler( r );
-		}
-	}
-
 	private final static Pattern PATH_SPLIT_PATTERN = Pattern.compile( "/" );
 
 	private class CommChannelHandlerRunnable implements Runnable {
@@ -313,6 +315,10 @@ public class CommCore {
 		public CommChannelHandlerRunnable( CommChannel channel, InputPort port ) {
 			this.channel = channel;
 			this.port = port;
+			if( channel.parentPort() == null && port != null ) {
+				// In-memory channels, e.g., local ones, are not created by the listener of their port
+				channel.setParentInputPort( port );
+			}
 		}
 
 		private void forwardResponse( CommMessage message )
@@ -465,8 +471,9 @@ public class CommCore {
 
 		@Override
 		public void run() {
-			final CommChannelHandler thread = CommChannelHandler.currentThread();
-			thread.setExecutionThread( interpreter().initThread().getNewSessionThread() );
+			// Handlers are shared with other interpreters: refer to this one while creating the session
+			CommChannelHandler.setCurrentExecutionThread( interpreter().initThread() );
+			CommChannelHandler.setCurrentExecutionThread( interpreter().initThread().getNewSessionThread() );
 			channel.rwLock.lock();
 			channelHandlersLock.readLock().lock();
 			try {
@@ -515,7 +522,7 @@ public class CommCore {
 				if( channel.rwLock.isHeldByCurrentThread() ) {
 					channel.rwLock.unlock();
 				}
-				thread.setExecutionThread( null );
+				CommChannelHandler.setCurrentExecutionThread( null );
 			}
 		}
 	}
@@ -547,9 +554,6 @@ public class CommCore {
 	public void init()
 		throws IOException {
 		active = true;
-		for( SelectorThread t : selectorThreads() ) {
-			t.start();
-		}
 		for( Entry< String, CommListener > entry : listenersMap.entrySet() ) {
 			entry.getValue().start();
 		}
@@ -642,174 +646,18 @@ public class CommCore {
 		pollingThread().register( channel );
 	}
 
-	private class SelectorThread extends NativeJolieThread {
-		// We use a custom class for debugging purposes (the profiler gives us the class name)
-		private class SelectorMutex {
-		}
-
-		private final Selector selector;
-		private final SelectorMutex selectingMutex = new SelectorMutex();
-		private final Deque< Runnable > selectorTasks = new ArrayDeque<>();
-
-		public SelectorThread( Interpreter interpreter )
-			throws IOException {
-			super( interpreter, threadGroup, interpreter.programFilename() + "-SelectorThread" );
-			this.selector = Selector.open();
-		}
-
-		private Deque< Runnable > runKeys( SelectionKey[] selectedKeys )
-			throws IOException {
-			boolean keepRun;
-			synchronized( this ) {
-				do {
-					for( final SelectionKey key : selectedKeys ) {
-						if( key.isValid() ) {
-							final SelectableStreamingCommChannel channel =
-								(SelectableStreamingCommChannel) key.attachment();
-							if( channel.rwLock.tryLock() ) {
-								key.cancel();
-								selectorTasks.add( () -> {
-									try {
-										try {
-											try {
-												key.channel().configureBlocking( true );
-												if( channel.isOpen() ) {
-													/*
-													 * if ( channel.selectionTimeoutHandler() != null ) {
-													 * interpreter.removeTimeoutHandler(
-													 * channel.selectionTimeoutHandler() ); }
-													 */
-													scheduleReceive( channel, channel.parentInputPort() );
-												} else {
-													channel.closeImpl();
-												}
-											} catch( ClosedChannelException e ) {
-												channel.closeImpl();
-											}
-										} catch( IOException e ) {
-											throw e;
-										} finally {
-											channel.rwLock.unlock();
-										}
-									} catch( IOException e ) {
-										if( channel.rwLock.isHeldByCurrentThread() ) {
-											channel.rwLock.unlock();
-										}
-										interpreter.logWarning( e );
-									}
-								} );
-							}
-						}
-					}
-					synchronized( selectingMutex ) {
-						if( selector.selectNow() > 0 ) { // Clean up the cancelled keys
-							// If some new channels are selected, run again
-							selectedKeys = selector.selectedKeys().toArray( new SelectionKey[ 0 ] );
-							keepRun = true;
-						} else {
-							keepRun = false;
-						}
-					}
-				} while( keepRun );
-			}
-			return selectorTasks;
-		}
-
-		private void runTasks( Deque< Runnable > tasks )
-			throws IOException {
-			Runnable r;
-			while( (r = tasks.poll()) != null ) {
-				r.run();
-			}
-		}
-
-		@Override
-		public void run() {
-			while( active ) {
-				try {
-					SelectionKey[] selectedKeys;
-					synchronized( selectingMutex ) {
-						selector.select();
-						selectedKeys = selector.selectedKeys().toArray( new SelectionKey[ 0 ] );
-					}
-					final Deque< Runnable > tasks = runKeys( selectedKeys );
-					runTasks( tasks );
-				} catch( IOException e ) {
-					interpreter.logSevere( e );
-				}
-			}
-
-			synchronized( this ) {
-				for( SelectionKey key : selector.keys() ) {
-					try {
-						((SelectableStreamingCommChannel) key.attachment()).closeImpl();
-					} catch( IOException e ) {
-						interpreter.logWarning( e );
-					}
-				}
-			}
-		}
-
-		public void register( SelectableStreamingCommChannel channel, int index ) {
-			try {
-				if( channel.inputStream().available() > 0 ) {
-					scheduleReceive( channel, channel.parentInputPort() );
-					return;
-				}
-
-				synchronized( this ) {
-					if( !isSelecting( channel ) ) {
-						selector.wakeup();
-						SelectableChannel c = channel.selectableChannel();
-						c.configureBlocking( false );
-						synchronized( selectingMutex ) {
-							c.register( selector, SelectionKey.OP_READ, channel );
-							selector.wakeup();
-							channel.setSelectorIndex( index );
-						}
-					}
-				}
-			} catch( ClosedChannelException e ) {
-				interpreter.logWarning( e );
-			} catch( IOException e ) {
-				interpreter.logSevere( e );
-			}
-		}
-
-		public void unregister( SelectableStreamingCommChannel channel )
-			throws IOException {
-			synchronized( this ) {
-				if( isSelecting( channel ) ) {
-					selector.wakeup();
-					synchronized( selectingMutex ) {
-						SelectionKey key = channel.selectableChannel().keyFor( selector );
-						if( key != null ) {
-							key.cancel();
-						}
-						selector.selectNow();
-					}
-					channel.selectableChannel().configureBlocking( true );
-				}
-			}
-		}
-	}
-
 	protected boolean isSelecting( SelectableStreamingCommChannel channel ) {
-		SelectableChannel c = channel.selectableChannel();
-		return c != null && c.isRegistered();
+		return selectors.isSelecting( channel );
 	}
 
 	protected void unregisterForSelection( SelectableStreamingCommChannel channel )
 		throws IOException {
-		selectorThreads()[ channel.selectorIndex() ].unregister( channel );
+		selectors.unregister( channel );
 	}
 
-	private final AtomicInteger nextSelector = new AtomicInteger( 0 );
-
 	protected void registerForSelection( final SelectableStreamingCommChannel channel )
 		throws IOException {
-		final int i = nextSelector.getAndIncrement() % selectorThreads().length;
-		selectorThreads()[ i ].register( channel, i );
+		selectors.register( this, channel );
 		/*
 		 * final TimeoutHandler handler = new TimeoutHandler( interpreter.persistentConnectionTimeout() ) {
 		 *
@@ -827,17 +675,8 @@ public class CommCore {
 			active = false;
 			listenersMap.entrySet().forEach( ( entry ) -> entry.getValue().shutdown() );
 
-			try {
-				for( SelectorThread t : selectorThreads() ) {
-					t.selector.wakeup();
-					try {
-						t.join();
-					} catch( InterruptedException e ) {
-					}
-				}
-			} catch( IOException e ) {
-				interpreter.logSevere( e );
-			}
+			// The selectors are shared with other interpreters, so only the channels of this core are closed
+			selectors.release( this );
 
 			try {
 				channelHandlersLock.writeLock().tryLock( CHANNEL_HANDLER_TIMEOUT, TimeUnit.SECONDS );
@@ -848,6 +687,8 @@ public class CommCore {
 				executorService.awaitTermination( timeout, TimeUnit.MILLISECONDS );
 			} catch( InterruptedException e ) {
 			}
+			// Released last, since the replies of the handlers may still be queued for writing
+			eventLoops.release( this );
 			threadGroup.interrupt();
 		}
 	}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct buffers of {@link #BUFFER_SIZE} bytes, shared by the channels of this virtual
+ * machine for reading and writing messages. Direct buffers are expensive to allocate, but the
+ * operating system can read and write them without an intermediate copy.
+ */
+public final class DirectBufferPool {
+	public final static int BUFFER_SIZE = 8192;
+	private final static int MAX_POOLED_BUFFERS = 256;
+
+	private final static Queue< ByteBuffer > POOL = new ConcurrentLinkedQueue<>();
+	private final static AtomicInteger POOL_SIZE = new AtomicInteger( 0 );
+
+	private DirectBufferPool() {}
+
+	/**
+	 * Returns an empty buffer in write mode, taken from the pool if possible.
+	 */
+	public static ByteBuffer acquire() {
+		final ByteBuffer b = POOL.poll();
+		if( b == null ) {
+			return ByteBuffer.allocateDirect( BUFFER_SIZE );
+		}
+		POOL_SIZE.decrementAndGet();
+		return b.clear();
+	}
+
+	/**
+	 * Returns a buffer to the pool. Buffers that do not come from the pool, i.e., heap buffers and
+	 * buffers of other sizes, are ignored. The caller must not use the buffer afterwards.
+	 */
+	public static void release( ByteBuffer b ) {
+		if( !b.isDirect() || b.isReadOnly() || b.capacity() != BUFFER_SIZE ) {
+			return;
+		}
+		if( POOL_SIZE.incrementAndGet() <= MAX_POOLED_BUFFERS ) {
+			POOL.offer( b );
+		} else {
+			POOL_SIZE.decrementAndGet();
+		}
+	}
+}
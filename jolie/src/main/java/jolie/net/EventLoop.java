@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import jolie.Interpreter;
+import jolie.NativeJolieThread;
+
+/**
+ * A thread serving many connections through a {@link Selector}. It reads from the connections that
+ * are readable into a buffer of its own, and writes to the connections whose output could not be
+ * written without blocking. What happens to the bytes read is up to the
+ * {@link EventLoopCommChannel} of each connection.
+ *
+ * The connections may belong to different interpreters sharing the loop: the loop refers to the
+ * interpreter of a connection while serving it.
+ *
+ * @see EventLoopPool
+ */
+class EventLoop extends NativeJolieThread {
+	private static final int READ_BUFFER_SIZE = 0x10000; // 64K
+
+	private final Selector selector;
+	// Reused for every read, connections keep only the bytes of incomplete messages
+	private final ByteBuffer readBuffer = ByteBuffer.allocate( READ_BUFFER_SIZE );
+	// Run by the loop after each selection
+	private final Queue< Runnable > tasks = new ConcurrentLinkedQueue<>();
+	private volatile boolean active = true;
+
+	EventLoop( Interpreter interpreter, ThreadGroup threadGroup, int index )
+		throws IOException {
+		super( interpreter, threadGroup, "EventLoop-" + index );
+		setDaemon( true );
+		this.selector = Selector.open();
+	}
+
+	/**
+	 * Registers the given channel, whose socket must be in non-blocking mode, with no interest set.
+	 */
+	SelectionKey register( EventLoopCommChannel channel )
+		throws IOException {
+		return channel.socketChannel().register( selector, 0, channel );
+	}
+
+	/**
+	 * Makes the changes to the interest set of a key effective.
+	 */
+	void wakeup() {
+		selector.wakeup();
+	}
+
+	/**
+	 * Removes the keys cancelled so far from the selector, so that their channels can be put in
+	 * blocking mode. Must be called by this thread.
+	 */
+	void flushCancelledKeys()
+		throws IOException {
+		selector.selectNow();
+	}
+
+	@Override
+	public void run() {
+		while( active ) {
+			try {
+				selector.select();
+				// Copied, since handing a channel over to blocking mode flushes the cancelled keys
+				final SelectionKey[] selectedKeys = selector.selectedKeys().toArray( new SelectionKey[ 0 ] );
+				selector.selectedKeys().clear();
+				for( SelectionKey key : selectedKeys ) {
+					handle( key );
+				}
+				runTasks();
+			} catch( IOException | RuntimeException e ) {
+				interpreter().logSevere( e );
+			}
+		}
+
+		for( SelectionKey key : selector.keys() ) {
+			((EventLoopCommChannel) key.attachment()).abort();
+		}
+		try {
+			selector.close();
+		} catch( IOException e ) {
+			interpreter().logWarning( e );
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while( (task = tasks.poll()) != null ) {
+			task.run();
+		}
+	}
+
+	private void handle( SelectionKey key ) {
+		final EventLoopCommChannel channel = (EventLoopCommChannel) key.attachment();
+		setInterpreter( channel.core().interpreter() );
+		try {
+			if( key.isValid() && key.isWritable() ) {
+				channel.onWritable();
+			}
+			if( key.isValid() && key.isReadable() ) {
+				readBuffer.clear();
+				channel.onReadable( readBuffer );
+			}
+		} catch( IOException e ) {
+			interpreter().logFine( e );
+			channel.abort();
+		} catch( Throwable t ) {
+			// E.g., a cancelled key or a message nested too deeply to be framed: only this connection is
+			// affected, the loop keeps serving the others
+			interpreter().logWarning( t );
+			channel.abort();
+		}
+	}
+
+	/**
+	 * Closes the connections of the given communication core, discarding their queued output, and waits
+	 * for them to be closed. The selector is not thread-safe, so the loop does it: it must not have
+	 * been shut down.
+	 */
+	void release( CommCore core ) {
+		final CountDownLatch released = new CountDownLatch( 1 );
+		tasks.add( () -> {
+			if( selector.isOpen() ) {
+				for( SelectionKey key : selector.keys() ) {
+					final EventLoopCommChannel channel = (EventLoopCommChannel) key.attachment();
+					if( channel.core() == core ) {
+						channel.abort();
+					}
+				}
+			}
+			released.countDown();
+		} );
+		if( Thread.currentThread() == this ) {
+			runTasks();
+		}
+		selector.wakeup();
+		try {
+			released.await();
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stops this loop, closing its connections, and waits for it to terminate.
+	 */
+	void shutdown() {
+		active = false;
+		selector.wakeup();
+		try {
+			join();
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
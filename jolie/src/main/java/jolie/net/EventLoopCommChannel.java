@@ -0,0 +1,495 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import jolie.net.ports.InputPort;
+import jolie.net.protocols.ByteBufferCommProtocol;
+import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.FramedCommProtocol;
+
+/**
+ * A channel for a connection accepted by an input port and served by an {@link EventLoop}. The
+ * socket is never in blocking mode: the loop reads whatever is available, asks the
+ * {@link FramedCommProtocol} of the channel where messages end, and schedules the receiving of the
+ * complete ones on the executor of {@link CommCore}. The protocol then parses them from memory, so
+ * idle connections do not hold any thread and only hold a buffer while a message is incomplete. A
+ * {@link ByteBufferCommProtocol} decodes them without going through streams.
+ *
+ * Incomplete messages are kept in memory up to the size given by the --maxFrameSize option. A
+ * connection receiving a larger message is closed, unless the protocol can stream the message (see
+ * {@link FramedCommProtocol#streamingThreshold()}): the connection is then handed over to a
+ * blocking channel, as soon as the message exceeds the streaming threshold and the previous ones
+ * have been handled.
+ *
+ * Messages are handed to {@link CommCore} one at a time, as with the blocking channels: the next
+ * one is scheduled when the previous one has been disposed for input and, if the protocol is not
+ * thread safe, replied to, so that pipelined requests are answered in order. Sent messages are
+ * written directly if the socket accepts them, and otherwise queued and written by the loop;
+ * senders wait if too much output is queued.
+ */
+public class EventLoopCommChannel extends StreamingCommChannel {
+	// Stop reading from a client that sends messages faster than they are handled
+	private static final int MAX_PENDING_MESSAGES = 64;
+	private static final int MAX_QUEUED_OUTPUT = 0x100000; // 1M
+	private static final int OUTPUT_BLOCK_SIZE = 0x2000; // 8K
+	private static final int INITIAL_BUFFER_SIZE = 0x2000; // 8K
+	public static final int DEFAULT_MAX_FRAME_SIZE = 0x1000000; // 16M
+
+	private final SocketChannel socketChannel;
+	private final CommCore core;
+	private final EventLoop loop;
+	private volatile SelectionKey key;
+	private final FramedCommProtocol framing;
+	private final FramedCommProtocol.Framer framer;
+	private final int maxFrameSize;
+	private final AtomicBoolean closed = new AtomicBoolean( false );
+
+	// Accessed only by the loop: the bytes of an incomplete message, in write mode
+	private ByteBuffer pending = null;
+	private boolean firstMessage = true;
+
+	// Guarded by messages
+	private final Deque< byte[] > messages = new ArrayDeque<>();
+	private boolean scheduled = false;
+	private boolean awaitingReply = false;
+	private boolean readingPaused = false;
+	// Whether replies are sent in the order of the requests, known after the first message
+	private volatile boolean ordered = false;
+
+	private final ReentrantLock outputLock = new ReentrantLock();
+	private final Condition outputDrained = outputLock.newCondition();
+	// Guarded by outputLock
+	private final Deque< ByteBuffer > output = new ArrayDeque<>();
+	private long queuedOutput = 0;
+	private boolean closeWhenFlushed = false;
+
+	private final OutputStream ostream = new OutputStream() {
+		private byte[] block = new byte[ OUTPUT_BLOCK_SIZE ];
+		private int count = 0;
+
+		@Override
+		public void write( int b )
+			throws IOException {
+			if( count == block.length ) {
+				flush();
+			}
+			block[ count++ ] = (byte) b;
+		}
+
+		@Override
+		public void write( byte[] b, int off, int len )
+			throws IOException {
+			if( len >= block.length ) {
+				flush();
+				enqueue( ByteBuffer.wrap( b.clone(), off, len ) );
+				return;
+			}
+			if( len > block.length - count ) {
+				flush();
+			}
+			System.arraycopy( b, off, block, count, len );
+			count += len;
+		}
+
+		@Override
+		public void flush()
+			throws IOException {
+			if( count > 0 ) {
+				final ByteBuffer buffer = ByteBuffer.wrap( block, 0, count );
+				block = new byte[ OUTPUT_BLOCK_SIZE ];
+				count = 0;
+				enqueue( buffer );
+			}
+		}
+	};
+
+	EventLoopCommChannel( SocketChannel socketChannel, URI location, CommProtocol protocol, InputPort port,
+		CommCore core, EventLoop loop, int maxFrameSize )
+		throws IOException {
+		super( location, protocol );
+		this.socketChannel = socketChannel;
+		this.core = core;
+		this.loop = loop;
+		this.framing = (FramedCommProtocol) protocol;
+		this.framer = framing.newFramer();
+		this.maxFrameSize = maxFrameSize;
+		setParentInputPort( port );
+		setToBeClosed( false ); // Socket connections are kept open by default
+		socketChannel.configureBlocking( false );
+		SocketCommChannel.OPEN_CHANNELS.increment();
+	}
+
+	/**
+	 * Starts reading from the connection.
+	 */
+	void start()
+		throws IOException {
+		// Register with no interest first, so that the loop never sees this channel without its key
+		key = loop.register( this );
+		key.interestOps( SelectionKey.OP_READ );
+		loop.wakeup();
+	}
+
+	SocketChannel socketChannel() {
+		return socketChannel;
+	}
+
+	/**
+	 * Returns the communication core that accepted the connection.
+	 */
+	CommCore core() {
+		return core;
+	}
+
+	/**
+	 * Called by the loop when the socket is readable, with an empty buffer to read into.
+	 */
+	void onReadable( ByteBuffer readBuffer )
+		throws IOException {
+		if( socketChannel.read( readBuffer ) == -1 ) {
+			// Messages already received can still be handled, but replies are likely to fail
+			closeImpl();
+			return;
+		}
+		readBuffer.flip();
+		final ByteBuffer data;
+		if( pending == null ) {
+			data = readBuffer;
+		} else {
+			ensurePendingCapacity( readBuffer.remaining() );
+			pending.put( readBuffer );
+			data = pending.flip();
+		}
+
+		int length;
+		while( data.hasRemaining() && (length = framer.frameLength( data )) != FramedCommProtocol.INCOMPLETE ) {
+			if( length == FramedCommProtocol.UNFRAMED ) {
+				if( firstMessage ) {
+					handOver( data );
+					return;
+				}
+				throw new IOException( "Received a message that cannot be framed by protocol " + protocol().name() );
+			}
+			final byte[] message = new byte[ length ];
+			data.get( message );
+			firstMessage = false;
+			onMessage( message );
+		}
+
+		if( data.hasRemaining() && checkLength( Math.max( framer.minimumLength(), data.remaining() ), data ) ) {
+			return;
+		}
+
+		if( !data.hasRemaining() ) {
+			pending = null;
+		} else if( data == pending ) {
+			pending.compact();
+		} else {
+			pending = ByteBuffer.allocate( Math.max( data.remaining() * 2, INITIAL_BUFFER_SIZE ) ).put( data );
+		}
+	}
+
+	private void ensurePendingCapacity( int needed ) {
+		if( pending.remaining() < needed ) {
+			// The message in pending is at most maxFrameSize bytes long, plus one read
+			final long size = Math.max( (long) pending.capacity() * 2, (long) pending.position() + needed );
+			final long limit = Math.min( (long) maxFrameSize + needed, Integer.MAX_VALUE - 8 );
+			pending = ByteBuffer.allocate( (int) Math.min( size, limit ) ).put( pending.flip() );
+		}
+	}
+
+	/**
+	 * Checks the length of the incomplete message at the beginning of data, handing the connection over
+	 * to a blocking channel if the message should be streamed and the connection is idle.
+	 *
+	 * @return whether the connection has been handed over
+	 * @throws IOException if the message is larger than maxFrameSize and cannot be handed over
+	 */
+	private boolean checkLength( long length, ByteBuffer data )
+		throws IOException {
+		final long threshold = framing.streamingThreshold();
+		if( length <= maxFrameSize && (threshold < 0 || length <= threshold) ) {
+			return false;
+		}
+		if( threshold >= 0 && isIdle() ) {
+			handOver( data );
+			return true;
+		}
+		if( length > maxFrameSize ) {
+			throw new IOException( "Received a message larger than " + maxFrameSize + " bytes" );
+		}
+		return false;
+	}
+
+	// Whether no message of the connection is queued or being handled, so that the rest of the
+	// connection can be served by another channel
+	private boolean isIdle() {
+		synchronized( messages ) {
+			return messages.isEmpty() && !scheduled && !awaitingReply && (firstMessage || ordered);
+		}
+	}
+
+	private void onMessage( byte[] message ) {
+		final boolean schedule;
+		synchronized( messages ) {
+			messages.add( message );
+			schedule = trySchedule();
+			if( messages.size() >= MAX_PENDING_MESSAGES ) {
+				readingPaused = true;
+				key.interestOpsAnd( ~SelectionKey.OP_READ );
+			}
+		}
+		if( schedule ) {
+			scheduleReceive();
+		}
+	}
+
+	// The other party speaks something that we cannot frame: serve it with a blocking channel
+	private void handOver( ByteBuffer received )
+		throws IOException {
+		key.cancel();
+		loop.flushCancelledKeys();
+		socketChannel.configureBlocking( true );
+		if( closed.compareAndSet( false, true ) ) {
+			SocketCommChannel.OPEN_CHANNELS.decrement();
+		}
+		final SocketCommChannel channel =
+			new SocketCommChannel( socketChannel, parentInputPort().location(), protocol(), received );
+		channel.setParentInputPort( parentInputPort() );
+		core.scheduleReceive( channel, parentInputPort() );
+	}
+
+	// Must hold the lock on messages
+	private boolean trySchedule() {
+		if( scheduled || awaitingReply || messages.isEmpty() ) {
+			return false;
+		}
+		scheduled = true;
+		return true;
+	}
+
+	private void scheduleReceive() {
+		core.scheduleReceive( this, parentInputPort() );
+	}
+
+	@Override
+	protected CommMessage recvImpl()
+		throws IOException {
+		final boolean ordered = !protocol().isThreadSafe();
+		final byte[] message;
+		synchronized( messages ) {
+			message = messages.poll();
+			awaitingReply = ordered && message != null;
+			this.ordered = ordered;
+		}
+		if( message == null ) {
+			throw new ChannelClosingException( "No message to receive" );
+		}
+		try {
+			final CommMessage received = protocol() instanceof ByteBufferCommProtocol
+				? ((ByteBufferCommProtocol) protocol()).recv( ByteBuffer.wrap( message ) )
+				: protocol().recv( new ByteArrayInputStream( message ), ostream );
+			if( received == null ) {
+				// Handled by the protocol itself, there is no reply to wait for
+				synchronized( messages ) {
+					awaitingReply = false;
+				}
+			}
+			return received;
+		} finally {
+			// The protocol may have replied with an error
+			ostream.flush();
+		}
+	}
+
+	@Override
+	protected void sendImpl( CommMessage message )
+		throws IOException {
+		if( protocol() instanceof ByteBufferCommProtocol ) {
+			final ByteBufferOutput out = new ByteBufferOutput();
+			try {
+				((ByteBufferCommProtocol) protocol()).send( out, message );
+			} catch( IOException | RuntimeException e ) {
+				out.discard();
+				throw e;
+			}
+			enqueue( out.finish() );
+		} else {
+			protocol().send( ostream, message, InputStream.nullInputStream() );
+			ostream.flush();
+		}
+		final boolean schedule;
+		synchronized( messages ) {
+			awaitingReply = false;
+			schedule = trySchedule();
+		}
+		if( schedule ) {
+			scheduleReceive();
+		}
+	}
+
+	@Override
+	protected void disposeForInputImpl() {
+		final boolean schedule;
+		synchronized( messages ) {
+			scheduled = false;
+			schedule = trySchedule();
+			if( readingPaused && messages.size() < MAX_PENDING_MESSAGES ) {
+				readingPaused = false;
+				key.interestOpsOr( SelectionKey.OP_READ );
+				loop.wakeup();
+			}
+		}
+		if( schedule ) {
+			scheduleReceive();
+		}
+	}
+
+	private void enqueue( ByteBuffer... buffers )
+		throws IOException {
+		outputLock.lock();
+		try {
+			if( closed.get() || closeWhenFlushed ) {
+				ByteBufferOutput.release( buffers );
+				throw new ChannelClosingException( "Channel closed" );
+			}
+			int first = 0;
+			if( output.isEmpty() ) {
+				try {
+					socketChannel.write( buffers );
+				} catch( IOException e ) {
+					ByteBufferOutput.release( buffers );
+					throw e;
+				}
+				while( first < buffers.length && !buffers[ first ].hasRemaining() ) {
+					DirectBufferPool.release( buffers[ first++ ] );
+				}
+				if( first == buffers.length ) {
+					return;
+				}
+				key.interestOpsOr( SelectionKey.OP_WRITE );
+				loop.wakeup();
+			}
+			for( int i = first; i < buffers.length; i++ ) {
+				output.add( buffers[ i ] );
+				queuedOutput += buffers[ i ].remaining();
+			}
+			while( queuedOutput > MAX_QUEUED_OUTPUT && !closed.get() ) {
+				outputDrained.await();
+			}
+			if( closed.get() ) {
+				throw new ChannelClosingException( "Channel closed" );
+			}
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IOException( e );
+		} finally {
+			outputLock.unlock();
+		}
+	}
+
+	/**
+	 * Called by the loop when the socket is writable.
+	 */
+	void onWritable()
+		throws IOException {
+		outputLock.lock();
+		try {
+			final long written = socketChannel.write( output.toArray( new ByteBuffer[ 0 ] ) );
+			queuedOutput -= written;
+			while( !output.isEmpty() && !output.peek().hasRemaining() ) {
+				DirectBufferPool.release( output.poll() );
+			}
+			if( output.isEmpty() ) {
+				key.interestOpsAnd( ~SelectionKey.OP_WRITE );
+				if( closeWhenFlushed ) {
+					abort();
+				}
+			}
+			if( queuedOutput <= MAX_QUEUED_OUTPUT ) {
+				outputDrained.signalAll();
+			}
+		} finally {
+			outputLock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the connection after writing the queued output.
+	 */
+	@Override
+	protected void closeImpl()
+		throws IOException {
+		outputLock.lock();
+		try {
+			if( output.isEmpty() ) {
+				abort();
+			} else {
+				closeWhenFlushed = true;
+			}
+		} finally {
+			outputLock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the connection immediately, discarding the queued output.
+	 */
+	void abort() {
+		if( closed.compareAndSet( false, true ) ) {
+			SocketCommChannel.OPEN_CHANNELS.decrement();
+			key.cancel();
+			try {
+				socketChannel.close();
+			} catch( IOException e ) {
+				core.interpreter().logFine( e );
+			}
+			outputLock.lock();
+			try {
+				ByteBuffer buffer;
+				while( (buffer = output.poll()) != null ) {
+					DirectBufferPool.release( buffer );
+				}
+				outputDrained.signalAll();
+			} finally {
+				outputLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	protected boolean isOpenImpl() {
+		return !closed.get() && socketChannel.isOpen();
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.net;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import jolie.Interpreter;
+
+/**
+ * The event loops serving the connections of framed protocols accepted by the input ports of one or
+ * more interpreters (see {@link jolie.SharedRuntime}), as requested with the --eventLoops option. A
+ * connection is registered by the {@link CommCore} that accepted it, and its messages are received
+ * by handlers of that core.
+ *
+ * The loops are started by the first registration.
+ */
+public final class EventLoopPool {
+	private final Interpreter interpreter;
+	private final int size;
+	// The loops are started by the listener of the first core accepting a connection, and must not
+	// join its thread group, which is interrupted when that core shuts down
+	private final ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
+	private final AtomicInteger nextLoop = new AtomicInteger( 0 );
+	// Guarded by this
+	private EventLoop[] loops = null;
+	private boolean active = true;
+
+	/**
+	 * @param interpreter the interpreter the loops initially refer to
+	 * @param size the number of loops, 0 to serve every connection with a handler of its own
+	 */
+	public EventLoopPool( Interpreter interpreter, int size ) {
+		this.interpreter = interpreter;
+		this.size = size;
+	}
+
+	/**
+	 * Returns {@code true} if connections of framed protocols should be served by these loops.
+	 */
+	public boolean isEnabled() {
+		return size > 0;
+	}
+
+	/**
+	 * Returns the loop that should serve the next connection, starting the loops if needed.
+	 */
+	synchronized EventLoop next()
+		throws IOException {
+		if( !active ) {
+			throw new IOException( "The event loops have been shut down" );
+		}
+		if( loops == null ) {
+			final EventLoop[] l = new EventLoop[ size ];
+			for( int i = 0; i < size; i++ ) {
+				l[ i ] = new EventLoop( interpreter, threadGroup, i );
+			}
+			for( EventLoop loop : l ) {
+				loop.start();
+			}
+			loops = l;
+		}
+		return loops[ Math.floorMod( nextLoop.getAndIncrement(), size ) ];
+	}
+
+	/**
+	 * Closes the connections registered by a communication core that is shutting down, discarding their
+	 * queued output.
+	 */
+	synchronized void release( CommCore core ) {
+		// Holding the lock keeps the loops from being shut down meanwhile
+		if( active && loops != null ) {
+			for( EventLoop loop : loops ) {
+				loop.release( core );
+			}
+		}
+	}
+
+	/**
+	 * Stops the loops, closing the connections that are still registered.
+	 */
+	public void shutdown() {
+		final EventLoop[] l;
+		synchronized( this ) {
+			active = false;
+			l = loops;
+		}
+		if( l != null ) {
+			for( EventLoop loop : l ) {
+				loop.shutdown();
+			}
+		}
+	}
+}
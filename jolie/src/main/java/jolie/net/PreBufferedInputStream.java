@@ -23,50 +23,148 @@
 
 package jolie.net;
 
-import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
 
-public class PreBufferedInputStream extends BufferedInputStream {
-	private final static int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+/**
+ * A buffered input stream reading from a {@link ReadableByteChannel} into a direct buffer, which is
+ * reused across messages and returned to the {@link DirectBufferPool} when the stream is released.
+ *
+ * The buffer can also be filled without blocking (see {@link #fill()}), e.g., by {@link CommCore}
+ * while checking whether a selected channel is still open: the data read in that occasion is then
+ * consumed by the protocol without further system calls.
+ *
+ * This stream does not synchronise on itself: accesses are guarded by the lock of the channel it
+ * belongs to, and blocking reads do not pin the carrier when running on a virtual thread.
+ */
+public class PreBufferedInputStream extends InputStream {
+	private final ReadableByteChannel channel;
+	// In read mode: position is the next byte to be read, limit is the end of the available data
+	private ByteBuffer buffer;
 
-	public PreBufferedInputStream( InputStream istream ) {
-		super( istream );
+	public PreBufferedInputStream( ReadableByteChannel channel ) {
+		this.channel = channel;
+		this.buffer = acquireBuffer();
+	}
+
+	/**
+	 * Creates a stream whose first bytes are the remaining ones of the given buffer, which are copied.
+	 */
+	public PreBufferedInputStream( ReadableByteChannel channel, ByteBuffer data ) {
+		this.channel = channel;
+		if( data.remaining() <= DirectBufferPool.BUFFER_SIZE ) {
+			this.buffer = acquireBuffer().clear().put( data ).flip();
+		} else {
+			this.buffer = ByteBuffer.allocateDirect( data.remaining() ).put( data ).flip();
+		}
+	}
+
+	private static ByteBuffer acquireBuffer() {
+		return DirectBufferPool.acquire().flip();
 	}
 
 	public boolean hasCachedData() {
-		return pos < count;
+		return buffer != null && buffer.hasRemaining();
+	}
+
+	private ByteBuffer buffer()
+		throws IOException {
+		if( buffer == null ) {
+			throw new IOException( "Stream closed" );
+		}
+		return buffer;
+	}
+
+	/**
+	 * Reads from the underlying channel once, appending to the data already in the buffer. If the
+	 * channel is in non-blocking mode, this method does not block.
+	 *
+	 * @return the number of bytes read, possibly zero, or -1 if the channel has reached end-of-stream
+	 * @throws IOException if an I/O error occurs
+	 */
+	public int fill()
+		throws IOException {
+		final ByteBuffer b = buffer();
+		b.compact();
+		try {
+			return b.hasRemaining() ? channel.read( b ) : 0;
+		} finally {
+			b.flip();
+		}
+	}
+
+	private boolean ensureData()
+		throws IOException {
+		final ByteBuffer b = buffer();
+		int read = 0;
+		while( !b.hasRemaining() && read == 0 ) {
+			read = fill();
+		}
+		return read != -1;
+	}
+
+	@Override
+	public int read()
+		throws IOException {
+		return ensureData() ? buffer.get() & 0xff : -1;
+	}
+
+	@Override
+	public int read( byte[] b, int off, int len )
+		throws IOException {
+		Objects.checkFromIndexSize( off, len, b.length );
+		if( len == 0 ) {
+			return 0;
+		}
+		if( !buffer().hasRemaining() && len >= buffer.capacity() ) {
+			// Do not bother copying through the buffer
+			return channel.read( ByteBuffer.wrap( b, off, len ) );
+		}
+		if( !ensureData() ) {
+			return -1;
+		}
+		final int n = Math.min( len, buffer.remaining() );
+		buffer.get( b, off, n );
+		return n;
+	}
+
+	@Override
+	public long skip( long n )
+		throws IOException {
+		if( n <= 0 || !ensureData() ) {
+			return 0;
+		}
+		final int skipped = (int) Math.min( n, buffer.remaining() );
+		buffer.position( buffer.position() + skipped );
+		return skipped;
 	}
 
-	public void append( ByteBuffer b ) {
-		final int bufferSize = b.remaining();
-		enlargeIfNecessary( bufferSize );
-		b.get( buf, count, bufferSize );
-		count += bufferSize;
+	/**
+	 * Returns the number of bytes in the buffer. This method does not query the underlying channel.
+	 */
+	@Override
+	public int available()
+		throws IOException {
+		return buffer().remaining();
 	}
 
-	private void enlargeIfNecessary( int toBeWritten ) {
-		if( count + toBeWritten >= buf.length ) {
-			int tentative = Math.max( count * 2, count + toBeWritten );
-			if( tentative >= MAX_BUFFER_SIZE ) {
-				if( count + toBeWritten < MAX_BUFFER_SIZE ) {
-					tentative = count + toBeWritten;
-				} else {
-					throw new OutOfMemoryError( "Required array size too large" );
-				}
-			}
-
-			final byte[] nbuf = new byte[ tentative ];
-			final int remaining = count - pos;
-			System.arraycopy( buf, pos, nbuf, 0, remaining );
-			buf = nbuf;
-			pos = 0;
-			count = remaining;
+	/**
+	 * Returns the buffer of this stream to the pool. Subsequent reads throw an {@link IOException}. The
+	 * caller must make sure that no other thread is using this stream.
+	 */
+	public void release() {
+		if( buffer != null ) {
+			DirectBufferPool.release( buffer );
+			buffer = null;
 		}
 	}
 
-	public void append( byte b ) {
-		enlargeIfNecessary( 1 );
-		buf[ count++ ] = b;
+	@Override
+	public void close()
+		throws IOException {
+		channel.close();
 	}
 }
@@ -66,10 +66,28 @@ public abstract class SelectableStreamingCommChannel extends StreamingCommChanne
 	 */
 	abstract public SelectableChannel selectableChannel();
 
+	/**
+	 * Returns <code>true</code> if some input can be received without blocking. Called by
+	 * {@link CommCore} with the selectable channel in non-blocking mode, before registering it for
+	 * selection.
+	 *
+	 * @return <code>true</code> if some input can be received without blocking
+	 * @throws IOException in case of some communication error
+	 */
+	protected boolean hasPendingInput()
+		throws IOException {
+		return protocol().hasBufferedMessages() || inputStream().available() > 0;
+	}
+
 	@Override
 	public final void send( CommMessage message )
 		throws IOException {
-		Helpers.lockAndThen( rwLock, () -> _send( message ) );
+		if( isMultiplexed() ) {
+			// Multiplexed channels are never selected, and their implementations do their own locking
+			sendImpl( message );
+		} else {
+			Helpers.lockAndThen( rwLock, () -> _send( message ) );
+		}
 	}
 
 	private void _send( CommMessage message )
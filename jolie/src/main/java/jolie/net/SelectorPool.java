@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jolie.Interpreter;
+import jolie.NativeJolieThread;
+
+/**
+ * The threads waiting for input on the idle channels of the communication cores of one or more
+ * interpreters (see {@link jolie.SharedRuntime}). A channel is registered by a {@link CommCore},
+ * and the message that arrives on it is received by a handler of that core.
+ *
+ * The threads are started by the first registration.
+ */
+public final class SelectorPool {
+	private record Registration(CommCore core, SelectableStreamingCommChannel channel) {
+	}
+
+	private final Interpreter interpreter;
+	private final SelectorThread[] selectorThreads;
+	private final AtomicInteger nextSelector = new AtomicInteger( 0 );
+	private volatile boolean active = true;
+	private volatile boolean started = false;
+
+	/**
+	 * @param interpreter the interpreter the threads initially refer to
+	 * @param size the number of threads
+	 */
+	public SelectorPool( Interpreter interpreter, int size )
+		throws IOException {
+		this.interpreter = interpreter;
+		selectorThreads = new SelectorThread[ size ];
+		for( int i = 0; i < size; i++ ) {
+			selectorThreads[ i ] = new SelectorThread( interpreter );
+		}
+	}
+
+	private void start() {
+		synchronized( selectorThreads ) {
+			if( !started && active ) {
+				for( SelectorThread t : selectorThreads ) {
+					t.start();
+				}
+				started = true;
+			}
+		}
+	}
+
+	boolean isSelecting( SelectableStreamingCommChannel channel ) {
+		SelectableChannel c = channel.selectableChannel();
+		return c != null && c.isRegistered();
+	}
+
+	void register( CommCore core, SelectableStreamingCommChannel channel ) {
+		if( !started ) {
+			start();
+		}
+		final int i = Math.floorMod( nextSelector.getAndIncrement(), selectorThreads.length );
+		selectorThreads[ i ].register( new Registration( core, channel ), i );
+	}
+
+	void unregister( SelectableStreamingCommChannel channel )
+		throws IOException {
+		selectorThreads[ channel.selectorIndex() ].unregister( channel );
+	}
+
+	/**
+	 * Closes the channels registered by a communication core that is shutting down.
+	 */
+	void release( CommCore core ) {
+		for( SelectorThread t : selectorThreads ) {
+			t.release( core );
+		}
+	}
+
+	/**
+	 * Stops the threads, closing the channels that are still registered.
+	 */
+	public void shutdown() {
+		synchronized( selectorThreads ) {
+			active = false;
+			if( !started ) {
+				return;
+			}
+		}
+		for( SelectorThread t : selectorThreads ) {
+			t.selector.wakeup();
+			try {
+				t.join();
+			} catch( InterruptedException e ) {
+			}
+		}
+	}
+
+	private class SelectorThread extends NativeJolieThread {
+		// We use a custom class for debugging purposes (the profiler gives us the class name)
+		private class SelectorMutex {
+		}
+
+		private final Selector selector;
+		private final SelectorMutex selectingMutex = new SelectorMutex();
+		private final Deque< Runnable > selectorTasks = new ArrayDeque<>();
+
+		public SelectorThread( Interpreter interpreter )
+			throws IOException {
+			super( interpreter, "SelectorThread" );
+			this.selector = Selector.open();
+		}
+
+		private Deque< Runnable > runKeys( SelectionKey[] selectedKeys )
+			throws IOException {
+			boolean keepRun;
+			synchronized( this ) {
+				do {
+					for( final SelectionKey key : selectedKeys ) {
+						if( key.isValid() ) {
+							final Registration registration = (Registration) key.attachment();
+							final SelectableStreamingCommChannel channel = registration.channel();
+							if( channel.rwLock.tryLock() ) {
+								key.cancel();
+								selectorTasks.add( () -> {
+									setInterpreter( registration.core().interpreter() );
+									try {
+										try {
+											try {
+												// Check while still in non-blocking mode, saving two mode switches
+												final boolean isOpen = channel.isOpen();
+												key.channel().configureBlocking( true );
+												if( isOpen ) {
+													registration.core().scheduleReceive( channel,
+														channel.parentInputPort() );
+												} else {
+													channel.closeImpl();
+												}
+											} catch( ClosedChannelException e ) {
+												channel.closeImpl();
+											}
+										} catch( IOException e ) {
+											throw e;
+										} finally {
+											channel.rwLock.unlock();
+										}
+									} catch( IOException e ) {
+										if( channel.rwLock.isHeldByCurrentThread() ) {
+											channel.rwLock.unlock();
+										}
+										registration.core().interpreter().logWarning( e );
+									}
+								} );
+							}
+						}
+					}
+					synchronized( selectingMutex ) {
+						if( selector.selectNow() > 0 ) { // Clean up the cancelled keys
+							// If some new channels are selected, run again
+							selectedKeys = selector.selectedKeys().toArray( new SelectionKey[ 0 ] );
+							keepRun = true;
+						} else {
+							keepRun = false;
+						}
+					}
+				} while( keepRun );
+			}
+			return selectorTasks;
+		}
+
+		private void runTasks( Deque< Runnable > tasks )
+			throws IOException {
+			Runnable r;
+			while( (r = tasks.poll()) != null ) {
+				r.run();
+			}
+		}
+
+		@Override
+		public void run() {
+			while( active ) {
+				try {
+					SelectionKey[] selectedKeys;
+					synchronized( selectingMutex ) {
+						selector.select();
+						selectedKeys = selector.selectedKeys().toArray( new SelectionKey[ 0 ] );
+					}
+					final Deque< Runnable > tasks = runKeys( selectedKeys );
+					runTasks( tasks );
+				} catch( IOException e ) {
+					interpreter.logSevere( e );
+				}
+			}
+
+			synchronized( this ) {
+				for( SelectionKey key : selector.keys() ) {
+					close( (Registration) key.attachment() );
+				}
+			}
+		}
+
+		private void close( Registration registration ) {
+			try {
+				registration.channel().closeImpl();
+			} catch( IOException e ) {
+				registration.core().interpreter().logWarning( e );
+			}
+		}
+
+		public void register( Registration registration, int index ) {
+			final SelectableStreamingCommChannel channel = registration.channel();
+			try {
+				synchronized( this ) {
+					if( !isSelecting( channel ) ) {
+						SelectableChannel c = channel.selectableChannel();
+						c.configureBlocking( false );
+						if( channel.hasPendingInput() ) {
+							// The next message is already here, no need to go through the selector
+							c.configureBlocking( true );
+							registration.core().scheduleReceive( channel, channel.parentInputPort() );
+							return;
+						}
+						selector.wakeup();
+						synchronized( selectingMutex ) {
+							c.register( selector, SelectionKey.OP_READ, registration );
+							selector.wakeup();
+							channel.setSelectorIndex( index );
+						}
+					}
+				}
+			} catch( ClosedChannelException e ) {
+				registration.core().interpreter().logWarning( e );
+			} catch( IOException e ) {
+				registration.core().interpreter().logSevere( e );
+			}
+		}
+
+		public void unregister( SelectableStreamingCommChannel channel )
+			throws IOException {
+			synchronized( this ) {
+				if( isSelecting( channel ) ) {
+					selector.wakeup();
+					synchronized( selectingMutex ) {
+						SelectionKey key = channel.selectableChannel().keyFor( selector );
+						if( key != null ) {
+							key.cancel();
+						}
+						selector.selectNow();
+					}
+					channel.selectableChannel().configureBlocking( true );
+				}
+			}
+		}
+
+		public void release( CommCore core ) {
+			final List< Registration > released = new ArrayList<>();
+			synchronized( this ) {
+				selector.wakeup();
+				synchronized( selectingMutex ) {
+					for( SelectionKey key : selector.keys() ) {
+						final Registration registration = (Registration) key.attachment();
+						if( key.isValid() && registration.core() == core ) {
+							key.cancel();
+							released.add( registration );
+						}
+					}
+					try {
+						selector.selectNow();
+					} catch( IOException e ) {
+						core.interpreter().logWarning( e );
+					}
+				}
+			}
+			released.forEach( this::close );
+		}
+	}
+}
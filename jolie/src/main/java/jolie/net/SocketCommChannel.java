@@ -32,7 +32,16 @@ import java.nio.channels.Channels;
 import java.nio.channels.IllegalBlockingModeException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import jolie.Interpreter;
+import jolie.net.protocols.ByteBufferCommProtocol;
 import jolie.net.protocols.CommProtocol;
 import jolie.util.Helpers;
 
@@ -47,8 +56,18 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 	private final PreBufferedInputStream istream;
 	private final OutputStream ostream;
 
+	// Multiplexing state, see enableMultiplexing()
+	private volatile boolean multiplexed = false;
+	private final ReentrantLock recvLock = new ReentrantLock();
+	private final Queue< ByteBuffer[] > outbox = new ConcurrentLinkedQueue<>();
+
 	private static final int SO_LINGER = 10000;
 
+	// Also counts the channels served by event loops
+	static final LongAdder OPEN_CHANNELS = new LongAdder();
+	// Whether this channel is counted in OPEN_CHANNELS, since closeImpl can be called more than once
+	private final AtomicBoolean counted = new AtomicBoolean( false );
+
 	/**
 	 * Constructor.
 	 *
@@ -60,17 +79,36 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 	 * @see SocketChannel
 	 */
 	public SocketCommChannel( SocketChannel socketChannel, URI location, CommProtocol protocol )
+		throws IOException {
+		this( socketChannel, location, protocol, null );
+	}
+
+	/**
+	 * Creates a channel whose first input is the given data, which has already been read from the
+	 * socket channel, e.g., by an event loop.
+	 */
+	SocketCommChannel( SocketChannel socketChannel, URI location, CommProtocol protocol, ByteBuffer received )
 		throws IOException {
 		super( location, protocol );
 		this.socketChannel = socketChannel;
 		if( "socket".equals( location.getScheme() ) ) {
 			socketChannel.socket().setSoLinger( true, SO_LINGER );
 		}
-		// this.istream = new PreBufferedInputStream( new BufferedInputStream( Channels.newInputStream(
-		// socketChannel ) ) );
-		this.istream = new PreBufferedInputStream( Channels.newInputStream( socketChannel ) );
+		this.istream = received == null
+			? new PreBufferedInputStream( socketChannel )
+			: new PreBufferedInputStream( socketChannel, received );
 		this.ostream = new BufferedOutputStream( Channels.newOutputStream( socketChannel ) );
 		setToBeClosed( false ); // Socket connections are kept open by default
+		counted.set( true );
+		OPEN_CHANNELS.increment();
+	}
+
+	/**
+	 * Returns the number of socket channels that have been created and not closed yet, in this virtual
+	 * machine.
+	 */
+	public static long openCount() {
+		return OPEN_CHANNELS.sum();
 	}
 
 	/**
@@ -115,7 +153,15 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 	@Override
 	protected void sendImpl( CommMessage message )
 		throws IOException {
+		if( multiplexed ) {
+			sendBatched( message );
+			return;
+		}
 		try {
+			if( protocol() instanceof ByteBufferCommProtocol ) {
+				write( encode( message ) );
+				return;
+			}
 			protocol().send( ostream, message, istream );
 			if( socketChannel.isOpen() ) {
 				ostream.flush();
@@ -125,6 +171,97 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		}
 	}
 
+	private ByteBuffer[] encode( CommMessage message )
+		throws IOException {
+		final ByteBufferOutput frame = new ByteBufferOutput();
+		try {
+			if( protocol() instanceof ByteBufferCommProtocol ) {
+				((ByteBufferCommProtocol) protocol()).send( frame, message );
+			} else {
+				protocol().send( frame, message, istream );
+			}
+		} catch( IOException | RuntimeException e ) {
+			frame.discard();
+			throw e;
+		}
+		return frame.finish();
+	}
+
+	// Writes the given buffers with gathering writes, then returns them to the pool
+	private void write( ByteBuffer[] buffers )
+		throws IOException {
+		try {
+			ostream.flush();
+			if( !socketChannel.isBlocking() ) {
+				throw new IllegalBlockingModeException();
+			}
+			long remaining = 0;
+			for( ByteBuffer buffer : buffers ) {
+				remaining += buffer.remaining();
+			}
+			while( remaining > 0 ) {
+				remaining -= socketChannel.write( buffers );
+			}
+		} finally {
+			ByteBufferOutput.release( buffers );
+		}
+	}
+
+	/*
+	 * Encodes the message without holding any lock, then queues it. Whoever gets the write lock writes
+	 * all queued frames at once, so concurrent senders share system calls.
+	 */
+	private void sendBatched( CommMessage message )
+		throws IOException {
+		outbox.add( encode( message ) );
+		// Check again after unlocking, since frames may have been queued while we were writing
+		while( !outbox.isEmpty() && rwLock.tryLock() ) {
+			try {
+				final List< ByteBuffer > batch = new ArrayList<>();
+				ByteBuffer[] f;
+				while( (f = outbox.poll()) != null ) {
+					Collections.addAll( batch, f );
+				}
+				write( batch.toArray( new ByteBuffer[ 0 ] ) );
+			} catch( IOException e ) {
+				// Frames of other senders may have been lost too: fail all pending requests
+				setToBeClosed( true );
+				ByteBuffer[] f;
+				while( (f = outbox.poll()) != null ) {
+					ByteBufferOutput.release( f );
+				}
+				socketChannel.close();
+				throw e;
+			} finally {
+				rwLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Enables multiplexing if the protocol of this channel is thread safe, e.g., sodep. Responses are
+	 * then received holding a dedicated lock, so that requests can be sent while waiting for them, and
+	 * concurrently sent messages are written in batches.
+	 */
+	@Override
+	public boolean enableMultiplexing() {
+		if( !isThreadSafe() ) {
+			return false;
+		}
+		multiplexed = true;
+		return true;
+	}
+
+	@Override
+	public boolean isMultiplexed() {
+		return multiplexed;
+	}
+
+	@Override
+	protected ReentrantLock recvLock() {
+		return multiplexed ? recvLock : rwLock;
+	}
+
 	@Override
 	protected void closeImpl()
 		throws IOException {
@@ -132,15 +269,16 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		if( interpreter != null && interpreter.commCore().isSelecting( this ) ) {
 			interpreter.commCore().unregisterForSelection( this );
 		}
+		if( counted.getAndSet( false ) ) {
+			OPEN_CHANNELS.decrement();
+		}
 		socketChannel.close();
+		// Only return the buffer if no other thread may be reading from it
+		Helpers.tryLockAndThen( recvLock(), istream::release );
 	}
 
-	private final ByteBuffer buffer = ByteBuffer.allocateDirect( 1024 );
-
 	private boolean _isOpenImpl()
 		throws IOException {
-		buffer.clear();
-
 		final boolean wasBlocking = socketChannel.isBlocking();
 
 		if( wasBlocking ) {
@@ -148,7 +286,8 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		}
 		final int read;
 		try {
-			read = socketChannel.read( buffer );
+			// Read directly into the input buffer, so that the protocol finds the data there
+			read = istream.fill();
 		} catch( IOException e ) {
 			/*
 			 * This should never happen in non Windows systems. In Windows systems an IOException is thrown
@@ -160,14 +299,14 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		if( wasBlocking ) {
 			socketChannel.configureBlocking( true );
 		}
-		if( read == -1 ) {
-			return false;
-		} else if( read > 0 ) {
-			buffer.limit( read );
-			buffer.rewind();
-			istream.append( buffer );
-		}
-		return true;
+		return read != -1;
+	}
+
+	@Override
+	protected boolean hasPendingInput()
+		throws IOException {
+		return Helpers.lockAndThen( rwLock, () -> protocol().hasBufferedMessages()
+			|| istream.hasCachedData() || (_isOpenImpl() && istream.hasCachedData()) );
 	}
 
 	@Override
@@ -175,6 +314,10 @@ public class SocketCommChannel extends SelectableStreamingCommChannel {
 		if( socketChannel.isConnected() == false || socketChannel.isOpen() == false ) {
 			return false;
 		}
+		if( multiplexed ) {
+			// Probing would interfere with the thread receiving responses, which detects disconnections
+			return true;
+		}
 
 		final boolean ret;
 		try {
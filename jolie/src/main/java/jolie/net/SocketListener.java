@@ -32,6 +32,8 @@ import java.nio.channels.SocketChannel;
 import jolie.Interpreter;
 import jolie.net.ext.CommProtocolFactory;
 import jolie.net.ports.InputPort;
+import jolie.net.protocols.CommProtocol;
+import jolie.net.protocols.FramedCommProtocol;
 
 /**
  * A communication listener using sockets as backend.
@@ -78,10 +80,15 @@ public class SocketListener extends CommListener {
 		try {
 			SocketChannel socketChannel;
 			while( (socketChannel = serverChannel.accept()) != null ) {
+				final CommProtocol protocol = createProtocol();
+				if( protocol instanceof FramedCommProtocol && interpreter().commCore().hasEventLoops() ) {
+					interpreter().commCore().registerWithEventLoop( socketChannel, inputPort(), protocol );
+					continue;
+				}
 				final CommChannel channel = new SocketCommChannel(
 					socketChannel,
 					inputPort().location(),
-					createProtocol() );
+					protocol );
 				channel.setParentInputPort( inputPort() );
 				interpreter().commCore().scheduleReceive( channel, inputPort() );
 			}
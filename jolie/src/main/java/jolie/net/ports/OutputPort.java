@@ -231,11 +231,12 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 				ret = interpreter.commCore().createCommChannel( uri, this );
 			} else {
 				// Try reusing an existing channel first
-				String protocol = protocolVariablePath.getValue().strValue();
-				ret = channelCache.getPersistentChannel( uri, protocol );
-				if( ret == null ) {
-					ret = interpreter.commCore().createCommChannel( uri, this );
-				}
+				final Value protocolConfiguration = protocolVariablePath.getValue();
+				ret = channelCache.acquire(
+					uri,
+					protocolConfiguration.strValue(),
+					ChannelCache.Settings.fromProtocolConfiguration( protocolConfiguration, interpreter ),
+					() -> interpreter.commCore().createCommChannel( uri, this ) );
 			}
 		}
 
@@ -247,6 +248,25 @@ public class OutputPort extends AbstractIdentifiableObject implements Port {
 		channelCache.putPersistentChannel( location, protocol, channel, interpreter );
 	}
 
+	/**
+	 * Notifies this output port that one of its channels has been closed, so that it is no longer
+	 * accounted for in the channel pool.
+	 *
+	 * @param channel the closed channel
+	 */
+	public void discardChannel( CommChannel channel ) {
+		channelCache.discard( channel );
+	}
+
+	/**
+	 * Returns a snapshot of the counters of the channel pool of this output port.
+	 *
+	 * @return a snapshot of the counters of the channel pool of this output port
+	 */
+	public ChannelCache.Statistics channelCacheStatistics() {
+		return channelCache.statistics();
+	}
+
 	private static class LazyLocalUriHolder {
 		private LazyLocalUriHolder() {}
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net.protocols;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import jolie.net.ByteBufferOutput;
+import jolie.net.CommMessage;
+
+/**
+ * A protocol that can encode messages to buffers and decode them from buffers, in addition to
+ * streams. Channels use these methods when they can write buffers with gathering writes or already
+ * hold a whole message in memory, so that binary data is not copied through streams.
+ */
+public interface ByteBufferCommProtocol {
+	/**
+	 * Encodes a message to the given output. Large payloads may be appended to the output without
+	 * copying them.
+	 */
+	void send( ByteBufferOutput out, CommMessage message )
+		throws IOException;
+
+	/**
+	 * Decodes a message from the remaining bytes of the given buffer, which are exactly one message
+	 * (see {@link FramedCommProtocol}). Binary data in the decoded message may refer to the buffer
+	 * without copying it, so the buffer must not be modified afterwards.
+	 */
+	CommMessage recv( ByteBuffer message )
+		throws IOException;
+}
@@ -25,6 +25,7 @@ package jolie.net.protocols;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 import jolie.net.AbstractCommChannel;
 import jolie.net.CommChannel;
@@ -230,4 +231,28 @@ public abstract class CommProtocol {
 		throws IOException;
 
 	abstract public boolean isThreadSafe();
+
+	/**
+	 * Returns <code>true</code> if this protocol has read some messages that {@link #recv} has not
+	 * returned yet, e.g., because they arrived together on a multiplexed connection. Channels check
+	 * this before waiting for more input.
+	 */
+	public boolean hasBufferedMessages() {
+		return false;
+	}
+
+	/**
+	 * Returns the application protocols that this protocol can speak, by order of preference, for
+	 * protocols that wrap it and negotiate them with the other party, e.g., TLS with ALPN. Empty if
+	 * there is nothing to negotiate.
+	 */
+	public List< String > applicationProtocols() {
+		return List.of();
+	}
+
+	/**
+	 * Called by the protocol that wraps this one with the application protocol that it negotiated, or
+	 * an empty string if none was.
+	 */
+	public void setApplicationProtocol( String applicationProtocol ) {}
 }
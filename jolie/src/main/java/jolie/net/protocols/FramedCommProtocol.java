@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.net.protocols;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by protocols that can find where their messages end among the bytes received so far.
+ * Input ports using these protocols can be served by event loops (see the --eventLoops option),
+ * which read from many connections without blocking and pass only complete messages to
+ * {@link CommProtocol#recv}.
+ *
+ * @see jolie.net.EventLoop
+ */
+public interface FramedCommProtocol {
+	/**
+	 * Returned by {@link Framer#frameLength(ByteBuffer)} if the buffer does not contain a whole message
+	 * yet.
+	 */
+	int INCOMPLETE = -1;
+
+	/**
+	 * Returned by {@link Framer#frameLength(ByteBuffer)} if the connection cannot be served by an event
+	 * loop, e.g., because the other party has started speaking a protocol that is not framed. This is
+	 * only honoured before the first message of a connection, which is then handed over to a blocking
+	 * channel.
+	 */
+	int UNFRAMED = -2;
+
+	/**
+	 * Finds where the messages received by a connection end. A framer is used by one connection at a
+	 * time and remembers what it has learnt about the message being received, so that each byte is
+	 * examined once however many reads it takes to receive the message.
+	 */
+	interface Framer {
+		/**
+		 * Returns the length of the message starting at the position of the given buffer, or
+		 * {@link #INCOMPLETE} if the message ends after the limit of the buffer. Until a length is
+		 * returned, every call is for the same message: the buffer starts with the bytes seen by the
+		 * previous calls, possibly moved, followed by the ones received since. This method is called by
+		 * event loop threads, so it must not block or read the configuration of the protocol, and it must
+		 * not change the position of the buffer.
+		 *
+		 * @param buffer the bytes received so far
+		 * @return the length of the first message in the buffer, {@link #INCOMPLETE} or {@link #UNFRAMED}
+		 * @throws IOException if the buffer does not start with a valid message
+		 */
+		int frameLength( ByteBuffer buffer )
+			throws IOException;
+
+		/**
+		 * Returns the number of bytes that the message being received is known to have at least, after
+		 * {@link #frameLength(ByteBuffer)} has returned {@link #INCOMPLETE}.
+		 */
+		long minimumLength();
+	}
+
+	/**
+	 * Returns a framer for a new connection.
+	 */
+	Framer newFramer();
+
+	/**
+	 * Returns the size above which a message is better received by a blocking channel, which can stream
+	 * it instead of keeping it in memory, or -1 if messages of this protocol cannot be streamed. Event
+	 * loops hand a connection over when one of its messages exceeds this size and no other message of
+	 * the connection is being handled.
+	 */
+	default long streamingThreshold() {
+		return -1;
+	}
+}
@@ -88,6 +88,8 @@ public class NotificationProcess implements Process {
 			return;
 		}
 
+		final long start = System.nanoTime();
+		boolean fault = true;
 		CommChannel channel = null;
 		try {
 			CommMessage message =
@@ -134,6 +136,7 @@ public class NotificationProcess implements Process {
 			} while( response == null );
 
 			log( "RECEIVED ACK", response );
+			fault = response.isFault();
 
 			if( response.isFault() ) {
 				if( response.fault().faultName().equals( "CorrelationError" )
@@ -153,6 +156,8 @@ public class NotificationProcess implements Process {
 			throw new FaultException( Constants.TYPE_MISMATCH_FAULT_NAME,
 				"TypeMismatch (" + operationId + "@" + outputPort.id() + "): " + e.getMessage() );
 		} finally {
+			Interpreter.getInstance().metrics().output( outputPort.id(), operationId )
+				.record( System.nanoTime() - start, fault );
 			if( channel != null ) {
 				try {
 					channel.release();
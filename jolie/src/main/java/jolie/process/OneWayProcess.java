@@ -78,6 +78,7 @@ public class OneWayProcess implements InputOperationProcess {
 		}
 
 		log( "RECEIVED", sessionMessage.message() );
+		Interpreter.getInstance().metrics().input( sessionMessage.channel(), operation.id() ).record( false );
 		if( varPath != null ) {
 			varPath.getValue( state.root() ).refCopy( sessionMessage.message().value() );
 		}
@@ -183,6 +183,8 @@ public class RequestResponseProcess implements InputOperationProcess {
 
 	private void runBehaviour( CommChannel channel, CommMessage message )
 		throws FaultException {
+		final long start = System.nanoTime();
+		boolean sent = false;
 		// Variables for monitor
 		int responseStatus;
 		String details;
@@ -256,6 +258,7 @@ public class RequestResponseProcess implements InputOperationProcess {
 
 		try {
 			channel.send( response );
+			sent = true;
 			Value monitorValue;
 			if( response.isFault() ) {
 				log( "SENT FAULT", response );
@@ -274,6 +277,8 @@ public class RequestResponseProcess implements InputOperationProcess {
 			// Interpreter.getInstance().logSevere( e );
 			throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e, this.context );
 		} finally {
+			Interpreter.getInstance().metrics().input( channel, operation.id() )
+				.record( System.nanoTime() - start, !sent || response.isFault() );
 			try {
 				channel.release(); // TODO: what if the channel is in disposeForInput?
 			} catch( IOException e ) {
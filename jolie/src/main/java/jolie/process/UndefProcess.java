@@ -38,10 +38,12 @@ public class UndefProcess implements Process {
 
 	@Override
 	public void run() {
-		if( ExecutionThread.currentThread().isKilled() )
+		final ExecutionThread ethread = ExecutionThread.currentThread();
+		if( ethread.isKilled() )
 			return;
 
 		varPath.undef();
+		ethread.state().notifyUndef();
 	}
 
 	@Override
@@ -27,6 +27,9 @@ import jolie.runtime.FaultException;
 import jolie.runtime.expression.Expression;
 
 public class WhileProcess implements Process {
+	// Iterations between two yields on virtual threads, a power of two
+	private static final int YIELD_INTERVAL = 1024;
+
 	private final Expression condition;
 	private final Process process;
 
@@ -48,11 +51,17 @@ public class WhileProcess implements Process {
 		if( ExecutionThread.currentThread().isKilled() ) {
 			return;
 		}
+		final boolean virtual = Thread.currentThread().isVirtual();
+		int iterations = 0;
 		while( condition.evaluate().boolValue() ) {
 			process.run();
 			if( ExecutionThread.currentThread().isKilled() ) {
 				return;
 			}
+			if( virtual && (++iterations & (YIELD_INTERVAL - 1)) == 0 ) {
+				// Virtual threads are not preempted, let the others (e.g., the one killing us) run
+				Thread.yield();
+			}
 		}
 	}
 
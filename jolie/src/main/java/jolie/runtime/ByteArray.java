@@ -21,42 +21,104 @@
 
 package jolie.runtime;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Objects;
 
 public class ByteArray {
 	final private byte[] buffer;
+	final private int offset;
+	final private int length;
+	// The bytes of a range that does not span the whole buffer, copied when first requested
+	private volatile byte[] copy = null;
 
 	public ByteArray( byte[] buffer ) {
 		this.buffer = buffer;
+		this.offset = 0;
+		this.length = buffer == null ? 0 : buffer.length;
+	}
+
+	/**
+	 * Creates a raw value backed by a range of the given buffer, which is not copied. The buffer must
+	 * not be modified afterwards.
+	 */
+	public ByteArray( byte[] buffer, int offset, int length ) {
+		Objects.checkFromIndexSize( offset, length, buffer.length );
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
 	}
 
 	public int size() {
-		return buffer.length;
+		return length;
 	}
 
 	public byte[] getBytes() {
-		return buffer;
+		if( offset == 0 && length == buffer.length ) {
+			return buffer;
+		}
+		byte[] ret = copy;
+		if( ret == null ) {
+			ret = Arrays.copyOfRange( buffer, offset, offset + length );
+			copy = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns a read-only buffer over the bytes of this value, without copying them.
+	 */
+	public ByteBuffer asByteBuffer() {
+		return ByteBuffer.wrap( array(), start(), size() ).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes the bytes of this value to the given stream, without copying them.
+	 */
+	public void writeTo( OutputStream output )
+		throws IOException {
+		output.write( array(), start(), size() );
+	}
+
+	// Subclasses that do not use the buffer of this class provide their bytes through getBytes()
+	private byte[] array() {
+		return buffer != null ? buffer : getBytes();
+	}
+
+	private int start() {
+		return buffer != null ? offset : 0;
 	}
 
 	@Override
 	public boolean equals( Object other ) {
 		if( !(other instanceof ByteArray) )
 			return false;
-		return Arrays.equals( buffer, ((ByteArray) other).buffer );
+		final ByteArray o = (ByteArray) other;
+		final byte[] a = array(), b = o.array();
+		return Arrays.equals( a, start(), start() + size(), b, o.start(), o.start() + o.size() );
 	}
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode( buffer );
+		// Same as Arrays.hashCode on the bytes of this value
+		final byte[] a = array();
+		final int end = start() + size();
+		int result = 1;
+		for( int i = start(); i < end; i++ ) {
+			result = 31 * result + a[ i ];
+		}
+		return result;
 	}
 
 	@Override
 	public String toString() {
-		return new String( buffer );
+		return new String( array(), start(), size() );
 	}
 
 	public String toString( String charset ) throws UnsupportedEncodingException {
-		return new String( buffer, charset );
+		return new String( array(), start(), size(), charset );
 	}
 }
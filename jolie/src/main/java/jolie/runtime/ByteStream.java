@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A raw value whose bytes are read from a stream, so that large payloads can be passed from a
+ * source (e.g., a file or a received HTTP body) to a sink without being held in memory.
+ *
+ * The stream can be consumed only once, by calling {@link #openStream()}. Accessing the bytes in
+ * any other way reads the rest of the stream into memory, after which this value behaves like a
+ * {@link ByteArray}. Accessing the bytes after the stream has been consumed raises an IOException
+ * fault. Streams that are never consumed are closed when this value is garbage collected.
+ *
+ * Values created with {@link #ofFile(Path, long)} can instead be read any number of times, and
+ * delete their file when they are closed or garbage collected.
+ */
+public class ByteStream extends ByteArray {
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private interface Source extends Runnable {
+		InputStream take()
+			throws IOException;
+	}
+
+	private static class StreamSource implements Source {
+		private InputStream stream;
+
+		private StreamSource( InputStream stream ) {
+			this.stream = stream;
+		}
+
+		@Override
+		public InputStream take()
+			throws IOException {
+			if( stream == null ) {
+				throw new IOException( "The stream of this raw value has already been consumed" );
+			}
+			final InputStream ret = stream;
+			stream = null;
+			return ret;
+		}
+
+		@Override
+		public void run() {
+			if( stream != null ) {
+				try {
+					stream.close();
+				} catch( IOException e ) {
+					// Nothing to do, the stream was never used
+				}
+				stream = null;
+			}
+		}
+	}
+
+	private static class FileSource implements Source {
+		private final Path file;
+		private final Runnable onDelete;
+		private volatile boolean deleted = false;
+
+		private FileSource( Path file, Runnable onDelete ) {
+			this.file = file;
+			this.onDelete = onDelete;
+		}
+
+		@Override
+		public InputStream take()
+			throws IOException {
+			if( deleted ) {
+				throw new IOException( "The file of this raw value has already been deleted" );
+			}
+			return Files.newInputStream( file );
+		}
+
+		@Override
+		public void run() {
+			deleted = true;
+			try {
+				Files.deleteIfExists( file );
+			} catch( IOException e ) {
+				// Nothing to do, the file is left to the temporary directory
+			}
+			onDelete.run();
+		}
+	}
+
+	private final Source source;
+	private final Cleaner.Cleanable cleanable;
+	private final long length;
+	private byte[] bytes = null;
+
+	/**
+	 * @param stream the stream to read the bytes from
+	 * @param length the number of bytes in the stream, or -1 if unknown
+	 */
+	public ByteStream( InputStream stream, long length ) {
+		this( new StreamSource( stream ), length );
+	}
+
+	private ByteStream( Source source, long length ) {
+		super( null );
+		this.source = source;
+		this.length = length;
+		cleanable = CLEANER.register( this, source );
+	}
+
+	/**
+	 * Returns a value streamed from the given file, which can be opened any number of times. The value
+	 * takes ownership of the file, which is deleted when the value is closed or garbage collected.
+	 *
+	 * @param file the file to read the bytes from
+	 * @param length the size of the file
+	 */
+	public static ByteStream ofFile( Path file, long length ) {
+		return ofFile( file, length, () -> {
+		} );
+	}
+
+	/**
+	 * Returns a value streamed from the given file, as {@link #ofFile(Path, long)}, which runs onDelete
+	 * once the file has been deleted.
+	 */
+	public static ByteStream ofFile( Path file, long length, Runnable onDelete ) {
+		return new ByteStream( new FileSource( file, onDelete ), length );
+	}
+
+	/**
+	 * Releases the source of this value now, instead of when it is garbage collected: the stream is
+	 * closed, or the file deleted. Bytes already read into memory are kept, and accessing the others
+	 * raises an IOException fault. Closing a value more than once has no effect.
+	 */
+	public void close() {
+		cleanable.clean();
+	}
+
+	/**
+	 * Returns the number of bytes in this stream, or -1 if it is not known without reading it.
+	 */
+	public synchronized long length() {
+		return bytes != null ? bytes.length : length;
+	}
+
+	/**
+	 * Returns the stream of bytes of this value, which the caller must close. If the bytes have already
+	 * been read into memory, a new stream over them is returned.
+	 *
+	 * @throws IOException if the stream has already been consumed, or could not be opened
+	 */
+	public synchronized InputStream openStream()
+		throws IOException {
+		if( bytes != null ) {
+			return new ByteArrayInputStream( bytes );
+		}
+		return source.take();
+	}
+
+	@Override
+	public synchronized byte[] getBytes() {
+		if( bytes == null ) {
+			try( InputStream stream = source.take() ) {
+				bytes = stream.readAllBytes();
+			} catch( IOException e ) {
+				throw new FaultException( "IOException", e ).toRuntimeFaultException();
+			}
+		}
+		return bytes;
+	}
+
+	@Override
+	public int size() {
+		final long l = length();
+		return l >= 0 && l <= Integer.MAX_VALUE ? (int) l : getBytes().length;
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import jolie.lang.Constants;
+
+/**
+ * The children of a {@link CompactValue}. Up to {@link #PROMOTION_THRESHOLD} children are kept in
+ * an immutable array of alternating names and vectors, which is replaced on every change: lookups
+ * are linear scans that need no locking and iterators work on a snapshot. Past the threshold, the
+ * children are moved to a {@link ConcurrentHashMap}.
+ *
+ * Inline children are kept in the order in which the map of a standard value would iterate them, so
+ * that serialised messages do not depend on the representation.
+ */
+class CompactChildrenMap extends AbstractMap< String, ValueVector > implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	/**
+	 * The maximum number of children kept inline.
+	 */
+	static final int PROMOTION_THRESHOLD = 8;
+
+	private static final Object[] EMPTY = new Object[ 0 ];
+
+	// Either an Object[] of alternating names and vectors, or a ConcurrentHashMap
+	private volatile Object state = EMPTY;
+
+	@SuppressWarnings( "unchecked" )
+	private static Map< String, ValueVector > promoted( Object state ) {
+		return state instanceof Map ? (Map< String, ValueVector >) state : null;
+	}
+
+	/*
+	 * The bin of the key in a ConcurrentHashMap with the initial capacity of standard values, which is
+	 * not resized before holding more than PROMOTION_THRESHOLD children.
+	 */
+	private static int bin( Object key ) {
+		final int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (RootValueImpl.INITIAL_CAPACITY * 2 - 1);
+	}
+
+	private static int indexOf( Object[] inline, Object key ) {
+		for( int i = 0; i < inline.length; i += 2 ) {
+			if( inline[ i ] == key || inline[ i ].equals( key ) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public ValueVector get( Object key ) {
+		final Object s = state;
+		final Map< String, ValueVector > map = promoted( s );
+		if( map != null ) {
+			return map.get( key );
+		}
+		final Object[] inline = (Object[]) s;
+		final int i = indexOf( inline, key );
+		return i < 0 ? null : (ValueVector) inline[ i + 1 ];
+	}
+
+	@Override
+	public boolean containsKey( Object key ) {
+		return get( key ) != null;
+	}
+
+	@Override
+	public int size() {
+		final Object s = state;
+		final Map< String, ValueVector > map = promoted( s );
+		return map != null ? map.size() : ((Object[]) s).length / 2;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public ValueVector computeIfAbsent( String key,
+		Function< ? super String, ? extends ValueVector > mappingFunction ) {
+		final ValueVector vec = get( key );
+		if( vec != null ) {
+			return vec;
+		}
+		synchronized( this ) {
+			final Map< String, ValueVector > map = promoted( state );
+			if( map != null ) {
+				return map.computeIfAbsent( key, mappingFunction );
+			}
+			final ValueVector current = get( key );
+			if( current != null ) {
+				return current;
+			}
+			final ValueVector newVec = mappingFunction.apply( key );
+			if( newVec != null ) {
+				put( key, newVec );
+			}
+			return newVec;
+		}
+	}
+
+	@Override
+	public synchronized ValueVector putIfAbsent( String key, ValueVector value ) {
+		final ValueVector current = get( key );
+		if( current == null ) {
+			put( key, value );
+		}
+		return current;
+	}
+
+	@Override
+	public synchronized ValueVector put( String key, ValueVector value ) {
+		final Map< String, ValueVector > map = promoted( state );
+		if( map != null ) {
+			return map.put( key, value );
+		}
+		final Object[] inline = (Object[]) state;
+		final int i = indexOf( inline, key );
+		if( i >= 0 ) {
+			final Object[] updated = inline.clone();
+			updated[ i + 1 ] = value;
+			state = updated;
+			return (ValueVector) inline[ i + 1 ];
+		}
+		if( inline.length / 2 >= PROMOTION_THRESHOLD ) {
+			// Inserting in iteration order keeps the order of same-bin children after resizes
+			final Map< String, ValueVector > newMap =
+				new ConcurrentHashMap<>( RootValueImpl.INITIAL_CAPACITY, RootValueImpl.LOAD_FACTOR );
+			for( int k = 0; k < inline.length; k += 2 ) {
+				newMap.put( (String) inline[ k ], (ValueVector) inline[ k + 1 ] );
+			}
+			newMap.put( key, value );
+			state = newMap;
+		} else {
+			// Insert after the children in the same or lower bins
+			final int b = bin( key );
+			int at = inline.length;
+			while( at > 0 && bin( inline[ at - 2 ] ) > b ) {
+				at -= 2;
+			}
+			final Object[] updated = new Object[ inline.length + 2 ];
+			System.arraycopy( inline, 0, updated, 0, at );
+			updated[ at ] = key;
+			updated[ at + 1 ] = value;
+			System.arraycopy( inline, at, updated, at + 2, inline.length - at );
+			state = updated;
+		}
+		return null;
+	}
+
+	@Override
+	public synchronized ValueVector remove( Object key ) {
+		final Map< String, ValueVector > map = promoted( state );
+		if( map != null ) {
+			return map.remove( key );
+		}
+		final Object[] inline = (Object[]) state;
+		final int i = indexOf( inline, key );
+		if( i < 0 ) {
+			return null;
+		}
+		final Object[] updated = new Object[ inline.length - 2 ];
+		System.arraycopy( inline, 0, updated, 0, i );
+		System.arraycopy( inline, i + 2, updated, i, inline.length - i - 2 );
+		state = updated;
+		return (ValueVector) inline[ i + 1 ];
+	}
+
+	@Override
+	public synchronized void clear() {
+		state = EMPTY;
+	}
+
+	@Override
+	public Set< Entry< String, ValueVector > > entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator< Entry< String, ValueVector > > iterator() {
+				final Object s = state;
+				final Map< String, ValueVector > map = promoted( s );
+				return map != null ? map.entrySet().iterator() : new InlineIterator( (Object[]) s );
+			}
+
+			@Override
+			public int size() {
+				return CompactChildrenMap.this.size();
+			}
+		};
+	}
+
+	private class InlineIterator implements Iterator< Entry< String, ValueVector > > {
+		private final Object[] snapshot;
+		private int next = 0;
+		private String lastKey = null;
+
+		private InlineIterator( Object[] snapshot ) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < snapshot.length;
+		}
+
+		@Override
+		public Entry< String, ValueVector > next() {
+			if( next >= snapshot.length ) {
+				throw new NoSuchElementException();
+			}
+			lastKey = (String) snapshot[ next ];
+			final Entry< String, ValueVector > entry = new InlineEntry( lastKey, (ValueVector) snapshot[ next + 1 ] );
+			next += 2;
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			if( lastKey == null ) {
+				throw new IllegalStateException();
+			}
+			CompactChildrenMap.this.remove( lastKey );
+			lastKey = null;
+		}
+	}
+
+	private class InlineEntry extends SimpleEntry< String, ValueVector > {
+		private static final long serialVersionUID = Constants.serialVersionUID();
+
+		private InlineEntry( String key, ValueVector value ) {
+			super( key, value );
+		}
+
+		@Override
+		public ValueVector setValue( ValueVector value ) {
+			put( getKey(), value );
+			return super.setValue( value );
+		}
+	}
+}
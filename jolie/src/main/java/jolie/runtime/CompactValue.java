@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jolie.lang.Constants;
+
+/**
+ * A {@link Value} tuned for large trees of small nodes. Integers, longs, doubles and booleans are
+ * stored unboxed, and children are kept in a {@link CompactChildrenMap} allocated on first use. The
+ * vectors of children it creates are {@link CompactValueVector}s.
+ *
+ * Content is written while holding one of a few shared write locks, picked by identity, and
+ * published with a sequence number, so that readers never see the kind of one write together with
+ * the payload of another, without locking. Values do not carry a lock of their own.
+ *
+ * @see Value#createCompact()
+ */
+class CompactValue extends Value implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	private static final byte NONE = 0;
+	private static final byte OBJECT = 1;
+	private static final byte INT = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte BOOL = 5;
+
+	// A power of two
+	private static final int WRITE_LOCK_COUNT = 64;
+	private static final ReentrantLock[] WRITE_LOCKS = new ReentrantLock[ WRITE_LOCK_COUNT ];
+
+	private static final VarHandle CHILDREN;
+
+	static {
+		for( int i = 0; i < WRITE_LOCK_COUNT; i++ ) {
+			WRITE_LOCKS[ i ] = new ReentrantLock();
+		}
+		try {
+			CHILDREN = MethodHandles.lookup().findVarHandle( CompactValue.class, "children", Map.class );
+		} catch( ReflectiveOperationException e ) {
+			throw new ExceptionInInitializerError( e );
+		}
+	}
+
+	// Odd while a write is in progress
+	private volatile int sequence = 0;
+	private byte kind = NONE;
+	private long bits = 0L;
+	private Object object = null;
+	private volatile Map< String, ValueVector > children = null;
+	// The frozen value whose children this value has not copied yet, see lazyClone()
+	private volatile LazySource lazySource = null;
+
+	protected CompactValue() {}
+
+	protected CompactValue( Object object ) {
+		setValueObject( object );
+	}
+
+	private void write( byte kind, long bits, Object object ) {
+		// Nothing else is locked while holding a write lock, so sharing them cannot deadlock
+		final ReentrantLock lock = WRITE_LOCKS[ System.identityHashCode( this ) & (WRITE_LOCK_COUNT - 1) ];
+		lock.lock();
+		try {
+			final int s = sequence;
+			sequence = s + 1;
+			VarHandle.storeStoreFence();
+			this.kind = kind;
+			this.bits = bits;
+			this.object = object;
+			sequence = s + 2;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Returns the current kind. Reading the sequence number first makes the latest completed write
+	 * visible.
+	 */
+	private byte kind() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				return k;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public Object valueObject() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			final long b = bits;
+			final Object o = object;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				switch( k ) {
+				case INT:
+					return (int) b;
+				case LONG:
+					return b;
+				case DOUBLE:
+					return Double.longBitsToDouble( b );
+				case BOOL:
+					return b != 0L;
+				default:
+					return o;
+				}
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public void setValueObject( Object object ) {
+		if( object instanceof Integer ) {
+			write( INT, (Integer) object, null );
+		} else if( object instanceof Long ) {
+			write( LONG, (Long) object, null );
+		} else if( object instanceof Double ) {
+			write( DOUBLE, Double.doubleToRawLongBits( (Double) object ), null );
+		} else if( object instanceof Boolean ) {
+			write( BOOL, (Boolean) object ? 1L : 0L, null );
+		} else {
+			write( object == null ? NONE : OBJECT, 0L, object );
+		}
+	}
+
+	@Override
+	void _assignValue( Value val ) {
+		if( val instanceof CompactValue ) {
+			// Copy the payload without boxing it
+			final CompactValue other = (CompactValue) val;
+			while( true ) {
+				final int s = other.sequence;
+				final byte k = other.kind;
+				final long b = other.bits;
+				final Object o = other.object;
+				VarHandle.acquireFence();
+				if( (s & 1) == 0 && s == other.sequence ) {
+					write( k, b, o );
+					return;
+				}
+				Thread.onSpinWait();
+			}
+		}
+		super._assignValue( val );
+	}
+
+	@Override
+	boolean isValueInstance( Class< ? > type ) {
+		if( type == Object.class ) {
+			return kind() != NONE;
+		} else if( type == Integer.class ) {
+			return kind() == INT;
+		} else if( type == Long.class ) {
+			return kind() == LONG;
+		} else if( type == Double.class ) {
+			return kind() == DOUBLE;
+		} else if( type == Boolean.class ) {
+			return kind() == BOOL;
+		}
+		return super.isValueInstance( type );
+	}
+
+	/*
+	 * The numeric accessors below convert unboxed payloads like the boxed conversions in Value would,
+	 * and fall back to the latter for the other kinds.
+	 */
+
+	@Override
+	public int intValue() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			final long b = bits;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				switch( k ) {
+				case INT:
+				case LONG:
+				case BOOL:
+					return (int) b;
+				case DOUBLE:
+					return (int) Double.longBitsToDouble( b );
+				default:
+					return super.intValue();
+				}
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public long longValue() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			final long b = bits;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				switch( k ) {
+				case INT:
+				case LONG:
+				case BOOL:
+					return b;
+				case DOUBLE:
+					return (long) Double.longBitsToDouble( b );
+				default:
+					return super.longValue();
+				}
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public double doubleValue() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			final long b = bits;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				switch( k ) {
+				case INT:
+				case LONG:
+				case BOOL:
+					return b;
+				case DOUBLE:
+					return Double.longBitsToDouble( b );
+				default:
+					return super.doubleValue();
+				}
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public boolean boolValue() {
+		while( true ) {
+			final int s = sequence;
+			final byte k = kind;
+			final long b = bits;
+			VarHandle.acquireFence();
+			if( (s & 1) == 0 && s == sequence ) {
+				switch( k ) {
+				case INT:
+				case LONG:
+					return b > 0L;
+				case BOOL:
+					return b != 0L;
+				case DOUBLE:
+					return (long) Double.longBitsToDouble( b ) > 0L;
+				default:
+					return super.boolValue();
+				}
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public ValueVector getChildren( String childId ) {
+		return children().computeIfAbsent( childId, k -> new CompactValueVector() );
+	}
+
+	@Override
+	public CompactValue clone() {
+		final CompactValue ret = new CompactValue();
+		ret._deepCopy( this, true );
+		return ret;
+	}
+
+	@Override
+	protected Value lazyClone() {
+		final CompactValue ret = new CompactValue();
+		ret.assignValue( this );
+		if( hasChildren() ) {
+			ret.lazySource = new LazySource( this );
+		}
+		return ret;
+	}
+
+	@Override
+	protected void _refCopy( Value value ) {
+		assignValue( value );
+		lazySource = null;
+		children = value.children();
+	}
+
+	@Override
+	public final Value evaluate() {
+		return this;
+	}
+
+	@Override
+	public void erase() {
+		write( NONE, 0L, null );
+		lazySource = null;
+		children = null;
+	}
+
+	@Override
+	public boolean isLink() {
+		return false;
+	}
+
+	@Override
+	public boolean hasChildren() {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			return source.value().hasChildren();
+		}
+		final Map< String, ValueVector > c = children;
+		return c != null && !c.isEmpty();
+	}
+
+	@Override
+	public boolean hasChildren( String childId ) {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			return source.value().hasChildren( childId );
+		}
+		final Map< String, ValueVector > c = children;
+		return c != null && c.containsKey( childId );
+	}
+
+	@Override
+	protected void _deepCopy( Value value, boolean copyLinks ) {
+		assignValue( value );
+		// Do not allocate children for leaves
+		if( value.hasChildren() ) {
+			RootValueImpl._deepCopyInternal( value, copyLinks, children() );
+		}
+	}
+
+	@Override
+	public Map< String, ValueVector > children() {
+		Map< String, ValueVector > c = children;
+		if( c == null ) {
+			if( lazySource != null ) {
+				copyLazySource();
+			}
+			CHILDREN.compareAndSet( this, null, new CompactChildrenMap() );
+			c = children;
+		}
+		return c;
+	}
+
+	/*
+	 * Copies the children of the lazy source, sharing their subtrees in turn.
+	 */
+	private void copyLazySource() {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			children = source.copyChildren( CompactChildrenMap::new );
+			lazySource = null;
+		}
+	}
+
+	@Override
+	public boolean isEqualTo( Value v ) {
+		return this.equals( v );
+	}
+}
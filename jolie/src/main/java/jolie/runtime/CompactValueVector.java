@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import jolie.lang.Constants;
+
+/**
+ * A {@link ValueVector} that stores a single element in a field, and allocates a list only when a
+ * second element is added. The elements it creates are {@link CompactValue}s.
+ */
+class CompactValueVector extends ValueVector implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	// The only element, if values is null. Written while holding the lock on this vector.
+	private volatile Value single = null;
+	private volatile ArrayList< Value > values = null;
+
+	/*
+	 * Moves the elements to a list, which is kept from now on. Must be called while holding the lock on
+	 * this vector.
+	 */
+	private ArrayList< Value > inflate( int capacity ) {
+		if( values == null ) {
+			final ArrayList< Value > list = new ArrayList<>( Math.max( capacity, 2 ) );
+			if( single != null ) {
+				list.add( single );
+			}
+			values = list;
+			single = null;
+		}
+		return values;
+	}
+
+	@Override
+	protected synchronized List< Value > values() {
+		// Subclass operations work on the list directly
+		return inflate( 2 );
+	}
+
+	@Override
+	public synchronized int size() {
+		if( values != null ) {
+			return values.size();
+		}
+		return single == null ? 0 : 1;
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public Value get( int i ) {
+		// Like the standard vectors, existing elements are read without locking
+		final ArrayList< Value > list = values;
+		if( list == null ) {
+			final Value s = single;
+			if( i == 0 && s != null ) {
+				return s;
+			}
+		} else if( i < list.size() ) {
+			return list.get( i );
+		}
+		return getOrCreate( i );
+	}
+
+	private synchronized Value getOrCreate( int i ) {
+		if( values == null ) {
+			if( i == 0 ) {
+				if( single == null ) {
+					single = new CompactValue();
+				}
+				return single;
+			}
+			inflate( i + 1 );
+		}
+		if( i >= values.size() ) {
+			values.ensureCapacity( i + 1 );
+			for( int k = values.size(); k <= i; k++ ) {
+				values.add( new CompactValue() );
+			}
+		}
+		return values.get( i );
+	}
+
+	@Override
+	public synchronized Value first() {
+		return get( 0 );
+	}
+
+	@Override
+	public synchronized void set( int i, Value value ) {
+		if( values == null ) {
+			if( i == 0 ) {
+				single = value;
+				return;
+			}
+			inflate( i + 1 );
+		}
+		if( i >= values.size() ) {
+			values.ensureCapacity( i + 1 );
+			for( int k = values.size(); k < i; k++ ) {
+				values.add( new CompactValue() );
+			}
+			values.add( value );
+		} else {
+			values.set( i, value );
+		}
+	}
+
+	@Override
+	public synchronized void add( Value value ) {
+		if( values == null && single == null ) {
+			single = value;
+		} else {
+			inflate( 2 ).add( value );
+		}
+	}
+
+	@Override
+	public synchronized void add( int index, Value value ) {
+		if( index == 0 && values == null && single == null ) {
+			single = value;
+		} else {
+			inflate( 2 ).add( index, value );
+		}
+	}
+
+	@Override
+	public synchronized Value remove( int i ) {
+		if( values == null ) {
+			if( i != 0 || single == null ) {
+				throw new IndexOutOfBoundsException( "Index " + i + " out of bounds for length " + size() );
+			}
+			final Value ret = single;
+			single = null;
+			return ret;
+		}
+		return values.remove( i );
+	}
+
+	@Override
+	public synchronized Iterator< Value > iterator() {
+		if( values != null ) {
+			return values.iterator();
+		}
+		return single == null ? Collections.emptyIterator() : new SingleIterator();
+	}
+
+	@Override
+	public boolean isLink() {
+		return false;
+	}
+
+	@Override
+	public synchronized List< Value > valuesCopy() {
+		if( values != null ) {
+			return new ArrayList<>( values );
+		}
+		final List< Value > ret = new ArrayList<>( 1 );
+		if( single != null ) {
+			ret.add( single );
+		}
+		return ret;
+	}
+
+	private class SingleIterator implements Iterator< Value > {
+		private final Value element = single;
+		private boolean done = false;
+
+		@Override
+		public boolean hasNext() {
+			return !done;
+		}
+
+		@Override
+		public Value next() {
+			if( done ) {
+				throw new NoSuchElementException();
+			}
+			done = true;
+			return element;
+		}
+
+		@Override
+		public void remove() {
+			if( !done ) {
+				throw new IllegalStateException();
+			}
+			synchronized( CompactValueVector.this ) {
+				if( values == null ) {
+					if( single == element ) {
+						single = null;
+					}
+				} else {
+					// The vector grew meanwhile: remove the element by identity, not by Value.equals
+					values.removeIf( v -> v == element );
+				}
+			}
+		}
+	}
+}
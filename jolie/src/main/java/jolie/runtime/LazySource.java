@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The frozen value whose children a lazy clone has not copied yet (see
+ * {@link Value#createLazyClone(Value)}). Only lazy clones reference one, so that other values do
+ * not carry its state.
+ */
+final class LazySource {
+	private final Value value;
+	private final ReentrantLock lock = new ReentrantLock();
+	private Map< String, ValueVector > children = null;
+
+	LazySource( Value value ) {
+		this.value = value;
+	}
+
+	Value value() {
+		return value;
+	}
+
+	/**
+	 * Copies the children of the source, sharing their subtrees in turn. Threads racing on the same
+	 * clone get the same copy.
+	 *
+	 * @param factory creates the empty map to fill
+	 * @return the copied children
+	 */
+	Map< String, ValueVector > copyChildren( Supplier< Map< String, ValueVector > > factory ) {
+		lock.lock();
+		try {
+			if( children == null ) {
+				final Map< String, ValueVector > map = factory.get();
+				RootValueImpl._lazyCopyChildren( value, map );
+				children = map;
+			}
+			return children;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -24,6 +24,9 @@ package jolie.runtime;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jolie.ExecutionThread;
 import jolie.TransparentExecutionThread;
@@ -55,6 +58,9 @@ public class ParallelExecution {
 	final private Collection< ParallelThread > threads = new HashSet<>();
 	private FaultException fault = null;
 	private boolean isKilled = false;
+	// Explicit locks do not pin virtual threads to their carriers while waiting
+	private final Lock lock = new ReentrantLock();
+	private final Condition terminated = lock.newCondition();
 
 	public ParallelExecution( Process[] procs ) {
 		for( Process proc : procs ) {
@@ -64,7 +70,8 @@ public class ParallelExecution {
 
 	public void run()
 		throws FaultException {
-		synchronized( this ) {
+		lock.lock();
+		try {
 			for( ParallelThread t : threads ) {
 				t.start();
 			}
@@ -74,19 +81,17 @@ public class ParallelExecution {
 				ethread = ExecutionThread.currentThread();
 				try {
 					ethread.setCanBeInterrupted( true );
-					wait();
+					terminated.await();
 					ethread.setCanBeInterrupted( false );
 				} catch( InterruptedException e ) {
-					synchronized( this ) {
-						if( ethread.isKilled() && !threads.isEmpty() ) {
-							isKilled = true;
-							for( ParallelThread t : threads ) {
-								t.kill( ethread.killerFault() );
-							}
-							try {
-								wait();
-							} catch( InterruptedException ie ) {
-							}
+					if( ethread.isKilled() && !threads.isEmpty() ) {
+						isKilled = true;
+						for( ParallelThread t : threads ) {
+							t.kill( ethread.killerFault() );
+						}
+						try {
+							terminated.await();
+						} catch( InterruptedException ie ) {
 						}
 					}
 				}
@@ -98,36 +103,44 @@ public class ParallelExecution {
 				}
 				while( !threads.isEmpty() ) {
 					try {
-						wait();
+						terminated.await();
 					} catch( InterruptedException e ) {
 					}
 				}
 				throw fault;
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
 	private void terminationNotify( ParallelThread thread ) {
-		synchronized( this ) {
+		lock.lock();
+		try {
 			threads.remove( thread );
 
 			if( threads.isEmpty() ) {
-				notify();
+				terminated.signal();
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
 
 	private void signalFault( ParallelThread thread, FaultException f ) {
-		synchronized( this ) {
+		lock.lock();
+		try {
 			threads.remove( thread );
 
 			if( !isKilled && fault == null ) {
 				fault = f;
-				notify();
+				terminated.signal();
 			} else if( threads.isEmpty() ) {
-				notify();
+				terminated.signal();
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
@@ -34,6 +34,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import jolie.Interpreter;
 import jolie.lang.Constants;
 import jolie.net.CommChannel;
 import jolie.process.TransformationReason;
@@ -124,6 +125,8 @@ class ValueImpl extends Value implements Serializable {
 
 	private volatile Object valueObject = null;
 	private final AtomicReference< Map< String, ValueVector > > children = new AtomicReference<>();
+	// The frozen value whose children this value has not copied yet, see lazyClone()
+	private volatile LazySource lazySource = null;
 
 	protected ValueImpl() {}
 
@@ -142,7 +145,10 @@ class ValueImpl extends Value implements Serializable {
 
 	@Override
 	public ValueVector getChildren( String childId ) {
-		return children().computeIfAbsent( childId, k -> ValueVector.create() );
+		// Existing children are read without locking their bin, as computeIfAbsent may do
+		final Map< String, ValueVector > c = children();
+		final ValueVector vec = c.get( childId );
+		return vec != null ? vec : c.computeIfAbsent( childId, k -> ValueVector.create() );
 	}
 
 	@Override
@@ -152,9 +158,32 @@ class ValueImpl extends Value implements Serializable {
 		return ret;
 	}
 
+	@Override
+	protected Value lazyClone() {
+		final ValueImpl ret = isUsedInCorrelation() ? new CSetValue() : new ValueImpl();
+		ret.valueObject = valueObject;
+		if( hasChildren() ) {
+			ret.lazySource = new LazySource( this );
+		}
+		return ret;
+	}
+
+	/*
+	 * Copies the children of the lazy source, sharing their subtrees in turn.
+	 */
+	private void copyLazySource() {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			children.set( source.copyChildren(
+				() -> new ConcurrentHashMap<>( RootValueImpl.INITIAL_CAPACITY, RootValueImpl.LOAD_FACTOR ) ) );
+			lazySource = null;
+		}
+	}
+
 	@Override
 	protected void _refCopy( Value value ) {
 		setValueObject( value.valueObject() );
+		lazySource = null;
 		this.children.set( value.children() );
 	}
 
@@ -166,6 +195,7 @@ class ValueImpl extends Value implements Serializable {
 	@Override
 	public void erase() {
 		valueObject = null;
+		lazySource = null;
 		children.set( null );
 	}
 
@@ -176,12 +206,20 @@ class ValueImpl extends Value implements Serializable {
 
 	@Override
 	public boolean hasChildren() {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			return source.value().hasChildren();
+		}
 		Map< String, ValueVector > c = children.get();
 		return (c != null && !c.isEmpty());
 	}
 
 	@Override
 	public boolean hasChildren( String childId ) {
+		final LazySource source = lazySource;
+		if( source != null ) {
+			return source.value().hasChildren( childId );
+		}
 		Map< String, ValueVector > c = children.get();
 		return (c != null && c.containsKey( childId ));
 	}
@@ -198,6 +236,7 @@ class ValueImpl extends Value implements Serializable {
 
 	@Override
 	public Map< String, ValueVector > children() {
+		copyLazySource();
 		// Create the map if not present
 		children.getAndUpdate(
 			v -> v == null ? new ConcurrentHashMap<>( RootValueImpl.INITIAL_CAPACITY, RootValueImpl.LOAD_FACTOR ) : v );
@@ -233,6 +272,14 @@ class RootValueImpl extends Value implements Serializable {
 		return ret;
 	}
 
+	@Override
+	protected RootValueImpl lazyClone() {
+		// Variables are few: copy them now, sharing their subtrees
+		RootValueImpl ret = new RootValueImpl();
+		_lazyCopyChildren( this, ret.children );
+		return ret;
+	}
+
 	@Override
 	public void setValueObject( Object object ) {}
 
@@ -241,7 +288,9 @@ class RootValueImpl extends Value implements Serializable {
 
 	@Override
 	public ValueVector getChildren( String childId ) {
-		return children.computeIfAbsent( childId, k -> ValueVector.create() );
+		// As in ValueImpl, existing variables are read without locking their bin
+		final ValueVector vec = children.get( childId );
+		return vec != null ? vec : children.computeIfAbsent( childId, k -> ValueVector.create() );
 	}
 
 	@Override
@@ -274,20 +323,32 @@ class RootValueImpl extends Value implements Serializable {
 		return children.containsKey( childId );
 	}
 
+	/*
+	 * Copies the children of value into children. The children of a compact value are compact, whatever
+	 * the current interpreter.
+	 */
 	protected static void _deepCopyInternal( Value value, boolean copyLinks, Map< String, ValueVector > children ) {
+		final boolean compact = children instanceof CompactChildrenMap;
 		if( value.hasChildren() ) {
 			for( Entry< String, ValueVector > entry : value.children().entrySet() ) {
 				if( copyLinks && entry.getValue().isLink() ) {
 					children.put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
 				} else {
 					List< Value > otherVector = entry.getValue().valuesCopy();
-					ValueVector vec = children.computeIfAbsent( entry.getKey(), k -> ValueVector.create() );
+					ValueVector vec = children.computeIfAbsent( entry.getKey(),
+						k -> compact ? new CompactValueVector() : ValueVector.create() );
 					int i = 0;
 					for( Value v : otherVector ) {
 						if( copyLinks && v.isLink() ) {
 							vec.set( i, ((ValueLink) v).clone() );
+						} else if( i < vec.size() && vec.get( i ).isUsedInCorrelation() ) {
+							// Correlation values are updated in place, so that their listeners are notified
+							final Value target = vec.get( i );
+							target.erase();
+							target._deepCopy( v, copyLinks );
 						} else {
-							ValueImpl newValue = (v.isUsedInCorrelation() ? new CSetValue() : new ValueImpl());
+							Value newValue = v.isUsedInCorrelation() ? new CSetValue()
+								: compact ? new CompactValue() : Value.create();
 							newValue._deepCopy( v, copyLinks );
 							vec.set( i, newValue );
 						}
@@ -298,6 +359,27 @@ class RootValueImpl extends Value implements Serializable {
 		}
 	}
 
+	/*
+	 * Fills children, which must be empty, with the children of the given frozen value, like
+	 * _deepCopyInternal would with copyLinks set, but creating lazy clones of the child values.
+	 */
+	protected static void _lazyCopyChildren( Value value, Map< String, ValueVector > children ) {
+		final boolean compact = children instanceof CompactChildrenMap;
+		if( value.hasChildren() ) {
+			for( Entry< String, ValueVector > entry : value.children().entrySet() ) {
+				if( entry.getValue().isLink() ) {
+					children.put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
+				} else {
+					ValueVector vec = compact ? new CompactValueVector() : ValueVector.create();
+					for( Value v : entry.getValue().valuesCopy() ) {
+						vec.add( v.isLink() ? ((ValueLink) v).clone() : v.lazyClone() );
+					}
+					children.put( entry.getKey(), vec );
+				}
+			}
+		}
+	}
+
 	@Override
 	protected void _deepCopy( Value value, boolean copyLinks ) {
 		_deepCopyInternal( value, copyLinks, children );
@@ -316,7 +398,35 @@ class RootValueImpl extends Value implements Serializable {
 
 
 class CSetValue extends ValueImpl {
-	protected CSetValue() {}
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	private final transient Runnable changeListener;
+
+	protected CSetValue() {
+		this( null );
+	}
+
+	protected CSetValue( Runnable changeListener ) {
+		this.changeListener = changeListener;
+	}
+
+	private void notifyChange() {
+		if( changeListener != null ) {
+			changeListener.run();
+		}
+	}
+
+	@Override
+	public void setValueObject( Object object ) {
+		super.setValueObject( object );
+		notifyChange();
+	}
+
+	@Override
+	public void erase() {
+		super.erase();
+		notifyChange();
+	}
 
 	@Override
 	public CSetValue clone() {
@@ -341,6 +451,16 @@ class CSetValue extends ValueImpl {
 public abstract class Value implements Expression, Cloneable {
 	public static final Value UNDEFINED_VALUE = Value.create();
 
+	/*
+	 * Returns whether the values and vectors created by the current thread should use the compact
+	 * representation, as set by the configuration of its interpreter. Threads outside of interpreters
+	 * use the standard one.
+	 */
+	static boolean useCompactRepresentation() {
+		final Interpreter interpreter = Interpreter.getInstance();
+		return interpreter != null && interpreter.configuration().compactValues();
+	}
+
 	public abstract boolean isLink();
 
 	public boolean isUsedInCorrelation() {
@@ -356,38 +476,66 @@ public abstract class Value implements Expression, Cloneable {
 	}
 
 	public static Value create() {
-		return new ValueImpl();
+		return useCompactRepresentation() ? new CompactValue() : new ValueImpl();
+	}
+
+	/**
+	 * Creates an undefined value using the compact representation, which stores primitive values
+	 * unboxed, few children in inline arrays and single-element vectors without a backing list,
+	 * whatever the configuration of the current interpreter. The children created through it use the
+	 * compact representation too.
+	 *
+	 * @return the new value
+	 * @see Interpreter.Configuration#compactValues()
+	 */
+	public static Value createCompact() {
+		return new CompactValue();
 	}
 
 	public static Value createCSetValue() {
 		return new CSetValue();
 	}
 
+	/**
+	 * Creates a correlation value that invokes the given listener every time its content is changed.
+	 *
+	 * @param changeListener the listener to be invoked after each change
+	 * @return the correlation value
+	 */
+	public static Value createCSetValue( Runnable changeListener ) {
+		return new CSetValue( changeListener );
+	}
+
 	public static Value create( Boolean bool ) {
-		return new ValueImpl( bool );
+		return useCompactRepresentation() ? new CompactValue( bool ) : new ValueImpl( bool );
 	}
 
 	public static Value create( String str ) {
-		return new ValueImpl( str );
+		return useCompactRepresentation() ? new CompactValue( str ) : new ValueImpl( str );
 	}
 
 	public static Value create( Integer i ) {
-		return new ValueImpl( i );
+		return useCompactRepresentation() ? new CompactValue( i ) : new ValueImpl( i );
 	}
 
 	public static Value create( Long l ) {
-		return new ValueImpl( l );
+		return useCompactRepresentation() ? new CompactValue( l ) : new ValueImpl( l );
 	}
 
 	public static Value create( Double d ) {
-		return new ValueImpl( d );
+		return useCompactRepresentation() ? new CompactValue( d ) : new ValueImpl( d );
 	}
 
 	public static Value create( ByteArray b ) {
-		return new ValueImpl( b );
+		return useCompactRepresentation() ? new CompactValue( b ) : new ValueImpl( b );
 	}
 
 	public static Value create( Value value ) {
+		if( useCompactRepresentation() ) {
+			final Value ret = new CompactValue();
+			ret.assignValue( value );
+			return ret;
+		}
 		return new ValueImpl( value );
 	}
 
@@ -395,6 +543,18 @@ public abstract class Value implements Expression, Cloneable {
 		return value.clone();
 	}
 
+	/**
+	 * Creates a clone of the given value, like {@link #createClone(Value)}, whose subtrees are shared
+	 * with the given value and copied one level at a time, when they are first accessed. The given
+	 * value must not be modified afterwards, e.g., because it is the state of a terminated process.
+	 *
+	 * @param value the value to clone, which must not be modified afterwards
+	 * @return the clone
+	 */
+	public static Value createLazyClone( Value value ) {
+		return value.lazyClone();
+	}
+
 	public static Value createDeepCopy( Value value ) {
 		Value ret = Value.create();
 		ret.deepCopy( value );
@@ -462,9 +622,18 @@ public abstract class Value implements Expression, Cloneable {
 	@Override
 	public abstract Value clone();
 
+	/**
+	 * Implements {@link #createLazyClone(Value)}. By default, clones this value eagerly.
+	 *
+	 * @return the clone
+	 */
+	protected Value lazyClone() {
+		return clone();
+	}
+
 	public final Value getNewChild( String childId ) {
 		final ValueVector vec = getChildren( childId );
-		Value retVal = new ValueImpl();
+		Value retVal = Value.create();
 		vec.add( retVal );
 
 		return retVal;
@@ -542,35 +711,43 @@ public abstract class Value implements Expression, Cloneable {
 	}
 
 	public final boolean isInt() {
-		return (valueObject() instanceof Integer);
+		return isValueInstance( Integer.class );
 	}
 
 	public final boolean isLong() {
-		return (valueObject() instanceof Long);
+		return isValueInstance( Long.class );
 	}
 
 	public final boolean isBool() {
-		return (valueObject() instanceof Boolean);
+		return isValueInstance( Boolean.class );
 	}
 
 	public final boolean isByteArray() {
-		return (valueObject() instanceof ByteArray);
+		return isValueInstance( ByteArray.class );
 	}
 
 	public final boolean isDouble() {
-		return (valueObject() instanceof Double);
+		return isValueInstance( Double.class );
 	}
 
 	public final boolean isString() {
-		return (valueObject() instanceof String);
+		return isValueInstance( String.class );
 	}
 
 	public final boolean isChannel() {
-		return (valueObject() instanceof CommChannel);
+		return isValueInstance( CommChannel.class );
 	}
 
 	public final boolean isDefined() {
-		return (valueObject() != null);
+		return isValueInstance( Object.class );
+	}
+
+	/*
+	 * Returns whether the content of this value is an instance of the given type, for the type
+	 * predicates above. Implementations that do not box their content answer without boxing it.
+	 */
+	boolean isValueInstance( Class< ? > type ) {
+		return type.isInstance( valueObject() );
 	}
 
 	public void setValue( CommChannel value ) {
@@ -892,6 +1069,10 @@ public abstract class Value implements Expression, Cloneable {
 	}
 
 	public final void assignValue( Value val ) {
+		_assignValue( val );
+	}
+
+	void _assignValue( Value val ) {
 		setValueObject( val.valueObject() );
 	}
 
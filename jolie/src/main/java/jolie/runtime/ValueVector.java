@@ -139,7 +139,18 @@ class ValueVectorImpl extends ValueVector implements Serializable {
 
 public abstract class ValueVector implements Iterable< Value > {
 	public static ValueVector create() {
-		return new ValueVectorImpl();
+		return Value.useCompactRepresentation() ? new CompactValueVector() : new ValueVectorImpl();
+	}
+
+	/**
+	 * Creates an empty vector using the compact representation, whatever the configuration of the
+	 * current interpreter. The values created through it use the compact representation too.
+	 *
+	 * @return the new vector
+	 * @see Value#createCompact()
+	 */
+	public static ValueVector createCompact() {
+		return new CompactValueVector();
 	}
 
 	public synchronized Value remove( int i ) {
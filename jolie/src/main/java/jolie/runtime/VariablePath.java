@@ -44,8 +44,18 @@ public class VariablePath implements Expression {
 		public static final Pair< Expression, Expression >[] EMPTY_PATH = new Pair[ 0 ];
 	}
 
-	private final Pair< Expression, Expression >[] path; // Right Expression may be null
+	private static final int DYNAMIC_INDEX = Integer.MIN_VALUE;
 
+	private final Pair< Expression, Expression >[] path; // Right Expression may be null
+	// Constant names and indexes of the segments, resolved when the path is created
+	private final String[] keys; // null for the names to be evaluated
+	private final int[] indexes; // DYNAMIC_INDEX for the indexes to be evaluated, 0 for missing ones
+
+	/**
+	 * Returns the segments of this path, which must not be modified.
+	 *
+	 * @return the segments of this path
+	 */
 	public final Pair< Expression, Expression >[] path() {
 		return path;
 	}
@@ -84,24 +94,14 @@ public class VariablePath implements Expression {
 		if( otherVarPath.path.length < path.length )
 			return null;
 
-		int i, myIndex, otherIndex;
-		Pair< Expression, Expression > pair, otherPair;
-		Expression expr, otherExpr;
+		int i;
 		for( i = 0; i < path.length; i++ ) {
-			pair = path[ i ];
-			otherPair = otherVarPath.path[ i ];
-
 			// *.element_name is not a subpath of *.other_name
-			if( !pair.key().evaluate().strValue().equals( otherPair.key().evaluate().strValue() ) )
+			if( !key( i ).equals( otherVarPath.key( i ) ) )
 				return null;
 
 			// If element name is equal, check for the same index
-			expr = pair.value();
-			otherExpr = otherPair.value();
-
-			myIndex = (expr == null) ? 0 : expr.evaluate().intValue();
-			otherIndex = (otherExpr == null) ? 0 : otherExpr.evaluate().intValue();
-			if( myIndex != otherIndex )
+			if( index( i ) != otherVarPath.index( i ) )
 				return null;
 		}
 
@@ -123,6 +123,53 @@ public class VariablePath implements Expression {
 
 	public VariablePath( Pair< Expression, Expression >[] path ) {
 		this.path = path;
+		this.keys = new String[ path.length ];
+		this.indexes = new int[ path.length ];
+		for( int i = 0; i < path.length; i++ ) {
+			final Expression key = path[ i ].key();
+			if( isConstant( key ) ) {
+				keys[ i ] = ((Value) key).strValue().intern();
+			}
+			final Expression index = path[ i ].value();
+			if( index == null ) {
+				indexes[ i ] = 0;
+			} else {
+				indexes[ i ] = isConstant( index ) ? ((Value) index).intValue() : DYNAMIC_INDEX;
+			}
+		}
+	}
+
+	private static boolean isConstant( Expression expression ) {
+		return expression instanceof Value && !((Value) expression).isLink();
+	}
+
+	/**
+	 * Returns a copy of this path whose last segment has the given index.
+	 *
+	 * @param index the index of the last segment of the copy
+	 * @return the copy
+	 */
+	public final VariablePath copyWithLastIndex( int index ) {
+		final Pair< Expression, Expression >[] newPath = Arrays.copyOf( path, path.length );
+		newPath[ path.length - 1 ] = new Pair<>( path[ path.length - 1 ].key(), Value.create( index ) );
+		return _createVariablePath( newPath );
+	}
+
+	private String key( int i ) {
+		final String key = keys[ i ];
+		return key != null ? key : path[ i ].key().evaluate().strValue();
+	}
+
+	private int index( int i ) {
+		final int index = indexes[ i ];
+		return index != DYNAMIC_INDEX ? index : path[ i ].value().evaluate().intValue();
+	}
+
+	/*
+	 * Returns the vector of the i-th segment in the given value, which is the root if i is 0.
+	 */
+	private ValueVector vector( Value value, int i, boolean create ) {
+		return create ? value.getChildren( key( i ) ) : value.children().get( key( i ) );
 	}
 
 	protected Value getRootValue() {
@@ -135,29 +182,24 @@ public class VariablePath implements Expression {
 	}
 
 	public final void undef() {
-		Pair< Expression, Expression > pair;
 		ValueVector currVector;
 		Value currValue = getRootValue();
-		int index;
-		String keyStr;
 		for( int i = 0; i < path.length; i++ ) {
-			pair = path[ i ];
-			keyStr = pair.key().evaluate().strValue();
-			currVector = currValue.children().get( keyStr );
+			currVector = vector( currValue, i, false );
 			if( currVector == null ) {
 				return;
 			} else if( currVector.size() < 1 ) {
-				currValue.children().remove( keyStr );
+				currValue.children().remove( key( i ) );
 				return;
 			}
-			if( pair.value() == null ) {
+			if( path[ i ].value() == null ) {
 				if( (i + 1) < path.length ) {
 					currValue = currVector.get( 0 );
 				} else { // We're finished
-					currValue.children().remove( keyStr );
+					currValue.children().remove( key( i ) );
 				}
 			} else {
-				index = pair.value().evaluate().intValue();
+				final int index = index( i );
 				if( (i + 1) < path.length ) {
 					if( currVector.size() <= index ) {
 						return;
@@ -191,52 +233,30 @@ public class VariablePath implements Expression {
 	}
 
 	public final Value getValue( Value currValue ) {
-		for( Pair< Expression, Expression > pair : path ) {
-			final String keyStr = pair.key().evaluate().strValue();
-			currValue =
-				pair.value() == null
-					? currValue.getFirstChild( keyStr )
-					: currValue.getChildren( keyStr ).get( pair.value().evaluate().intValue() );
+		for( int i = 0; i < path.length; i++ ) {
+			currValue = vector( currValue, i, true ).get( index( i ) );
 		}
 
-
 		return currValue;
 	}
 
 	public final void setValue( Value value ) {
-		Pair< Expression, Expression > pair;
 		ValueVector currVector;
 		Value currValue = getRootValue();
-		int index;
-		String keyStr;
 
 		if( path.length == 0 ) {
 			currValue.refCopy( value );
 		} else {
 			for( int i = 0; i < path.length; i++ ) {
-				pair = path[ i ];
-				keyStr = pair.key().evaluate().strValue();
-				currVector = currValue.getChildren( keyStr );
-				if( pair.value() == null ) {
-					if( (i + 1) < path.length ) {
-						currValue = currVector.get( 0 );
-					} else { // We're finished
-						if( currVector.get( 0 ).isUsedInCorrelation() ) {
-							currVector.get( 0 ).refCopy( value );
-						} else {
-							currVector.set( 0, value );
-						}
-					}
-				} else {
-					index = pair.value().evaluate().intValue();
-					if( (i + 1) < path.length ) {
-						currValue = currVector.get( index );
+				currVector = vector( currValue, i, true );
+				final int index = index( i );
+				if( (i + 1) < path.length ) {
+					currValue = currVector.get( index );
+				} else { // We're finished
+					if( currVector.get( index ).isUsedInCorrelation() ) {
+						currVector.get( index ).refCopy( value );
 					} else {
-						if( currVector.get( index ).isUsedInCorrelation() ) {
-							currVector.get( index ).refCopy( value );
-						} else {
-							currVector.set( index, value );
-						}
+						currVector.set( index, value );
 					}
 				}
 			}
@@ -254,34 +274,16 @@ public class VariablePath implements Expression {
 
 	public final Value getValueOrNull( Value currValue ) {
 		for( int i = 0; i < path.length; i++ ) {
-			final Pair< Expression, Expression > pair = path[ i ];
-			final ValueVector currVector = currValue.children().get( pair.key().evaluate().strValue() );
+			final ValueVector currVector = vector( currValue, i, false );
 			if( currVector == null ) {
 				return null;
 			}
-			if( pair.value() == null ) {
-				if( (i + 1) < path.length ) {
-					if( currVector.isEmpty() ) {
-						return null;
-					}
-					currValue = currVector.get( 0 );
-				} else { // We're finished
-					if( currVector.isEmpty() ) {
-						return null;
-					} else {
-						return currVector.get( 0 );
-					}
-				}
-			} else {
-				final int index = pair.value().evaluate().intValue();
-				if( currVector.size() <= index ) {
-					return null;
-				}
-				currValue = currVector.get( index );
-				if( (i + 1) >= path.length ) {
-					return currValue;
-				}
+			final int index = index( i );
+			// isEmpty resolves links checking for alias loops, size does not
+			if( path[ i ].value() == null ? currVector.isEmpty() : currVector.size() <= index ) {
+				return null;
 			}
+			currValue = currVector.get( index );
 		}
 
 		return currValue;
@@ -304,13 +306,11 @@ public class VariablePath implements Expression {
 
 	private FaultException buildAliasAccessException() {
 		String alias = "";
-		boolean isRoot = true;
-		for( Pair< Expression, Expression > p : path ) {
-			if( isRoot ) {
-				alias += p.key().evaluate().strValue();
-				isRoot = false;
+		for( int i = 0; i < path.length; i++ ) {
+			if( i == 0 ) {
+				alias += key( i );
 			} else {
-				alias += "." + p.key().evaluate().strValue();
+				alias += "." + key( i );
 			}
 		}
 
@@ -323,14 +323,9 @@ public class VariablePath implements Expression {
 	public final ValueVector getValueVector( Value currValue ) {
 		ValueVector currVector = null;
 		for( int i = 0; i < path.length; i++ ) {
-			final Pair< Expression, Expression > pair = path[ i ];
-			currVector = currValue.getChildren( pair.key().evaluate().strValue() );
+			currVector = vector( currValue, i, true );
 			if( (i + 1) < path.length ) {
-				if( pair.value() == null ) {
-					currValue = currVector.get( 0 );
-				} else {
-					currValue = currVector.get( pair.value().evaluate().intValue() );
-				}
+				currValue = currVector.get( index( i ) );
 			}
 		}
 
@@ -340,24 +335,16 @@ public class VariablePath implements Expression {
 	public final ValueVector getValueVectorOrNull( Value currValue ) {
 		ValueVector currVector = null;
 		for( int i = 0; i < path.length; i++ ) {
-			final Pair< Expression, Expression > pair = path[ i ];
-			currVector = currValue.children().get( pair.key().evaluate().strValue() );
+			currVector = vector( currValue, i, false );
 			if( currVector == null ) {
 				return null;
 			}
 			if( (i + 1) < path.length ) {
-				if( pair.value() == null ) {
-					if( currVector.isEmpty() ) {
-						return null;
-					}
-					currValue = currVector.get( 0 );
-				} else {
-					final int index = pair.value().evaluate().intValue();
-					if( currVector.size() <= index ) {
-						return null;
-					}
-					currValue = currVector.get( index );
+				final int index = index( i );
+				if( path[ i ].value() == null ? currVector.isEmpty() : currVector.size() <= index ) {
+					return null;
 				}
+				currValue = currVector.get( index );
 			}
 		}
 
@@ -377,53 +364,31 @@ public class VariablePath implements Expression {
 	}
 
 	public final void makePointer( Value currValue, VariablePath rightPath ) {
-		Pair< Expression, Expression > pair;
 		ValueVector currVector;
-		int index;
-		String keyStr;
 		for( int i = 0; i < path.length; i++ ) {
-			pair = path[ i ];
-			keyStr = pair.key().evaluate().strValue();
-			currVector = currValue.getChildren( keyStr );
-			if( pair.value() == null ) {
-				if( (i + 1) < path.length ) {
-					currValue = currVector.get( 0 );
-				} else { // We're finished
-					currValue.children().put( keyStr, ValueVector.createLink( rightPath ) );
-				}
+			currVector = vector( currValue, i, true );
+			if( (i + 1) < path.length ) {
+				currValue = currVector.get( index( i ) );
+			} else if( path[ i ].value() == null ) { // We're finished
+				currValue.children().put( key( i ), ValueVector.createLink( rightPath ) );
 			} else {
-				index = pair.value().evaluate().intValue();
-				if( (i + 1) < path.length ) {
-					currValue = currVector.get( index );
-				} else {
-					currVector.set( index, Value.createLink( rightPath ) );
-				}
+				currVector.set( index( i ), Value.createLink( rightPath ) );
 			}
 		}
 
 	}
 
 	public Object getValueOrValueVector() {
-		Pair< Expression, Expression > pair;
 		ValueVector currVector;
 		Value currValue = getRootValue();
-		int index;
 		for( int i = 0; i < path.length; i++ ) {
-			pair = path[ i ];
-			currVector = currValue.getChildren( pair.key().evaluate().strValue() );
-			if( pair.value() == null ) {
-				if( (i + 1) < path.length ) {
-					currValue = currVector.get( 0 );
-				} else { // We're finished
-					return currVector;
-				}
+			currVector = vector( currValue, i, true );
+			if( (i + 1) < path.length ) {
+				currValue = currVector.get( index( i ) );
+			} else if( path[ i ].value() == null ) { // We're finished
+				return currVector;
 			} else {
-				index = pair.value().evaluate().intValue();
-				if( (i + 1) < path.length ) {
-					currValue = currVector.get( index );
-				} else {
-					return currVector.get( index );
-				}
+				return currVector.get( index( i ) );
 			}
 		}
 
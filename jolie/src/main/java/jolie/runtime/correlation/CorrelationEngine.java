@@ -21,6 +21,10 @@
 
 package jolie.runtime.correlation;
 
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 import jolie.Interpreter;
 import jolie.SessionListener;
 import jolie.SessionThread;
@@ -28,6 +32,7 @@ import jolie.net.CommChannel;
 import jolie.net.CommMessage;
 import jolie.runtime.Value;
 import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
+import jolie.runtime.correlation.impl.HashCorrelationEngine;
 import jolie.runtime.correlation.impl.SimpleCorrelationEngine;
 
 /**
@@ -46,8 +51,7 @@ public abstract class CorrelationEngine implements SessionListener {
 		HASH {
 			@Override
 			public CorrelationEngine createInstance( Interpreter interpreter ) {
-				// return new HashCorrelationEngine( interpreter );
-				return null;
+				return new HashCorrelationEngine( interpreter );
 			}
 		};
 
@@ -73,6 +77,7 @@ public abstract class CorrelationEngine implements SessionListener {
 	protected abstract boolean routeMessage( CommMessage message, CommChannel channel );
 
 	private final Interpreter interpreter;
+	private final ReentrantLock lock = new ReentrantLock();
 
 	public CorrelationEngine( Interpreter interpreter ) {
 		this.interpreter = interpreter;
@@ -99,16 +104,62 @@ public abstract class CorrelationEngine implements SessionListener {
 		}
 	}
 
-	public synchronized void onMessageReceive( final CommMessage message, final CommChannel channel )
+	/**
+	 * Checks whether the correlation values of a session match those carried by a message.
+	 *
+	 * @param session the session to check
+	 * @param pairs the correlation pairs defined for the operation of the message
+	 * @param message the received message
+	 * @return {@code true} if all the correlation values are defined and equal, {@code false} otherwise
+	 */
+	protected static boolean correlates( SessionThread session, List< CorrelationPair > pairs,
+		CommMessage message ) {
+		for( CorrelationPair cpair : pairs ) {
+			final Value sessionValue = cpair.sessionPath().getValueOrNull( session.state().root() );
+			if( sessionValue == null ) {
+				return false;
+			} else {
+				Value messageValue = cpair.messagePath().getValueOrNull( message.value() );
+				if( messageValue == null ) {
+					return false;
+				} else {
+					// TODO: Value.equals is type insensitive, fix this with an additional check.
+					if( !sessionValue.isDefined() || !messageValue.isDefined()
+						|| !sessionValue.isEqualTo( messageValue ) ) {
+						return false;
+					}
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the lock guarding message routing. A {@link ReentrantLock} is used instead of the monitor
+	 * of this object, so that threads waiting for it do not pin virtual thread carriers.
+	 *
+	 * @return the lock guarding message routing
+	 */
+	public Lock lock() {
+		return lock;
+	}
+
+	public void onMessageReceive( final CommMessage message, final CommChannel channel )
 		throws CorrelationError {
-		if( !(
-		// We try to find a correlating process.
-		routeMessage( message, channel )
-			||
-			// If there is none, we must be able to start a new process with this message.
-			interpreter.startServiceSession( message, channel )) ) {
-			// Otherwise, exception.
-			throw new CorrelationError();
+		lock.lock();
+		try {
+			if( !(
+			// We try to find a correlating process.
+			routeMessage( message, channel )
+				||
+				// If there is none, we must be able to start a new process with this message.
+				interpreter.startServiceSession( message, channel )) ) {
+				// Otherwise, exception.
+				throw new CorrelationError();
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 }
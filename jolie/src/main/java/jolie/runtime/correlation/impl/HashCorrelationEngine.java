@@ -21,15 +21,407 @@
 
 package jolie.runtime.correlation.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import jolie.Interpreter;
+import jolie.SessionThread;
+import jolie.lang.Constants.ExecutionMode;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.SessionMessage;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.VariablePath;
+import jolie.runtime.correlation.CorrelationEngine;
+import jolie.runtime.correlation.CorrelationSet;
+import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
+import jolie.runtime.expression.Expression;
+import jolie.util.Pair;
 
 /**
- * A hash table based correlation algorithm (stub).
+ * A hash table based correlation algorithm.
+ *
+ * Sessions are indexed by the tuple of values of each correlation set, so that routing a message
+ * costs a single lookup regardless of the number of running sessions. The index is kept up to date
+ * by installing correlation values (see {@link Value#createCSetValue(Runnable)}) in the state of
+ * each session, which notify this engine whenever they are assigned. Undefining a variable may
+ * remove some of them, so they are installed again afterwards (see
+ * {@link jolie.State#setUndefListener(Runnable)}). Candidates found in the index are always checked
+ * again with the same comparison used by {@link SimpleCorrelationEngine}.
  *
  * @author Fabrizio Montesi
  */
-public class HashCorrelationEngine extends SimpleCorrelationEngine {
+public class HashCorrelationEngine extends CorrelationEngine {
+	private static final VariablePath[] NOT_INDEXABLE = new VariablePath[ 0 ];
+
+	private final Map< CorrelationSet, Map< CorrelationKey, Set< SessionThread > > > index =
+		new ConcurrentHashMap<>();
+	private final Map< SessionThread, Registration > registrations = new ConcurrentHashMap<>();
+	private final Set< SessionThread > singleExecutionSessions =
+		Collections.newSetFromMap( new ConcurrentHashMap<>() );
+	// Maps operation names to the message paths of their correlation pairs, ordered as the variables
+	// of the correlation set they belong to.
+	private final Map< String, VariablePath[] > operationMessagePaths = new ConcurrentHashMap<>();
+
+	/*
+	 * The correlation values installed in the state of a session, in the order of
+	 * correlationVariablePaths(), and the keys the session is indexed by. Guarded by its own monitor.
+	 */
+	private static final class Registration {
+		private final Value[] values;
+		private final Map< CorrelationSet, CorrelationKey > keys = new HashMap<>();
+
+		private Registration( int size ) {
+			this.values = new Value[ size ];
+		}
+	}
+
 	public HashCorrelationEngine( Interpreter interpreter ) {
 		super( interpreter );
 	}
+
+	@Override
+	public boolean routeMessage( CommMessage message, CommChannel channel ) {
+		final boolean singleExecution = interpreter().executionMode() == ExecutionMode.SINGLE;
+		for( SessionThread session : singleExecutionSessions ) {
+			if( session.isInitialisingThread()
+				|| (singleExecution && interpreter().correlationSets().isEmpty()) ) {
+				return deliver( session, message, channel );
+			}
+		}
+
+		final CorrelationSet cset = interpreter().getCorrelationSetForOperation( message.operationName() );
+		if( cset == null ) {
+			// In single execution mode the message is for the running session, otherwise it must be a session
+			// starter.
+			final Iterator< SessionThread > it = singleExecutionSessions.iterator();
+			return singleExecution && it.hasNext() && deliver( it.next(), message, channel );
+		}
+
+		final List< CorrelationPair > pairs = cset.getOperationCorrelationPairs( message.operationName() );
+		final VariablePath[] messagePaths = messagePaths( cset, message.operationName() );
+		if( messagePaths == NOT_INDEXABLE ) {
+			return deliverToFirst( registrations.keySet(), pairs, message, channel );
+		}
+
+		final CorrelationKey key = CorrelationKey.of( message.value(), messagePaths );
+		if( key == null ) {
+			return false;
+		} else if( key == CorrelationKey.UNHASHABLE ) {
+			return deliverToFirst( registrations.keySet(), pairs, message, channel );
+		}
+		final Map< CorrelationKey, Set< SessionThread > > csetIndex = index.get( cset );
+		if( csetIndex == null ) {
+			return false;
+		}
+		// Sessions whose values cannot be hashed may be equal to any message
+		return deliverToFirst( csetIndex.get( key ), pairs, message, channel )
+			|| deliverToFirst( csetIndex.get( CorrelationKey.UNHASHABLE ), pairs, message, channel );
+	}
+
+	@Override
+	public void onSessionStart( SessionThread session, Interpreter.SessionStarter starter, CommMessage message ) {
+		register( session );
+		initCorrelationValues( session, starter, message );
+		updateIndex( session );
+	}
+
+	@Override
+	public void onSingleExecutionSessionStart( SessionThread session ) {
+		singleExecutionSessions.add( session );
+		register( session );
+		updateIndex( session );
+	}
+
+	@Override
+	public void onSessionExecuted( SessionThread session ) {
+		singleExecutionSessions.remove( session );
+		final Registration registration = registrations.remove( session );
+		if( registration != null ) {
+			session.state().setUndefListener( null );
+			synchronized( registration ) {
+				registration.keys.forEach( ( cset, key ) -> unindex( cset, key, session ) );
+				registration.keys.clear();
+			}
+		}
+	}
+
+	@Override
+	public void onSessionError( SessionThread session, FaultException fault ) {
+		onSessionExecuted( session );
+	}
+
+	private static boolean deliver( SessionThread session, CommMessage message, CommChannel channel ) {
+		session.pushMessage( new SessionMessage( message, channel ) );
+		return true;
+	}
+
+	private static boolean deliverToFirst( Iterable< SessionThread > candidates, List< CorrelationPair > pairs,
+		CommMessage message, CommChannel channel ) {
+		if( candidates != null ) {
+			for( SessionThread session : candidates ) {
+				if( correlates( session, pairs, message ) ) {
+					return deliver( session, message, channel );
+				}
+			}
+		}
+		return false;
+	}
+
+	private List< VariablePath > correlationVariablePaths() {
+		final List< VariablePath > ret = new ArrayList<>();
+		for( CorrelationSet cset : interpreter().correlationSets() ) {
+			ret.addAll( cset.correlationVariablePaths() );
+		}
+		return ret;
+	}
+
+	/**
+	 * Installs the correlation values in the state of the session, replacing the current ones, and
+	 * starts tracking the session.
+	 */
+	private void register( SessionThread session ) {
+		final List< VariablePath > paths = correlationVariablePaths();
+		final Registration registration = new Registration( paths.size() );
+		install( session, registration, paths );
+		registrations.put( session, registration );
+		session.state().setUndefListener( () -> reinstall( session ) );
+	}
+
+	/**
+	 * Installs the correlation values of a session again where undefining a variable has removed them,
+	 * and updates the index with their new content.
+	 */
+	private void reinstall( SessionThread session ) {
+		final Registration registration = registrations.get( session );
+		if( registration == null ) {
+			return;
+		}
+		synchronized( registration ) {
+			install( session, registration, correlationVariablePaths() );
+		}
+		updateIndex( session );
+	}
+
+	/*
+	 * Installs a correlation value at each path that does not hold the one recorded in registration,
+	 * keeping the content found there.
+	 */
+	private void install( SessionThread session, Registration registration, List< VariablePath > paths ) {
+		final Value root = session.state().root();
+		final Runnable listener = () -> updateIndex( session );
+		for( int j = 0; j < paths.size(); j++ ) {
+			final VariablePath path = paths.get( j );
+			if( registration.values[ j ] != null && path.getValueOrNull( root ) == registration.values[ j ] ) {
+				continue;
+			}
+			final Pair< Expression, Expression >[] p = path.path();
+			final Expression indexExpression = p[ p.length - 1 ].value();
+			final int i = indexExpression == null ? 0 : indexExpression.evaluate().intValue();
+			final ValueVector vector = path.getValueVector( root );
+			final Value value = Value.createCSetValue( listener );
+			value.refCopy( vector.get( i ) );
+			vector.set( i, value );
+			registration.values[ j ] = value;
+		}
+	}
+
+	/**
+	 * Recomputes the correlation keys of a session, moving it to the right buckets of the index.
+	 */
+	private void updateIndex( SessionThread session ) {
+		final Registration registration = registrations.get( session );
+		if( registration == null ) {
+			return;
+		}
+		synchronized( registration ) {
+			if( registrations.get( session ) != registration ) {
+				// The session has terminated in the meantime
+				return;
+			}
+			final Map< CorrelationSet, CorrelationKey > keys = registration.keys;
+			final Value root = session.state().root();
+			for( CorrelationSet cset : interpreter().correlationSets() ) {
+				final CorrelationKey newKey = CorrelationKey.of( root, cset.correlationVariablePaths() );
+				final CorrelationKey oldKey = keys.get( cset );
+				if( Objects.equals( oldKey, newKey ) ) {
+					continue;
+				}
+				if( oldKey != null ) {
+					unindex( cset, oldKey, session );
+					keys.remove( cset );
+				}
+				if( newKey != null ) {
+					index.computeIfAbsent( cset, k -> new ConcurrentHashMap<>() )
+						.computeIfAbsent( newKey, k -> ConcurrentHashMap.newKeySet() )
+						.add( session );
+					keys.put( cset, newKey );
+				}
+			}
+		}
+	}
+
+	private void unindex( CorrelationSet cset, CorrelationKey key, SessionThread session ) {
+		final Map< CorrelationKey, Set< SessionThread > > csetIndex = index.get( cset );
+		if( csetIndex != null ) {
+			csetIndex.computeIfPresent( key, ( k, sessions ) -> {
+				sessions.remove( session );
+				return sessions.isEmpty() ? null : sessions;
+			} );
+		}
+	}
+
+	/**
+	 * Returns the message paths of the correlation pairs of an operation, in the same order of the
+	 * variables of its correlation set, or {@link #NOT_INDEXABLE} if the operation does not provide a
+	 * value for every variable.
+	 */
+	private VariablePath[] messagePaths( CorrelationSet cset, String operationName ) {
+		return operationMessagePaths.computeIfAbsent( operationName, k -> {
+			final List< VariablePath > variables = cset.correlationVariablePaths();
+			final VariablePath[] ret = new VariablePath[ variables.size() ];
+			for( CorrelationPair pair : cset.getOperationCorrelationPairs( operationName ) ) {
+				final String name = pathName( pair.sessionPath() );
+				for( int i = 0; i < ret.length; i++ ) {
+					if( name.equals( pathName( variables.get( i ) ) ) ) {
+						ret[ i ] = pair.messagePath();
+					}
+				}
+			}
+			for( VariablePath path : ret ) {
+				if( path == null ) {
+					return NOT_INDEXABLE;
+				}
+			}
+			return ret;
+		} );
+	}
+
+	private static String pathName( VariablePath path ) {
+		final StringBuilder builder = new StringBuilder();
+		for( Pair< Expression, Expression > p : path.path() ) {
+			builder.append( '.' ).append( p.key().evaluate().strValue() )
+				.append( '[' ).append( p.value() == null ? 0 : p.value().evaluate().intValue() ).append( ']' );
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * A tuple of correlation values. Values are normalised so that values that are equal according to
+	 * {@link Value#isEqualTo(Value)} always get the same key, whatever their types: numbers and
+	 * booleans are keyed by their double value, and strings that are the textual form of a number or a
+	 * boolean by the value they denote. Different values may share a key, since candidates are verified
+	 * afterwards. Raw values are equal to values of any other type with the same binary representation,
+	 * so a tuple containing one is keyed by {@link #UNHASHABLE}.
+	 */
+	private static final class CorrelationKey {
+		private static final CorrelationKey UNHASHABLE = new CorrelationKey( new Object[ 0 ] );
+
+		private final Object[] values;
+		private final int hashCode;
+
+		private CorrelationKey( Object[] values ) {
+			this.values = values;
+			this.hashCode = Arrays.hashCode( values );
+		}
+
+		private static CorrelationKey of( Value root, List< VariablePath > paths ) {
+			final Object[] values = new Object[ paths.size() ];
+			boolean hashable = true;
+			for( int i = 0; i < values.length; i++ ) {
+				final Value value = paths.get( i ).getValueOrNull( root );
+				if( value == null || !value.isDefined() ) {
+					return null;
+				}
+				values[ i ] = normalise( value );
+				hashable &= values[ i ] != null;
+			}
+			return hashable ? new CorrelationKey( values ) : UNHASHABLE;
+		}
+
+		private static CorrelationKey of( Value root, VariablePath[] paths ) {
+			return of( root, Arrays.asList( paths ) );
+		}
+
+		// Returns null for values that cannot be hashed consistently with isEqualTo
+		private static Object normalise( Value value ) {
+			if( value.isString() ) {
+				return normalise( value.strValue() );
+			} else if( value.isInt() || value.isLong() || value.isDouble() || value.isBool() ) {
+				// Compared with each other by their double (or long, which implies it) value, and with
+				// strings by their textual form
+				return number( value.doubleValue() );
+			}
+			return null;
+		}
+
+		private static Object normalise( String s ) {
+			if( s.equals( "true" ) ) {
+				return number( 1.0 );
+			} else if( s.equals( "false" ) ) {
+				return number( 0.0 );
+			} else if( !isNumeric( s ) ) {
+				return s;
+			}
+			try {
+				final long l = Long.parseLong( s );
+				if( Long.toString( l ).equals( s ) ) {
+					return number( l );
+				}
+			} catch( NumberFormatException e ) {
+				// Not the textual form of an integer
+			}
+			try {
+				final double d = Double.parseDouble( s );
+				if( Double.toString( d ).equals( s ) ) {
+					return number( d );
+				}
+			} catch( NumberFormatException e ) {
+				// Not the textual form of a double
+			}
+			return s;
+		}
+
+		private static Double number( double d ) {
+			// -0.0 == 0.0, but their Double objects differ
+			return d == 0.0 ? 0.0 : d;
+		}
+
+		// Whether s may be the textual form of an int, a long or a double, so that parsing the common
+		// identifiers can be avoided
+		private static boolean isNumeric( String s ) {
+			if( s.isEmpty() ) {
+				return false;
+			} else if( s.equals( "NaN" ) || s.equals( "Infinity" ) || s.equals( "-Infinity" ) ) {
+				return true;
+			}
+			for( int i = 0; i < s.length(); i++ ) {
+				final char c = s.charAt( i );
+				if( (c < '0' || c > '9') && c != '-' && c != '.' && c != 'E' ) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean equals( Object other ) {
+			return other instanceof CorrelationKey && Arrays.equals( values, ((CorrelationKey) other).values );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
 }
@@ -22,7 +22,6 @@
 package jolie.runtime.correlation.impl;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -33,10 +32,8 @@ import jolie.net.CommChannel;
 import jolie.net.CommMessage;
 import jolie.net.SessionMessage;
 import jolie.runtime.FaultException;
-import jolie.runtime.Value;
 import jolie.runtime.correlation.CorrelationEngine;
 import jolie.runtime.correlation.CorrelationSet;
-import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
 
 /**
  * A simple correlation algorithm that performs a sequential check of each running session every
@@ -95,25 +92,6 @@ public class SimpleCorrelationEngine extends CorrelationEngine {
 		if( cset == null ) {
 			return interpreter().executionMode() == ExecutionMode.SINGLE; // It must be a session starter.
 		}
-		final List< CorrelationPair > pairs = cset.getOperationCorrelationPairs( message.operationName() );
-		for( CorrelationPair cpair : pairs ) {
-			final Value sessionValue = cpair.sessionPath().getValueOrNull( session.state().root() );
-			if( sessionValue == null ) {
-				return false;
-			} else {
-				Value messageValue = cpair.messagePath().getValueOrNull( message.value() );
-				if( messageValue == null ) {
-					return false;
-				} else {
-					// TODO: Value.equals is type insensitive, fix this with an additional check.
-					if( !sessionValue.isDefined() || !messageValue.isDefined()
-						|| !sessionValue.isEqualTo( messageValue ) ) {
-						return false;
-					}
-				}
-			}
-		}
-
-		return true;
+		return correlates( session, cset.getOperationCorrelationPairs( message.operationName() ), message );
 	}
 }
@@ -49,10 +49,9 @@ public class JolieServiceNodeLoader extends ServiceNodeLoader {
 
 			Interpreter interpreter = new Interpreter(
 				configuration,
-				interpreter().symbolTables(),
+				interpreter(),
 				builder.toProgram(),
-				v,
-				interpreter().logPrefix() );
+				v );
 
 			Future< Exception > f = interpreter.start();
 			Exception e = f.get();
@@ -106,6 +106,7 @@ public class SolicitResponseExpression implements Expression {
 	@Override
 	public Value evaluate()
 		throws FaultException.RuntimeFaultException {
+		final long start = System.nanoTime();
 		CommChannel channel = null;
 		CommMessage response = null;
 		try {
@@ -257,6 +258,8 @@ public class SolicitResponseExpression implements Expression {
 				this.context )
 				.toRuntimeFaultException();
 		} finally {
+			Interpreter.getInstance().metrics().output( outputPort.id(), operationId )
+				.record( System.nanoTime() - start, response == null || response.isFault() );
 			if( channel != null ) {
 				try {
 					channel.release();
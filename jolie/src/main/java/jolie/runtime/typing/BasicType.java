@@ -104,6 +104,28 @@ public class BasicType< T > {
 		}
 	}
 
+	boolean hasRefinements() {
+		return !refinements.isEmpty();
+	}
+
+	/*
+	 * Like check, but returns whether the value is accepted instead of throwing.
+	 */
+	boolean accepts( Value value ) {
+		if( !nativeTypePredicate.test( value ) ) {
+			return false;
+		}
+		if( !refinements.isEmpty() ) {
+			T nativeValue = mapper.apply( value );
+			for( BasicTypeRefinement< ? super T > refinement : refinements ) {
+				if( !refinement.checkValue( nativeValue ) ) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	@SuppressWarnings( "unchecked" )
 	private static < T > List< BasicTypeRefinement< ? super T > > fromBasicTypeDefinitionRefinements(
 		final List< BasicTypeRefinement< ? > > refinements ) {
@@ -59,12 +59,7 @@ class TypeImpl extends Type {
 			return null;
 		}
 
-		try {
-			checkSubType.check( value );
-			return checkSubType;
-		} catch( TypeCheckingException e ) {
-			return null;
-		}
+		return checkSubType.validator().test( value ) ? checkSubType : null;
 	}
 
 	@Override
@@ -128,12 +123,7 @@ class TypeImpl extends Type {
 
 	@Override
 	public Optional< Type > getMinimalType( Value value ) {
-		try {
-			check( value );
-			return Optional.of( this );
-		} catch( TypeCheckingException ex ) {
-			return Optional.empty();
-		}
+		return validator().test( value ) ? Optional.of( this ) : Optional.empty();
 	}
 
 	@Override
@@ -347,6 +337,9 @@ public abstract class Type {
 		Type.create( BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( NativeType.VOID ) ),
 			new Range( 1, 1 ), false, null );
 
+	// Compiled on first use, when the links of the type have been resolved
+	private TypeValidator validator = null;
+
 	public static Type create(
 		BasicType< ? > basicType,
 		Range cardinality,
@@ -435,13 +428,33 @@ public abstract class Type {
 		return create( basicType, cardinality, false, subTypes );
 	}
 
+	/**
+	 * Returns the compiled form of this type, compiling it if needed.
+	 */
+	TypeValidator validator() {
+		TypeValidator v = validator;
+		if( v == null ) {
+			// Compiling twice is harmless, and validators are immutable
+			v = TypeValidator.compile( this );
+			validator = v;
+		}
+		return v;
+	}
+
 	public void check( Value value )
 		throws TypeCheckingException {
-		check( value, new StringBuilder( "#Message" ) );
+		// Walk the type again only to describe the error
+		if( !validator().test( value ) ) {
+			check( value, new StringBuilder( "#Message" ) );
+		}
 	}
 
 	public Value cast( Value value )
 		throws TypeCastingException {
+		final TypeValidator v = validator();
+		if( v.castIsIdentity() && v.test( value ) ) {
+			return value;
+		}
 		return cast( value, new StringBuilder( "#Message" ) );
 	}
 
@@ -494,6 +507,10 @@ public abstract class Type {
 			return linkedTypeName;
 		}
 
+		Type linkedType() {
+			return linkedType;
+		}
+
 		public void setLinkedType( Type linkedType ) {
 			this.linkedType = linkedType;
 		}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.runtime.typing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import jolie.lang.NativeType;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * A {@link Type} compiled to a tree of predicates, which tells whether a value has the type without
+ * building paths or throwing exceptions. The children expected by a type are kept in arrays, and
+ * the alternatives of nested choices are flattened and tried in order.
+ *
+ * Validators accept exactly the values accepted by {@link Type#check(Value, StringBuilder)}, which
+ * is still used to describe why a value is rejected.
+ */
+abstract class TypeValidator {
+	private static final TypeValidator ANY = new TypeValidator( true ) {
+		@Override
+		boolean test( Value value ) {
+			return true;
+		}
+	};
+
+	private final boolean castIsIdentity;
+
+	private TypeValidator( boolean castIsIdentity ) {
+		this.castIsIdentity = castIsIdentity;
+	}
+
+	/**
+	 * Returns whether the given value has the type of this validator.
+	 */
+	abstract boolean test( Value value );
+
+	/**
+	 * Returns whether casting a value accepted by this validator leaves it unchanged. This does not
+	 * hold for types containing choices, since their casts may convert a valid value to an earlier
+	 * alternative.
+	 */
+	final boolean castIsIdentity() {
+		return castIsIdentity;
+	}
+
+	/**
+	 * Compiles the given type. The validators of subtypes and linked types are obtained from
+	 * {@link Type#validator()} when first needed, so recursive types are supported.
+	 */
+	static TypeValidator compile( Type type ) {
+		if( type instanceof TypeImpl ) {
+			final TypeImpl t = (TypeImpl) type;
+			if( t.subTypes() == null && t.basicType().nativeType() == NativeType.ANY
+				&& !t.basicType().hasRefinements() ) {
+				return ANY;
+			}
+			return new NodeValidator( t, !containsChoice( t ) );
+		} else if( type instanceof TypeChoice ) {
+			final List< Type > alternatives = new ArrayList<>();
+			flattenChoice( type, alternatives );
+			return new ChoiceValidator( alternatives.toArray( new Type[ 0 ] ) );
+		} else if( type instanceof Type.TypeLink ) {
+			return new LinkValidator( (Type.TypeLink) type, !containsChoice( type ) );
+		}
+		// A type unknown to this compiler: defer to its interpretive check
+		return new TypeValidator( false ) {
+			@Override
+			boolean test( Value value ) {
+				try {
+					type.check( value, new StringBuilder() );
+					return true;
+				} catch( TypeCheckingException e ) {
+					return false;
+				}
+			}
+		};
+	}
+
+	private static void flattenChoice( Type type, List< Type > alternatives ) {
+		if( type instanceof TypeChoice ) {
+			flattenChoice( ((TypeChoice) type).left(), alternatives );
+			flattenChoice( ((TypeChoice) type).right(), alternatives );
+		} else {
+			alternatives.add( type );
+		}
+	}
+
+	private static boolean containsChoice( Type type ) {
+		return containsChoice( type, Collections.newSetFromMap( new IdentityHashMap<>() ) );
+	}
+
+	private static boolean containsChoice( Type type, Set< Type > visited ) {
+		if( !visited.add( type ) ) {
+			return false;
+		}
+		if( type instanceof TypeImpl ) {
+			final Map< String, Type > subTypes = ((TypeImpl) type).subTypes();
+			if( subTypes != null ) {
+				for( Type subType : subTypes.values() ) {
+					if( containsChoice( subType, visited ) ) {
+						return true;
+					}
+				}
+			}
+			return false;
+		} else if( type instanceof Type.TypeLink ) {
+			final Type linkedType = ((Type.TypeLink) type).linkedType();
+			// Unresolved links are assumed to contain choices
+			return linkedType == null || containsChoice( linkedType, visited );
+		}
+		return true;
+	}
+
+	private static class NodeValidator extends TypeValidator {
+		private final BasicType< ? > basicType;
+		private final boolean closed;
+		private final String[] names;
+		private final Type[] types;
+		private final int[] min;
+		private final int[] max;
+
+		private NodeValidator( TypeImpl type, boolean castIsIdentity ) {
+			super( castIsIdentity );
+			basicType = type.basicType();
+			final Map< String, Type > subTypes = type.subTypes();
+			closed = subTypes != null;
+			final int size = closed ? subTypes.size() : 0;
+			names = new String[ size ];
+			types = new Type[ size ];
+			min = new int[ size ];
+			max = new int[ size ];
+			if( closed ) {
+				int i = 0;
+				for( Entry< String, Type > entry : subTypes.entrySet() ) {
+					names[ i ] = entry.getKey();
+					types[ i ] = entry.getValue();
+					min[ i ] = entry.getValue().cardinality().min();
+					max[ i ] = entry.getValue().cardinality().max();
+					i++;
+				}
+			}
+		}
+
+		@Override
+		boolean test( Value value ) {
+			if( !basicType.accepts( value ) ) {
+				return false;
+			}
+			if( !closed ) {
+				return true;
+			}
+			if( !value.hasChildren() ) {
+				// Only the required children can be missing
+				for( int m : min ) {
+					if( m > 0 ) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			// Check the shape of the node before descending, so that wrong alternatives of choices are
+			// rejected early
+			final ValueVector[] vectors = new ValueVector[ names.length ];
+			int present = 0;
+			for( int i = 0; i < names.length; i++ ) {
+				if( value.hasChildren( names[ i ] ) ) {
+					final ValueVector vector = value.getChildren( names[ i ] );
+					final int size = vector.size();
+					if( size < min[ i ] || size > max[ i ] ) {
+						return false;
+					}
+					vectors[ i ] = vector;
+					present++;
+				} else if( min[ i ] > 0 ) {
+					return false;
+				}
+			}
+			if( value.children().size() > present ) {
+				// Some child is not among the expected ones
+				return false;
+			}
+
+			for( int i = 0; i < names.length; i++ ) {
+				if( vectors[ i ] != null ) {
+					final TypeValidator validator = types[ i ].validator();
+					for( Value v : vectors[ i ] ) {
+						if( !validator.test( v ) ) {
+							return false;
+						}
+					}
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class ChoiceValidator extends TypeValidator {
+		private final Type[] alternatives;
+
+		private ChoiceValidator( Type[] alternatives ) {
+			super( false );
+			this.alternatives = alternatives;
+		}
+
+		@Override
+		boolean test( Value value ) {
+			for( Type alternative : alternatives ) {
+				if( alternative.validator().test( value ) ) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static class LinkValidator extends TypeValidator {
+		private final Type.TypeLink link;
+
+		private LinkValidator( Type.TypeLink link, boolean castIsIdentity ) {
+			super( castIsIdentity );
+			this.link = link;
+		}
+
+		@Override
+		boolean test( Value value ) {
+			return link.linkedType().validator().test( value );
+		}
+	}
+}
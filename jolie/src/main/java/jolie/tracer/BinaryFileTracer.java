@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.tracer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jolie.Interpreter;
+import jolie.lang.Constants;
+import jolie.lang.parse.context.ParsingContext;
+import jolie.monitoring.RingBuffer;
+import jolie.runtime.Value;
+import jolie.runtime.ValuePrettyPrinter;
+
+/**
+ * A tracer that writes its actions to files in a compact binary format, without slowing down the
+ * traced threads with formatting and I/O. Each thread encodes its actions in a buffer of its own,
+ * and a background thread numbers them, writes them and starts a new file when the current one
+ * reaches {@link #MAX_FILE_SIZE}.
+ *
+ * Actions carry the same information written by {@link FileTracer}, which {@link BinaryTraceReader}
+ * produces from the files of this tracer.
+ */
+public class BinaryFileTracer implements Tracer {
+	/**
+	 * The suffix of the names of trace files.
+	 */
+	public static final String FILE_SUFFIX = ".jolie.trace";
+	public static final long MAX_FILE_SIZE = 64L << 20;
+
+	// Every file starts with MAGIC, VERSION and the path and name of the traced program, which stand
+	// for the location of actions without a context
+	static final byte[] MAGIC = { 'J', 'T', 'R', 'C' };
+	static final int VERSION = 1;
+
+	// The kinds of actions, which tell the fields following their code
+	static final byte EMBEDDING = 'e';
+	static final byte MESSAGE = 'm';
+	static final byte ASSIGNMENT = 'a';
+	static final byte PROTOCOL = 'p';
+
+	private static final Logger LOGGER = Logger.getLogger( Constants.JOLIE_LOGGER_NAME );
+	private static final int BUFFER_SIZE = 16384;
+	private static final int BATCH_SIZE = 1024;
+	private static final int OUTPUT_BUFFER_SIZE = 65536;
+	// Thread buffers grown beyond this size for a large value are not kept
+	private static final int MAX_KEPT_RECORD_SIZE = 65536;
+	private static final int BYTE_TRUNCATION = 50;
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+	private static final long BLOCKED_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+	private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern( "ddMMyyyyHHmmssSSS" );
+
+	private final Path directory;
+	private final String programPath;
+	private final String programName;
+	private final TracerUtils.TracerLevels tracerLevels;
+	private final RingBuffer< byte[] > buffer = new RingBuffer<>( BUFFER_SIZE );
+	private final ThreadLocal< Encoder > encoders = ThreadLocal.withInitial( Encoder::new );
+	private final Thread writer;
+	private volatile boolean writerIdle = false;
+	private volatile boolean closed = false;
+
+	// Used only by the writing thread
+	private long actionCounter = 0;
+	private OutputStream output = null;
+	private long fileSize = 0;
+	private boolean failed = false;
+
+	public BinaryFileTracer( Interpreter interpreter, TracerUtils.TracerLevels tLevel ) {
+		this( Paths.get( "" ), new File( interpreter.programDirectory(), interpreter.programFilename() ).getPath(),
+			interpreter.programFilename(), tLevel );
+	}
+
+	/**
+	 * Creates a tracer writing to the given directory.
+	 *
+	 * @param directory the directory of the trace files
+	 * @param programPath the path of the traced program
+	 * @param programName the name of the traced program
+	 * @param tLevel the actions to be traced
+	 */
+	public BinaryFileTracer( Path directory, String programPath, String programName,
+		TracerUtils.TracerLevels tLevel ) {
+		this.directory = directory;
+		this.programPath = programPath;
+		this.programName = programName;
+		this.tracerLevels = tLevel;
+		writer = new Thread( this::run, programName + "-Tracer" );
+		writer.setDaemon( true );
+		writer.start();
+	}
+
+	@Override
+	public void trace( Supplier< ? extends TraceAction > supplier ) {
+		if( closed ) {
+			return;
+		}
+		final TraceAction action = supplier.get();
+		final Encoder encoder = encoders.get();
+		final boolean traced;
+		if( action instanceof MessageTraceAction ) {
+			traced = encoder.encode( (MessageTraceAction) action );
+		} else if( action instanceof EmbeddingTraceAction ) {
+			traced = encoder.encode( (EmbeddingTraceAction) action );
+		} else if( action instanceof AssignmentTraceAction ) {
+			traced = encoder.encode( (AssignmentTraceAction) action );
+		} else if( action instanceof ProtocolTraceAction ) {
+			traced = encoder.encode( (ProtocolTraceAction) action );
+		} else {
+			traced = false;
+		}
+		if( traced ) {
+			final byte[] record = encoder.toByteArray();
+			while( !buffer.offer( record ) ) {
+				if( closed ) {
+					return;
+				}
+				LockSupport.unpark( writer );
+				LockSupport.parkNanos( this, BLOCKED_NANOS );
+			}
+			if( writerIdle ) {
+				LockSupport.unpark( writer );
+			}
+		}
+	}
+
+	/**
+	 * Stops tracing and waits for the traced actions to be written.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark( writer );
+		try {
+			writer.join();
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		final List< byte[] > batch = new ArrayList<>( BATCH_SIZE );
+		try {
+			while( true ) {
+				buffer.drainTo( batch, BATCH_SIZE );
+				if( !batch.isEmpty() ) {
+					write( batch );
+					batch.clear();
+				} else if( closed && buffer.isEmpty() ) {
+					return;
+				} else {
+					flush();
+					writerIdle = true;
+					if( buffer.isEmpty() && !closed ) {
+						LockSupport.parkNanos( this, IDLE_NANOS );
+					}
+					writerIdle = false;
+				}
+			}
+		} finally {
+			if( output != null ) {
+				try {
+					output.close();
+				} catch( IOException e ) {
+					LOGGER.log( Level.WARNING, "Could not close the trace file", e );
+				}
+			}
+		}
+	}
+
+	private void write( List< byte[] > batch ) {
+		for( byte[] record : batch ) {
+			actionCounter++;
+			if( failed ) {
+				continue;
+			}
+			try {
+				if( output == null || fileSize >= MAX_FILE_SIZE ) {
+					newFile();
+				}
+				fileSize += writeVarLong( output, actionCounter );
+				fileSize += writeVarLong( output, record.length );
+				output.write( record );
+				fileSize += record.length;
+			} catch( IOException e ) {
+				// Keep draining the buffer, so that traced threads do not wait for the writer forever
+				LOGGER.log( Level.SEVERE, "Could not write the trace of " + programName + ", tracing stopped", e );
+				failed = true;
+			}
+		}
+	}
+
+	private void flush() {
+		if( output != null && !failed ) {
+			try {
+				output.flush();
+			} catch( IOException e ) {
+				LOGGER.log( Level.SEVERE, "Could not write the trace of " + programName + ", tracing stopped", e );
+				failed = true;
+			}
+		}
+	}
+
+	private void newFile()
+		throws IOException {
+		if( output != null ) {
+			output.close();
+		}
+		final String name = FILE_NAME_FORMAT.format( LocalDateTime.now() );
+		OutputStream stream = null;
+		for( int i = 0; stream == null; i++ ) {
+			final Path path = directory.resolve( i == 0 ? name + FILE_SUFFIX : name + "-" + i + FILE_SUFFIX );
+			try {
+				stream = Files.newOutputStream( path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE );
+			} catch( FileAlreadyExistsException e ) {
+				// Another tracer started a file in the same millisecond
+			}
+		}
+		output = new BufferedOutputStream( stream, OUTPUT_BUFFER_SIZE );
+		output.write( MAGIC );
+		output.write( VERSION );
+		final Encoder header = new Encoder();
+		header.writeString( programPath );
+		header.writeString( programName );
+		output.write( header.bytes, 0, header.size );
+		fileSize = MAGIC.length + 1 + header.size;
+	}
+
+	private static int writeVarLong( OutputStream stream, long value )
+		throws IOException {
+		int written = 1;
+		while( (value & ~0x7FL) != 0 ) {
+			stream.write( (int) ((value & 0x7F) | 0x80) );
+			value >>>= 7;
+			written++;
+		}
+		stream.write( (int) value );
+		return written;
+	}
+
+	/**
+	 * Encodes the actions of a thread, reusing its buffers.
+	 */
+	private class Encoder {
+		private byte[] bytes = new byte[ 512 ];
+		private int size = 0;
+		private final StringWriter text = new StringWriter();
+
+		private boolean encode( EmbeddingTraceAction action ) {
+			if( !tracerLevels.equals( TracerUtils.TracerLevels.ALL ) ) {
+				return false;
+			}
+			begin( EMBEDDING, "emb", action.context() );
+			writeString( action.name() );
+			writeString( action.description() );
+			return true;
+		}
+
+		private boolean encode( MessageTraceAction action ) {
+			if( !tracerLevels.equals( TracerUtils.TracerLevels.ALL )
+				&& !tracerLevels.equals( TracerUtils.TracerLevels.COMM ) ) {
+				return false;
+			}
+			final String code;
+			switch( action.type() ) {
+			case SOLICIT_RESPONSE:
+				code = "sr";
+				break;
+			case NOTIFICATION:
+				code = "n";
+				break;
+			case ONE_WAY:
+				code = "ow";
+				break;
+			case REQUEST_RESPONSE:
+				code = "rr";
+				break;
+			case COURIER_NOTIFICATION:
+				code = "cn";
+				break;
+			case COURIER_SOLICIT_RESPONSE:
+				code = "csr";
+				break;
+			default:
+				code = "";
+				break;
+			}
+			begin( MESSAGE, code, action.context() );
+			writeString( action.description() );
+			writeString( action.name() );
+			if( action.message() == null ) {
+				writeByte( 0 );
+			} else {
+				writeByte( 1 );
+				writeVarLong( action.message().requestId() );
+				Value value = action.message().value();
+				if( action.message().isFault() ) {
+					value = action.message().fault().value().clone();
+					value.getFirstChild( "__faultname" ).setValue( action.message().fault().faultName() );
+				}
+				writeValue( value, 0 );
+			}
+			return true;
+		}
+
+		private boolean encode( AssignmentTraceAction action ) {
+			if( !tracerLevels.equals( TracerUtils.TracerLevels.ALL )
+				&& !tracerLevels.equals( TracerUtils.TracerLevels.COMP ) ) {
+				return false;
+			}
+			final String code;
+			switch( action.type() ) {
+			case ASSIGNMENT:
+				code = "comp";
+				break;
+			case POINTER:
+				code = "alias";
+				break;
+			case DEEPCOPY:
+				code = "dcopy";
+				break;
+			default:
+				code = "";
+				break;
+			}
+			begin( ASSIGNMENT, code, action.context() );
+			writeString( action.description() );
+			writeString( action.name() );
+			if( action.value() == null ) {
+				writeByte( 0 );
+			} else {
+				writeByte( 1 );
+				writeValue( action.value(), 6 );
+			}
+			return true;
+		}
+
+		private boolean encode( ProtocolTraceAction action ) {
+			if( !tracerLevels.equals( TracerUtils.TracerLevels.ALL )
+				&& !tracerLevels.equals( TracerUtils.TracerLevels.COMM ) ) {
+				return false;
+			}
+			final String code;
+			switch( action.type() ) {
+			case HTTP:
+				code = "http";
+				break;
+			case SOAP:
+				code = "soap";
+				break;
+			default:
+				code = "";
+				break;
+			}
+			begin( PROTOCOL, code, action.context() );
+			writeString( action.description() );
+			writeString( action.name() );
+			if( action.message() == null ) {
+				writeByte( 0 );
+			} else {
+				writeByte( 1 );
+				writeString( action.message() );
+			}
+			return true;
+		}
+
+		private void begin( byte kind, String code, ParsingContext context ) {
+			if( bytes.length > MAX_KEPT_RECORD_SIZE ) {
+				bytes = new byte[ 512 ];
+			}
+			size = 0;
+			writeLong( System.currentTimeMillis() );
+			writeByte( kind );
+			writeString( code );
+			if( context == null ) {
+				writeByte( 0 );
+			} else {
+				writeByte( 1 );
+				writeString( context.source().toString() );
+				writeString( context.sourceName() );
+				writeVarLong( context.startLine() + 1 );
+			}
+		}
+
+		private void writeValue( Value value, int indentation ) {
+			text.getBuffer().setLength( 0 );
+			final ValuePrettyPrinter printer = new ValuePrettyPrinter( value, text, "Value:" );
+			printer.setByteTruncation( BYTE_TRUNCATION );
+			printer.setIndentationOffset( indentation );
+			try {
+				printer.run();
+			} catch( IOException e ) {
+			} // Should never happen
+			writeString( text.toString().trim() );
+		}
+
+		private void writeString( String s ) {
+			// Like the append of FileTracer, which writes null strings as "null"
+			final byte[] b = String.valueOf( s ).getBytes( StandardCharsets.UTF_8 );
+			writeVarLong( b.length );
+			ensureCapacity( b.length );
+			System.arraycopy( b, 0, bytes, size, b.length );
+			size += b.length;
+		}
+
+		private void writeVarLong( long value ) {
+			ensureCapacity( 10 );
+			while( (value & ~0x7FL) != 0 ) {
+				bytes[ size++ ] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[ size++ ] = (byte) value;
+		}
+
+		private void writeLong( long value ) {
+			ensureCapacity( 8 );
+			for( int shift = 56; shift >= 0; shift -= 8 ) {
+				bytes[ size++ ] = (byte) (value >>> shift);
+			}
+		}
+
+		private void writeByte( int b ) {
+			ensureCapacity( 1 );
+			bytes[ size++ ] = (byte) b;
+		}
+
+		private void ensureCapacity( int n ) {
+			if( size + n > bytes.length ) {
+				bytes = Arrays.copyOf( bytes, Math.max( bytes.length * 2, size + n ) );
+			}
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf( bytes, size );
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.tracer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Converts the files written by {@link BinaryFileTracer} to the JSON layout of {@link FileTracer},
+ * one action per line. Strings are escaped, so the result is valid JSON even when the traced
+ * descriptions contain quotes.
+ *
+ * Used from the command line as <code>jolietrace2json file.jolie.trace...</code>, which writes the
+ * conversion of each file next to it, with the suffix <code>.jolie.log.json</code>.
+ */
+public class BinaryTraceReader {
+	private static final String JSON_SUFFIX = ".jolie.log.json";
+	private static final DateTimeFormatter TIMESTAMP_FORMAT =
+		DateTimeFormatter.ofPattern( "dd/MM/yyyy HH:mm:ss.SSS" ).withZone( ZoneId.systemDefault() );
+
+	private final DataInputStream input;
+	private final String programPath;
+	private final String programName;
+
+	/**
+	 * Reads the trace in the given stream.
+	 *
+	 * @param stream the stream containing a trace file
+	 * @throws IOException if the stream does not contain a trace file
+	 */
+	public BinaryTraceReader( InputStream stream )
+		throws IOException {
+		input = new DataInputStream( new BufferedInputStream( stream ) );
+		final byte[] magic = new byte[ BinaryFileTracer.MAGIC.length ];
+		input.readFully( magic );
+		if( !Arrays.equals( magic, BinaryFileTracer.MAGIC ) ) {
+			throw new IOException( "Not a Jolie trace file" );
+		}
+		final int version = input.readUnsignedByte();
+		if( version != BinaryFileTracer.VERSION ) {
+			throw new IOException( "Unsupported trace version: " + version );
+		}
+		programPath = readString();
+		programName = readString();
+	}
+
+	/**
+	 * Writes all the actions in the trace to the given writer, one JSON object per line. A truncated
+	 * last action, as left by a program that did not terminate normally, is ignored.
+	 *
+	 * @param writer the destination of the actions
+	 * @return the number of converted actions
+	 * @throws IOException if the trace is malformed or the writer fails
+	 */
+	public long writeJson( Writer writer )
+		throws IOException {
+		final StringBuilder line = new StringBuilder();
+		long count = 0;
+		while( true ) {
+			final long id;
+			final byte[] record;
+			try {
+				id = readVarLong( input );
+				record = new byte[ Math.toIntExact( readVarLong( input ) ) ];
+				input.readFully( record );
+			} catch( EOFException e ) {
+				return count;
+			}
+			line.setLength( 0 );
+			appendAction( id, new DataInputStream( new ByteArrayInputStream( record ) ), line );
+			writer.write( line.toString() );
+			count++;
+		}
+	}
+
+	private void appendAction( long id, DataInputStream record, StringBuilder line )
+		throws IOException {
+		line.append( "{\"" ).append( id ).append( "\":[" );
+		appendString( TIMESTAMP_FORMAT.format( Instant.ofEpochMilli( record.readLong() ) ), line ).append( ',' );
+		final byte kind = record.readByte();
+		final String code = readString( record );
+		if( record.readByte() == 0 ) {
+			appendString( programPath, line ).append( ',' );
+			appendString( programName, line ).append( ",\"\"," );
+		} else {
+			appendString( readString( record ), line ).append( ',' );
+			appendString( readString( record ), line ).append( ",\"" );
+			line.append( readVarLong( record ) ).append( "\"," );
+		}
+		appendString( code, line ).append( ',' );
+		appendString( readString( record ), line ).append( ',' );
+		appendString( readString( record ), line );
+		if( kind != BinaryFileTracer.EMBEDDING && record.readByte() != 0 ) {
+			line.append( ',' );
+			if( kind == BinaryFileTracer.MESSAGE ) {
+				appendString( Long.toString( readVarLong( record ) ), line );
+			} else {
+				line.append( "\"\"" );
+			}
+			line.append( ",\"" )
+				.append( Base64.getEncoder().encodeToString( readBytes( record ) ) )
+				.append( '"' );
+		}
+		line.append( "]}\n" );
+	}
+
+	private String readString()
+		throws IOException {
+		return readString( input );
+	}
+
+	private static String readString( DataInputStream stream )
+		throws IOException {
+		return new String( readBytes( stream ), StandardCharsets.UTF_8 );
+	}
+
+	private static byte[] readBytes( DataInputStream stream )
+		throws IOException {
+		final byte[] b = new byte[ Math.toIntExact( readVarLong( stream ) ) ];
+		stream.readFully( b );
+		return b;
+	}
+
+	private static long readVarLong( DataInputStream stream )
+		throws IOException {
+		long value = 0;
+		for( int shift = 0; shift < 64; shift += 7 ) {
+			final int b = stream.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if( (b & 0x80) == 0 ) {
+				return value;
+			}
+		}
+		throw new IOException( "Malformed trace file" );
+	}
+
+	private static StringBuilder appendString( String s, StringBuilder line ) {
+		line.append( '"' );
+		for( int i = 0; i < s.length(); i++ ) {
+			final char c = s.charAt( i );
+			switch( c ) {
+			case '"':
+				line.append( "\\\"" );
+				break;
+			case '\\':
+				line.append( "\\\\" );
+				break;
+			case '\n':
+				line.append( "\\n" );
+				break;
+			case '\r':
+				line.append( "\\r" );
+				break;
+			case '\t':
+				line.append( "\\t" );
+				break;
+			default:
+				if( c < 0x20 ) {
+					line.append( String.format( "\\u%04x", (int) c ) );
+				} else {
+					line.append( c );
+				}
+				break;
+			}
+		}
+		return line.append( '"' );
+	}
+
+	public static void main( String[] args ) {
+		if( args.length == 0 ) {
+			System.err.println( "Usage: jolietrace2json file" + BinaryFileTracer.FILE_SUFFIX + "..." );
+			System.exit( 1 );
+		}
+		int exitCode = 0;
+		for( String arg : args ) {
+			final Path source = Paths.get( arg );
+			String name = source.getFileName().toString();
+			if( name.endsWith( BinaryFileTracer.FILE_SUFFIX ) ) {
+				name = name.substring( 0, name.length() - BinaryFileTracer.FILE_SUFFIX.length() );
+			}
+			final Path target = source.resolveSibling( name + JSON_SUFFIX );
+			try( InputStream stream = Files.newInputStream( source );
+				Writer writer = Files.newBufferedWriter( target, StandardCharsets.UTF_8 ) ) {
+				final long count = new BinaryTraceReader( stream ).writeJson( writer );
+				System.out.println( source + " -> " + target + " (" + count + " actions)" );
+			} catch( IOException e ) {
+				System.err.println( source + ": " + e.getMessage() );
+				exitCode = 1;
+			}
+		}
+		System.exit( exitCode );
+	}
+}
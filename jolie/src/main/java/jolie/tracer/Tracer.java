@@ -30,4 +30,9 @@ import java.util.function.Supplier;
 public interface Tracer {
 
 	void trace( Supplier< ? extends TraceAction > supplier );
+
+	/**
+	 * Stops tracing, completing the output of the actions traced so far.
+	 */
+	default void close() {}
 }
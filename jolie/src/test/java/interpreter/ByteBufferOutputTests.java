@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import jolie.net.ByteBufferOutput;
+import jolie.net.DirectBufferPool;
+import jolie.runtime.ByteArray;
+
+class ByteBufferOutputTests {
+	@Test
+	void appendsWithoutCopying() {
+		var payload = ByteBuffer.wrap( new byte[ 20000 ] );
+		var out = new ByteBufferOutput();
+		out.write( "head".getBytes( StandardCharsets.US_ASCII ) );
+		out.append( payload );
+		out.reserve( Integer.BYTES ).putInt( 42 );
+		var buffers = out.finish();
+		assertEquals( 3, buffers.length, "wrong number of buffers" );
+		assertTrue( buffers[ 0 ].isDirect(), "not a pooled buffer" );
+		assertEquals( 4, buffers[ 0 ].remaining(), "wrong header" );
+		assertSame( payload, buffers[ 1 ], "payload copied" );
+		assertEquals( 42, buffers[ 2 ].getInt(), "wrong trailer" );
+		ByteBufferOutput.release( buffers );
+	}
+
+	@Test
+	void spansBuffers() {
+		var bytes = new byte[ DirectBufferPool.BUFFER_SIZE * 2 + 10 ];
+		for( int i = 0; i < bytes.length; i++ ) {
+			bytes[ i ] = (byte) i;
+		}
+		var out = new ByteBufferOutput();
+		out.write( bytes );
+		var buffers = out.finish();
+		assertEquals( 3, buffers.length, "wrong number of buffers" );
+		var written = ByteBuffer.allocate( bytes.length );
+		for( ByteBuffer b : buffers ) {
+			written.put( b );
+		}
+		assertArrayEquals( bytes, written.array(), "wrong content" );
+		ByteBufferOutput.release( buffers );
+	}
+
+	@Test
+	void byteArrayRanges() {
+		var buffer = "xxhelloxx".getBytes( StandardCharsets.US_ASCII );
+		var range = new ByteArray( buffer, 2, 5 );
+		var whole = new ByteArray( "hello".getBytes( StandardCharsets.US_ASCII ) );
+		assertEquals( 5, range.size(), "wrong size" );
+		assertEquals( whole, range, "ranges are compared by content" );
+		assertEquals( whole.hashCode(), range.hashCode(), "wrong hash code" );
+		assertEquals( "hello", range.toString(), "wrong string" );
+		assertArrayEquals( whole.getBytes(), range.getBytes(), "wrong bytes" );
+		assertEquals( ByteBuffer.wrap( buffer, 2, 5 ), range.asByteBuffer(), "wrong buffer" );
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import jolie.runtime.ByteArray;
+import jolie.runtime.ByteStream;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+
+class ByteStreamTests {
+	private static final byte[] BYTES = "streamed content".getBytes( StandardCharsets.UTF_8 );
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void consumedOnce() throws IOException {
+		var stream = new ByteStream( new ByteArrayInputStream( BYTES ), BYTES.length );
+		try( InputStream istream = stream.openStream() ) {
+			assertArrayEquals( BYTES, istream.readAllBytes(), "wrong content" );
+		}
+		assertThrows( IOException.class, stream::openStream );
+	}
+
+	@Test
+	void lengthDoesNotRead() {
+		var stream = new ByteStream( new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException( "read" );
+			}
+		}, 42 );
+		assertEquals( 42, stream.length(), "wrong length" );
+		assertEquals( 42, stream.size(), "wrong size" );
+	}
+
+	@Test
+	void behavesAsByteArray() throws IOException {
+		var stream = new ByteStream( new ByteArrayInputStream( BYTES ), -1 );
+		var value = Value.create( stream );
+		assertTrue( value.isByteArray(), "not a raw value" );
+		assertEquals( new ByteArray( BYTES ), value.byteArrayValue(), "wrong content" );
+		assertEquals( BYTES.length, stream.length(), "wrong length after reading" );
+		// Once read, the content can be streamed again
+		try( InputStream istream = stream.openStream() ) {
+			assertArrayEquals( BYTES, istream.readAllBytes(), "wrong content" );
+		}
+	}
+
+	@Test
+	void consumedStreamRaisesFault() throws IOException {
+		var stream = new ByteStream( new ByteArrayInputStream( BYTES ), BYTES.length );
+		stream.openStream().close();
+		var e = assertThrows( FaultException.RuntimeFaultException.class, stream::getBytes );
+		assertEquals( "IOException", e.faultException().faultName(), "wrong fault" );
+	}
+
+	@Test
+	void fileCanBeReadAgain() throws IOException, InterruptedException {
+		final Path file = Files.write( directory.resolve( "content" ), BYTES );
+		var stream = ByteStream.ofFile( file, BYTES.length );
+		for( int i = 0; i < 2; i++ ) {
+			try( InputStream istream = stream.openStream() ) {
+				assertArrayEquals( BYTES, istream.readAllBytes(), "wrong content" );
+			}
+		}
+		assertArrayEquals( BYTES, stream.getBytes(), "wrong content" );
+		stream = null;
+		// The file is deleted once the value is collected
+		for( int i = 0; i < 100 && Files.exists( file ); i++ ) {
+			System.gc();
+			Thread.sleep( 10 );
+		}
+		assertFalse( Files.exists( file ), "file not deleted" );
+	}
+
+	@Test
+	void closeDeletesFile() throws IOException {
+		final Path file = Files.write( directory.resolve( "content" ), BYTES );
+		final int[] deleted = { 0 };
+		var stream = ByteStream.ofFile( file, BYTES.length, () -> deleted[ 0 ]++ );
+		stream.close();
+		assertFalse( Files.exists( file ), "file not deleted" );
+		assertEquals( 1, deleted[ 0 ], "onDelete not run once" );
+		var e = assertThrows( FaultException.RuntimeFaultException.class, stream::getBytes );
+		assertEquals( "IOException", e.faultException().faultName(), "wrong fault" );
+		stream.close();
+		assertEquals( 1, deleted[ 0 ], "onDelete run again" );
+	}
+}
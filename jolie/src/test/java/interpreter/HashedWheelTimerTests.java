@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import jolie.HashedWheelTimer;
+
+class HashedWheelTimerTests {
+	@Test
+	void expiresAfterDelay() throws Exception {
+		var timer = new HashedWheelTimer( Thread::new, 5 );
+		var latch = new CountDownLatch( 1 );
+		long start = System.nanoTime();
+		timer.schedule( latch::countDown, 50 );
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		assertTrue( System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos( 50 ) );
+		timer.stop( 1000 );
+	}
+
+	@Test
+	void expiresAfterManyRounds() throws Exception {
+		// Longer than a full turn of the wheel (512 ticks)
+		var timer = new HashedWheelTimer( Thread::new, 1 );
+		var latch = new CountDownLatch( 1 );
+		long start = System.nanoTime();
+		timer.schedule( latch::countDown, 1200 );
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		assertTrue( System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos( 1200 ) );
+		timer.stop( 1000 );
+	}
+
+	@Test
+	void cancelledTimeoutsDoNotRun() throws Exception {
+		var timer = new HashedWheelTimer( Thread::new, 5 );
+		var runs = new AtomicInteger();
+		for( int i = 0; i < 1000; i++ ) {
+			Future< ? > f = timer.schedule( runs::incrementAndGet, 20 );
+			assertTrue( f.cancel( false ) );
+		}
+		var latch = new CountDownLatch( 1 );
+		timer.schedule( latch::countDown, 40 );
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		assertEquals( 0, runs.get() );
+		assertEquals( 0, timer.pending() );
+		timer.stop( 1000 );
+	}
+
+	@Test
+	void stopReturnsPendingTimeouts() {
+		var timer = new HashedWheelTimer( Thread::new, 5 );
+		var runs = new AtomicInteger();
+		timer.schedule( runs::incrementAndGet, 60_000 );
+		timer.schedule( runs::incrementAndGet, 60_000 ).cancel( false );
+		List< Runnable > pending = timer.stop( 1000 );
+		pending.forEach( Runnable::run );
+		assertEquals( 1, runs.get() );
+		assertThrows( RejectedExecutionException.class, () -> timer.schedule( runs::incrementAndGet, 0 ) );
+		assertFalse( pending.isEmpty() );
+	}
+
+	@Test
+	void drivenTimersShareTheThreadOfTheDriver() throws Exception {
+		var threads = new AtomicInteger();
+		var driver = new HashedWheelTimer( r -> {
+			threads.incrementAndGet();
+			return new Thread( r );
+		}, 5 );
+		var first = new HashedWheelTimer( driver );
+		var second = new HashedWheelTimer( driver );
+		var latch = new CountDownLatch( 2 );
+		long start = System.nanoTime();
+		first.schedule( latch::countDown, 30 );
+		second.schedule( latch::countDown, 30 );
+		assertTrue( latch.await( 5, TimeUnit.SECONDS ) );
+		assertTrue( System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos( 30 ) );
+		assertEquals( 1, threads.get() );
+
+		// Stopping a driven timer does not stop the driver or the other driven timers
+		var runs = new AtomicInteger();
+		first.schedule( runs::incrementAndGet, 60_000 );
+		List< Runnable > pending = first.stop( 1000 );
+		assertEquals( 1, pending.size() );
+		assertThrows( RejectedExecutionException.class, () -> first.schedule( runs::incrementAndGet, 0 ) );
+		var secondLatch = new CountDownLatch( 1 );
+		second.schedule( secondLatch::countDown, 10 );
+		assertTrue( secondLatch.await( 5, TimeUnit.SECONDS ) );
+
+		// Stopping the driver stops the driven timers
+		second.schedule( runs::incrementAndGet, 60_000 );
+		driver.stop( 1000 );
+		assertEquals( 1, second.stop( 1000 ).size() );
+		assertEquals( 0, runs.get() );
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import jolie.net.CommMessage;
+import jolie.runtime.Value;
+import jolie.tracer.AssignmentTraceAction;
+import jolie.tracer.BinaryFileTracer;
+import jolie.tracer.BinaryTraceReader;
+import jolie.tracer.EmbeddingTraceAction;
+import jolie.tracer.MessageTraceAction;
+import jolie.tracer.TracerUtils;
+
+class TracerTests {
+	@Test
+	void binaryTraceRoundTrip( @TempDir Path directory ) throws Exception {
+		var tracer = new BinaryFileTracer( directory, "/tmp/main.ol", "main.ol", TracerUtils.TracerLevels.ALL );
+		tracer.trace( () -> new EmbeddingTraceAction( EmbeddingTraceAction.Type.SERVICE_LOAD, "Java Service Loader",
+			"Console", null ) );
+		var message = CommMessage.createRequest( "op", "/", Value.create( 5 ) );
+		tracer.trace( () -> new MessageTraceAction( MessageTraceAction.Type.REQUEST_RESPONSE, "op", "a \"quoted\" op",
+			message, null ) );
+		tracer.trace( () -> new AssignmentTraceAction( AssignmentTraceAction.Type.ASSIGNMENT, "x", null, null, null ) );
+		tracer.close();
+
+		List< Path > files;
+		try( Stream< Path > s = Files.list( directory ) ) {
+			files = s.collect( Collectors.toList() );
+		}
+		assertEquals( 1, files.size(), "wrong number of trace files" );
+		assertTrue( files.get( 0 ).toString().endsWith( BinaryFileTracer.FILE_SUFFIX ), "wrong file name" );
+
+		var json = new StringWriter();
+		try( InputStream stream = Files.newInputStream( files.get( 0 ) ) ) {
+			assertEquals( 3, new BinaryTraceReader( stream ).writeJson( json ), "wrong number of actions" );
+		}
+		// Drop the timestamps
+		var lines = json.toString().replaceAll( "\\[\"[^\"]*\",", "[" ).split( "\n" );
+		assertEquals( "{\"1\":[\"/tmp/main.ol\",\"main.ol\",\"\",\"emb\",\"Java Service Loader\",\"Console\"]}",
+			lines[ 0 ] );
+		var printed = Base64.getEncoder().encodeToString( "Value::int = 5".getBytes( StandardCharsets.UTF_8 ) );
+		assertEquals( "{\"2\":[\"/tmp/main.ol\",\"main.ol\",\"\",\"rr\",\"a \\\"quoted\\\" op\",\"op\",\""
+			+ message.requestId() + "\",\"" + printed + "\"]}", lines[ 1 ] );
+		assertEquals( "{\"3\":[\"/tmp/main.ol\",\"main.ol\",\"\",\"comp\",\"null\",\"x\"]}", lines[ 2 ] );
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import jolie.lang.NativeType;
+import jolie.lang.parse.ast.types.BasicTypeDefinition;
+import jolie.lang.parse.ast.types.refinements.BasicTypeRefinementIntegerRanges;
+import jolie.runtime.Value;
+import jolie.runtime.typing.BasicType;
+import jolie.runtime.typing.Type;
+import jolie.runtime.typing.TypeCheckingException;
+import jolie.util.Range;
+
+class TypeTests {
+	private static final Range ONE = new Range( 1, 1 );
+	private static final Range OPTIONAL = new Range( 0, 1 );
+	private static final Range ANY_NUMBER = new Range( 0, Integer.MAX_VALUE );
+
+	private static Type leaf( NativeType nativeType, Range cardinality ) {
+		return Type.create( BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( nativeType ) ), cardinality,
+			false, Map.of() );
+	}
+
+	private static Type node( NativeType nativeType, Range cardinality, Map< String, Type > subTypes ) {
+		return Type.create( BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( nativeType ) ), cardinality,
+			false, subTypes );
+	}
+
+	@Test
+	void nestedTypes() {
+		// type Tree: void { value: int, children*: Tree }
+		var link = Type.createLink( "Tree", ANY_NUMBER );
+		var tree = node( NativeType.VOID, ONE, Map.of( "value", leaf( NativeType.INT, ONE ), "children", link ) );
+		link.setLinkedType( tree );
+
+		var value = Value.create();
+		value.getFirstChild( "value" ).setValue( 1 );
+		value.getChildren( "children" ).get( 0 ).getFirstChild( "value" ).setValue( 2 );
+		value.getChildren( "children" ).get( 1 ).getFirstChild( "value" ).setValue( 3 );
+		assertDoesNotThrow( () -> tree.check( value ) );
+		assertTrue( tree.getMinimalType( value ).isPresent(), "wrong minimal type" );
+
+		value.getChildren( "children" ).get( 1 ).getFirstChild( "value" ).setValue( "3" );
+		var e = assertThrows( TypeCheckingException.class, () -> tree.check( value ) );
+		assertEquals( "Invalid native type for node #Message.children.value: expected INT, found java.lang.String(3)",
+			e.getMessage(), "wrong error" );
+		assertTrue( tree.getMinimalType( value ).isEmpty(), "wrong minimal type" );
+
+		value.getChildren( "children" ).get( 1 ).getFirstChild( "value" ).setValue( 3 );
+		value.getFirstChild( "other" ).setValue( true );
+		e = assertThrows( TypeCheckingException.class, () -> tree.check( value ) );
+		assertEquals( "Unexpected child node: #Message.other", e.getMessage(), "wrong error" );
+	}
+
+	@Test
+	void choices() {
+		// type T: void { a: int } | void { b: string, c?: bool } | int( ranges( [1, 5] ) )
+		var ranges = new BasicTypeRefinementIntegerRanges();
+		ranges.addInterval( new BasicTypeRefinementIntegerRanges.Interval( 1, 5 ) );
+		var refined = Type.create(
+			BasicType.fromBasicTypeDefinition( BasicTypeDefinition.of( NativeType.INT, List.of( ranges ) ) ), ONE,
+			false, Map.of() );
+		var first = node( NativeType.VOID, ONE, Map.of( "a", leaf( NativeType.INT, ONE ) ) );
+		var second = node( NativeType.VOID, ONE,
+			Map.of( "b", leaf( NativeType.STRING, ONE ), "c", leaf( NativeType.BOOL, OPTIONAL ) ) );
+		var choice = Type.createChoice( ONE, first, Type.createChoice( ONE, second, refined ) );
+
+		var value = Value.create();
+		value.getFirstChild( "b" ).setValue( "x" );
+		assertDoesNotThrow( () -> choice.check( value ) );
+		assertSame( second, choice.getMinimalType( value ).orElseThrow(), "wrong minimal type" );
+		value.getFirstChild( "c" ).setValue( 1 );
+		assertThrows( TypeCheckingException.class, () -> choice.check( value ) );
+
+		assertDoesNotThrow( () -> choice.check( Value.create( 3 ) ) );
+		assertThrows( TypeCheckingException.class, () -> choice.check( Value.create( 7 ) ) );
+	}
+
+	@Test
+	void castsValidValues() throws Exception {
+		var type = node( NativeType.VOID, ONE, Map.of( "a", leaf( NativeType.INT, ONE ) ) );
+		var value = Value.create();
+		value.getFirstChild( "a" ).setValue( "5" );
+		type.cast( value );
+		assertTrue( value.getFirstChild( "a" ).isInt(), "value not cast" );
+
+		// A choice casts to its first alternative that succeeds, even if the value has a later one
+		var choice = Type.createChoice( ONE, leaf( NativeType.INT, ONE ), leaf( NativeType.STRING, ONE ) );
+		var string = Value.create( "5" );
+		choice.cast( string );
+		assertTrue( string.isInt(), "value not cast to the first alternative" );
+	}
+}
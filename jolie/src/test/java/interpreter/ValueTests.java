@@ -20,9 +20,15 @@
 package interpreter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.VariablePathBuilder;
 
 class ValueTests {
 	@Test
@@ -55,4 +61,112 @@ class ValueTests {
 		assertEquals( Value.UNDEFINED_VALUE.hashCode(), Value.UNDEFINED_VALUE.hashCode(),
 			"wrong hashCode() implementation" );
 	}
+
+	@Test
+	void compactRepresentation() {
+		var v = Value.createCompact();
+		v.setValue( 3 );
+		v.add( Value.create( 4L ) );
+		assertTrue( v.isLong(), "wrong type after addition" );
+		assertEquals( 7L, v.longValue(), "wrong addition result" );
+		v.setValue( 2.5 );
+		assertEquals( 2, v.intValue(), "wrong int conversion" );
+		assertEquals( 2.5, v.valueObject(), "wrong boxed value" );
+		v.setValue( true );
+		assertTrue( v.boolValue(), "wrong bool value" );
+		assertEquals( Value.create( true ), v, "wrong equals() implementation" );
+		v.setValue( "x" );
+		assertTrue( v.isString(), "wrong type after assignment" );
+
+		// More children than can be kept inline
+		for( int i = 0; i < 20; i++ ) {
+			v.getFirstChild( "c" + i ).setValue( i );
+		}
+		v.getChildren( "c0" ).add( Value.create( "second" ) );
+		v.children().remove( "c1" );
+		assertEquals( 19, v.children().size(), "wrong number of children" );
+		assertFalse( v.hasChildren( "c1" ), "removed child still present" );
+		assertEquals( 2, v.getChildren( "c0" ).size(), "wrong vector size" );
+
+		var copy = Value.createDeepCopy( v );
+		v.getFirstChild( "c5" ).setValue( -1 );
+		assertEquals( 5, copy.getFirstChild( "c5" ).intValue(), "deep copy shares children" );
+		assertEquals( "second", copy.getChildren( "c0" ).get( 1 ).strValue(), "wrong deep copy" );
+
+		ValueVector vec = ValueVector.createCompact();
+		vec.add( Value.create( 1 ) );
+		List< Integer > seen = new ArrayList<>();
+		vec.forEach( e -> seen.add( e.intValue() ) );
+		vec.get( 2 ).setValue( 3 );
+		vec.forEach( e -> seen.add( e.intValue() ) );
+		assertEquals( List.of( 1, 1, 0, 3 ), seen, "wrong vector iteration" );
+		assertEquals( 1, vec.remove( 0 ).intValue(), "wrong removed element" );
+		assertEquals( 2, vec.size(), "wrong vector size after removal" );
+	}
+
+	@Test
+	void lazyClone() {
+		var source = Value.createRootValue();
+		source.getFirstChild( "a" ).getFirstChild( "b" ).setValue( 1 );
+		source.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).getFirstChild( "d" ).setValue( "x" );
+		source.getFirstChild( "e" ).setValue( 2.0 );
+
+		var first = Value.createLazyClone( source );
+		var second = Value.createLazyClone( source );
+		first.getFirstChild( "a" ).getFirstChild( "b" ).setValue( 2 );
+		first.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).getFirstChild( "d" ).setValue( "y" );
+		second.getFirstChild( "e" ).erase();
+
+		assertEquals( 1, source.getFirstChild( "a" ).getFirstChild( "b" ).intValue(), "source changed" );
+		assertEquals( "x", source.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).getFirstChild( "d" ).strValue(),
+			"source changed" );
+		assertEquals( 1, second.getFirstChild( "a" ).getFirstChild( "b" ).intValue(), "clones share changes" );
+		assertEquals( "x", second.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).getFirstChild( "d" ).strValue(),
+			"clones share changes" );
+		assertEquals( "y", first.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).getFirstChild( "d" ).strValue(),
+			"wrong clone value" );
+		assertTrue( source.getFirstChild( "e" ).isDouble(), "source changed" );
+		assertFalse( second.getFirstChild( "e" ).isDefined(), "wrong clone value" );
+		assertEquals( 2, second.getChildren( "a" ).size(), "wrong vector size" );
+	}
+
+	@Test
+	void compactLazyClone() {
+		var source = Value.createCompact();
+		source.setValue( "s" );
+		source.getFirstChild( "a" ).getFirstChild( "b" ).setValue( 1 );
+		source.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).setValue( "x" );
+
+		var first = Value.createLazyClone( source );
+		var second = Value.createLazyClone( source );
+		first.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).setValue( "y" );
+		assertEquals( "x", source.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).strValue(), "source changed" );
+		assertEquals( "x", second.getChildren( "a" ).get( 1 ).getFirstChild( "c" ).strValue(),
+			"clones share changes" );
+		assertEquals( "s", second.strValue(), "wrong clone value" );
+		assertEquals( 2, second.getChildren( "a" ).size(), "wrong vector size" );
+	}
+
+	@Test
+	void variablePathAcrossChanges() {
+		var root = Value.createRootValue();
+		var path = new VariablePathBuilder( false ).add( "a", 0 ).add( "b", 1 ).toClosedVariablePath( root );
+		path.getValue().setValue( 1 );
+		assertEquals( 1, path.getValue().intValue(), "wrong value" );
+		assertEquals( 2, path.getValueVector().size(), "wrong vector" );
+
+		root.children().remove( "a" );
+		assertEquals( null, path.getValueOrNull(), "stale vector" );
+		path.getValue().setValue( 2 );
+		assertEquals( 2, root.getFirstChild( "a" ).getChildren( "b" ).get( 1 ).intValue(), "stale vector" );
+
+		root.children().put( "a", ValueVector.create() );
+		path.getValue().setValue( 3 );
+		assertEquals( 3, root.getFirstChild( "a" ).getChildren( "b" ).get( 1 ).intValue(), "stale vector" );
+
+		var other = Value.createRootValue();
+		other.getFirstChild( "a" ).getChildren( "b" ).get( 1 ).setValue( 4 );
+		assertEquals( 4, path.getValue( other ).intValue(), "value of the wrong root" );
+		assertEquals( 3, path.getValue().intValue(), "value of the wrong root" );
+	}
 }
@@ -22,16 +22,18 @@
 package jolie.js;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.List;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Map;
-import java.util.stream.Collectors;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
-import org.json.simple.parser.ParseException;
+import jolie.runtime.ByteArray;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
 import jolie.runtime.typing.Type;
@@ -43,7 +45,7 @@ public class JsUtils {
 	 * reason Jolie introduces a "ROOT_SIGN" named attribute on each mapped Jolie value with a root
 	 * value set.
 	 */
-	private static final String ROOT_SIGN = "$";
+	static final String ROOT_SIGN = "$";
 
 	/**
 	 * Jolie values do not support multi-dimensional arrays as JSON, hence val[i][j] in Jolie becomes
@@ -51,209 +53,233 @@ public class JsUtils {
 	 */
 	public static final String JSONARRAY_KEY = "_";
 
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	// Exposes its buffer, so that encoded messages are not copied
+	private static class ByteArrayBuilder extends ByteArrayOutputStream {
+		private ByteArray toByteArray( Writer writer )
+			throws IOException {
+			writer.flush();
+			return new ByteArray( buf, 0, count );
+		}
+	}
+
+	private static Writer newWriter( ByteArrayBuilder output, Charset charset ) {
+		return new BufferedWriter( new OutputStreamWriter( output, charset ) );
+	}
+
 	// Jolie value -> JSON string
-	private static void appendKeyColon( StringBuilder builder, String key ) {
-		builder.append( '"' ).append( key ).append( "\":" );
+	private static void appendKeyColon( Appendable out, String key )
+		throws IOException {
+		out.append( '"' ).append( key ).append( "\":" );
 	}
 
-	private static String nativeValueToJsonString( Value value ) throws IOException {
+	private static void appendNativeValue( Value value, Appendable out )
+		throws IOException {
 		if( !value.isDefined() ) {
-			return "null";
+			out.append( "null" );
 		} else if( value.isInt() || value.isLong() || value.isBool() || value.isDouble() ) {
-			return value.strValue();
+			out.append( value.strValue() );
 		} else {
-			return String.format( "\"%s\"", JSONValue.escape( value.strValue() ).replace( "\\/", "/" ) );
+			out.append( '"' );
+			appendEscaped( value.strValue(), out );
+			out.append( '"' );
 		}
 	}
 
-	private static void valueVectorToJsonString( ValueVector vector, StringBuilder builder, boolean isArray, Type type )
+	// Escapes as json-simple did, except for '/', which is left as it is
+	private static void appendEscaped( String s, Appendable out )
+		throws IOException {
+		int start = 0;
+		final int length = s.length();
+		for( int i = 0; i < length; i++ ) {
+			final char c = s.charAt( i );
+			final String escape;
+			switch( c ) {
+			case '"':
+				escape = "\\\"";
+				break;
+			case '\\':
+				escape = "\\\\";
+				break;
+			case '\b':
+				escape = "\\b";
+				break;
+			case '\f':
+				escape = "\\f";
+				break;
+			case '\n':
+				escape = "\\n";
+				break;
+			case '\r':
+				escape = "\\r";
+				break;
+			case '\t':
+				escape = "\\t";
+				break;
+			default:
+				if( c <= '\u001F' || (c >= '\u007F' && c <= '\u009F') || (c >= '\u2000' && c <= '\u20FF') ) {
+					escape = new String( new char[] { '\\', 'u', HEX_DIGITS[ c >> 12 ], HEX_DIGITS[ (c >> 8) & 0xF ],
+						HEX_DIGITS[ (c >> 4) & 0xF ], HEX_DIGITS[ c & 0xF ] } );
+				} else {
+					continue;
+				}
+			}
+			out.append( s, start, i ).append( escape );
+			start = i + 1;
+		}
+		out.append( s, start, length );
+	}
+
+	private static void appendValueVector( ValueVector vector, Appendable out, boolean isArray, Type type )
 		throws IOException {
 		if( vector.size() > 1 || isArray || (type != null && type.cardinality().max() > 1) ) {
-			builder.append( '[' );
+			out.append( '[' );
 			for( int i = 0; i < vector.size(); i++ ) {
-				valueToJsonString( vector.get( i ), false, type, builder );
+				appendValue( vector.get( i ), false, type, out );
 				if( i < vector.size() - 1 ) {
-					builder.append( ',' );
+					out.append( ',' );
 				}
 			}
-			builder.append( ']' );
+			out.append( ']' );
 		} else {
-			valueToJsonString( vector.first(), false, type, builder );
+			appendValue( vector.first(), false, type, out );
 		}
 	}
 
-	public static void valueToJsonString( Value value, boolean extendedRoot, Type type, StringBuilder builder )
+	private static void appendValue( Value value, boolean extendedRoot, Type type, Appendable out )
 		throws IOException {
 		if( value.hasChildren( JSONARRAY_KEY ) ) {
 			Type subType = (type != null ? type.findSubType( JSONARRAY_KEY ) : null);
-			valueVectorToJsonString( value.children().get( JSONARRAY_KEY ), builder, true, subType );
+			appendValueVector( value.children().get( JSONARRAY_KEY ), out, true, subType );
 			return;
 		}
 		int size = value.children().size();
 		if( size == 0 ) {
 			if( extendedRoot ) {
-				builder.append( '{' );
+				out.append( '{' );
 				if( value.isDefined() ) {
-					appendKeyColon( builder, ROOT_SIGN );
-					builder.append( nativeValueToJsonString( value ) );
+					appendKeyColon( out, ROOT_SIGN );
+					appendNativeValue( value, out );
 				}
-				builder.append( '}' );
+				out.append( '}' );
 			} else {
-				builder.append( nativeValueToJsonString( value ) );
+				appendNativeValue( value, out );
 			}
 		} else {
-			builder.append( '{' );
+			out.append( '{' );
 			if( value.isDefined() ) {
-				appendKeyColon( builder, ROOT_SIGN );
-				builder.append( nativeValueToJsonString( value ) );
-				builder.append( ',' );
+				appendKeyColon( out, ROOT_SIGN );
+				appendNativeValue( value, out );
+				out.append( ',' );
 			}
 			int i = 0;
 			for( Map.Entry< String, ValueVector > child : value.children().entrySet() ) {
 				final Type subType =
 					(type != null ? type.findSubType( child.getKey(), child.getValue().first() ) : null);
-				appendKeyColon( builder, child.getKey() );
-				valueVectorToJsonString( child.getValue(), builder, false, subType );
+				appendKeyColon( out, child.getKey() );
+				appendValueVector( child.getValue(), out, false, subType );
 				if( i++ < size - 1 ) {
-					builder.append( ',' );
+					out.append( ',' );
 				}
 			}
-			builder.append( '}' );
+			out.append( '}' );
 		}
 	}
 
-	public static void valueToNdJsonString( Value value, boolean extendedRoot, Type type, StringBuilder builder )
+	private static void appendNdJson( Value value, boolean extendedRoot, Type type, Appendable out )
 		throws IOException {
 		if( !value.hasChildren( "item" ) ) {
 			throw new IOException( "ndJson requires at least one child node 'item'" );
 		}
 
 		for( Value item : value.getChildren( "item" ) ) {
-			valueToJsonString( item, extendedRoot, type, builder );
-			builder.append( '\n' );
+			appendValue( item, extendedRoot, type, out );
+			out.append( '\n' );
 		}
 	}
 
-	public static void faultValueToJsonString( Value value, Type type, StringBuilder builder ) throws IOException {
-		builder.append( "{\"error\":{\"message\":\"" )
+	private static void appendFault( Value value, Type type, Appendable out )
+		throws IOException {
+		out.append( "{\"error\":{\"message\":\"" )
 			.append( value.getFirstChild( "error" ).getFirstChild( "message" ).strValue() )
 			.append( "\",\"code\":" )
-			.append( value.getFirstChild( "error" ).getFirstChild( "code" ).intValue() )
+			.append( String.valueOf( value.getFirstChild( "error" ).getFirstChild( "code" ).intValue() ) )
 			.append( ",\"data\":" );
-		valueToJsonString( value.getFirstChild( "error" ).getFirstChild( "data" ), false, type, builder );
-		builder.append( "}}" );
+		appendValue( value.getFirstChild( "error" ).getFirstChild( "data" ), false, type, out );
+		out.append( "}}" );
 	}
 
-	// JSON string -> Jolie value
-	private static void objectToBasicValue( Object obj, Value val ) {
-		if( obj instanceof String ) {
-			val.setValue( (String) obj );
-		} else if( obj instanceof Double ) {
-			val.setValue( (Double) obj );
-		} else if( obj instanceof Long ) {
-			long lval = (Long) obj;
-			if( lval > Integer.MAX_VALUE || lval < Integer.MIN_VALUE ) {
-				val.setValue( lval );
-			} else {
-				val.setValue( (int) lval );
-			}
-		} else if( obj instanceof Boolean ) {
-			val.setValue( (Boolean) obj );
-		} else if( obj != null ) {
-			val.setValue( obj.toString() );
-		}
+	public static void valueToJsonString( Value value, boolean extendedRoot, Type type, StringBuilder builder )
+		throws IOException {
+		appendValue( value, extendedRoot, type, builder );
 	}
 
-	private static void jsonObjectToValue( JSONObject obj, Value value, boolean strictEncoding ) {
-		@SuppressWarnings( "unchecked" )
-		Map< String, Object > map = (Map< String, Object >) obj;
-		ValueVector vec;
-		for( Map.Entry< String, Object > entry : map.entrySet() ) {
-			if( entry.getKey().equals( ROOT_SIGN ) ) {
-				objectToBasicValue( entry.getValue(), value );
-			} else {
-				vec = jsonObjectToValueVector( entry.getValue(), strictEncoding );
-				value.children().put( entry.getKey(), vec );
-			}
-		}
+	/**
+	 * Writes the JSON encoding of a value to a writer as it is produced.
+	 */
+	public static void valueToJson( Value value, boolean extendedRoot, Type type, Writer writer )
+		throws IOException {
+		appendValue( value, extendedRoot, type, writer );
 	}
 
-	private static ValueVector jsonObjectToValueVector( Object obj, boolean strictEncoding ) {
-		ValueVector vec = ValueVector.create();
-		if( obj instanceof JSONObject ) {
-			Value val = Value.create();
-			jsonObjectToValue( (JSONObject) obj, val, strictEncoding );
-			vec.add( val );
-		} else if( obj instanceof JSONArray && strictEncoding ) {
-			Value arrayValue = Value.create();
-			vec.add( arrayValue );
-			arrayValue.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) obj, strictEncoding ) );
-		} else if( obj instanceof JSONArray && !strictEncoding ) {
-			vec = jsonArrayToValueVector( (JSONArray) obj, strictEncoding );
-		} else {
-			Value val = Value.create();
-			objectToBasicValue( obj, val );
-			vec.add( val );
-		}
-		return vec;
+	/**
+	 * Returns the JSON encoding of a value in the given charset, without building it as a string first.
+	 */
+	public static ByteArray valueToJsonBytes( Value value, boolean extendedRoot, Type type, Charset charset )
+		throws IOException {
+		final ByteArrayBuilder output = new ByteArrayBuilder();
+		final Writer writer = newWriter( output, charset );
+		appendValue( value, extendedRoot, type, writer );
+		return output.toByteArray( writer );
 	}
 
-	private static ValueVector jsonArrayToValueVector( JSONArray array, boolean strictEncoding ) {
-		ValueVector vec = ValueVector.create();
-		for( Object element : array ) {
-			Value value = Value.create();
-			if( element instanceof JSONArray ) {
-				value.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) element, strictEncoding ) );
-			} else if( element instanceof JSONObject ) {
-				jsonObjectToValue( (JSONObject) element, value, strictEncoding );
-			} else {
-				objectToBasicValue( element, value );
-			}
-			vec.add( value );
-		}
-		return vec;
+	public static void valueToNdJsonString( Value value, boolean extendedRoot, Type type, StringBuilder builder )
+		throws IOException {
+		appendNdJson( value, extendedRoot, type, builder );
 	}
 
-	public static void parseJsonIntoValue( Reader reader, Value value, boolean strictEncoding )
+	public static ByteArray valueToNdJsonBytes( Value value, boolean extendedRoot, Type type, Charset charset )
 		throws IOException {
-		try {
-			Object obj = JSONValue.parseWithException( reader );
-			if( obj instanceof JSONArray ) {
-				value.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) obj, strictEncoding ) );
-			} else if( obj instanceof JSONObject ) {
-				jsonObjectToValue( (JSONObject) obj, value, strictEncoding );
-			} else {
-				objectToBasicValue( obj, value );
-			}
-		} catch( ParseException | ClassCastException e ) {
-			throw new IOException( e );
-		}
+		final ByteArrayBuilder output = new ByteArrayBuilder();
+		final Writer writer = newWriter( output, charset );
+		appendNdJson( value, extendedRoot, type, writer );
+		return output.toByteArray( writer );
 	}
 
+	public static void faultValueToJsonString( Value value, Type type, StringBuilder builder ) throws IOException {
+		appendFault( value, type, builder );
+	}
 
-	public static void parseNdJsonIntoValue( BufferedReader reader, Value value, boolean strictEncoding )
+	public static ByteArray faultValueToJsonBytes( Value value, Type type, Charset charset )
 		throws IOException {
-		List< String > stringItemVector = reader.lines().collect( Collectors.toList() );
+		final ByteArrayBuilder output = new ByteArrayBuilder();
+		final Writer writer = newWriter( output, charset );
+		appendFault( value, type, writer );
+		return output.toByteArray( writer );
+	}
 
-		for( String stringItem : stringItemVector ) {
-			StringReader itemReader = new StringReader( stringItem );
-			try {
-				Value itemValue = Value.create();
-				Object obj = JSONValue.parseWithException( itemReader );
-				if( obj instanceof JSONArray ) {
-					itemValue.children().put( JSONARRAY_KEY,
-						jsonArrayToValueVector( (JSONArray) obj, strictEncoding ) );
-				} else if( obj instanceof JSONObject ) {
-					jsonObjectToValue( (JSONObject) obj, itemValue, strictEncoding );
-				} else {
-					objectToBasicValue( obj, itemValue );
-				}
-				value.getChildren( "item" ).add( itemValue );
-			} catch( ParseException | ClassCastException e ) {
-				throw new IOException( e );
-			}
+	// JSON string -> Jolie value
+	public static void parseJsonIntoValue( Reader reader, Value value, boolean strictEncoding )
+		throws IOException {
+		new JsonParser( reader, strictEncoding ).parse( value );
+	}
 
-		}
+	/**
+	 * Parses JSON text in the given charset, decoding it while the value is built.
+	 */
+	public static void parseJsonIntoValue( InputStream input, Charset charset, Value value, boolean strictEncoding )
+		throws IOException {
+		parseJsonIntoValue( new InputStreamReader( input, charset ), value, strictEncoding );
+	}
 
+	public static void parseNdJsonIntoValue( BufferedReader reader, Value value, boolean strictEncoding )
+		throws IOException {
+		String line;
+		while( (line = reader.readLine()) != null ) {
+			Value itemValue = Value.create();
+			parseJsonIntoValue( new StringReader( line ), itemValue, strictEncoding );
+			value.getChildren( "item" ).add( itemValue );
+		}
 	}
 }
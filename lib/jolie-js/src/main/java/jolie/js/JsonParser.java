@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package jolie.js;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * A streaming JSON parser that builds {@link Value} trees while reading, without an intermediate
+ * representation of the document. The mapping is the one documented in {@link JsUtils}.
+ *
+ * As the parser that it replaces, this one accepts missing and repeated commas between the elements
+ * of arrays and objects.
+ */
+final class JsonParser {
+	private static final int BUFFER_SIZE = 8192;
+	// Deeper documents are rejected instead of exhausting the stack
+	private static final int MAX_DEPTH = 512;
+
+	private final Reader reader;
+	private final boolean strictEncoding;
+	private final char[] buffer = new char[ BUFFER_SIZE ];
+	private int position = 0;
+	private int limit = 0;
+	// The number of characters before the buffer, for error messages
+	private long offset = 0;
+	private int depth = 0;
+	private final StringBuilder builder = new StringBuilder();
+
+	JsonParser( Reader reader, boolean strictEncoding ) {
+		this.reader = reader;
+		this.strictEncoding = strictEncoding;
+	}
+
+	/**
+	 * Parses a whole document into the given value. Arrays become children named
+	 * {@link JsUtils#JSONARRAY_KEY}.
+	 */
+	void parse( Value value )
+		throws IOException {
+		final int c = skipWhitespace();
+		if( c == '{' ) {
+			position++;
+			parseObject( value );
+		} else if( c == '[' ) {
+			position++;
+			value.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+		} else {
+			parsePrimitive( value );
+		}
+		if( skipWhitespace() != -1 ) {
+			throw unexpected();
+		}
+	}
+
+	private boolean fill()
+		throws IOException {
+		offset += limit;
+		position = 0;
+		limit = 0;
+		int read;
+		do {
+			read = reader.read( buffer, 0, buffer.length );
+		} while( read == 0 );
+		if( read < 0 ) {
+			return false;
+		}
+		limit = read;
+		return true;
+	}
+
+	// Returns the next character without consuming it, or -1 at the end of the input
+	private int peek()
+		throws IOException {
+		if( position == limit && !fill() ) {
+			return -1;
+		}
+		return buffer[ position ];
+	}
+
+	private int next()
+		throws IOException {
+		final int c = peek();
+		if( c != -1 ) {
+			position++;
+		}
+		return c;
+	}
+
+	private int skipWhitespace()
+		throws IOException {
+		while( true ) {
+			final int c = peek();
+			if( c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' ) {
+				position++;
+			} else {
+				return c;
+			}
+		}
+	}
+
+	private IOException unexpected()
+		throws IOException {
+		final int c = peek();
+		final long at = offset + position;
+		return new IOException( c == -1
+			? "Unexpected end of JSON input at position " + at
+			: "Unexpected character (" + (char) c + ") in JSON input at position " + at );
+	}
+
+	private void enter()
+		throws IOException {
+		if( ++depth > MAX_DEPTH ) {
+			throw new IOException( "JSON input nested deeper than " + MAX_DEPTH + " levels" );
+		}
+	}
+
+	// After '{'
+	private void parseObject( Value value )
+		throws IOException {
+		enter();
+		while( true ) {
+			final int c = skipWhitespace();
+			if( c == ',' ) {
+				position++;
+			} else if( c == '}' ) {
+				position++;
+				depth--;
+				return;
+			} else if( c == '"' ) {
+				position++;
+				final String key = parseString();
+				if( skipWhitespace() == ':' ) {
+					position++;
+				}
+				if( key.equals( JsUtils.ROOT_SIGN ) ) {
+					parseRootValue( value );
+				} else {
+					value.children().put( key, parseValueVector() );
+				}
+			} else {
+				throw unexpected();
+			}
+		}
+	}
+
+	// The value of a child of an object
+	private ValueVector parseValueVector()
+		throws IOException {
+		final int c = skipWhitespace();
+		if( c == '[' && !strictEncoding ) {
+			position++;
+			return parseArray();
+		}
+		final ValueVector vec = ValueVector.create();
+		final Value v = Value.create();
+		if( c == '{' ) {
+			position++;
+			parseObject( v );
+		} else if( c == '[' ) {
+			position++;
+			v.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+		} else {
+			parsePrimitive( v );
+		}
+		vec.add( v );
+		return vec;
+	}
+
+	// The value of "$": objects and arrays are kept as JSON text
+	private void parseRootValue( Value value )
+		throws IOException {
+		final int c = skipWhitespace();
+		if( c == '{' || c == '[' ) {
+			final String json = copyComposite();
+			new JsonParser( new StringReader( json ), true ).parse( Value.create() );
+			value.setValue( json );
+		} else {
+			parsePrimitive( value );
+		}
+	}
+
+	// Copies an object or array without the whitespace between its tokens
+	private String copyComposite()
+		throws IOException {
+		final StringBuilder json = new StringBuilder();
+		int nesting = 0;
+		boolean inString = false;
+		do {
+			final int c = next();
+			if( c == -1 ) {
+				throw unexpected();
+			}
+			if( inString ) {
+				json.append( (char) c );
+				if( c == '\\' ) {
+					final int escaped = next();
+					if( escaped == -1 ) {
+						throw unexpected();
+					}
+					json.append( (char) escaped );
+				} else if( c == '"' ) {
+					inString = false;
+				}
+			} else if( c != ' ' && c != '\t' && c != '\n' && c != '\r' && c != '\f' ) {
+				json.append( (char) c );
+				if( c == '"' ) {
+					inString = true;
+				} else if( c == '{' || c == '[' ) {
+					nesting++;
+				} else if( c == '}' || c == ']' ) {
+					nesting--;
+				}
+			}
+		} while( nesting > 0 );
+		return json.toString();
+	}
+
+	// After '['
+	private ValueVector parseArray()
+		throws IOException {
+		enter();
+		final ValueVector vec = ValueVector.create();
+		while( true ) {
+			final int c = skipWhitespace();
+			if( c == ',' ) {
+				position++;
+			} else if( c == ']' ) {
+				position++;
+				depth--;
+				return vec;
+			} else {
+				final Value v = Value.create();
+				if( c == '{' ) {
+					position++;
+					parseObject( v );
+				} else if( c == '[' ) {
+					position++;
+					v.children().put( JsUtils.JSONARRAY_KEY, parseArray() );
+				} else {
+					parsePrimitive( v );
+				}
+				vec.add( v );
+			}
+		}
+	}
+
+	private void parsePrimitive( Value value )
+		throws IOException {
+		final int c = skipWhitespace();
+		if( c == '"' ) {
+			position++;
+			value.setValue( parseString() );
+		} else if( c == '-' || (c >= '0' && c <= '9') ) {
+			parseNumber( value );
+		} else if( c == 't' ) {
+			expect( "true" );
+			value.setValue( true );
+		} else if( c == 'f' ) {
+			expect( "false" );
+			value.setValue( false );
+		} else if( c == 'n' ) {
+			expect( "null" );
+		} else {
+			throw unexpected();
+		}
+	}
+
+	private void expect( String literal )
+		throws IOException {
+		for( int i = 0; i < literal.length(); i++ ) {
+			if( peek() != literal.charAt( i ) ) {
+				throw unexpected();
+			}
+			position++;
+		}
+	}
+
+	// After the opening quote
+	private String parseString()
+		throws IOException {
+		// Most strings have no escapes and lie within the buffer
+		for( int i = position; i < limit; i++ ) {
+			final char c = buffer[ i ];
+			if( c == '"' ) {
+				final String ret = new String( buffer, position, i - position );
+				position = i + 1;
+				return ret;
+			} else if( c == '\\' ) {
+				break;
+			}
+		}
+
+		builder.setLength( 0 );
+		while( true ) {
+			int c = next();
+			if( c == '"' ) {
+				return builder.toString();
+			} else if( c == '\\' ) {
+				c = next();
+				switch( c ) {
+				case '"':
+				case '\\':
+				case '/':
+					builder.append( (char) c );
+					break;
+				case 'b':
+					builder.append( '\b' );
+					break;
+				case 'f':
+					builder.append( '\f' );
+					break;
+				case 'n':
+					builder.append( '\n' );
+					break;
+				case 'r':
+					builder.append( '\r' );
+					break;
+				case 't':
+					builder.append( '\t' );
+					break;
+				case 'u':
+					builder.append( parseUnicodeEscape() );
+					break;
+				case -1:
+					throw unexpected();
+				default:
+					builder.append( '\\' ).append( (char) c );
+				}
+			} else if( c == -1 ) {
+				throw unexpected();
+			} else {
+				builder.append( (char) c );
+			}
+		}
+	}
+
+	private char parseUnicodeEscape()
+		throws IOException {
+		int code = 0;
+		for( int i = 0; i < 4; i++ ) {
+			final int digit = Character.digit( peek(), 16 );
+			if( digit < 0 ) {
+				throw unexpected();
+			}
+			position++;
+			code = code * 16 + digit;
+		}
+		return (char) code;
+	}
+
+	// Integers become ints if they fit, and longs otherwise; other numbers become doubles
+	private void parseNumber( Value value )
+		throws IOException {
+		builder.setLength( 0 );
+		boolean integer = true;
+		if( peek() == '-' ) {
+			builder.append( (char) next() );
+		}
+		appendDigits();
+		if( peek() == '.' ) {
+			integer = false;
+			builder.append( (char) next() );
+			appendDigits();
+		}
+		if( peek() == 'e' || peek() == 'E' ) {
+			integer = false;
+			builder.append( (char) next() );
+			if( peek() == '+' || peek() == '-' ) {
+				builder.append( (char) next() );
+			}
+			appendDigits();
+		}
+
+		final String text = builder.toString();
+		if( integer ) {
+			try {
+				final long l = Long.parseLong( text );
+				if( l > Integer.MAX_VALUE || l < Integer.MIN_VALUE ) {
+					value.setValue( l );
+				} else {
+					value.setValue( (int) l );
+				}
+				return;
+			} catch( NumberFormatException e ) {
+				// Too large for a long
+			}
+		}
+		value.setValue( Double.parseDouble( text ) );
+	}
+
+	private void appendDigits()
+		throws IOException {
+		int c = peek();
+		if( c < '0' || c > '9' ) {
+			throw unexpected();
+		}
+		do {
+			builder.append( (char) next() );
+			c = peek();
+		} while( c >= '0' && c <= '9' );
+	}
+}
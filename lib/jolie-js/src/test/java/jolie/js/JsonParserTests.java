@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.js;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+class JsonParserTests {
+	// The size of the buffer of the parser
+	private static final int BUFFER_SIZE = 8192;
+
+	private static Value parse( String json ) throws IOException {
+		return parse( new StringReader( json ) );
+	}
+
+	private static Value parse( Reader reader ) throws IOException {
+		final Value value = Value.create();
+		new JsonParser( reader, false ).parse( value );
+		return value;
+	}
+
+	private static Value number( String json ) throws IOException {
+		return parse( "{\"n\":" + json + "}" ).getFirstChild( "n" );
+	}
+
+	// Returns at most chunk characters per read, so that the input is split across many fills
+	private static Reader chunked( String json, int chunk ) {
+		return new StringReader( json ) {
+			@Override
+			public int read( char[] cbuf, int off, int len ) throws IOException {
+				return super.read( cbuf, off, Math.min( len, chunk ) );
+			}
+		};
+	}
+
+	@Test
+	void integerBoundaries() throws IOException {
+		assertTrue( number( "2147483647" ).isInt(), "int expected" );
+		assertEquals( Integer.MAX_VALUE, number( "2147483647" ).intValue() );
+		assertTrue( number( "-2147483648" ).isInt(), "int expected" );
+		assertEquals( Integer.MIN_VALUE, number( "-2147483648" ).intValue() );
+		assertTrue( number( "2147483648" ).isLong(), "long expected" );
+		assertEquals( 2147483648L, number( "2147483648" ).longValue() );
+		assertTrue( number( "-2147483649" ).isLong(), "long expected" );
+		assertEquals( Long.MAX_VALUE, number( "9223372036854775807" ).longValue() );
+		assertEquals( Long.MIN_VALUE, number( "-9223372036854775808" ).longValue() );
+		// Too large for a long
+		assertTrue( number( "9223372036854775808" ).isDouble(), "double expected" );
+		assertEquals( 9.223372036854775808E18, number( "9223372036854775808" ).doubleValue() );
+		assertTrue( number( "0" ).isInt(), "int expected" );
+		assertTrue( number( "-0" ).isInt(), "int expected" );
+	}
+
+	@Test
+	void doublesAndExponents() throws IOException {
+		assertTrue( number( "1.0" ).isDouble(), "double expected" );
+		assertEquals( -0.5, number( "-0.5" ).doubleValue() );
+		assertTrue( number( "1e3" ).isDouble(), "exponents make doubles" );
+		assertEquals( 1000.0, number( "1e3" ).doubleValue() );
+		assertEquals( 100.0, number( "1E+2" ).doubleValue() );
+		assertEquals( -1.5E-3, number( "-1.5e-3" ).doubleValue() );
+		assertEquals( Double.MAX_VALUE, number( "1.7976931348623157E308" ).doubleValue() );
+		assertEquals( Double.POSITIVE_INFINITY, number( "1e400" ).doubleValue() );
+		assertThrows( IOException.class, () -> number( "1." ) );
+		assertThrows( IOException.class, () -> number( "1e" ) );
+		assertThrows( IOException.class, () -> number( "-" ) );
+		assertThrows( IOException.class, () -> number( ".5" ) );
+	}
+
+	@Test
+	void escapes() throws IOException {
+		assertEquals( "\"\\/\b\f\n\r\t", parse( "\"\\\"\\\\\\/\\b\\f\\n\\r\\t\"" ).strValue() );
+		assertEquals( "é€", parse( "\"\\u00e9\\u20AC\"" ).strValue() );
+		// A character outside the Basic Multilingual Plane, as a surrogate pair
+		final String emoji = parse( "\"a\\uD83D\\uDE00b\"" ).strValue();
+		assertEquals( "a\uD83D\uDE00b", emoji );
+		assertEquals( 0x1F600, emoji.codePointAt( 1 ) );
+		// Unescaped characters are kept as they are
+		assertEquals( "\uD83D\uDE00", parse( "\"\uD83D\uDE00\"" ).strValue() );
+		assertThrows( IOException.class, () -> parse( "\"\\u12\"" ) );
+		assertThrows( IOException.class, () -> parse( "\"\\u12G4\"" ) );
+	}
+
+	@Test
+	void lenientCommas() throws IOException {
+		final Value array = parse( "[1,,2,]" );
+		final ValueVector items = array.getChildren( JsUtils.JSONARRAY_KEY );
+		assertEquals( 2, items.size(), "repeated and trailing commas are skipped" );
+		assertEquals( 2, items.get( 1 ).intValue() );
+		assertEquals( 3, parse( "[1 2 3]" ).getChildren( JsUtils.JSONARRAY_KEY ).size(), "missing commas" );
+
+		final Value object = parse( "{,\"a\":1 \"b\":2,,\"c\":[3,4],}" );
+		assertEquals( 1, object.getFirstChild( "a" ).intValue() );
+		assertEquals( 2, object.getFirstChild( "b" ).intValue() );
+		assertEquals( 2, object.getChildren( "c" ).size(), "arrays become vectors" );
+		assertEquals( 4, object.getChildren( "c" ).get( 1 ).intValue() );
+	}
+
+	@Test
+	void rootValues() throws IOException {
+		final Value primitive = parse( "{\"$\":\"text\",\"a\":1}" );
+		assertEquals( "text", primitive.strValue() );
+		assertEquals( 1, primitive.getFirstChild( "a" ).intValue() );
+		assertFalse( primitive.hasChildren( "$" ), "$ is not a child" );
+
+		assertEquals( 42, parse( "{\"$\":42}" ).intValue() );
+		// Objects and arrays are kept as compact JSON text
+		assertEquals( "{\"x\":[1,2],\"y\":\" a b \"}",
+			parse( "{\"$\": { \"x\" : [ 1, 2 ], \"y\": \" a b \" }}" ).strValue() );
+		assertEquals( "[\"]\",{}]", parse( "{\"$\":[ \"]\" , { } ]}" ).strValue() );
+		assertThrows( IOException.class, () -> parse( "{\"$\":[1,2}" ) );
+	}
+
+	@Test
+	void maxDepth() throws IOException {
+		final int depth = 512;
+		final String nested = "[".repeat( depth ) + "]".repeat( depth );
+		Value value = parse( nested );
+		for( int i = 1; i < depth; i++ ) {
+			value = value.getChildren( JsUtils.JSONARRAY_KEY ).get( 0 );
+		}
+		assertEquals( 0, value.getChildren( JsUtils.JSONARRAY_KEY ).size(), "wrong depth" );
+
+		final String tooDeep = "[".repeat( depth + 1 ) + "]".repeat( depth + 1 );
+		final IOException e = assertThrows( IOException.class, () -> parse( tooDeep ) );
+		assertTrue( e.getMessage().contains( "nested deeper" ), e.getMessage() );
+		final String tooDeepObjects = "{\"a\":".repeat( depth + 1 ) + "1" + "}".repeat( depth + 1 );
+		assertThrows( IOException.class, () -> parse( tooDeepObjects ) );
+	}
+
+	@Test
+	void truncatedInput() {
+		for( String json : new String[] { "", "{", "{\"a\"", "{\"a\":", "{\"a\":1", "[1,2", "\"abc", "\"ab\\",
+			"\"\\u00", "tru", "{\"$\":{\"x\":1" } ) {
+			assertThrows( IOException.class, () -> parse( json ), json );
+		}
+		assertThrows( IOException.class, () -> parse( "{} x" ), "trailing content" );
+	}
+
+	@Test
+	void stringsAcrossTheBuffer() throws IOException {
+		// The string starts in the first buffer and ends in the second one
+		final String prefix = "{\"s\":\"";
+		final StringBuilder text = new StringBuilder();
+		while( text.length() < BUFFER_SIZE ) {
+			text.append( "0123456789" );
+		}
+		assertEquals( text.toString(), parse( prefix + text + "\"}" ).getFirstChild( "s" ).strValue() );
+
+		// An escape split by the end of the buffer
+		final String before = "x".repeat( BUFFER_SIZE - prefix.length() - 3 );
+		final String json = prefix + before + "\\u00e9after\"}";
+		assertEquals( before + "éafter", parse( json ).getFirstChild( "s" ).strValue() );
+
+		// Reads shorter than the buffer split tokens at every position
+		final Value value = parse( chunked( "{\"a\":[12345,-6.5e2,\"\\uD83D\\uDE00\",true,null],\"b\":\"text\"}", 3 ) );
+		assertEquals( 12345, value.getChildren( "a" ).get( 0 ).intValue() );
+		assertEquals( -650.0, value.getChildren( "a" ).get( 1 ).doubleValue() );
+		assertEquals( "\uD83D\uDE00", value.getChildren( "a" ).get( 2 ).strValue() );
+		assertTrue( value.getChildren( "a" ).get( 3 ).boolValue() );
+		assertFalse( value.getChildren( "a" ).get( 4 ).isDefined() );
+		assertEquals( "text", value.getFirstChild( "b" ).strValue() );
+	}
+}
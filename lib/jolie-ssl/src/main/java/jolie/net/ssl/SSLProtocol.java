@@ -38,6 +38,7 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.List;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -65,6 +66,7 @@ public class SSLProtocol extends SequentialCommProtocol {
 	private final boolean isClient;
 	private final URI location;
 	private boolean firstTime;
+	private boolean negotiated = false;
 	private final CommProtocol wrappedProtocol;
 	private SSLEngine sslEngine;
 
@@ -90,7 +92,7 @@ public class SSLProtocol extends SequentialCommProtocol {
 			}
 
 			try {
-				return clearInputBuffer.get();
+				return clearInputBuffer.get() & 0xff;
 			} catch( BufferUnderflowException e ) {
 				return -1;
 			}
@@ -310,6 +312,10 @@ public class SSLProtocol extends SequentialCommProtocol {
 
 			SSLParameters sslParameters = sslEngine.getSSLParameters();
 			sslParameters.setEndpointIdentificationAlgorithm( "HTTPS" );
+			final List< String > applicationProtocols = wrappedProtocol.applicationProtocols();
+			if( !applicationProtocols.isEmpty() ) {
+				sslParameters.setApplicationProtocols( applicationProtocols.toArray( new String[ 0 ] ) );
+			}
 			sslEngine.setSSLParameters( sslParameters );
 		} catch( NoSuchAlgorithmException | CertificateException | UnrecoverableKeyException | KeyStoreException
 			| KeyManagementException e ) {
@@ -351,6 +357,13 @@ public class SSLProtocol extends SequentialCommProtocol {
 					+ sslEngine.getHandshakeStatus() );
 			}
 		}
+
+		if( !negotiated && (sslEngine.getHandshakeStatus() == HandshakeStatus.FINISHED
+			|| sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING) ) {
+			negotiated = true;
+			final String applicationProtocol = sslEngine.getApplicationProtocol();
+			wrappedProtocol.setApplicationProtocol( applicationProtocol == null ? "" : applicationProtocol );
+		}
 	}
 
 	private boolean unwrap( SSLInputStream sslInputStream )
@@ -445,6 +458,11 @@ public class SSLProtocol extends SequentialCommProtocol {
 		}
 	}
 
+	@Override
+	public boolean hasBufferedMessages() {
+		return wrappedProtocol.hasBufferedMessages();
+	}
+
 	@Override
 	public void send( OutputStream ostream, CommMessage message, InputStream istream )
 		throws IOException {
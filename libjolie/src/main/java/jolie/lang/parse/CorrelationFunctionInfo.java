@@ -21,12 +21,14 @@
 
 package jolie.lang.parse;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import jolie.lang.Constants;
 import jolie.lang.parse.ast.CorrelationSetInfo;
 import jolie.lang.parse.ast.VariablePathNode;
 import jolie.util.ArrayListMultiMap;
@@ -36,8 +38,12 @@ import jolie.util.MultiMap;
  *
  * @author Fabrizio Montesi
  */
-public class CorrelationFunctionInfo {
-	public static class CorrelationPairInfo {
+public class CorrelationFunctionInfo implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
+	public static class CorrelationPairInfo implements Serializable {
+		private static final long serialVersionUID = Constants.serialVersionUID();
+
 		private final VariablePathNode sessionPath;
 		private final VariablePathNode messagePath;
 
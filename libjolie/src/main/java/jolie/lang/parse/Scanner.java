@@ -759,7 +759,7 @@ public class Scanner implements AutoCloseable {
 		String temp;
 		if(currInt != -1){ //Cannot just return, as this messes with codeckecking after parsing
 			// The if statement makes sure no extra caracters are added when EOF is reached
-			try { // Set the line of code to the line index in readCodeLines
+			if( line() < readCodeLines.size() ) { // Set the line of code to the line index in readCodeLines
 				temp = readCodeLines.get( line() );
 				if(ch == '\t'){
 					temp += " ".repeat(Constants.TAB_SIZE);
@@ -767,7 +767,7 @@ public class Scanner implements AutoCloseable {
 					temp += ch;
 				}
 				readCodeLines.set( line(), temp );
-			} catch( IndexOutOfBoundsException e ) {
+			} else {
 				// the index in readCodeLines has not been initialized, add it to the list
 				temp = "";
 				if(ch == '\t'){
@@ -4,7 +4,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 
 public class BasicTypeRefinementLongRanges implements Serializable, BasicTypeRefinement< Long > {
-	public static class Interval {
+	public static class Interval implements Serializable {
 		private final long min;
 		private final long max;
 
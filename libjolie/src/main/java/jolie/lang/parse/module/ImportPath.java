@@ -1,8 +1,11 @@
 package jolie.lang.parse.module;
 
+import java.io.Serializable;
 import java.util.List;
+import jolie.lang.Constants;
 
-public class ImportPath {
+public class ImportPath implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
 
 	/**
 	 * Dot-separated import target path from an import statement
@@ -33,7 +33,8 @@ public class ImportedSymbolInfo extends SymbolInfo {
 
 	private final ImportPath importPath;
 	private final String originalSymbolName;
-	private ModuleSource moduleSource;
+	// Only needed while the module is being parsed
+	private transient ModuleSource moduleSource;
 
 	public ImportedSymbolInfo( ParsingContext context, String name, ImportPath importPath,
 		String originalSymbolName ) {
@@ -25,16 +25,20 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,17 +59,13 @@ class ModuleCrawler {
 		private final Map< URI, ModuleRecord > moduleCrawled;
 
 		private CrawlerResult() {
-			this.moduleCrawled = new HashMap<>();
+			this.moduleCrawled = new LinkedHashMap<>();
 		}
 
 		private void addModuleRecord( ModuleRecord mr ) {
 			this.moduleCrawled.put( mr.uri(), mr );
 		}
 
-		private boolean isRecordInResult( URI source ) {
-			return this.moduleCrawled.containsKey( source );
-		}
-
 		protected Map< URI, ModuleRecord > toMap() {
 			return this.moduleCrawled;
 		}
@@ -80,6 +80,9 @@ class ModuleCrawler {
 	private final ModuleFinder finder;
 	private final ModuleParsingConfiguration parserConfiguration;
 	private final ModuleRecordCache cache;
+	// Modules that a task has been created for, and the outcome of the tasks that have completed
+	private final Set< URI > claimed = ConcurrentHashMap.newKeySet();
+	private final Map< URI, CrawledModule > crawled = new ConcurrentHashMap<>();
 
 	private ModuleCrawler( ModuleParsingConfiguration parserConfiguration, ModuleFinder finder ) {
 		this.finder = finder;
@@ -150,39 +153,112 @@ class ModuleCrawler {
 		return modulesToCrawl;
 	}
 
-	private CrawlerResult crawl( ModuleRecord mainRecord )
-		throws ParserException, IOException, ModuleException {
-		CrawlerResult result = new CrawlerResult();
-		// start with main module record
-		Queue< ModuleSource > dependencies = new LinkedList<>();
-		result.addModuleRecord( mainRecord );
-		dependencies.addAll( this.crawlModule( mainRecord ) );
+	/**
+	 * The outcome of crawling a module: its record and the modules it imports, or the error that
+	 * prevented parsing it or finding its imports.
+	 */
+	private record CrawledModule(ModuleRecord record, List< ModuleSource > dependencies, Exception error) {
+		private void rethrowError()
+			throws ParserException, IOException, ModuleException {
+			if( error instanceof ParserException e ) {
+				throw e;
+			} else if( error instanceof IOException e ) {
+				throw e;
+			} else if( error instanceof ModuleException e ) {
+				throw e;
+			}
+		}
+	}
 
-		// walk through dependencies
-		while( dependencies.peek() != null ) {
-			ModuleSource module = dependencies.poll();
+	/**
+	 * Parses a module and forks the tasks crawling the modules it imports that no other task has
+	 * claimed yet. Tasks do not wait for the ones they fork, so that long chains of imports do not nest
+	 * on the stack: a task completes when all the tasks it forked have completed.
+	 */
+	private class CrawlTask extends CountedCompleter< Void > {
+		private final ModuleSource module;
 
-			if( result.isRecordInResult( module.uri() ) ) {
-				continue;
+		private CrawlTask( CountedCompleter< ? > parent, ModuleSource module ) {
+			super( parent );
+			this.module = module;
+		}
+
+		@Override
+		public void compute() {
+			CrawledModule crawledModule = crawlSource( module );
+			crawled.put( module.uri(), crawledModule );
+			forkImports( this, crawledModule.dependencies() );
+			tryComplete();
+		}
+	}
+
+	private void forkImports( CountedCompleter< ? > parent, List< ModuleSource > modules ) {
+		for( ModuleSource module : modules ) {
+			if( claimed.add( module.uri() ) ) {
+				parent.addToPendingCount( 1 );
+				new CrawlTask( parent, module ).fork();
 			}
+		}
+	}
 
-			if( cache.contains( module.uri() ) ) {
-				ModuleRecord cached = cache.get( module.uri() );
+	private CrawledModule crawlSource( ModuleSource module ) {
+		try {
+			ModuleRecord cached = cache.get( module.uri() );
+			if( cached != null ) {
+				List< ModuleSource > dependencies = new ArrayList<>();
 				for( ImportedSymbolInfo importedSymbol : cached.symbolTable().importedSymbolInfos() ) {
-					if( importedSymbol.moduleSource().isPresent() ) {
-						dependencies.add( importedSymbol.moduleSource().get() );
-					} else {
-						ModuleRecord record = new ModuleParser( parserConfiguration ).parse( module );
-						result.addModuleRecord( record );
-						dependencies.addAll( crawlModule( record ) );
+					if( importedSymbol.moduleSource().isEmpty() ) {
+						// Crawled by a run that failed before finding all its imports
+						cached = null;
+						break;
 					}
+					dependencies.add( importedSymbol.moduleSource().get() );
 				}
-				result.addModuleRecord( cached );
-			} else {
-				ModuleRecord record = new ModuleParser( parserConfiguration ).parse( module );
-				result.addModuleRecord( record );
-				dependencies.addAll( crawlModule( record ) );
+				if( cached != null ) {
+					return new CrawledModule( cached, dependencies, null );
+				}
+			}
+			ModuleRecord record = new ModuleParser( parserConfiguration ).parse( module );
+			return new CrawledModule( record, crawlModule( record ), null );
+		} catch( ParserException | IOException | ModuleException e ) {
+			return new CrawledModule( null, List.of(), e );
+		}
+	}
+
+	/**
+	 * Modules are parsed concurrently in the common fork-join pool, each one as soon as a module
+	 * importing it has been parsed. The result is then collected by walking the imports breadth-first
+	 * from the main module, as a sequential crawl would: the error reported, if any, is the one of the
+	 * first module in this order that failed, regardless of the order in which the tasks ran.
+	 */
+	private CrawlerResult crawl( ModuleRecord mainRecord )
+		throws ParserException, IOException, ModuleException {
+		List< ModuleSource > mainDependencies = this.crawlModule( mainRecord );
+		claimed.add( mainRecord.uri() );
+		if( !mainDependencies.isEmpty() ) {
+			ForkJoinPool.commonPool().invoke( new CountedCompleter< Void >() {
+				@Override
+				public void compute() {
+					forkImports( this, mainDependencies );
+					tryComplete();
+				}
+			} );
+		}
+
+		CrawlerResult result = new CrawlerResult();
+		result.addModuleRecord( mainRecord );
+		Set< URI > visited = new HashSet<>();
+		visited.add( mainRecord.uri() );
+		Queue< ModuleSource > dependencies = new ArrayDeque<>( mainDependencies );
+		ModuleSource module;
+		while( (module = dependencies.poll()) != null ) {
+			if( !visited.add( module.uri() ) ) {
+				continue;
 			}
+			CrawledModule crawledModule = crawled.get( module.uri() );
+			crawledModule.rethrowError();
+			result.addModuleRecord( crawledModule.record() );
+			dependencies.addAll( crawledModule.dependencies() );
 		}
 
 		return result;
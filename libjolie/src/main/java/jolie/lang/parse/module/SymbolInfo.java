@@ -19,6 +19,8 @@
 
 package jolie.lang.parse.module;
 
+import java.io.Serializable;
+import jolie.lang.Constants;
 import jolie.lang.parse.ast.ImportableSymbol.AccessModifier;
 import jolie.lang.parse.ast.OLSyntaxNode;
 import jolie.lang.parse.context.ParsingContext;
@@ -26,7 +28,9 @@ import jolie.lang.parse.context.ParsingContext;
 /**
  * an abstract class of Symbol declaration in Jolie
  */
-public abstract class SymbolInfo {
+public abstract class SymbolInfo implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
 
 	/**
 	 * Scope of symbol, LOCAL means the symbol's AST node is declared within the local execution
@@ -19,10 +19,12 @@
 
 package jolie.lang.parse.module;
 
+import java.io.Serializable;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import jolie.lang.Constants;
 import jolie.lang.parse.ast.ImportableSymbol;
 import jolie.lang.parse.ast.ServiceNode;
 import jolie.lang.parse.ast.ImportableSymbol.AccessModifier;
@@ -33,7 +35,9 @@ import jolie.lang.parse.module.exceptions.DuplicateSymbolException;
 /**
  * A class represent the Symbol table of a Jolie module
  */
-public class SymbolTable {
+public class SymbolTable implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
 	/**
 	 * Symbol target source
 	 */
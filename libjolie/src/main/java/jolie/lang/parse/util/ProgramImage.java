@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2026 The Jolie Programming Language contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package jolie.lang.parse.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import jolie.lang.Constants;
+import jolie.lang.parse.CorrelationFunctionInfo;
+import jolie.lang.parse.SemanticVerifier;
+import jolie.lang.parse.ast.Program;
+import jolie.lang.parse.module.SymbolTable;
+
+/**
+ * A program that has passed semantic verification, together with the results of the verification
+ * that the interpreter needs to run it. An interpreter that loads an image skips parsing and
+ * verification.
+ *
+ * An image starts with a header (magic number, format version, the Jolie version that wrote it, the
+ * execution target and whether the program was type checked), followed by the compressed
+ * serialization of its contents. Images are read only by the Jolie version that wrote them, since
+ * the serialized form of the AST is not stable across versions.
+ */
+public class ProgramImage {
+	private static final byte[] MAGIC = { 'J', 'O', 'L', 'I', 'E', 'I', 'M', 'G' };
+	private static final int FORMAT_VERSION = 2;
+
+	private final Program program;
+	private final Map< URI, SymbolTable > symbolTables;
+	private final Map< String, Boolean > constantFlags;
+	private final CorrelationFunctionInfo correlationFunctionInfo;
+	private final String executionTarget;
+	private final boolean typeChecked;
+
+	private ProgramImage( Program program, Map< URI, SymbolTable > symbolTables, Map< String, Boolean > constantFlags,
+		CorrelationFunctionInfo correlationFunctionInfo, String executionTarget, boolean typeChecked ) {
+		this.program = program;
+		this.symbolTables = symbolTables;
+		this.constantFlags = constantFlags;
+		this.correlationFunctionInfo = correlationFunctionInfo;
+		this.executionTarget = executionTarget;
+		this.typeChecked = typeChecked;
+	}
+
+	/**
+	 * Creates the image of a program.
+	 *
+	 * @param program the program
+	 * @param verifier a verifier that has validated the program
+	 * @param executionTarget the service selected for execution, or {@code null}
+	 * @param typeChecked whether the program has also passed type checking
+	 */
+	public ProgramImage( Program program, SemanticVerifier verifier, String executionTarget, boolean typeChecked ) {
+		this( program, new HashMap<>( verifier.symbolTables() ), new HashMap<>( verifier.constantFlags() ),
+			verifier.correlationFunctionInfo(), executionTarget, typeChecked );
+	}
+
+	public Program program() {
+		return program;
+	}
+
+	public Map< URI, SymbolTable > symbolTables() {
+		return symbolTables;
+	}
+
+	public Map< String, Boolean > constantFlags() {
+		return constantFlags;
+	}
+
+	public CorrelationFunctionInfo correlationFunctionInfo() {
+		return correlationFunctionInfo;
+	}
+
+	/**
+	 * Returns the service that was selected for execution when the program was verified, or
+	 * {@code null} if none was.
+	 */
+	public String executionTarget() {
+		return executionTarget;
+	}
+
+	/**
+	 * Returns whether the program passed type checking when it was compiled.
+	 */
+	public boolean typeChecked() {
+		return typeChecked;
+	}
+
+	public void writeTo( OutputStream ostream )
+		throws IOException {
+		DataOutputStream header = new DataOutputStream( ostream );
+		header.write( MAGIC );
+		header.writeInt( FORMAT_VERSION );
+		header.writeUTF( Constants.VERSION );
+		header.writeBoolean( executionTarget != null );
+		if( executionTarget != null ) {
+			header.writeUTF( executionTarget );
+		}
+		header.writeBoolean( typeChecked );
+		header.flush();
+
+		DeflaterOutputStream deflater =
+			new DeflaterOutputStream( ostream, new Deflater( Deflater.BEST_SPEED ), 1 << 16 );
+		ObjectOutputStream oos = new ObjectOutputStream( deflater );
+		oos.writeObject( program );
+		oos.writeObject( symbolTables );
+		oos.writeObject( constantFlags );
+		oos.writeObject( correlationFunctionInfo );
+		oos.flush();
+		deflater.finish();
+		ostream.flush();
+	}
+
+	/**
+	 * Returns whether a stream starts with the header of an image, without consuming it.
+	 *
+	 * @param istream a stream that supports {@link InputStream#mark(int)}
+	 */
+	public static boolean isImage( InputStream istream )
+		throws IOException {
+		istream.mark( MAGIC.length );
+		byte[] magic = istream.readNBytes( MAGIC.length );
+		istream.reset();
+		return Arrays.equals( magic, MAGIC );
+	}
+
+	public static ProgramImage readFrom( InputStream istream )
+		throws IOException {
+		DataInputStream header = new DataInputStream( istream );
+		byte[] magic = new byte[ MAGIC.length ];
+		header.readFully( magic );
+		if( !Arrays.equals( magic, MAGIC ) ) {
+			throw new IOException( "Not a Jolie program image" );
+		}
+		int formatVersion = header.readInt();
+		String jolieVersion = header.readUTF();
+		if( formatVersion != FORMAT_VERSION || !jolieVersion.equals( Constants.VERSION ) ) {
+			throw new IOException( "The program image was compiled by Jolie " + jolieVersion
+				+ " and cannot be run by Jolie " + Constants.VERSION + ", compile it again" );
+		}
+		String executionTarget = header.readBoolean() ? header.readUTF() : null;
+		boolean typeChecked = header.readBoolean();
+
+		ObjectInputStream ois =
+			new ObjectInputStream( new BufferedInputStream( new InflaterInputStream( istream ), 1 << 16 ) );
+		try {
+			Program program = (Program) ois.readObject();
+			@SuppressWarnings( "unchecked" )
+			Map< URI, SymbolTable > symbolTables = (Map< URI, SymbolTable >) ois.readObject();
+			@SuppressWarnings( "unchecked" )
+			Map< String, Boolean > constantFlags = (Map< String, Boolean >) ois.readObject();
+			CorrelationFunctionInfo correlationFunctionInfo = (CorrelationFunctionInfo) ois.readObject();
+			return new ProgramImage( program, symbolTables, constantFlags, correlationFunctionInfo,
+				executionTarget, typeChecked );
+		} catch( ClassNotFoundException | ClassCastException e ) {
+			throw new IOException( "Malformed program image", e );
+		}
+	}
+}
@@ -21,17 +21,21 @@
 
 package jolie.util;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import jolie.lang.Constants;
 
 /**
  *
  * @author Fabrizio Montesi
  */
-public abstract class MultiMap< K, V > {
+public abstract class MultiMap< K, V > implements Serializable {
+	private static final long serialVersionUID = Constants.serialVersionUID();
+
 	private final Map< K, Collection< V > > map = new HashMap<>();
 
 	protected abstract Collection< V > createCollection();
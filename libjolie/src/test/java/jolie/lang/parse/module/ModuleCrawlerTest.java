@@ -0,0 +1,76 @@
+package jolie.lang.parse.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import jolie.lang.parse.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ModuleCrawlerTest {
+
+	private static final int MODULES = 64;
+
+	@TempDir
+	Path directory;
+
+	private final ModuleParsingConfiguration configuration = new ModuleParsingConfiguration(
+		StandardCharsets.UTF_8.name(), new String[ 0 ], new String[ 0 ], ModuleCrawlerTest.class.getClassLoader(),
+		Map.of(), false, false );
+
+	/**
+	 * Writes modules m0 ... m{MODULES - 1}, where module i imports the modules 2i + 1 and 2i + 2, and a
+	 * main module importing m0. Modules in {@code broken} have a syntax error.
+	 */
+	private URI writeModules( List< Integer > broken ) throws IOException {
+		for( int i = 0; i < MODULES; i++ ) {
+			StringBuilder b = new StringBuilder();
+			for( int imported : new int[] { 2 * i + 1, 2 * i + 2 } ) {
+				if( imported < MODULES ) {
+					b.append( "from .m" ).append( imported ).append( " import T" ).append( imported ).append( "\n" );
+				}
+			}
+			b.append( "type T" ).append( i ).append( broken.contains( i ) ? " {\n" : ": string\n" );
+			Files.writeString( directory.resolve( "m" + i + ".ol" ), b.toString() );
+		}
+		Path main = directory.resolve( "main.ol" );
+		Files.writeString( main, "from .m0 import T0\n" );
+		return main.toUri();
+	}
+
+	private ModuleCrawler.CrawlerResult crawl( URI main ) throws Exception {
+		ModuleRecord mainRecord = new ModuleParser( configuration ).parse( ModuleSource.create( main ) );
+		return ModuleCrawler.crawl( mainRecord, configuration, new ModuleFinderImpl( new String[ 0 ] ) );
+	}
+
+	@Test
+	void testCrawlsInImportOrder() throws Exception {
+		URI main = writeModules( List.of() );
+		List< URI > expected = new ArrayList<>();
+		expected.add( main );
+		for( int i = 0; i < MODULES; i++ ) {
+			expected.add( directory.resolve( "m" + i + ".ol" ).toUri() );
+		}
+		for( int run = 0; run < 10; run++ ) {
+			assertEquals( expected, new ArrayList<>( crawl( main ).toMap().keySet() ) );
+		}
+	}
+
+	@Test
+	void testReportsTheFirstErrorInImportOrder() throws Exception {
+		// Breadth-first, m5 (imported by m2) comes before m7 and m8 (imported by m3)
+		URI main = writeModules( List.of( 8, 7, 5, 40 ) );
+		for( int run = 0; run < 10; run++ ) {
+			ParserException e = assertThrows( ParserException.class, () -> crawl( main ) );
+			assertTrue( e.getMessage().contains( "m5.ol" ), e.getMessage() );
+		}
+	}
+}
@@ -21,23 +21,28 @@
 
 package jolie.compiler;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.List;
 import jolie.cli.CommandLineException;
 import jolie.cli.CommandLineParser;
 import jolie.JolieURLStreamHandlerFactory;
 import jolie.Interpreter.Configuration;
 import jolie.lang.CodeCheckException;
+import jolie.lang.CodeCheckMessage;
 import jolie.lang.parse.ParserException;
-import jolie.lang.parse.ast.Program;
+import jolie.lang.parse.SemanticVerifier;
+import jolie.lang.parse.TypeChecker;
 import jolie.lang.parse.module.ModuleException;
-import jolie.lang.parse.util.ParsingUtils;
+import jolie.lang.parse.module.ModuleParsingConfiguration;
+import jolie.lang.parse.module.Modules;
+import jolie.lang.parse.util.ProgramImage;
 
 /**
- *
- * @author Fabrizio Montesi
+ * Compiles a program to a {@link ProgramImage}, which the interpreter runs without parsing and
+ * verifying the program again.
  */
 public class Compiler {
 	private final Configuration cmdConfig;
@@ -55,26 +60,40 @@ public class Compiler {
 
 	public void compile( OutputStream ostream )
 		throws IOException, ParserException, CodeCheckException, CommandLineException, ModuleException {
-		Program program = ParsingUtils.parseProgram(
-			cmdConfig.source(),
-			cmdConfig.charset(),
-			cmdConfig.includePaths(),
-			cmdConfig.packagePaths(),
-			cmdConfig.jolieClassLoader(),
-			cmdConfig.constants(),
-			cmdConfig.executionTarget(),
-			false );
-		// GZIPOutputStream gzipstream = new GZIPOutputStream( ostream );
-		ObjectOutputStream oos = new ObjectOutputStream( ostream );
-		oos.writeObject( program );
-		ostream.flush();
-		// gzipstream.close();
+		// The same configuration used by the interpreter when it runs a source file
+		Modules.ModuleParsedResult parsedResult = Modules.parseModule(
+			new ModuleParsingConfiguration(
+				cmdConfig.charset(),
+				cmdConfig.includePaths(),
+				cmdConfig.packagePaths(),
+				cmdConfig.jolieClassLoader(),
+				cmdConfig.constants(),
+				false,
+				false ),
+			cmdConfig.source() );
+		SemanticVerifier verifier = new SemanticVerifier(
+			parsedResult.mainProgram(),
+			parsedResult.symbolTables(),
+			new SemanticVerifier.Configuration( cmdConfig.executionTarget() ) );
+		verifier.validate();
+		if( cmdConfig.typeCheck() ) {
+			TypeChecker typeChecker = new TypeChecker(
+				parsedResult.mainProgram(),
+				verifier.executionMode(),
+				verifier.correlationFunctionInfo() );
+			if( !typeChecker.check() ) {
+				throw new CodeCheckException( List.of(
+					CodeCheckMessage.buildWithoutHelp( parsedResult.mainProgram(), "Type checking failed" ) ) );
+			}
+		}
+		new ProgramImage( parsedResult.mainProgram(), verifier, cmdConfig.executionTarget(), cmdConfig.typeCheck() )
+			.writeTo( ostream );
 	}
 
 	public void compile()
 		throws IOException, ParserException, CodeCheckException, CommandLineException, ModuleException {
 		try( OutputStream os =
-			new FileOutputStream( cmdConfig.source().uri().getPath() + "c" ) ) {
+			new BufferedOutputStream( new FileOutputStream( cmdConfig.source().uri().getPath() + "c" ) ) ) {
 			compile( os );
 		}
 	}